@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.benchmarks;
+
+import quickfix.Message;
+import quickfix.SessionID;
+import quickfix.field.MDEntryPx;
+import quickfix.field.MDEntrySize;
+import quickfix.field.MDEntryType;
+import quickfix.field.MDReqID;
+import quickfix.field.MarketDepth;
+import quickfix.field.SubscriptionRequestType;
+import quickfix.field.Symbol;
+import quickfix.fix44.MarketDataRequest;
+import quickfix.fix44.MarketDataSnapshotFullRefresh;
+
+/**
+ * The FIX messages the benchmarks are run with: market data requests, and their snapshots of varying size.
+ */
+final class BenchmarkMessages {
+
+    static final SessionID SESSION_ID = new SessionID("FIX.4.4", "BENCHMARK", "COUNTERPARTY");
+
+    private BenchmarkMessages() {
+    }
+
+    static String reqId(int index) {
+        return "REQ-" + index;
+    }
+
+    static Message request(int index) {
+        MarketDataRequest request = new MarketDataRequest(new MDReqID(reqId(index)),
+                new SubscriptionRequestType(SubscriptionRequestType.SNAPSHOT_UPDATES),
+                new MarketDepth(0));
+        MarketDataRequest.NoRelatedSym instrument = new MarketDataRequest.NoRelatedSym();
+        instrument.set(new Symbol("EUR/USD"));
+        request.addGroup(instrument);
+        return request;
+    }
+
+    /**
+     * @param index   the index of the request the snapshot is the response of.
+     * @param entries the number of MDEntries of the snapshot (the size of the message).
+     */
+    static Message snapshot(int index, int entries) {
+        MarketDataSnapshotFullRefresh snapshot = new MarketDataSnapshotFullRefresh();
+        snapshot.set(new MDReqID(reqId(index)));
+        snapshot.set(new Symbol("EUR/USD"));
+        for (int i = 0; i < entries; i++) {
+            MarketDataSnapshotFullRefresh.NoMDEntries entry = new MarketDataSnapshotFullRefresh.NoMDEntries();
+            entry.set(new MDEntryType(i % 2 == 0 ? MDEntryType.BID : MDEntryType.OFFER));
+            entry.set(new MDEntryPx(1.1 + i * 0.0001));
+            entry.set(new MDEntrySize(1_000_000));
+            snapshot.addGroup(entry);
+        }
+        return snapshot;
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.benchmarks;
+
+import org.openjdk.jmh.Main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs the benchmarks with the standard JMH command line, writing the results as JSON in {@code jmh-result.json}
+ * unless specified otherwise (e.g. {@code -rf csv -rff results.csv}).
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        if (!arguments.contains("-rf")) {
+            arguments.addAll(Arrays.asList("-rf", "json"));
+        }
+        if (!arguments.contains("-rff")) {
+            arguments.addAll(Arrays.asList("-rff", "jmh-result.json"));
+        }
+        Main.main(arguments.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.benchmarks;
+
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.utils.FixMessageUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import quickfix.Message;
+import quickfix.field.MDEntryPx;
+import quickfix.field.MDEntryType;
+import quickfix.field.MDReqID;
+import quickfix.field.NoMDEntries;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Field extraction of {@link FixMessageUtils}, on messages of varying size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class FixMessageUtilsBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int entries;
+
+    private Message request;
+    private Message snapshot;
+    private final MDReqID mdReqID = new MDReqID();
+    private final MDEntryPx mdEntryPx = new MDEntryPx();
+    private final MDEntryType mdEntryType = new MDEntryType();
+
+    @Setup
+    public void setUp() {
+        request = BenchmarkMessages.request(0);
+        snapshot = BenchmarkMessages.snapshot(0, entries);
+    }
+
+    @Benchmark
+    public Optional<String> safeGetField() {
+        return FixMessageUtils.safeGetField(snapshot, mdReqID);
+    }
+
+    @Benchmark
+    public List<Double> safeGetDoubleFieldFromGroup() {
+        return FixMessageUtils.safeGetFieldFromGroup(snapshot, NoMDEntries.FIELD, mdEntryPx);
+    }
+
+    @Benchmark
+    public List<Character> safeGetCharFieldFromGroup() {
+        return FixMessageUtils.safeGetFieldFromGroup(snapshot, NoMDEntries.FIELD, mdEntryType);
+    }
+
+    @Benchmark
+    public Optional<String> safeGetIdForRequest() {
+        return FixMessageUtils.safeGetIdForRequest(request);
+    }
+
+    @Benchmark
+    public List<String> safeGetRefIdForResponse() {
+        return FixMessageUtils.safeGetRefIdForResponse(snapshot);
+    }
+}
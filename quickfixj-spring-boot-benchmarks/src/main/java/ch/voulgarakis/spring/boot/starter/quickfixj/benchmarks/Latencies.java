@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.benchmarks;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Latencies (in nanoseconds) and their percentiles.
+ */
+public class Latencies {
+
+    //Sorted
+    private final long[] latencies;
+
+    public Latencies(long[] latencies) {
+        this.latencies = latencies.clone();
+        Arrays.sort(this.latencies);
+    }
+
+    public int getCount() {
+        return latencies.length;
+    }
+
+    /**
+     * @param percentile the percentile, e.g. 99.9.
+     * @return the latency at the percentile.
+     */
+    public Duration getPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Invalid percentile: " + percentile);
+        }
+        if (latencies.length == 0) {
+            return Duration.ZERO;
+        }
+        int index = (int) Math.ceil(percentile / 100 * latencies.length) - 1;
+        return Duration.ofNanos(latencies[Math.max(index, 0)]);
+    }
+
+    public Duration getMax() {
+        return getPercentile(100);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("latency(us) p50=%d p90=%d p99=%d p99.9=%d max=%d",
+                micros(getPercentile(50)), micros(getPercentile(90)), micros(getPercentile(99)),
+                micros(getPercentile(99.9)), micros(getMax()));
+    }
+
+    private static long micros(Duration duration) {
+        return duration.toNanos() / 1000;
+    }
+
+    /**
+     * Records latencies, from any thread.
+     */
+    public static class Recorder {
+        private long[] latencies;
+        private int count;
+
+        public Recorder(int expectedCount) {
+            latencies = new long[Math.max(expectedCount, 16)];
+        }
+
+        public synchronized void record(long latency) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latency;
+        }
+
+        public synchronized Latencies toLatencies() {
+            return new Latencies(Arrays.copyOf(latencies, count));
+        }
+    }
+}
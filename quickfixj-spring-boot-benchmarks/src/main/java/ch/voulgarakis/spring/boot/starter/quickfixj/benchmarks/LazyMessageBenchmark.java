@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.benchmarks;
+
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.utils.LazyMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import quickfix.ConfigError;
+import quickfix.DataDictionary;
+import quickfix.FieldNotFound;
+import quickfix.InvalidMessage;
+import quickfix.Message;
+import quickfix.field.MDReqID;
+import quickfix.field.NoMDEntries;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link LazyMessage} against the full parsing of a {@link Message}, on market data snapshots of varying width.
+ * <p>
+ * Each benchmark reads the request id and the number of entries of the snapshot ({@code *Fields}), or all the entries
+ * ({@code *Groups}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class LazyMessageBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int entries;
+
+    private DataDictionary dataDictionary;
+    private String rawSnapshot;
+
+    @Setup
+    public void setUp() throws ConfigError {
+        dataDictionary = new DataDictionary("FIX44.xml");
+        rawSnapshot = BenchmarkMessages.snapshot(0, entries).toString();
+    }
+
+    @Benchmark
+    public int parseFields() throws InvalidMessage, FieldNotFound {
+        Message message = new Message(rawSnapshot, dataDictionary);
+        return message.getString(MDReqID.FIELD).length() + message.getInt(NoMDEntries.FIELD);
+    }
+
+    @Benchmark
+    public int lazyFields() throws FieldNotFound {
+        LazyMessage message = LazyMessage.of(rawSnapshot, dataDictionary);
+        return message.getString(MDReqID.FIELD).length() + message.getGroupCount(NoMDEntries.FIELD);
+    }
+
+    @Benchmark
+    public int parseGroups() throws InvalidMessage {
+        return new Message(rawSnapshot, dataDictionary).getGroups(NoMDEntries.FIELD).size();
+    }
+
+    @Benchmark
+    public int lazyGroups() {
+        return LazyMessage.of(rawSnapshot, dataDictionary).getGroups(NoMDEntries.FIELD).size();
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.benchmarks;
+
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.AbstractFixSession;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.utils.RefIdSelector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import quickfix.Message;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatching of a received message to the subscriptions of a session: the message is the response of exactly one
+ * of the subscribed requests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class NotifySubscribersBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    private int sinks;
+
+    @Param({"1", "10", "100"})
+    private int entries;
+
+    private BenchmarkFixSession session;
+    private Message message;
+
+    @Setup
+    public void setUp() {
+        session = new BenchmarkFixSession();
+        for (int i = 0; i < sinks; i++) {
+            session.subscribe(new RefIdSelector(BenchmarkMessages.request(i)));
+        }
+        message = BenchmarkMessages.snapshot(sinks / 2, entries);
+    }
+
+    @Benchmark
+    public long received() {
+        session.receive(message);
+        return session.getReceived();
+    }
+
+    static class BenchmarkFixSession extends AbstractFixSession {
+
+        private long received;
+
+        BenchmarkFixSession() {
+            super(BenchmarkMessages.SESSION_ID);
+        }
+
+        void subscribe(RefIdSelector selector) {
+            createSink(selector, message -> received++, error -> {
+            });
+        }
+
+        void receive(Message message) {
+            received(message);
+        }
+
+        long getReceived() {
+            return received;
+        }
+    }
+}
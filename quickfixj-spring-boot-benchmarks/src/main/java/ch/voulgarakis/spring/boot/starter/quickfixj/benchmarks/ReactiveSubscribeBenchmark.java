@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.benchmarks;
+
+import ch.voulgarakis.spring.boot.starter.quickfixj.flux.ReactiveFixSessionImpl;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.utils.RefIdSelector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import quickfix.Message;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The reactive session: subscribing (and cancelling) while other subscriptions are active, and receiving a message
+ * through the subscriptions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ReactiveSubscribeBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    private int sinks;
+
+    private final AtomicLong received = new AtomicLong();
+    private final Disposable.Composite subscriptions = Disposables.composite();
+    private BenchmarkReactiveFixSession session;
+    private RefIdSelector selector;
+    private Message message;
+
+    @Setup
+    public void setUp() {
+        session = new BenchmarkReactiveFixSession();
+        for (int i = 0; i < sinks; i++) {
+            subscriptions.add(session.subscribe(new RefIdSelector(BenchmarkMessages.request(i)))
+                    .subscribe(message -> received.incrementAndGet()));
+        }
+        selector = new RefIdSelector(BenchmarkMessages.request(sinks));
+        message = BenchmarkMessages.snapshot(sinks / 2, 10);
+    }
+
+    @TearDown
+    public void tearDown() {
+        subscriptions.dispose();
+    }
+
+    @Benchmark
+    public void subscribe() {
+        session.subscribe(selector).subscribe().dispose();
+    }
+
+    @Benchmark
+    public long received() {
+        session.receive(message);
+        return received.get();
+    }
+
+    static class BenchmarkReactiveFixSession extends ReactiveFixSessionImpl {
+
+        BenchmarkReactiveFixSession() {
+            super(BenchmarkMessages.SESSION_ID);
+        }
+
+        void receive(Message message) {
+            received(message);
+        }
+    }
+}
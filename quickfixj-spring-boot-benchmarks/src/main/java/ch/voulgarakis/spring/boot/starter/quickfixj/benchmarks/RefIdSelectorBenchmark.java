@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.benchmarks;
+
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.utils.RefIdSelector;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.utils.RoutingEnvelope;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import quickfix.Message;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matching of a response against the request of a subscription, with the routing fields extracted once per message
+ * (as when dispatching to many subscriptions), or per test.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RefIdSelectorBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int entries;
+
+    private RefIdSelector selector;
+    private Message matching;
+    private RoutingEnvelope matchingEnvelope;
+    private Message notMatching;
+    private RoutingEnvelope notMatchingEnvelope;
+
+    @Setup
+    public void setUp() {
+        selector = new RefIdSelector(BenchmarkMessages.request(0));
+        matching = BenchmarkMessages.snapshot(0, entries);
+        matchingEnvelope = RoutingEnvelope.of(matching);
+        notMatching = BenchmarkMessages.snapshot(1, entries);
+        notMatchingEnvelope = RoutingEnvelope.of(notMatching);
+    }
+
+    @Benchmark
+    public boolean testMatching() {
+        return selector.test(matchingEnvelope, matching);
+    }
+
+    @Benchmark
+    public boolean testNotMatching() {
+        return selector.test(notMatchingEnvelope, notMatching);
+    }
+
+    @Benchmark
+    public boolean testWithEnvelope() {
+        return selector.test(RoutingEnvelope.of(matching), matching);
+    }
+}
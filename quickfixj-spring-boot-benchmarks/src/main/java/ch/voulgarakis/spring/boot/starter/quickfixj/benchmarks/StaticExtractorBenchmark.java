@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.benchmarks;
+
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.utils.StaticExtractor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import quickfix.field.MsgType;
+import quickfix.field.SessionRejectReason;
+import quickfix.field.Side;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolution of the name of a field value (e.g. when logging or rendering messages): small and large field classes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class StaticExtractorBenchmark {
+
+    private final Side side = new Side(Side.SELL);
+    private final MsgType msgType = new MsgType(MsgType.MARKET_DATA_SNAPSHOT_FULL_REFRESH);
+    private final SessionRejectReason sessionRejectReason =
+            new SessionRejectReason(SessionRejectReason.VALUE_IS_INCORRECT);
+
+    @Benchmark
+    public String charFieldToText() {
+        return StaticExtractor.toText(side);
+    }
+
+    @Benchmark
+    public String stringFieldToText() {
+        return StaticExtractor.toText(msgType);
+    }
+
+    @Benchmark
+    public String intFieldToText() {
+        return StaticExtractor.toText(sessionRejectReason);
+    }
+}
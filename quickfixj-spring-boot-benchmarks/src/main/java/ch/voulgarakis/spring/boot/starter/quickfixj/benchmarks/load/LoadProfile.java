@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.benchmarks.load;
+
+import java.time.Duration;
+
+/**
+ * What the {@link LoopbackLoadGenerator} sends: the message mix, at a target rate, for a duration (after a warmup
+ * that is not reported).
+ */
+public class LoadProfile {
+
+    private static final Duration DEFAULT_RESPONSE_TIMEOUT = Duration.ofSeconds(10);
+
+    private final MessageMix messageMix;
+    private final int rate;
+    private final Duration duration;
+    private final Duration warmup;
+    private final Duration responseTimeout;
+
+    /**
+     * @param messageMix the requests to send.
+     * @param rate       the target rate, in requests per second.
+     * @param duration   how long to send requests for.
+     */
+    public LoadProfile(MessageMix messageMix, int rate, Duration duration) {
+        this(messageMix, rate, duration, Duration.ZERO, DEFAULT_RESPONSE_TIMEOUT);
+    }
+
+    /**
+     * @param messageMix      the requests to send.
+     * @param rate            the target rate, in requests per second.
+     * @param duration        how long to send requests for.
+     * @param warmup          how long to send requests for, before the reported run.
+     * @param responseTimeout how long to wait for the responses, once all the requests are sent.
+     */
+    public LoadProfile(MessageMix messageMix, int rate, Duration duration, Duration warmup,
+            Duration responseTimeout) {
+        if (rate <= 0) {
+            throw new IllegalArgumentException("Invalid rate (requests per second): " + rate);
+        }
+        this.messageMix = messageMix;
+        this.rate = rate;
+        this.duration = duration;
+        this.warmup = warmup;
+        this.responseTimeout = responseTimeout;
+    }
+
+    public LoadProfile withWarmup(Duration warmup) {
+        return new LoadProfile(messageMix, rate, duration, warmup, responseTimeout);
+    }
+
+    public MessageMix getMessageMix() {
+        return messageMix;
+    }
+
+    public int getRate() {
+        return rate;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public Duration getWarmup() {
+        return warmup;
+    }
+
+    public Duration getResponseTimeout() {
+        return responseTimeout;
+    }
+
+    @Override
+    public String toString() {
+        return "mix=" + messageMix + ", rate=" + rate + "/s, duration=" + duration + ", warmup=" + warmup;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.benchmarks.load;
+
+import ch.voulgarakis.spring.boot.starter.quickfixj.benchmarks.Latencies;
+
+import java.time.Duration;
+
+/**
+ * The outcome of a run of the {@link LoopbackLoadGenerator}: throughput and latency percentiles.
+ * <p>
+ * The latency of a request is measured from the time it was scheduled to be sent (not the time it was actually sent),
+ * until its first response is received: a stall of the session delays the requests that follow, and it is accounted
+ * for in their latency.
+ */
+public class LoadReport {
+
+    private final long sent;
+    private final long failed;
+    private final Duration elapsed;
+    private final Latencies latencies;
+
+    LoadReport(long sent, long failed, Duration elapsed, Latencies latencies) {
+        this.sent = sent;
+        this.failed = failed;
+        this.elapsed = elapsed;
+        this.latencies = latencies;
+    }
+
+    public long getSent() {
+        return sent;
+    }
+
+    /**
+     * @return the number of requests that received a response.
+     */
+    public long getResponded() {
+        return latencies.getCount();
+    }
+
+    /**
+     * @return the number of requests that failed, or timed out.
+     */
+    public long getFailed() {
+        return failed;
+    }
+
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * @return the responses received per second.
+     */
+    public double getThroughput() {
+        return elapsed.isZero() ? 0 : latencies.getCount() * 1e9 / elapsed.toNanos();
+    }
+
+    /**
+     * @param percentile the percentile, e.g. 99.9.
+     * @return the latency (to the first response) of the requests at the percentile.
+     */
+    public Duration getLatency(double percentile) {
+        return latencies.getPercentile(percentile);
+    }
+
+    public Duration getMaxLatency() {
+        return latencies.getMax();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("sent=%d, responded=%d, failed=%d, elapsed=%s, throughput=%.1f/s, %s",
+                sent, getResponded(), failed, elapsed, getThroughput(), latencies);
+    }
+}
@@ -0,0 +1,314 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.benchmarks.load;
+
+import ch.voulgarakis.spring.boot.starter.quickfixj.benchmarks.Latencies;
+import ch.voulgarakis.spring.boot.starter.quickfixj.exception.QuickFixJConfigurationException;
+import ch.voulgarakis.spring.boot.starter.quickfixj.exception.QuickFixJException;
+import ch.voulgarakis.spring.boot.starter.quickfixj.fix.session.FixSessionImpl;
+import ch.voulgarakis.spring.boot.starter.quickfixj.flux.ReactiveFixSessionImpl;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.AbstractFixSession;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.FixConnectionType;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.FixSessionManager;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.logging.LoggingId;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.utils.StartupLatch;
+import quickfix.CompositeLogFactory;
+import quickfix.ConfigError;
+import quickfix.DefaultMessageFactory;
+import quickfix.FixVersions;
+import quickfix.LogFactory;
+import quickfix.MemoryStoreFactory;
+import quickfix.Message;
+import quickfix.SessionID;
+import quickfix.SessionSettings;
+import quickfix.SocketAcceptor;
+import quickfix.SocketInitiator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load generator running both sides of a FIX connection in the same JVM, over localhost sockets: an initiator
+ * session of the starter ({@link FixSessionImpl} or {@link ReactiveFixSessionImpl}, managed by a
+ * {@link FixSessionManager}) sends requests at a target rate to an acceptor that answers each of them.
+ * <pre>
+ * try (LoopbackLoadGenerator generator = LoopbackLoadGenerator.imperative()) {
+ *     generator.start(Duration.ofSeconds(10));
+ *     LoadReport report = generator.run(new LoadProfile(MessageMix.of(1, 1, 1), 1000, Duration.ofSeconds(30)));
+ * }
+ * </pre>
+ * Requests are sent open-loop (the schedule does not wait for the responses), see {@link LoadReport} for the
+ * latency measurement.
+ */
+public class LoopbackLoadGenerator implements Closeable {
+
+    static final SessionID ACCEPTOR_SESSION_ID =
+            new SessionID(FixVersions.BEGINSTRING_FIX44, "LOAD_ACCEPTOR", "LOAD_INITIATOR");
+    static final SessionID INITIATOR_SESSION_ID =
+            new SessionID(FixVersions.BEGINSTRING_FIX44, "LOAD_INITIATOR", "LOAD_ACCEPTOR");
+
+    private static final long SPIN_THRESHOLD_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final AbstractFixSession fixSession;
+    private final RequestDriver requestDriver;
+    private final SocketAcceptor acceptor;
+    private final SocketInitiator initiator;
+    private final AtomicLong sequence = new AtomicLong();
+
+    private LoopbackLoadGenerator(AbstractFixSession fixSession, RequestDriver requestDriver) {
+        this.fixSession = fixSession;
+        this.requestDriver = requestDriver;
+        try {
+            SessionSettings settings = settings(freePort());
+            LogFactory noLogs = new CompositeLogFactory(new LogFactory[0]);
+            acceptor = new SocketAcceptor(new LoopbackResponder(), new MemoryStoreFactory(), settings, noLogs,
+                    new DefaultMessageFactory());
+            FixSessionManager fixSessionManager = new FixSessionManager(
+                    Collections.singletonMap(INITIATOR_SESSION_ID, fixSession), FixConnectionType.INITIATOR,
+                    new StartupLatch(1, FixConnectionType.INITIATOR, null), new LoggingId(),
+                    //The responder does not authenticate the logon
+                    (sessionID, logon) -> {
+                    });
+            initiator = new SocketInitiator(fixSessionManager, new MemoryStoreFactory(), settings, noLogs,
+                    new DefaultMessageFactory());
+        } catch (ConfigError e) {
+            throw new QuickFixJConfigurationException("Failed to create the loopback sessions", e);
+        }
+    }
+
+    /**
+     * @return a load generator sending the requests through a {@link FixSessionImpl}.
+     */
+    public static LoopbackLoadGenerator imperative() {
+        FixSessionImpl fixSession = new FixSessionImpl(INITIATOR_SESSION_ID);
+        return new LoopbackLoadGenerator(fixSession, RequestDriver.of(fixSession));
+    }
+
+    /**
+     * @return a load generator sending the requests through a {@link ReactiveFixSessionImpl}.
+     */
+    public static LoopbackLoadGenerator reactive() {
+        ReactiveFixSessionImpl fixSession = new ReactiveFixSessionImpl(INITIATOR_SESSION_ID);
+        return new LoopbackLoadGenerator(fixSession, RequestDriver.of(fixSession));
+    }
+
+    private static SessionSettings settings(int port) {
+        SessionSettings settings = new SessionSettings();
+        settings.setString("StartTime", "00:00:00");
+        settings.setString("EndTime", "00:00:00");
+        settings.setString("HeartBtInt", "30");
+        settings.setString("ReconnectInterval", "1");
+        settings.setString("ResetOnLogon", "Y");
+        settings.setString("SocketTcpNoDelay", "Y");
+
+        settings.setString(ACCEPTOR_SESSION_ID, "ConnectionType", "acceptor");
+        settings.setString(ACCEPTOR_SESSION_ID, "SocketAcceptPort", Integer.toString(port));
+
+        settings.setString(INITIATOR_SESSION_ID, "ConnectionType", "initiator");
+        settings.setString(INITIATOR_SESSION_ID, "SocketConnectHost", "localhost");
+        settings.setString(INITIATOR_SESSION_ID, "SocketConnectPort", Integer.toString(port));
+        return settings;
+    }
+
+    private static int freePort() {
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            return serverSocket.getLocalPort();
+        } catch (IOException e) {
+            throw new QuickFixJException("Failed to find a free port for the loopback sessions", e);
+        }
+    }
+
+    /**
+     * Start the acceptor and the initiator, and wait until the initiator is logged on.
+     *
+     * @param timeout how long to wait for the logon.
+     */
+    public void start(Duration timeout) {
+        try {
+            acceptor.start();
+            initiator.start();
+        } catch (ConfigError e) {
+            throw new QuickFixJConfigurationException("Failed to start the loopback sessions", e);
+        }
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!fixSession.isLoggedOn()) {
+            if (System.nanoTime() > deadline) {
+                throw new QuickFixJException("Loopback session not logged on after " + timeout);
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+    }
+
+    /**
+     * Send the requests of the profile (after the warmup), and wait for their responses.
+     *
+     * @param profile what to send.
+     * @return the throughput and latencies of the requests (excluding the warmup).
+     */
+    public LoadReport run(LoadProfile profile) {
+        if (!profile.getWarmup().isZero()) {
+            run(profile, profile.getWarmup());
+        }
+        return run(profile, profile.getDuration());
+    }
+
+    private LoadReport run(LoadProfile profile, Duration duration) {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / profile.getRate();
+        long requests = Math.max(duration.toNanos() / intervalNanos, 1);
+        Run run = new Run(requests);
+
+        long start = System.nanoTime();
+        for (long i = 0; i < requests; i++) {
+            long scheduled = start + i * intervalNanos;
+            waitUntil(scheduled);
+            Message request = profile.getMessageMix().next(sequence.getAndIncrement());
+            run.send(request, scheduled);
+        }
+
+        //Wait for the responses of the last requests
+        long deadline = System.nanoTime() + profile.getResponseTimeout().toNanos();
+        while (!run.outstanding.isEmpty() && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        run.outstanding.forEach(PendingRequest::timedOut);
+        return new LoadReport(requests, run.failed.get(), elapsed, run.latencies.toLatencies());
+    }
+
+    private static void waitUntil(long nanoTime) {
+        long remaining;
+        while ((remaining = nanoTime - System.nanoTime()) > 0) {
+            if (remaining > SPIN_THRESHOLD_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        initiator.stop();
+        acceptor.stop();
+    }
+
+    /**
+     * Usage: {@code LoopbackLoadGenerator [rate] [seconds] [rfq:marketData:orders] [imperative|reactive]}
+     */
+    public static void main(String[] args) {
+        int rate = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        Duration duration = Duration.ofSeconds(args.length > 1 ? Long.parseLong(args[1]) : 30);
+        MessageMix messageMix = MessageMix.parse(args.length > 2 ? args[2] : "1:1:1");
+        boolean reactive = args.length > 3 && "reactive".equalsIgnoreCase(args[3]);
+
+        LoadProfile profile = new LoadProfile(messageMix, rate, duration).withWarmup(Duration.ofSeconds(5));
+        try (LoopbackLoadGenerator generator = reactive ? reactive() : imperative()) {
+            generator.start(Duration.ofSeconds(30));
+            System.out.println(profile);
+            System.out.println(generator.run(profile));
+        }
+    }
+
+    //--------------------------------------------------
+    //-----------------------RUN------------------------
+    //--------------------------------------------------
+
+    private class Run {
+        private final Set<PendingRequest> outstanding = ConcurrentHashMap.newKeySet();
+        private final AtomicLong failed = new AtomicLong();
+        private final Latencies.Recorder latencies;
+
+        private Run(long requests) {
+            latencies = new Latencies.Recorder((int) Math.min(requests, Integer.MAX_VALUE - 8));
+        }
+
+        private void send(Message request, long scheduled) {
+            PendingRequest pendingRequest = new PendingRequest(this, scheduled);
+            outstanding.add(pendingRequest);
+            try {
+                pendingRequest.subscribed(requestDriver.request(request, pendingRequest::responded,
+                        pendingRequest::failed));
+            } catch (RuntimeException e) {
+                pendingRequest.failed(e);
+            }
+        }
+    }
+
+    private static class PendingRequest {
+        private final Run run;
+        private final long scheduled;
+        private final AtomicBoolean done = new AtomicBoolean();
+        private volatile AutoCloseable subscription;
+
+        private PendingRequest(Run run, long scheduled) {
+            this.run = run;
+            this.scheduled = scheduled;
+        }
+
+        private void responded(Message response) {
+            if (done.compareAndSet(false, true)) {
+                run.latencies.record(System.nanoTime() - scheduled);
+                complete();
+            }
+        }
+
+        private void failed(Throwable error) {
+            if (done.compareAndSet(false, true)) {
+                run.failed.incrementAndGet();
+                complete();
+            }
+        }
+
+        private void timedOut() {
+            failed(null);
+        }
+
+        private void subscribed(AutoCloseable subscription) {
+            this.subscription = subscription;
+            //The response might have been received already
+            if (done.get()) {
+                unsubscribe();
+            }
+        }
+
+        private void complete() {
+            run.outstanding.remove(this);
+            unsubscribe();
+        }
+
+        private void unsubscribe() {
+            AutoCloseable autoCloseable = subscription;
+            if (autoCloseable != null) {
+                try {
+                    autoCloseable.close();
+                } catch (Exception e) {
+                    //Nothing more expected from the subscription
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.benchmarks.load;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import quickfix.ApplicationAdapter;
+import quickfix.FieldNotFound;
+import quickfix.Message;
+import quickfix.Session;
+import quickfix.SessionID;
+import quickfix.SessionNotFound;
+import quickfix.field.AvgPx;
+import quickfix.field.BidPx;
+import quickfix.field.ClOrdID;
+import quickfix.field.CumQty;
+import quickfix.field.ExecID;
+import quickfix.field.ExecType;
+import quickfix.field.LeavesQty;
+import quickfix.field.MDEntryPx;
+import quickfix.field.MDEntrySize;
+import quickfix.field.MDEntryType;
+import quickfix.field.MDReqID;
+import quickfix.field.MsgType;
+import quickfix.field.OfferPx;
+import quickfix.field.OrdStatus;
+import quickfix.field.OrderID;
+import quickfix.field.OrderQty;
+import quickfix.field.QuoteID;
+import quickfix.field.QuoteReqID;
+import quickfix.field.Side;
+import quickfix.field.Symbol;
+import quickfix.fix44.ExecutionReport;
+import quickfix.fix44.MarketDataSnapshotFullRefresh;
+import quickfix.fix44.Quote;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The counterparty of the {@link LoopbackLoadGenerator}: answers every request with a single response (a quote, a
+ * market data snapshot, or the execution report of the new order).
+ */
+class LoopbackResponder extends ApplicationAdapter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LoopbackResponder.class);
+
+    private static final String SYMBOL = "EUR/USD";
+
+    private final AtomicLong ids = new AtomicLong();
+
+    @Override
+    public void fromApp(Message message, SessionID sessionId) {
+        try {
+            Message response = respond(message);
+            if (response != null) {
+                Session.sendToTarget(response, sessionId);
+            }
+        } catch (FieldNotFound | SessionNotFound e) {
+            LOG.error("Failed to respond to message: {}", message, e);
+        }
+    }
+
+    private Message respond(Message request) throws FieldNotFound {
+        switch (request.getHeader().getString(MsgType.FIELD)) {
+            case MsgType.QUOTE_REQUEST:
+                Quote quote = new Quote(new QuoteID("Q-" + ids.incrementAndGet()));
+                quote.set(new QuoteReqID(request.getString(QuoteReqID.FIELD)));
+                quote.set(new Symbol(SYMBOL));
+                quote.set(new BidPx(1.1));
+                quote.set(new OfferPx(1.1001));
+                return quote;
+            case MsgType.MARKET_DATA_REQUEST:
+                MarketDataSnapshotFullRefresh snapshot = new MarketDataSnapshotFullRefresh();
+                snapshot.set(new MDReqID(request.getString(MDReqID.FIELD)));
+                snapshot.set(new Symbol(SYMBOL));
+                snapshot.addGroup(entry(MDEntryType.BID, 1.1));
+                snapshot.addGroup(entry(MDEntryType.OFFER, 1.1001));
+                return snapshot;
+            case MsgType.ORDER_SINGLE:
+                String id = Long.toString(ids.incrementAndGet());
+                ExecutionReport executionReport = new ExecutionReport(new OrderID("O-" + id),
+                        new ExecID("E-" + id), new ExecType(ExecType.NEW), new OrdStatus(OrdStatus.NEW),
+                        new Side(request.getChar(Side.FIELD)), new LeavesQty(request.getDouble(OrderQty.FIELD)),
+                        new CumQty(0), new AvgPx(0));
+                executionReport.set(new ClOrdID(request.getString(ClOrdID.FIELD)));
+                executionReport.set(new Symbol(SYMBOL));
+                return executionReport;
+            default:
+                LOG.warn("No response for message: {}", request);
+                return null;
+        }
+    }
+
+    private static MarketDataSnapshotFullRefresh.NoMDEntries entry(char type, double price) {
+        MarketDataSnapshotFullRefresh.NoMDEntries entry = new MarketDataSnapshotFullRefresh.NoMDEntries();
+        entry.set(new MDEntryType(type));
+        entry.set(new MDEntryPx(price));
+        entry.set(new MDEntrySize(1_000_000));
+        return entry;
+    }
+}
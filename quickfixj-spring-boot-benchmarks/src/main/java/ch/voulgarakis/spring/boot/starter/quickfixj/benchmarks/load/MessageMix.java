@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.benchmarks.load;
+
+import quickfix.Message;
+import quickfix.field.ClOrdID;
+import quickfix.field.MDEntryType;
+import quickfix.field.MDReqID;
+import quickfix.field.MarketDepth;
+import quickfix.field.OrdType;
+import quickfix.field.OrderQty;
+import quickfix.field.Price;
+import quickfix.field.QuoteReqID;
+import quickfix.field.Side;
+import quickfix.field.SubscriptionRequestType;
+import quickfix.field.Symbol;
+import quickfix.field.TransactTime;
+import quickfix.fix44.MarketDataRequest;
+import quickfix.fix44.NewOrderSingle;
+import quickfix.fix44.QuoteRequest;
+
+/**
+ * The requests sent by the {@link LoopbackLoadGenerator}: quote requests (RFQ), market data requests and orders,
+ * interleaved according to their weights, e.g. {@code MessageMix.of(2, 1, 1)} sends 2 RFQs for every market data
+ * request and order.
+ */
+public class MessageMix {
+
+    private static final String SYMBOL = "EUR/USD";
+
+    private final int rfqWeight;
+    private final int marketDataWeight;
+    private final int orderWeight;
+
+    private MessageMix(int rfqWeight, int marketDataWeight, int orderWeight) {
+        if (rfqWeight < 0 || marketDataWeight < 0 || orderWeight < 0
+                || rfqWeight + marketDataWeight + orderWeight == 0) {
+            throw new IllegalArgumentException("Invalid message mix (weights must be positive, and not all zero): "
+                    + rfqWeight + ":" + marketDataWeight + ":" + orderWeight);
+        }
+        this.rfqWeight = rfqWeight;
+        this.marketDataWeight = marketDataWeight;
+        this.orderWeight = orderWeight;
+    }
+
+    public static MessageMix of(int rfqWeight, int marketDataWeight, int orderWeight) {
+        return new MessageMix(rfqWeight, marketDataWeight, orderWeight);
+    }
+
+    /**
+     * @param mix the weights as {@code rfq:marketData:orders}, e.g. {@code 2:1:1}.
+     */
+    public static MessageMix parse(String mix) {
+        String[] weights = mix.split(":");
+        if (weights.length != 3) {
+            throw new IllegalArgumentException("Invalid message mix (expected rfq:marketData:orders): " + mix);
+        }
+        return of(Integer.parseInt(weights[0].trim()), Integer.parseInt(weights[1].trim()),
+                Integer.parseInt(weights[2].trim()));
+    }
+
+    /**
+     * @param sequence the sequence number of the request, unique per load generator.
+     * @return the request: the same sequence always gives the same type of request.
+     */
+    public Message next(long sequence) {
+        long position = sequence % (rfqWeight + marketDataWeight + orderWeight);
+        if (position < rfqWeight) {
+            return quoteRequest("RFQ-" + sequence);
+        } else if (position < rfqWeight + marketDataWeight) {
+            return marketDataRequest("MD-" + sequence);
+        } else {
+            return newOrderSingle("ORD-" + sequence);
+        }
+    }
+
+    static Message quoteRequest(String quoteReqId) {
+        QuoteRequest quoteRequest = new QuoteRequest(new QuoteReqID(quoteReqId));
+        QuoteRequest.NoRelatedSym instrument = new QuoteRequest.NoRelatedSym();
+        instrument.set(new Symbol(SYMBOL));
+        instrument.set(new OrderQty(1_000_000));
+        quoteRequest.addGroup(instrument);
+        return quoteRequest;
+    }
+
+    static Message marketDataRequest(String mdReqId) {
+        MarketDataRequest marketDataRequest = new MarketDataRequest(new MDReqID(mdReqId),
+                new SubscriptionRequestType(SubscriptionRequestType.SNAPSHOT),
+                new MarketDepth(1));
+        MarketDataRequest.NoMDEntryTypes bid = new MarketDataRequest.NoMDEntryTypes();
+        bid.set(new MDEntryType(MDEntryType.BID));
+        marketDataRequest.addGroup(bid);
+        MarketDataRequest.NoMDEntryTypes offer = new MarketDataRequest.NoMDEntryTypes();
+        offer.set(new MDEntryType(MDEntryType.OFFER));
+        marketDataRequest.addGroup(offer);
+        MarketDataRequest.NoRelatedSym instrument = new MarketDataRequest.NoRelatedSym();
+        instrument.set(new Symbol(SYMBOL));
+        marketDataRequest.addGroup(instrument);
+        return marketDataRequest;
+    }
+
+    static Message newOrderSingle(String clOrdId) {
+        NewOrderSingle order = new NewOrderSingle(new ClOrdID(clOrdId), new Side(Side.BUY), new TransactTime(),
+                new OrdType(OrdType.LIMIT));
+        order.set(new Symbol(SYMBOL));
+        order.set(new OrderQty(1_000_000));
+        order.set(new Price(1.1));
+        return order;
+    }
+
+    @Override
+    public String toString() {
+        return rfqWeight + ":" + marketDataWeight + ":" + orderWeight;
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.benchmarks.load;
+
+import ch.voulgarakis.spring.boot.starter.quickfixj.fix.session.Disposable;
+import ch.voulgarakis.spring.boot.starter.quickfixj.fix.session.FixSession;
+import ch.voulgarakis.spring.boot.starter.quickfixj.flux.ReactiveFixSession;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.utils.RefIdSelector;
+import quickfix.Message;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Consumer;
+
+/**
+ * Sends a request through a fix session, and subscribes to its responses.
+ */
+@FunctionalInterface
+public interface RequestDriver {
+
+    /**
+     * @param request    the request to send.
+     * @param onResponse invoked for the responses of the request.
+     * @param onError    invoked if the request failed (or the session dropped).
+     * @return the subscription to the responses, to close once no more responses are expected.
+     */
+    AutoCloseable request(Message request, Consumer<Message> onResponse, Consumer<Throwable> onError);
+
+    static RequestDriver of(FixSession fixSession) {
+        return (request, onResponse, onError) -> {
+            //Subscribe before sending, so that a response received immediately is not missed
+            Disposable subscription = fixSession.subscribe(new RefIdSelector(request), onResponse, onError);
+            try {
+                fixSession.send(request);
+            } catch (RuntimeException e) {
+                subscription.close();
+                throw e;
+            }
+            return subscription;
+        };
+    }
+
+    static RequestDriver of(ReactiveFixSession reactiveFixSession) {
+        //Subscribe before sending (sendAndSubscribe sends first), so that a response received immediately is not missed
+        return (request, onResponse, onError) -> reactiveFixSession.subscribe(new RefIdSelector(request))
+                .mergeWith(reactiveFixSession.send(() -> request).then(Mono.empty()))
+                .subscribe(onResponse::accept, onError::accept)::dispose;
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.benchmarks.replay;
+
+import ch.voulgarakis.spring.boot.starter.quickfixj.benchmarks.Latencies;
+import ch.voulgarakis.spring.boot.starter.quickfixj.exception.QuickFixJException;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.AbstractFixSession;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.FixSessionManager;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.log.BinaryLogRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import quickfix.DataDictionary;
+import quickfix.InvalidMessage;
+import quickfix.Message;
+import quickfix.MessageFactory;
+import quickfix.MessageUtils;
+import quickfix.SessionID;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays the messages logged for a session into {@link FixSessionManager#fromApp(Message, SessionID)}, e.g. to
+ * run a day of production traffic against a new build:
+ * <pre>
+ * ReplayReport report = new FixLogReplayer(fixSessionManager, fixSession, new DefaultMessageFactory(), null)
+ *         .replay(ReplaySource.fileLog(Paths.get("FIX.4.4-BANK-EXCHANGE.messages.log")), 10);
+ * </pre>
+ * The original inter-arrival times are preserved, divided by the speed (use {@link #MAX_SPEED} to replay without
+ * any delay). Admin messages are skipped, as they are handled by the QuickFIX/J session itself.
+ * <p>
+ * The dispatch latency is the time spent in {@code fromApp}: when the session runs on a dedicated thread (see
+ * {@link ch.voulgarakis.spring.boot.starter.quickfixj.session.dispatch.SessionDispatcher}), it only covers the
+ * hand-off to that thread.
+ */
+public class FixLogReplayer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FixLogReplayer.class);
+
+    public static final double MAX_SPEED = Double.POSITIVE_INFINITY;
+
+    private final FixSessionManager fixSessionManager;
+    private final AbstractFixSession fixSession;
+    private final MessageFactory messageFactory;
+    private final DataDictionary dataDictionary;
+
+    /**
+     * @param fixSessionManager the receiver of the replayed messages.
+     * @param fixSession        the session (registered in the manager) the messages are replayed to.
+     * @param messageFactory    the factory of the FIX messages.
+     * @param dataDictionary    the application DataDictionary of the session, used to parse repeating groups
+     *                          (can be null).
+     */
+    public FixLogReplayer(FixSessionManager fixSessionManager, AbstractFixSession fixSession,
+            MessageFactory messageFactory, DataDictionary dataDictionary) {
+        this.fixSessionManager = fixSessionManager;
+        this.fixSession = fixSession;
+        this.messageFactory = messageFactory;
+        this.dataDictionary = dataDictionary;
+    }
+
+    /**
+     * @param source the logged messages.
+     * @param speed  the replay speed, relative to the original timing (e.g. 2 replays twice as fast), or
+     *               {@link #MAX_SPEED}.
+     * @return the replay statistics.
+     */
+    public ReplayReport replay(ReplaySource source, double speed) {
+        if (!(speed > 0)) {
+            throw new IllegalArgumentException("Invalid replay speed: " + speed);
+        }
+        SessionID sessionID = fixSession.getSessionId();
+        Replay replay = new Replay(speed);
+        long matched = fixSession.getMatchedMessages();
+        long unmatched = fixSession.getUnmatchedMessages();
+        long ambiguous = fixSession.getAmbiguousMessages();
+        try {
+            source.replay(sessionID, record -> replay.replay(sessionID, record));
+        } catch (IOException e) {
+            throw new QuickFixJException("Failed to read the messages to replay to session " + sessionID, e);
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - replay.start);
+        return new ReplayReport(replay.read, replay.skipped, replay.failed, elapsed,
+                replay.dispatchLatencies.toLatencies(),
+                fixSession.getMatchedMessages() - matched,
+                fixSession.getUnmatchedMessages() - unmatched,
+                fixSession.getAmbiguousMessages() - ambiguous);
+    }
+
+    private class Replay {
+        private final double speed;
+        private final long start = System.nanoTime();
+        private final Latencies.Recorder dispatchLatencies = new Latencies.Recorder(1024);
+        private Instant firstTimestamp;
+        private long read;
+        private long skipped;
+        private long failed;
+
+        private Replay(double speed) {
+            this.speed = speed;
+        }
+
+        private void replay(SessionID sessionID, BinaryLogRecord record) {
+            read++;
+            String text = record.getText();
+            String msgType = record.getMsgType().orElse(null);
+            if (msgType != null && MessageUtils.isAdminMessage(msgType)) {
+                skipped++;
+                return;
+            }
+            Message message;
+            try {
+                message = MessageUtils.parse(messageFactory, dataDictionary, text);
+            } catch (InvalidMessage e) {
+                LOG.warn("Failed to parse message to replay: {}", text, e);
+                failed++;
+                return;
+            }
+            await(record.getTimestamp());
+
+            long dispatchStart = System.nanoTime();
+            try {
+                fixSessionManager.fromApp(message, sessionID);
+            } catch (RuntimeException e) {
+                //Already logged by the manager
+                failed++;
+                return;
+            }
+            dispatchLatencies.record(System.nanoTime() - dispatchStart);
+        }
+
+        private void await(Instant timestamp) {
+            if (timestamp == null || speed == MAX_SPEED) {
+                return;
+            }
+            if (firstTimestamp == null) {
+                firstTimestamp = timestamp;
+            }
+            long due = start + (long) (Duration.between(firstTimestamp, timestamp).toNanos() / speed);
+            long remaining;
+            while ((remaining = due - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(remaining);
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.benchmarks.replay;
+
+import ch.voulgarakis.spring.boot.starter.quickfixj.benchmarks.Latencies;
+
+import java.time.Duration;
+
+/**
+ * The outcome of a {@link FixLogReplayer#replay(ReplaySource, double)}.
+ */
+public class ReplayReport {
+
+    private final long read;
+    private final long skipped;
+    private final long failed;
+    private final Duration elapsed;
+    private final Latencies dispatchLatencies;
+    private final long matched;
+    private final long unmatched;
+    private final long ambiguous;
+
+    ReplayReport(long read, long skipped, long failed, Duration elapsed, Latencies dispatchLatencies, long matched,
+            long unmatched, long ambiguous) {
+        this.read = read;
+        this.skipped = skipped;
+        this.failed = failed;
+        this.elapsed = elapsed;
+        this.dispatchLatencies = dispatchLatencies;
+        this.matched = matched;
+        this.unmatched = unmatched;
+        this.ambiguous = ambiguous;
+    }
+
+    /**
+     * @return the number of messages read from the source.
+     */
+    public long getRead() {
+        return read;
+    }
+
+    /**
+     * @return the number of messages injected into the session.
+     */
+    public long getReplayed() {
+        return dispatchLatencies.getCount();
+    }
+
+    /**
+     * @return the number of admin messages, which are not replayed.
+     */
+    public long getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * @return the number of messages that could not be parsed, or whose dispatch failed.
+     */
+    public long getFailed() {
+        return failed;
+    }
+
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * @return the time spent in {@link ch.voulgarakis.spring.boot.starter.quickfixj.session.FixSessionManager#fromApp}
+     * per message.
+     */
+    public Latencies getDispatchLatencies() {
+        return dispatchLatencies;
+    }
+
+    /**
+     * @return the number of replayed messages delivered to exactly one sink.
+     */
+    public long getMatched() {
+        return matched;
+    }
+
+    /**
+     * @return the number of replayed messages that no sink was waiting for.
+     */
+    public long getUnmatched() {
+        return unmatched;
+    }
+
+    /**
+     * @return the number of replayed messages delivered to more than one sink.
+     */
+    public long getAmbiguous() {
+        return ambiguous;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("read=%d, replayed=%d, skipped=%d, failed=%d, elapsed=%s, matched=%d, unmatched=%d, "
+                        + "ambiguous=%d, dispatch %s",
+                read, getReplayed(), skipped, failed, elapsed, matched, unmatched, ambiguous, dispatchLatencies);
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.benchmarks.replay;
+
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.log.BinaryLogReader;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.log.BinaryLogRecord;
+import quickfix.MessageUtils;
+import quickfix.SessionID;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * The messages received by a session, in the order they were logged.
+ */
+@FunctionalInterface
+public interface ReplaySource {
+
+    /**
+     * @param sessionID the session that received the messages.
+     * @param consumer  receives the {@link BinaryLogRecord.Kind#INCOMING} records of the session.
+     */
+    void replay(SessionID sessionID, Consumer<BinaryLogRecord> consumer) throws IOException;
+
+    /**
+     * The messages log of a QuickFIX/J {@code FileLog} (or any file with one raw FIX message per line, optionally
+     * prefixed by a {@code yyyyMMdd-HH:mm:ss.SSS: } UTC timestamp).
+     * <p>
+     * Only the messages sent by the counterparty to the session are replayed; lines without a timestamp are
+     * replayed without any delay.
+     */
+    static ReplaySource fileLog(Path file) {
+        return (sessionID, consumer) -> {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.ISO_8859_1)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    int start = line.indexOf("8=FIX");
+                    if (start < 0) {
+                        continue;
+                    }
+                    String text = line.substring(start);
+                    if (isReceivedBy(sessionID, text)) {
+                        consumer.accept(new BinaryLogRecord(timestamp(line.substring(0, start)), sessionID,
+                                BinaryLogRecord.Kind.INCOMING, text));
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * The incoming messages of the session, from the segments written by a
+     * {@link ch.voulgarakis.spring.boot.starter.quickfixj.session.log.BinaryLogFactory}.
+     */
+    static ReplaySource binaryLog(Path directory) {
+        BinaryLogReader reader = new BinaryLogReader(directory);
+        return (sessionID, consumer) -> reader.replay(sessionID, null, null, null, record -> {
+            if (record.getKind() == BinaryLogRecord.Kind.INCOMING) {
+                consumer.accept(record);
+            }
+        });
+    }
+
+    private static boolean isReceivedBy(SessionID sessionID, String message) {
+        SessionID sender = MessageUtils.getReverseSessionID(message);
+        return Objects.equals(sender.getBeginString(), sessionID.getBeginString())
+                && Objects.equals(sender.getSenderCompID(), sessionID.getSenderCompID())
+                && Objects.equals(sender.getTargetCompID(), sessionID.getTargetCompID());
+    }
+
+    private static Instant timestamp(String prefix) {
+        String timestamp = prefix.trim();
+        if (timestamp.endsWith(":")) {
+            timestamp = timestamp.substring(0, timestamp.length() - 1);
+        }
+        if (timestamp.isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(timestamp, DateTimeFormatter.ofPattern("yyyyMMdd-HH:mm:ss[.SSS]"))
+                    .toInstant(ZoneOffset.UTC);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
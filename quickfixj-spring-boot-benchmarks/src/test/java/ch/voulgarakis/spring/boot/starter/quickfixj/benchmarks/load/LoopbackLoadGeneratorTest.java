@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.benchmarks.load;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LoopbackLoadGeneratorTest {
+
+    private static final LoadProfile PROFILE = new LoadProfile(MessageMix.of(1, 1, 1), 300, Duration.ofSeconds(1))
+            .withWarmup(Duration.ofMillis(200));
+
+    @Test
+    public void imperativeSessionReceivesAllResponses() {
+        assertAllResponded(LoopbackLoadGenerator::imperative);
+    }
+
+    @Test
+    public void reactiveSessionReceivesAllResponses() {
+        assertAllResponded(LoopbackLoadGenerator::reactive);
+    }
+
+    private static void assertAllResponded(Supplier<LoopbackLoadGenerator> generatorSupplier) {
+        try (LoopbackLoadGenerator generator = generatorSupplier.get()) {
+            generator.start(Duration.ofSeconds(30));
+            LoadReport report = generator.run(PROFILE);
+
+            assertEquals(300, report.getSent());
+            assertEquals(300, report.getResponded());
+            assertEquals(0, report.getFailed());
+            assertTrue(report.getThroughput() > 0);
+            assertTrue(report.getLatency(50).compareTo(report.getMaxLatency()) <= 0);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.benchmarks.replay;
+
+import ch.voulgarakis.spring.boot.starter.quickfixj.fix.session.FixSessionImpl;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.FixConnectionType;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.FixSessionManager;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.logging.LoggingId;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.utils.RefIdSelector;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.utils.StartupLatch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import quickfix.DefaultMessageFactory;
+import quickfix.Message;
+import quickfix.SessionID;
+import quickfix.field.MsgSeqNum;
+import quickfix.field.QuoteID;
+import quickfix.field.QuoteReqID;
+import quickfix.field.SenderCompID;
+import quickfix.field.SendingTime;
+import quickfix.field.TargetCompID;
+import quickfix.fix43.Heartbeat;
+import quickfix.fix43.Quote;
+import quickfix.fix43.QuoteRequest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FixLogReplayerTest {
+
+    private static final SessionID SESSION_ID = new SessionID("FIX.4.3", "BANK", "EXCHANGE");
+
+    @TempDir
+    Path directory;
+
+    private Path log;
+    private FixSessionImpl fixSession;
+    private FixLogReplayer replayer;
+    private final List<Message> received = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        //Quotes 100ms apart, with a heartbeat and the (outgoing) request in between
+        log = directory.resolve("FIX.4.3-BANK-EXCHANGE.messages.log");
+        Files.write(log, Arrays.asList(
+                "20201010-10:00:00.000: " + quote(1, "req1"),
+                "20201010-10:00:00.050: " + outgoing(new QuoteRequest(new QuoteReqID("req1"))),
+                "20201010-10:00:00.100: " + quote(2, "req1"),
+                "20201010-10:00:00.150: " + incoming(new Heartbeat(), 3),
+                "20201010-10:00:00.200: " + quote(4, "req2"),
+                "20201010-10:00:00.300: " + quote(5, "req1")));
+
+        fixSession = new FixSessionImpl(SESSION_ID);
+        FixSessionManager fixSessionManager = new FixSessionManager(
+                Collections.singletonMap(SESSION_ID, fixSession), FixConnectionType.INITIATOR,
+                new StartupLatch(1, FixConnectionType.INITIATOR, null), new LoggingId(), (sessionID, logon) -> {
+        });
+        replayer = new FixLogReplayer(fixSessionManager, fixSession, new DefaultMessageFactory(), null);
+        fixSession.subscribe(new RefIdSelector(new QuoteRequest(new QuoteReqID("req1"))), received::add,
+                error -> {
+                });
+    }
+
+    @Test
+    public void replayAtMaxSpeed() {
+        ReplayReport report = replayer.replay(ReplaySource.fileLog(log), FixLogReplayer.MAX_SPEED);
+
+        //The outgoing request is not replayed, the heartbeat is skipped
+        assertEquals(5, report.getRead());
+        assertEquals(4, report.getReplayed());
+        assertEquals(1, report.getSkipped());
+        assertEquals(0, report.getFailed());
+        assertEquals(4, report.getDispatchLatencies().getCount());
+        //The quote of req2 was not expected
+        assertEquals(3, report.getMatched());
+        assertEquals(1, report.getUnmatched());
+        assertEquals(0, report.getAmbiguous());
+        assertEquals(3, received.size());
+    }
+
+    @Test
+    public void replayPreservesTiming() {
+        //300ms of traffic, replayed twice as fast
+        ReplayReport report = replayer.replay(ReplaySource.fileLog(log), 2);
+
+        assertEquals(4, report.getReplayed());
+        assertTrue(report.getElapsed().compareTo(Duration.ofMillis(150)) >= 0, report.toString());
+    }
+
+    private static String quote(int seqNum, String quoteReqId) {
+        Quote quote = new Quote(new QuoteID("quote" + seqNum));
+        quote.set(new QuoteReqID(quoteReqId));
+        return incoming(quote, seqNum);
+    }
+
+    private static String incoming(Message message, int seqNum) {
+        message.getHeader().setField(new SenderCompID(SESSION_ID.getTargetCompID()));
+        message.getHeader().setField(new TargetCompID(SESSION_ID.getSenderCompID()));
+        message.getHeader().setField(new MsgSeqNum(seqNum));
+        message.getHeader().setField(new SendingTime(LocalDateTime.now()));
+        return message.toString();
+    }
+
+    private static String outgoing(Message message) {
+        message.getHeader().setField(new SenderCompID(SESSION_ID.getSenderCompID()));
+        message.getHeader().setField(new TargetCompID(SESSION_ID.getTargetCompID()));
+        message.getHeader().setField(new MsgSeqNum(1));
+        message.getHeader().setField(new SendingTime(LocalDateTime.now()));
+        return message.toString();
+    }
+}
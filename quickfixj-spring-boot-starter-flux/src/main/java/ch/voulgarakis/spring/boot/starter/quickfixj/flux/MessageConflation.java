@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.flux;
+
+import quickfix.FieldMap;
+import quickfix.FieldNotFound;
+import quickfix.Group;
+import quickfix.Message;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+/**
+ * Conflation of a stream of FIX messages: the messages are coalesced per key (the value of a field, e.g. Symbol or
+ * MDReqID) and at most one message per key is emitted every interval. Messages without the key field are not
+ * conflated, and are emitted as soon as requested.
+ * <p>
+ * Emission follows the demand of the consumer: the messages due at an interval are only emitted when requested, and
+ * until then they keep being coalesced with the new messages of their key. A slow consumer therefore holds at most one
+ * pending message per key, instead of a growing buffer.
+ * <p>
+ * Meant for consumers that only need the latest state per key (e.g. a UI), and would otherwise fall behind on every
+ * incremental update. Keeping the latest message per key (the default) only suits messages carrying the full state
+ * (quotes, market data snapshots): for incremental updates, use a merger such as {@link #appendGroups(int)}.
+ */
+public final class MessageConflation {
+
+    private MessageConflation() {
+    }
+
+    /**
+     * Conflate by keeping the latest message of each key.
+     *
+     * @see #conflate(int, Duration, BinaryOperator, Runnable, Runnable)
+     */
+    public static Function<Flux<Message>, Flux<Message>> conflate(int keyTag, Duration interval) {
+        return conflate(keyTag, interval, (previous, latest) -> latest, null, null);
+    }
+
+    /**
+     * @param keyTag     the tag of the field (body or header) the messages are conflated by.
+     * @param interval   the interval at which the conflated messages are emitted.
+     * @param merger     merges the pending message of a key with the new one (previous, latest).
+     * @param onReceived invoked for every message received from upstream (can be null).
+     * @param onEmitted  invoked for every message emitted downstream (can be null).
+     * @return the operator, to be used with {@link Flux#transform(Function)}.
+     */
+    public static Function<Flux<Message>, Flux<Message>> conflate(int keyTag, Duration interval,
+            BinaryOperator<Message> merger, Runnable onReceived, Runnable onEmitted) {
+        return source -> Flux.create(sink -> {
+            Conflator conflator = new Conflator(keyTag, merger, sink, onReceived, onEmitted);
+            sink.onRequest(requested -> conflator.drain());
+            Disposable ticker = Flux.interval(interval, interval)
+                    .subscribe(tick -> conflator.due());
+            Disposable upstream = source.subscribe(conflator::conflate, conflator::terminate,
+                    () -> conflator.terminate(null));
+            sink.onDispose(() -> {
+                upstream.dispose();
+                ticker.dispose();
+            });
+        });
+    }
+
+    /**
+     * Merges incremental messages (e.g. market data incremental refreshes), by appending the entries of the repeating
+     * group of the latest message to a copy of the pending one. The other fields are the ones of the pending message.
+     * <p>
+     * The pending message is copied on every merge (the received messages are shared with the other subscribers, so
+     * they are never modified).
+     *
+     * @param countTag the NumInGroup tag of the repeating group (e.g. {@link quickfix.field.NoMDEntries#FIELD}).
+     * @return the merger, for {@link #conflate(int, Duration, BinaryOperator, Runnable, Runnable)}.
+     */
+    public static BinaryOperator<Message> appendGroups(int countTag) {
+        return (previous, latest) -> {
+            Message merged = (Message) previous.clone();
+            for (Group group : latest.getGroups(countTag)) {
+                merged.addGroup(group);
+            }
+            return merged;
+        };
+    }
+
+    private static class Conflator {
+        private final int keyTag;
+        private final BinaryOperator<Message> merger;
+        private final FluxSink<Message> sink;
+        private final Runnable onReceived;
+        private final Runnable onEmitted;
+        //Keeps the keys in order of first arrival
+        private final Map<String, Message> pending = new LinkedHashMap<>();
+        //The messages without key, in order of arrival
+        private final Queue<Message> unkeyed = new ArrayDeque<>();
+        //Whether the pending messages can be emitted (an interval has elapsed, or upstream has terminated)
+        private boolean due;
+        private boolean done;
+        private Throwable error;
+        //Serializes the drain loop (ticker, upstream and downstream requests)
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private Conflator(int keyTag, BinaryOperator<Message> merger, FluxSink<Message> sink, Runnable onReceived,
+                Runnable onEmitted) {
+            this.keyTag = keyTag;
+            this.merger = merger;
+            this.sink = sink;
+            this.onReceived = onReceived;
+            this.onEmitted = onEmitted;
+        }
+
+        private void conflate(Message message) {
+            if (Objects.nonNull(onReceived)) {
+                onReceived.run();
+            }
+            String key = key(message);
+            synchronized (pending) {
+                if (Objects.isNull(key)) {
+                    unkeyed.add(message);
+                } else {
+                    pending.merge(key, message, merger);
+                }
+            }
+            if (Objects.isNull(key)) {
+                drain();
+            }
+        }
+
+        private void due() {
+            synchronized (pending) {
+                due = true;
+            }
+            drain();
+        }
+
+        private void terminate(Throwable throwable) {
+            synchronized (pending) {
+                //Flush the pending messages before completing
+                due = true;
+                done = true;
+                error = throwable;
+            }
+            drain();
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                while (sink.requestedFromDownstream() > 0 && !sink.isCancelled()) {
+                    Message message = poll();
+                    if (Objects.isNull(message)) {
+                        break;
+                    }
+                    emit(message);
+                }
+                synchronized (pending) {
+                    if (done && unkeyed.isEmpty() && pending.isEmpty()) {
+                        if (Objects.nonNull(error)) {
+                            sink.error(error);
+                        } else {
+                            sink.complete();
+                        }
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private Message poll() {
+            synchronized (pending) {
+                Message message = unkeyed.poll();
+                if (Objects.nonNull(message) || !due) {
+                    return message;
+                }
+                Iterator<Message> iterator = pending.values().iterator();
+                if (!iterator.hasNext()) {
+                    //Nothing was pending at this interval: wait for the next one
+                    due = done;
+                    return null;
+                }
+                message = iterator.next();
+                iterator.remove();
+                if (pending.isEmpty()) {
+                    due = done;
+                }
+                return message;
+            }
+        }
+
+        private void emit(Message message) {
+            if (Objects.nonNull(onEmitted)) {
+                onEmitted.run();
+            }
+            sink.next(message);
+        }
+        private String key(Message message) {
+            String key = get(message, keyTag);
+            return Objects.nonNull(key) ? key : get(message.getHeader(), keyTag);
+        }
+
+        private static String get(FieldMap fieldMap, int tag) {
+            if (fieldMap.isSetField(tag)) {
+                try {
+                    return fieldMap.getString(tag);
+                } catch (FieldNotFound e) {
+                    return null;
+                }
+            }
+            return null;
+        }
+    }
+}
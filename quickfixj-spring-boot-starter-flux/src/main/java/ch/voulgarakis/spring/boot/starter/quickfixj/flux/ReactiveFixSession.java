@@ -17,11 +17,17 @@
 package ch.voulgarakis.spring.boot.starter.quickfixj.flux;
 
 import ch.voulgarakis.spring.boot.starter.quickfixj.FixSessionInterface;
+import ch.voulgarakis.spring.boot.starter.quickfixj.exception.QuickFixJException;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.book.OrderBookSnapshot;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.order.OrderState;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.utils.FixMessageUtils;
 import ch.voulgarakis.spring.boot.starter.quickfixj.session.utils.RefIdSelector;
 import quickfix.Message;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.function.BinaryOperator;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
@@ -35,6 +41,39 @@ public interface ReactiveFixSession extends FixSessionInterface {
      */
     Flux<Message> subscribe(Predicate<Message> messageSelector);
 
+    /**
+     * Subscribe to a conflated stream of messages in the Fix Session: the messages are coalesced per key, and at most
+     * one message per key is emitted every interval (the latest one). Only suits messages carrying the full state
+     * (e.g. quotes, market data snapshots).
+     *
+     * @param messageSelector the scope filter that will check which messages received are relevant to this subscription.
+     * @param keyTag          the tag of the field to conflate by (e.g. {@link quickfix.field.Symbol#FIELD}).
+     * @param interval        the interval at which the conflated messages are emitted.
+     * @return Flux of the latest messages per key, received from the fix session, that match the filter criteria.
+     * @see MessageConflation
+     */
+    default Flux<Message> subscribeConflated(Predicate<Message> messageSelector, int keyTag, Duration interval) {
+        return subscribeConflated(messageSelector, keyTag, interval, (previous, latest) -> latest);
+    }
+
+    /**
+     * Subscribe to a conflated stream of messages in the Fix Session: the messages are merged per key, and at most
+     * one message per key is emitted every interval.
+     *
+     * @param messageSelector the scope filter that will check which messages received are relevant to this subscription.
+     * @param keyTag          the tag of the field to conflate by (e.g. {@link quickfix.field.Symbol#FIELD}).
+     * @param interval        the interval at which the conflated messages are emitted.
+     * @param merger          merges the pending message of a key with the new one (previous, latest), e.g.
+     *                        {@link MessageConflation#appendGroups(int)} for incremental updates.
+     * @return Flux of the merged messages per key, received from the fix session, that match the filter criteria.
+     * @see MessageConflation
+     */
+    default Flux<Message> subscribeConflated(Predicate<Message> messageSelector, int keyTag, Duration interval,
+            BinaryOperator<Message> merger) {
+        return subscribe(messageSelector)
+                .transform(MessageConflation.conflate(keyTag, interval, merger, null, null));
+    }
+
     /**
      * Send a message to the fix session.
      *
@@ -65,4 +104,52 @@ public interface ReactiveFixSession extends FixSessionInterface {
     Flux<Message> sendAndSubscribe(Supplier<Message> messageSupplier,
             Function<Message, RefIdSelector> refIdSelectorSupplier);
 
+    /**
+     * Subscribe to the order book built from the market data messages (full/incremental refresh) received for the
+     * MDReqID. The book is built once per MDReqID and shared by all its subscribers: a new subscriber receives the
+     * latest snapshot, then a snapshot after every update (slow subscribers only get the latest one).
+     *
+     * @param mdReqId the MDReqID of the market data request.
+     * @return the Flux of order book snapshots.
+     */
+    Flux<OrderBookSnapshot> subscribeOrderBook(String mdReqId);
+
+    /**
+     * Convenient method that subscribes to the order book of a market data request, then sends the request.
+     *
+     * @param marketDataRequestSupplier the market data request supplier that will be invoked when the sending will be executed.
+     * @return the Flux of order book snapshots of the market data request.
+     * @see #subscribeOrderBook(String)
+     */
+    default Flux<OrderBookSnapshot> sendAndSubscribeOrderBook(Supplier<Message> marketDataRequestSupplier) {
+        return Flux.defer(() -> {
+            Message request = marketDataRequestSupplier.get();
+            String mdReqId = FixMessageUtils.safeGetIdForRequest(request)
+                    .orElseThrow(() -> new QuickFixJException("MDReqID not found in request: " + request));
+            //Subscribe to the book first, so that no response is missed
+            return subscribeOrderBook(mdReqId)
+                    .mergeWith(send(() -> request).then(Mono.empty()));
+        });
+    }
+
+    /**
+     * Get the state of an order, as last reported by the counterparty (requires quickfixj.order-state.max-orders).
+     *
+     * @param clOrdId any ClOrdID of the order (of the original order, or of a cancel/replace).
+     * @return the state of the order, or empty if no execution report has been received for it.
+     */
+    Mono<OrderState> getOrderState(String clOrdId);
+
+    /**
+     * @param orderId the OrderID assigned by the counterparty.
+     * @return the state of the order, or empty if no execution report has been received for it.
+     * @see #getOrderState(String)
+     */
+    Mono<OrderState> getOrderStateByOrderId(String orderId);
+
+    /**
+     * @return the state of the orders that are not in a terminal state (filled, cancelled, rejected, etc.).
+     * @see #getOrderState(String)
+     */
+    Flux<OrderState> getOpenOrders();
 }
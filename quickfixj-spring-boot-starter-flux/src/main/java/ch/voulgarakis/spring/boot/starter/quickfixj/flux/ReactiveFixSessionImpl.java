@@ -21,7 +21,11 @@ import ch.voulgarakis.spring.boot.starter.quickfixj.exception.SessionException;
 import ch.voulgarakis.spring.boot.starter.quickfixj.session.AbstractFixSession;
 import ch.voulgarakis.spring.boot.starter.quickfixj.session.FixSessionUtils;
 import ch.voulgarakis.spring.boot.starter.quickfixj.session.MessageSink;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.book.OrderBook;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.book.OrderBookSnapshot;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.order.OrderState;
 import ch.voulgarakis.spring.boot.starter.quickfixj.session.utils.RefIdSelector;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.utils.RoutingEnvelope;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
@@ -31,12 +35,18 @@ import quickfix.Message;
 import quickfix.Session;
 import quickfix.SessionID;
 import quickfix.SessionNotFound;
+import quickfix.field.MsgType;
 import reactor.core.publisher.EmitterProcessor;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.FluxSink;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 
+import java.time.Duration;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BinaryOperator;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
@@ -49,6 +59,13 @@ public class ReactiveFixSessionImpl extends AbstractFixSession implements Reacti
     private Counter messagesReceived;
     private Counter messagesSent;
     private Counter rejections;
+    private Counter conflationReceived;
+    private Counter conflationEmitted;
+
+    //--------------------------------------------------
+    //---------------------ORDER BOOKS------------------
+    //--------------------------------------------------
+    private final Map<String, SharedOrderBook> orderBooks = new ConcurrentHashMap<>();
 
     //--------------------------------------------------
     //--------------------CONSTRUCTORS------------------
@@ -106,6 +123,22 @@ public class ReactiveFixSessionImpl extends AbstractFixSession implements Reacti
                 .baseUnit("rejects")
                 .register(meterRegistry);
 
+        //The conflated subscriptions
+        conflationReceived = Counter.builder("quickfixj.flux.conflation.received")
+                .description("Number of FIX messages received by conflated subscriptions on reactive fix session")
+                .tag("fixSessionName", fixSessionName)
+                .baseUnit("messages")
+                .register(meterRegistry);
+        conflationEmitted = Counter.builder("quickfixj.flux.conflation.emitted")
+                .description("Number of FIX messages emitted by conflated subscriptions on reactive fix session")
+                .tag("fixSessionName", fixSessionName)
+                .baseUnit("messages")
+                .register(meterRegistry);
+        Gauge.builder("quickfixj.flux.conflation.ratio", this::conflationRatio)
+                .description("Ratio of received to emitted FIX messages of conflated subscriptions on reactive fix session")
+                .tag("fixSessionName", fixSessionName)
+                .register(meterRegistry);
+
     }
 
     //--------------------------------------------------
@@ -116,7 +149,12 @@ public class ReactiveFixSessionImpl extends AbstractFixSession implements Reacti
         if (Objects.nonNull(messagesReceived)) {
             messagesReceived.increment();
         }
-        super.received(message);
+        //Extract the routing fields once, for the order books and the subscribers
+        RoutingEnvelope envelope = RoutingEnvelope.of(message);
+        if (!orderBooks.isEmpty()) {
+            updateOrderBook(envelope, message);
+        }
+        super.received(message, envelope);
     }
 
     @Override
@@ -139,6 +177,16 @@ public class ReactiveFixSessionImpl extends AbstractFixSession implements Reacti
      */
     @Override
     public Flux<Message> subscribe(Predicate<Message> messageSelector) {
+        return subscribe(null, messageSelector);
+    }
+
+    /**
+     * @param counterparty    the session the messages are received from (relevant for acceptor templates), or null
+     *                        for all the messages received.
+     * @param messageSelector the filter that selects the relevant messages for this stream.
+     * @return a Flux<Messages> with the FIX messages that are relevant
+     */
+    private Flux<Message> subscribe(SessionID counterparty, Predicate<Message> messageSelector) {
         //UnicastProcessor<Message> processor = UnicastProcessor.create();
         //DirectProcessor<Message> processor = DirectProcessor.create();
         EmitterProcessor<Message> processor = EmitterProcessor.create();
@@ -148,7 +196,9 @@ public class ReactiveFixSessionImpl extends AbstractFixSession implements Reacti
         FluxSink<Message> sink = processor.sink();
 
         //Create the underlying fix message sink
-        MessageSink messageSink = createSink(messageSelector, sink::next, sink::error);
+        MessageSink messageSink = Objects.isNull(counterparty)
+                ? createSink(messageSelector, sink::next, sink::error)
+                : createSink(counterparty, messageSelector, sink::next, sink::error);
         //When sink is disposed (cancelled, terminated) we remove it from the sinks
         sink.onDispose(messageSink::dispose);
 
@@ -158,6 +208,22 @@ public class ReactiveFixSessionImpl extends AbstractFixSession implements Reacti
                 .onBackpressureLatest();
     }
 
+    @Override
+    public Flux<Message> subscribeConflated(Predicate<Message> messageSelector, int keyTag, Duration interval,
+            BinaryOperator<Message> merger) {
+        Counter received = conflationReceived;
+        Counter emitted = conflationEmitted;
+        return subscribe(messageSelector)
+                .transform(MessageConflation.conflate(keyTag, interval, merger,
+                        Objects.nonNull(received) ? received::increment : null,
+                        Objects.nonNull(emitted) ? emitted::increment : null));
+    }
+
+    private double conflationRatio() {
+        double emitted = conflationEmitted.count();
+        return emitted > 0 ? conflationReceived.count() / emitted : Double.NaN;
+    }
+
     //--------------------------------------------------
     //-----------------SEND FIX MESSAGE-----------------
     //--------------------------------------------------
@@ -166,7 +232,7 @@ public class ReactiveFixSessionImpl extends AbstractFixSession implements Reacti
         return Mono.defer(() -> {
             try {
                 Message message = messageSupplier.get();
-                Session.sendToTarget(message, getSessionId());
+                Session.sendToTarget(message, resolveSessionId(message));
                 if (Objects.nonNull(messagesSent)) {
                     messagesSent.increment();
                 }
@@ -191,10 +257,77 @@ public class ReactiveFixSessionImpl extends AbstractFixSession implements Reacti
                 .flatMapMany(message -> {
                     //This selector will associate FIX response messages received by the session, with this quote request.
                     RefIdSelector refIdSelector = refIdSelectorSupplier.apply(message);
-                    //Subscribe to the responses relevant to this quote request
-                    return subscribe(refIdSelector);
+                    //Subscribe to the responses relevant to this quote request (from the counterparty it was sent to)
+                    return subscribe(resolveSessionId(message), refIdSelector);
                 })
                 //expose metrics if enabled
                 .metrics();
     }
+
+    //--------------------------------------------------
+    //---------------------ORDER BOOKS------------------
+    //--------------------------------------------------
+    @Override
+    public Flux<OrderBookSnapshot> subscribeOrderBook(String mdReqId) {
+        return Flux.defer(() -> {
+            //Count the subscribers under the lock of the map entry, so that a book is never removed while joined
+            SharedOrderBook orderBook = orderBooks.compute(mdReqId, (id, existing) -> {
+                SharedOrderBook book = Objects.nonNull(existing) ? existing : new SharedOrderBook(id);
+                book.subscribers++;
+                return book;
+            });
+            return orderBook.sink.asFlux()
+                    //When the last subscriber is gone, stop building the book
+                    .doFinally(signal -> orderBooks.computeIfPresent(mdReqId,
+                            (id, existing) -> existing == orderBook && --existing.subscribers == 0 ? null : existing));
+        })
+                //Conflate: slow subscribers only get the latest snapshot
+                .onBackpressureLatest();
+    }
+
+    private void updateOrderBook(RoutingEnvelope envelope, Message message) {
+        if (Objects.isNull(envelope)) {
+            return;
+        }
+        String msgType = envelope.getMsgType();
+        if (!MsgType.MARKET_DATA_SNAPSHOT_FULL_REFRESH.equals(msgType)
+                && !MsgType.MARKET_DATA_INCREMENTAL_REFRESH.equals(msgType)) {
+            return;
+        }
+        String mdReqId = envelope.getRefId(0);
+        SharedOrderBook orderBook = Objects.nonNull(mdReqId) ? orderBooks.get(mdReqId) : null;
+        if (Objects.nonNull(orderBook) && orderBook.book.apply(message)) {
+            orderBook.sink.tryEmitNext(orderBook.book.snapshot());
+        }
+    }
+
+    //--------------------------------------------------
+    //--------------------ORDER STATE-------------------
+    //--------------------------------------------------
+    @Override
+    public Mono<OrderState> getOrderState(String clOrdId) {
+        return Mono.defer(() -> Mono.justOrEmpty(getOrderStateStore().getByClOrdId(clOrdId)));
+    }
+
+    @Override
+    public Mono<OrderState> getOrderStateByOrderId(String orderId) {
+        return Mono.defer(() -> Mono.justOrEmpty(getOrderStateStore().getByOrderId(orderId)));
+    }
+
+    @Override
+    public Flux<OrderState> getOpenOrders() {
+        return Flux.defer(() -> Flux.fromIterable(getOrderStateStore().getOpenOrders()));
+    }
+
+    private static class SharedOrderBook {
+        private final OrderBook book;
+        //Replays the latest snapshot to new subscribers
+        private final Sinks.Many<OrderBookSnapshot> sink = Sinks.many().replay().latest();
+        //Only accessed under the lock of the map entry
+        private int subscribers;
+
+        private SharedOrderBook(String mdReqId) {
+            this.book = new OrderBook(mdReqId);
+        }
+    }
 }
@@ -16,7 +16,11 @@
 
 package ch.voulgarakis.spring.boot.starter.quickfixj.flux;
 
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.book.OrderBook;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.book.OrderBookSnapshot;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.order.OrderState;
 import ch.voulgarakis.spring.boot.starter.quickfixj.session.utils.RefIdSelector;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.utils.RoutingEnvelope;
 import quickfix.FieldNotFound;
 import quickfix.Message;
 import quickfix.SessionID;
@@ -83,6 +87,34 @@ public abstract class ReactiveFixSessionMock implements ReactiveFixSession {
                 });
     }
 
+    @Override
+    public Flux<OrderBookSnapshot> subscribeOrderBook(String mdReqId) {
+        return Flux.defer(() -> {
+            OrderBook orderBook = new OrderBook(mdReqId);
+            return subscribe(message -> {
+                RoutingEnvelope envelope = RoutingEnvelope.of(message);
+                return Objects.nonNull(envelope) && envelope.matchesRefId(mdReqId, String::equals);
+            })
+                    .filter(orderBook::apply)
+                    .map(message -> orderBook.snapshot());
+        });
+    }
+
+    @Override
+    public Mono<OrderState> getOrderState(String clOrdId) {
+        return Mono.empty();
+    }
+
+    @Override
+    public Mono<OrderState> getOrderStateByOrderId(String orderId) {
+        return Mono.empty();
+    }
+
+    @Override
+    public Flux<OrderState> getOpenOrders() {
+        return Flux.empty();
+    }
+
     protected abstract Flux<Message> messageGenerator(String quoteReqId, Message request);
 
     private Flux<Message> quoteGenerator(String reqId, Message request) {
@@ -26,12 +26,15 @@ import quickfix.SessionID;
 import quickfix.SessionSettings;
 
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
 
 public class ReactiveFixSessions implements InternalFixSessions<ReactiveFixSession> {
 
     private final Map<SessionID, ReactiveFixSession> fixSessions;
     private final Map<String, SessionID> nameToSessionId;
+    private final DynamicFixSessionBeanRegistration<ReactiveFixSession> fixSessionDynamicFixSessionBeanRegistration;
 
     public ReactiveFixSessions(GenericApplicationContext applicationContext, SessionSettings sessionSettings) {
         BiFunction<String, SessionID, BeanDefinition> fixSessionBeanDefinitionCreator =
@@ -41,15 +44,16 @@ public class ReactiveFixSessions implements InternalFixSessions<ReactiveFixSessi
                         .addConstructorArgValue(sessionID)
                         .getBeanDefinition();
 
-        DynamicFixSessionBeanRegistration<ReactiveFixSession> fixSessionDynamicFixSessionBeanRegistration =
+        fixSessionDynamicFixSessionBeanRegistration =
                 new DynamicFixSessionBeanRegistration<>(applicationContext, sessionSettings,
                         fixSessionBeanDefinitionCreator, ReactiveFixSession.class);
 
         Pair<Map<SessionID, ReactiveFixSession>, Map<String, SessionID>> sessionBeans =
                 fixSessionDynamicFixSessionBeanRegistration.registerSessionBeans();
 
-        fixSessions = sessionBeans.getLeft();
-        nameToSessionId = sessionBeans.getRight();
+        //Sessions can be added and removed at runtime
+        fixSessions = new ConcurrentHashMap<>(sessionBeans.getLeft());
+        nameToSessionId = new ConcurrentHashMap<>(sessionBeans.getRight());
     }
 
     @Override
@@ -61,4 +65,27 @@ public class ReactiveFixSessions implements InternalFixSessions<ReactiveFixSessi
     public Map<String, SessionID> getFixSessionIDs() {
         return nameToSessionId;
     }
+
+    @Override
+    public ReactiveFixSession registerSession(String sessionName, SessionID sessionId) {
+        ReactiveFixSession fixSession =
+                fixSessionDynamicFixSessionBeanRegistration.registerSessionBean(sessionName, sessionId);
+        nameToSessionId.put(sessionName, sessionId);
+        fixSessions.put(sessionId, fixSession);
+        return fixSession;
+    }
+
+    @Override
+    public void unregisterSession(SessionID sessionId) {
+        if (Objects.nonNull(fixSessions.remove(sessionId))) {
+            nameToSessionId.entrySet().stream()
+                    .filter(entry -> sessionId.equals(entry.getValue()))
+                    .map(Map.Entry::getKey)
+                    .findFirst()
+                    .ifPresent(sessionName -> {
+                        nameToSessionId.remove(sessionName);
+                        fixSessionDynamicFixSessionBeanRegistration.unregisterSessionBean(sessionName);
+                    });
+        }
+    }
 }
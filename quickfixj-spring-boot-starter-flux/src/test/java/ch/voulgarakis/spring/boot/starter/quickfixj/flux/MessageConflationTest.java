@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.flux;
+
+import org.junit.jupiter.api.Test;
+import quickfix.Message;
+import quickfix.field.MDEntryPx;
+import quickfix.field.MDReqID;
+import quickfix.field.MDUpdateAction;
+import quickfix.field.NoMDEntries;
+import quickfix.field.Symbol;
+import quickfix.fix43.MarketDataIncrementalRefresh;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MessageConflationTest {
+
+    @Test
+    public void testConflationPerKey() {
+        AtomicInteger received = new AtomicInteger();
+        AtomicInteger emitted = new AtomicInteger();
+
+        StepVerifier
+                .withVirtualTime(() -> Flux.range(0, 10)
+                        .map(i -> marketData(i % 2 == 0 ? "EUR/USD" : "USD/CHF", "md" + i))
+                        .concatWith(Flux.never())
+                        .transform(MessageConflation.conflate(Symbol.FIELD, Duration.ofSeconds(1),
+                                (previous, latest) -> latest, received::incrementAndGet,
+                                emitted::incrementAndGet)))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(999))
+                .thenAwait(Duration.ofMillis(1))
+                //Latest message per symbol, in order of first arrival
+                .expectNextMatches(message -> mdReqId(message).equals("md8"))
+                .expectNextMatches(message -> mdReqId(message).equals("md9"))
+                .thenAwait(Duration.ofSeconds(1))
+                .expectNoEvent(Duration.ofSeconds(1))
+                .thenCancel()
+                .verify(Duration.ofSeconds(2));
+
+        assertEquals(10, received.get());
+        assertEquals(2, emitted.get());
+    }
+
+    @Test
+    public void testMessagesWithoutKeyAndCompletion() {
+        StepVerifier
+                .withVirtualTime(() -> Flux.just(marketData(null, "md1"), marketData("EUR/USD", "md2"),
+                        marketData("EUR/USD", "md3"))
+                        .transform(MessageConflation.conflate(Symbol.FIELD, Duration.ofSeconds(1))))
+                //Not conflated
+                .expectNextMatches(message -> mdReqId(message).equals("md1"))
+                //Pending messages are flushed on completion
+                .expectNextMatches(message -> mdReqId(message).equals("md3"))
+                .verifyComplete();
+    }
+
+    @Test
+    public void testEmissionFollowsDemand() {
+        Sinks.Many<Message> source = Sinks.many().multicast().directBestEffort();
+        StepVerifier
+                .withVirtualTime(() -> source.asFlux()
+                        .transform(MessageConflation.conflate(Symbol.FIELD, Duration.ofSeconds(1))), 0)
+                .expectSubscription()
+                .then(() -> {
+                    source.tryEmitNext(marketData("EUR/USD", "md0"));
+                    source.tryEmitNext(marketData("USD/CHF", "md1"));
+                })
+                .thenAwait(Duration.ofSeconds(1))
+                //Nothing is emitted without demand
+                .expectNoEvent(Duration.ofSeconds(2))
+                //Still conflated while waiting for demand
+                .then(() -> source.tryEmitNext(marketData("EUR/USD", "md2")))
+                .thenRequest(1)
+                .expectNextMatches(message -> mdReqId(message).equals("md2"))
+                .expectNoEvent(Duration.ofMillis(1))
+                .thenRequest(1)
+                .expectNextMatches(message -> mdReqId(message).equals("md1"))
+                .thenCancel()
+                .verify(Duration.ofSeconds(2));
+    }
+
+    @Test
+    public void testAppendGroups() {
+        StepVerifier
+                .withVirtualTime(() -> Flux.just(marketData("EUR/USD", "md1", 1.1), marketData("EUR/USD", "md1", 1.2))
+                        .concatWith(Flux.never())
+                        .transform(MessageConflation.conflate(Symbol.FIELD, Duration.ofSeconds(1),
+                                MessageConflation.appendGroups(NoMDEntries.FIELD), null, null)))
+                .expectSubscription()
+                .thenAwait(Duration.ofSeconds(1))
+                //Both increments are kept
+                .expectNextMatches(message -> message.getGroupCount(NoMDEntries.FIELD) == 2)
+                .thenCancel()
+                .verify(Duration.ofSeconds(2));
+    }
+
+    private static Message marketData(String symbol, String mdReqId, double price) {
+        Message message = marketData(symbol, mdReqId);
+        MarketDataIncrementalRefresh.NoMDEntries entry = new MarketDataIncrementalRefresh.NoMDEntries();
+        entry.set(new MDUpdateAction(MDUpdateAction.CHANGE));
+        entry.set(new MDEntryPx(price));
+        message.addGroup(entry);
+        return message;
+    }
+
+    private static Message marketData(String symbol, String mdReqId) {
+        MarketDataIncrementalRefresh message = new MarketDataIncrementalRefresh();
+        message.set(new MDReqID(mdReqId));
+        if (symbol != null) {
+            message.setField(new Symbol(symbol));
+        }
+        return message;
+    }
+
+    private static String mdReqId(Message message) {
+        try {
+            return message.getString(MDReqID.FIELD);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -18,6 +18,7 @@ package ch.voulgarakis.spring.boot.starter.quickfixj.flux;
 
 
 import ch.voulgarakis.spring.boot.starter.quickfixj.session.FixSessionManager;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.book.OrderBookSnapshot;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.slf4j.Logger;
@@ -30,10 +31,18 @@ import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import quickfix.Message;
 import quickfix.SessionID;
+import quickfix.field.MDEntryPx;
+import quickfix.field.MDEntrySize;
+import quickfix.field.MDEntryType;
+import quickfix.field.MDReqID;
+import quickfix.field.MDUpdateAction;
 import quickfix.field.QuoteID;
 import quickfix.field.QuoteReqID;
+import quickfix.fix43.MarketDataIncrementalRefresh;
+import quickfix.fix43.MarketDataSnapshotFullRefresh;
 import quickfix.fix43.Quote;
 import quickfix.fix43.QuoteRequest;
+import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
@@ -97,6 +106,80 @@ public class ReactiveFixSessionTest {
         LOG.info("Sending burst of quotes");
     }
 
+    @Test
+    public void testOrderBookSubscription() {
+        Flux<OrderBookSnapshot> first = fixSession.subscribeOrderBook("md1");
+        Flux<OrderBookSnapshot> second = fixSession.subscribeOrderBook("md1");
+
+        StepVerifier
+                .create(first)
+                .expectSubscription()
+                .then(() -> {
+                    MarketDataSnapshotFullRefresh snapshot = new MarketDataSnapshotFullRefresh();
+                    snapshot.set(new MDReqID("md1"));
+                    MarketDataSnapshotFullRefresh.NoMDEntries entry = new MarketDataSnapshotFullRefresh.NoMDEntries();
+                    entry.set(new MDEntryType(MDEntryType.BID));
+                    entry.set(new MDEntryPx(1.1));
+                    entry.set(new MDEntrySize(100));
+                    snapshot.addGroup(entry);
+                    sessionManager.fromApp(snapshot, SESSION_ID);
+                })
+                .expectNextMatches(book -> book.getBestBid() == 1.1)
+                //A late subscriber shares the same book, starting from its latest snapshot
+                .then(() -> StepVerifier
+                        .create(second)
+                        .expectNextMatches(book -> book.getBestBid() == 1.1 && book.getVersion() == 1)
+                        .thenCancel()
+                        .verify(Duration.ofSeconds(2)))
+                .then(() -> {
+                    MarketDataIncrementalRefresh incremental = new MarketDataIncrementalRefresh();
+                    incremental.set(new MDReqID("md1"));
+                    MarketDataIncrementalRefresh.NoMDEntries entry = new MarketDataIncrementalRefresh.NoMDEntries();
+                    entry.set(new MDUpdateAction(MDUpdateAction.NEW));
+                    entry.set(new MDEntryType(MDEntryType.OFFER));
+                    entry.set(new MDEntryPx(1.2));
+                    entry.set(new MDEntrySize(100));
+                    incremental.addGroup(entry);
+                    sessionManager.fromApp(incremental, SESSION_ID);
+                })
+                .expectNextMatches(book -> book.getBestBid() == 1.1 && book.getBestOffer() == 1.2)
+                .thenCancel()
+                .verify(Duration.ofSeconds(2));
+    }
+
+    @Test
+    public void testOrderBookIsSharedUntilTheLastSubscriberIsGone() {
+        Disposable first = fixSession.subscribeOrderBook("md2").subscribe();
+
+        //The first subscriber leaves: the second one still gets the updates of the book
+        StepVerifier.create(fixSession.subscribeOrderBook("md2"))
+                .expectSubscription()
+                .then(first::dispose)
+                .then(() -> sessionManager.fromApp(snapshot("md2", 1.1), SESSION_ID))
+                .expectNextMatches(book -> book.getBestBid() == 1.1)
+                .thenCancel()
+                .verify(Duration.ofSeconds(2));
+
+        //All the subscribers are gone: a new subscriber gets a new book
+        StepVerifier.create(fixSession.subscribeOrderBook("md2"))
+                .expectSubscription()
+                .then(() -> sessionManager.fromApp(snapshot("md2", 1.3), SESSION_ID))
+                .expectNextMatches(book -> book.getBestBid() == 1.3 && book.getVersion() == 1)
+                .thenCancel()
+                .verify(Duration.ofSeconds(2));
+    }
+
+    private static MarketDataSnapshotFullRefresh snapshot(String mdReqId, double bid) {
+        MarketDataSnapshotFullRefresh snapshot = new MarketDataSnapshotFullRefresh();
+        snapshot.set(new MDReqID(mdReqId));
+        MarketDataSnapshotFullRefresh.NoMDEntries entry = new MarketDataSnapshotFullRefresh.NoMDEntries();
+        entry.set(new MDEntryType(MDEntryType.BID));
+        entry.set(new MDEntryPx(bid));
+        entry.set(new MDEntrySize(100));
+        snapshot.addGroup(entry);
+        return snapshot;
+    }
+
     @Test
     public void testRandomSubscription() {
         List<Long> longs = new Random()
@@ -18,6 +18,7 @@ package ch.voulgarakis.spring.boot.starter.quickfixj.authentication;
 
 import ch.voulgarakis.spring.boot.starter.quickfixj.exception.QuickFixJConfigurationException;
 import ch.voulgarakis.spring.boot.starter.quickfixj.session.FixConnectionType;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.FixSessionUtils;
 import quickfix.*;
 import quickfix.field.Password;
 import quickfix.field.Username;
@@ -59,7 +60,9 @@ public class SessionSettingsAuthenticationService implements AuthenticationServi
     private void authenticate(SessionID sessionID, Message message, String sessionSettingsProperty, StringField field)
             throws RejectLogon {
         try {
-            String value = sessionSettings.getString(sessionID, sessionSettingsProperty);
+            //The sessions created from an acceptor template have the credentials of the template
+            String value = sessionSettings.getString(FixSessionUtils.settingsOf(sessionSettings, sessionID),
+                    sessionSettingsProperty);
             //This is a FIX server, compare the credentials from fix message and session settings
             if (fixConnectionType.isAcceptor()) {
                 String inMessage = safeGetField(message, field).orElse(null);
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.autoconfigure;
+
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.AbstractFixSession;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+/**
+ * Enables the optional caches on the fix session beans (both the ones defined by the application and the ones
+ * created from the quickfixj config), as configured by {@code quickfixj.last-value-cache.*} and
+ * {@code quickfixj.order-state.*}.
+ */
+public class FixSessionPostProcessor implements BeanPostProcessor {
+
+    //Resolved lazily: post-processors are created before the configuration properties
+    private final ObjectProvider<QuickFixJBootProperties> quickFixJBootProperties;
+
+    public FixSessionPostProcessor(ObjectProvider<QuickFixJBootProperties> quickFixJBootProperties) {
+        this.quickFixJBootProperties = quickFixJBootProperties;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof AbstractFixSession) {
+            AbstractFixSession fixSession = (AbstractFixSession) bean;
+            QuickFixJBootProperties properties = quickFixJBootProperties.getObject();
+            QuickFixJBootProperties.LastValueCache lastValueCache = properties.getLastValueCache();
+            if (lastValueCache.getMaxEntries() > 0) {
+                fixSession.enableLastValueCache(lastValueCache.getMaxEntries(), lastValueCache.getTtl(),
+                        lastValueCache.getMsgTypes());
+            }
+            QuickFixJBootProperties.OrderState orderState = properties.getOrderState();
+            if (orderState.getMaxOrders() > 0) {
+                fixSession.enableOrderStateStore(orderState.getMaxOrders());
+            }
+        }
+        return bean;
+    }
+}
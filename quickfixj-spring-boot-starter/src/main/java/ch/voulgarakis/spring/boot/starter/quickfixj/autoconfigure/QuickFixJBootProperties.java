@@ -18,10 +18,16 @@ package ch.voulgarakis.spring.boot.starter.quickfixj.autoconfigure;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
 import org.springframework.boot.convert.DurationUnit;
+import org.springframework.util.unit.DataSize;
 
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 
 
 @ConfigurationProperties("quickfixj")
@@ -54,11 +60,64 @@ public class QuickFixJBootProperties {
      */
     private final boolean configLive;
 
-    public QuickFixJBootProperties(boolean jmxEnabled, String config, Duration startupTimeout, boolean configLive) {
+    /**
+     * The message store to use for the FIX sessions (if no MessageStoreFactory bean is defined).
+     */
+    private final MessageStoreType messageStore;
+
+    /**
+     * Retention of the off-heap message store (when message-store is off-heap).
+     */
+    private final OffHeapStore offHeapStore;
+
+    /**
+     * Group commit of the jdbc message store (when message-store is jdbc).
+     */
+    private final JdbcStore jdbcStore;
+
+    /**
+     * The FIX message log to use for the FIX sessions (if no LogFactory bean is defined).
+     * If null(not defined), nothing is logged.
+     */
+    private final LogType log;
+
+    /**
+     * Location and rolling of the binary log (when log is binary).
+     */
+    private final BinaryLog binaryLog;
+
+    /**
+     * Replay of the last response per request id to late subscribers.
+     */
+    private final LastValueCache lastValueCache;
+
+    /**
+     * State of the orders, built from the execution reports received.
+     */
+    private final OrderState orderState;
+
+    /**
+     * Which FIX sessions need to be ready (spring-context startup), when startup-timeout is defined.
+     */
+    private final Readiness readiness;
+
+    public QuickFixJBootProperties(boolean jmxEnabled, String config, Duration startupTimeout, boolean configLive,
+            @DefaultValue("memory") MessageStoreType messageStore, @DefaultValue OffHeapStore offHeapStore,
+            @DefaultValue JdbcStore jdbcStore, LogType log, @DefaultValue BinaryLog binaryLog,
+            @DefaultValue LastValueCache lastValueCache, @DefaultValue OrderState orderState,
+            @DefaultValue Readiness readiness) {
         this.jmxEnabled = jmxEnabled;
         this.config = config;
         this.startupTimeout = startupTimeout;
         this.configLive = configLive;
+        this.messageStore = messageStore;
+        this.offHeapStore = offHeapStore;
+        this.jdbcStore = jdbcStore;
+        this.log = log;
+        this.binaryLog = binaryLog;
+        this.lastValueCache = lastValueCache;
+        this.orderState = orderState;
+        this.readiness = readiness;
     }
 
     public boolean isJmxEnabled() {
@@ -72,4 +131,246 @@ public class QuickFixJBootProperties {
     public Duration getStartupTimeout() {
         return startupTimeout;
     }
+
+    public boolean isConfigLive() {
+        return configLive;
+    }
+
+    public MessageStoreType getMessageStore() {
+        return messageStore;
+    }
+
+    public OffHeapStore getOffHeapStore() {
+        return offHeapStore;
+    }
+
+    public JdbcStore getJdbcStore() {
+        return jdbcStore;
+    }
+
+    public LogType getLog() {
+        return log;
+    }
+
+    public BinaryLog getBinaryLog() {
+        return binaryLog;
+    }
+
+    public LastValueCache getLastValueCache() {
+        return lastValueCache;
+    }
+
+    public OrderState getOrderState() {
+        return orderState;
+    }
+
+    public Readiness getReadiness() {
+        return readiness;
+    }
+
+    public enum MessageStoreType {
+        /**
+         * Messages and sequence numbers are kept in memory only.
+         */
+        MEMORY,
+        /**
+         * Messages and sequence numbers are kept in memory-mapped segment files.
+         */
+        MMAP,
+        /**
+         * Messages are kept off-heap in a bounded ring buffer, sequence numbers in memory.
+         */
+        OFF_HEAP,
+        /**
+         * Messages and sequence numbers are committed asynchronously, in batches, to the DataSource bean.
+         */
+        JDBC
+    }
+
+    public enum LogType {
+        /**
+         * Raw messages and events are written asynchronously into rolling binary segment files.
+         */
+        BINARY
+    }
+
+    public static class OffHeapStore {
+
+        /**
+         * The maximum number of messages retained per session for resend.
+         */
+        private final int maxMessages;
+
+        /**
+         * The maximum size of the messages retained per session for resend.
+         */
+        private final DataSize capacity;
+
+        public OffHeapStore(@DefaultValue("100000") int maxMessages, @DefaultValue("64MB") DataSize capacity) {
+            this.maxMessages = maxMessages;
+            this.capacity = capacity;
+        }
+
+        public int getMaxMessages() {
+            return maxMessages;
+        }
+
+        public DataSize getCapacity() {
+            return capacity;
+        }
+    }
+
+    public static class JdbcStore {
+
+        /**
+         * The maximum number of writes staged (not yet committed), before the senders are blocked.
+         */
+        private final int stagingCapacity;
+
+        /**
+         * The maximum number of writes committed in one transaction.
+         */
+        private final int maxBatchSize;
+
+        public JdbcStore(@DefaultValue("10000") int stagingCapacity, @DefaultValue("500") int maxBatchSize) {
+            this.stagingCapacity = stagingCapacity;
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        public int getStagingCapacity() {
+            return stagingCapacity;
+        }
+
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+    }
+
+    public static class BinaryLog {
+
+        /**
+         * The directory of the binary log segments.
+         */
+        private final String directory;
+
+        /**
+         * The size after which a new segment is started.
+         */
+        private final DataSize segmentSize;
+
+        /**
+         * Whether to GZIP-compress the segments.
+         */
+        private final boolean compress;
+
+        /**
+         * The maximum number of records waiting to be written, before the engine threads are blocked.
+         */
+        private final int queueCapacity;
+
+        public BinaryLog(@DefaultValue("log") String directory, @DefaultValue("64MB") DataSize segmentSize,
+                boolean compress, @DefaultValue("65536") int queueCapacity) {
+            this.directory = directory;
+            this.segmentSize = segmentSize;
+            this.compress = compress;
+            this.queueCapacity = queueCapacity;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public DataSize getSegmentSize() {
+            return segmentSize;
+        }
+
+        public boolean isCompress() {
+            return compress;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+    }
+
+    public static class LastValueCache {
+
+        /**
+         * The maximum number of request ids whose last response is kept per session (0 disables the cache).
+         */
+        private final int maxEntries;
+
+        /**
+         * The time after its last update, after which a response is no longer replayed.
+         */
+        private final Duration ttl;
+
+        /**
+         * The types (MsgType) of the responses kept: only responses carrying the full state, by default quotes and
+         * market data snapshots.
+         */
+        private final Set<String> msgTypes;
+
+        public LastValueCache(@DefaultValue("0") int maxEntries, @DefaultValue("30s") Duration ttl,
+                @DefaultValue({"S", "W"}) Set<String> msgTypes) {
+            this.maxEntries = maxEntries;
+            this.ttl = ttl;
+            this.msgTypes = msgTypes;
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public Set<String> getMsgTypes() {
+            return msgTypes;
+        }
+    }
+
+    public static class OrderState {
+
+        /**
+         * The maximum number of orders whose state is kept per session (0 disables the order state store).
+         */
+        private final int maxOrders;
+
+        public OrderState(@DefaultValue("0") int maxOrders) {
+            this.maxOrders = maxOrders;
+        }
+
+        public int getMaxOrders() {
+            return maxOrders;
+        }
+    }
+
+    public static class Readiness {
+
+        /**
+         * The number of FIX sessions that need to be ready on startup. If null(not defined), all the sessions.
+         * The rest of the sessions keep connecting in the background.
+         */
+        private final Integer quorum;
+
+        /**
+         * The FIX sessions (session name or SessionID) that always need to be ready on startup.
+         */
+        private final List<String> requiredSessions;
+
+        public Readiness(Integer quorum, List<String> requiredSessions) {
+            this.quorum = quorum;
+            this.requiredSessions = Objects.nonNull(requiredSessions) ? requiredSessions : Collections.emptyList();
+        }
+
+        public Integer getQuorum() {
+            return quorum;
+        }
+
+        public List<String> getRequiredSessions() {
+            return requiredSessions;
+        }
+    }
 }
@@ -19,23 +19,35 @@ package ch.voulgarakis.spring.boot.starter.quickfixj.autoconfigure;
 import ch.voulgarakis.spring.boot.starter.quickfixj.EnableQuickFixJ;
 import ch.voulgarakis.spring.boot.starter.quickfixj.authentication.AuthenticationService;
 import ch.voulgarakis.spring.boot.starter.quickfixj.connection.FixConnection;
+import ch.voulgarakis.spring.boot.starter.quickfixj.connection.ShardedConnector;
 import ch.voulgarakis.spring.boot.starter.quickfixj.exception.QuickFixJConfigurationException;
 import ch.voulgarakis.spring.boot.starter.quickfixj.session.AbstractFixSession;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.DynamicFixSessions;
 import ch.voulgarakis.spring.boot.starter.quickfixj.session.FixConnectionType;
 import ch.voulgarakis.spring.boot.starter.quickfixj.session.FixSessionManager;
 import ch.voulgarakis.spring.boot.starter.quickfixj.session.InternalFixSessions;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.dispatch.AffinityProvider;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.dispatch.SessionDispatcher;
 import ch.voulgarakis.spring.boot.starter.quickfixj.session.logging.LoggingId;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.settings.LiveSessionSettings;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.settings.OnSettingsChangeDynamicAcceptorSessionProvider;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.settings.SessionSettingsLoader;
 import ch.voulgarakis.spring.boot.starter.quickfixj.session.utils.StartupLatch;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.quickfixj.jmx.JmxExporter;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.*;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import quickfix.*;
+import quickfix.mina.acceptor.AbstractSocketAcceptor;
 
 import javax.management.JMException;
 import javax.management.ObjectName;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -51,10 +63,21 @@ public class QuickFixJConnectionAutoConfiguration {
     @ConditionalOnMissingBean
     public Connector connector(Application application, FixConnectionType fixConnectionType,
             SessionSettings sessionSettings, MessageStoreFactory messageStoreFactory,
-            MessageFactory messageFactory, Optional<LogFactory> logFactory) throws ConfigError {
-        return fixConnectionType
+            MessageFactory messageFactory, Optional<LogFactory> logFactory,
+            ObjectProvider<OnSettingsChangeDynamicAcceptorSessionProvider> acceptorSessionProvider)
+            throws ConfigError {
+        Connector connector = fixConnectionType
                 .createConnector(application, messageStoreFactory, sessionSettings, logFactory.orElse(null),
                         messageFactory);
+        //Provide the sessions on logon (dynamic sessions, acceptor templates)
+        List<? extends Connector> connectors = connector instanceof ShardedConnector
+                ? ((ShardedConnector) connector).getShards()
+                : Collections.singletonList(connector);
+        connectors.stream()
+                .filter(AbstractSocketAcceptor.class::isInstance)
+                .forEach(acceptor -> acceptorSessionProvider
+                        .ifAvailable(provider -> provider.install((AbstractSocketAcceptor) acceptor)));
+        return connector;
     }
 
     @Bean
@@ -66,7 +89,8 @@ public class QuickFixJConnectionAutoConfiguration {
     @Bean
     @ConditionalOnMissingBean
     public Application application(List<InternalFixSessions<?>> fixSessions, FixConnectionType fixConnectionType,
-            StartupLatch startupLatch, LoggingId loggingId, AuthenticationService authenticationService) {
+            StartupLatch startupLatch, LoggingId loggingId, AuthenticationService authenticationService,
+            SessionDispatcher sessionDispatcher) {
 
         //Extract the fix sessions
         Map<SessionID, AbstractFixSession> sessions = fixSessions.stream()
@@ -84,7 +108,51 @@ public class QuickFixJConnectionAutoConfiguration {
                     }
                 }));
         
-        return new FixSessionManager(sessions, fixConnectionType, startupLatch, loggingId, authenticationService);
+        return new FixSessionManager(sessions, fixConnectionType, startupLatch, loggingId, authenticationService,
+                sessionDispatcher);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public SessionDispatcher sessionDispatcher(SessionSettings sessionSettings,
+            Optional<AffinityProvider> affinityProvider, Optional<MeterRegistry> meterRegistry) {
+        SessionDispatcher sessionDispatcher = new SessionDispatcher(sessionSettings,
+                affinityProvider.orElse(AffinityProvider.NONE));
+        meterRegistry.ifPresent(sessionDispatcher::setMeterRegistry);
+        return sessionDispatcher;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public DynamicFixSessions dynamicFixSessions(Application application,
+            List<InternalFixSessions<?>> fixSessions) {
+        return new DynamicFixSessions(application, fixSessions);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public OnSettingsChangeDynamicAcceptorSessionProvider acceptorSessionProvider(SessionSettings sessionSettings,
+            Application application, MessageStoreFactory messageStoreFactory, MessageFactory messageFactory,
+            Optional<LogFactory> logFactory, DynamicFixSessions dynamicFixSessions) {
+        //The connector of each logon manages the created sessions
+        return new OnSettingsChangeDynamicAcceptorSessionProvider(sessionSettings, null, application,
+                messageStoreFactory, logFactory.orElse(null), messageFactory, dynamicFixSessions);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "quickfixj", name = "config-live", havingValue = "true")
+    @ConditionalOnSingleCandidate(Connector.class)
+    @ConditionalOnMissingBean
+    public LiveSessionSettings liveSessionSettings(
+            //Started after the fix connection
+            FixConnection fixConnection,
+            Connector connector, FixConnectionType fixConnectionType, SessionSettings sessionSettings,
+            SessionSettingsLoader sessionSettingsLoader,
+            OnSettingsChangeDynamicAcceptorSessionProvider acceptorSessionProvider,
+            DynamicFixSessions dynamicFixSessions) {
+        return new LiveSessionSettings(connector, sessionSettings, sessionSettingsLoader,
+                fixConnectionType.isAcceptor() ? acceptorSessionProvider : null,
+                dynamicFixSessions, LiveSessionSettings.DEFAULT_DEBOUNCE);
     }
 
     @Bean
@@ -95,6 +163,15 @@ public class QuickFixJConnectionAutoConfiguration {
     public ObjectName connectorMBean(Connector connector) {
         try {
             JmxExporter exporter = new JmxExporter();
+            if (connector instanceof ShardedConnector) {
+                //Register the connector of each shard (the name of the first shard is returned)
+                ObjectName objectName = null;
+                for (Connector shard : ((ShardedConnector) connector).getShards()) {
+                    ObjectName shardObjectName = exporter.register(shard);
+                    objectName = Objects.isNull(objectName) ? shardObjectName : objectName;
+                }
+                return objectName;
+            }
             return exporter.register(connector);
         } catch (JMException e) {
             throw new QuickFixJConfigurationException(e.getMessage(), e);
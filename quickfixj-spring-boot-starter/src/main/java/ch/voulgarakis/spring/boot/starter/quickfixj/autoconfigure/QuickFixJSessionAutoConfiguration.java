@@ -19,17 +19,39 @@ package ch.voulgarakis.spring.boot.starter.quickfixj.autoconfigure;
 import ch.voulgarakis.spring.boot.starter.quickfixj.EnableQuickFixJ;
 import ch.voulgarakis.spring.boot.starter.quickfixj.authentication.AuthenticationService;
 import ch.voulgarakis.spring.boot.starter.quickfixj.authentication.SessionSettingsAuthenticationService;
+import ch.voulgarakis.spring.boot.starter.quickfixj.exception.QuickFixJConfigurationException;
 import ch.voulgarakis.spring.boot.starter.quickfixj.session.FixConnectionType;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.FixSessionSettings;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.FixSessionUtils;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.log.BinaryLogFactory;
 import ch.voulgarakis.spring.boot.starter.quickfixj.session.logging.LoggingId;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.store.GroupCommitJdbcStoreFactory;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.store.MappedFileStoreFactory;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.store.OffHeapStoreFactory;
 import ch.voulgarakis.spring.boot.starter.quickfixj.session.utils.StartupLatch;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionOutcome;
+import org.springframework.boot.autoconfigure.condition.SpringBootCondition;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.ConditionContext;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.type.AnnotatedTypeMetadata;
 import quickfix.*;
 
+import javax.sql.DataSource;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
 @Configuration
 @AutoConfigurationPackage
 @ConditionalOnBean(annotation = EnableQuickFixJ.class)
@@ -45,8 +67,24 @@ public class QuickFixJSessionAutoConfiguration {
     @Bean
     @ConditionalOnMissingBean
     public StartupLatch startupLatch(SessionSettings sessionSettings, FixConnectionType fixConnectionType,
-            QuickFixJBootProperties quickFixJBootProperties) {
-        return new StartupLatch(sessionSettings.size(), fixConnectionType, quickFixJBootProperties.getStartupTimeout());
+            QuickFixJBootProperties quickFixJBootProperties, ApplicationEventPublisher applicationEventPublisher) {
+        Map<SessionID, String> sessionNames = new LinkedHashMap<>();
+        FixSessionUtils.stream(sessionSettings)
+                //Acceptor templates are not sessions themselves
+                .filter(sessionID -> !FixSessionUtils.isAcceptorTemplate(sessionSettings, sessionID))
+                .forEach(sessionID -> sessionNames.put(sessionID,
+                        FixSessionSettings.extractSessionName(sessionSettings, sessionID)));
+        QuickFixJBootProperties.Readiness readiness = quickFixJBootProperties.getReadiness();
+        StartupLatch startupLatch = new StartupLatch(sessionNames, fixConnectionType,
+                quickFixJBootProperties.getStartupTimeout(), readiness.getQuorum(), readiness.getRequiredSessions());
+        startupLatch.setApplicationEventPublisher(applicationEventPublisher);
+        return startupLatch;
+    }
+
+    @Bean
+    public static FixSessionPostProcessor fixSessionPostProcessor(
+            ObjectProvider<QuickFixJBootProperties> quickFixJBootProperties) {
+        return new FixSessionPostProcessor(quickFixJBootProperties);
     }
 
     @Bean
@@ -57,8 +95,39 @@ public class QuickFixJSessionAutoConfiguration {
 
     @Bean
     @ConditionalOnMissingBean
-    public MessageStoreFactory messageStoreFactory() {
-        return new MemoryStoreFactory();
+    public MessageStoreFactory messageStoreFactory(SessionSettings sessionSettings,
+            QuickFixJBootProperties quickFixJBootProperties, ObjectProvider<DataSource> dataSource,
+            Optional<MeterRegistry> meterRegistry) {
+        //Selected from the bound property, so that any spelling of the enum (off-heap, OFF_HEAP) is accepted
+        switch (quickFixJBootProperties.getMessageStore()) {
+            case MMAP:
+                return new MappedFileStoreFactory(sessionSettings);
+            case OFF_HEAP:
+                QuickFixJBootProperties.OffHeapStore offHeapStore = quickFixJBootProperties.getOffHeapStore();
+                return new OffHeapStoreFactory(offHeapStore.getMaxMessages(),
+                        Math.toIntExact(offHeapStore.getCapacity().toBytes()));
+            case JDBC:
+                DataSource jdbcDataSource = dataSource.getIfAvailable(() -> {
+                    throw new QuickFixJConfigurationException("The jdbc message store requires a DataSource bean");
+                });
+                QuickFixJBootProperties.JdbcStore jdbcStore = quickFixJBootProperties.getJdbcStore();
+                GroupCommitJdbcStoreFactory factory = new GroupCommitJdbcStoreFactory(sessionSettings,
+                        jdbcDataSource, jdbcStore.getStagingCapacity(), jdbcStore.getMaxBatchSize());
+                meterRegistry.ifPresent(factory::setMeterRegistry);
+                return factory;
+            case MEMORY:
+            default:
+                return new MemoryStoreFactory();
+        }
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @Conditional(BinaryLogCondition.class)
+    public LogFactory binaryLogFactory(QuickFixJBootProperties quickFixJBootProperties) {
+        QuickFixJBootProperties.BinaryLog binaryLog = quickFixJBootProperties.getBinaryLog();
+        return new BinaryLogFactory(Paths.get(binaryLog.getDirectory()), binaryLog.getSegmentSize().toBytes(),
+                binaryLog.isCompress(), binaryLog.getQueueCapacity());
     }
 
     @Bean
@@ -73,4 +142,20 @@ public class QuickFixJSessionAutoConfiguration {
             FixConnectionType fixConnectionType) {
         return new SessionSettingsAuthenticationService(sessionSettings, fixConnectionType);
     }
+
+    /**
+     * Matches quickfixj.log=binary, with the relaxed binding of the {@link QuickFixJBootProperties.LogType} enum.
+     */
+    static class BinaryLogCondition extends SpringBootCondition {
+
+        @Override
+        public ConditionOutcome getMatchOutcome(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            QuickFixJBootProperties.LogType log = Binder.get(context.getEnvironment())
+                    .bind("quickfixj.log", QuickFixJBootProperties.LogType.class)
+                    .orElse(null);
+            return log == QuickFixJBootProperties.LogType.BINARY
+                    ? ConditionOutcome.match("quickfixj.log is binary")
+                    : ConditionOutcome.noMatch("quickfixj.log is " + log);
+        }
+    }
 }
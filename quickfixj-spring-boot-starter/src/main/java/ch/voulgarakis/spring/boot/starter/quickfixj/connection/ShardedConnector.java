@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.connection;
+
+import ch.voulgarakis.spring.boot.starter.quickfixj.exception.QuickFixJConfigurationException;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.FixSessionUtils;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.dispatch.SessionDispatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import quickfix.*;
+import quickfix.mina.SessionConnector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Partitions the sessions over multiple single-threaded connectors (shards), started and stopped as one connector.
+ * <p>
+ * Each shard processes the messages of its sessions on its own thread: the sessions of a shard are processed
+ * sequentially, but the shards run in parallel. A session is pinned to a shard by the hash of its SessionID
+ * (initiators), or by the hash of the address it is accepted on (acceptors, as the sessions of a port are accepted by
+ * the same connector: an acceptor listening on a single port gets a single shard). Initiator sessions with a
+ * dedicated thread (see {@link SessionDispatcher}) get a shard of their own.
+ * <p>
+ * Initiator sessions added at runtime are pinned to the shard they would get on a restart: the shard is created (and
+ * started) on demand, if it has no sessions yet.
+ */
+public class ShardedConnector implements Connector {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ShardedConnector.class);
+
+    private final boolean isAcceptor;
+    private final int shardCount;
+    private final SessionSettings sessionSettings;
+    private final ShardFactory shardFactory;
+    private final Function<SessionID, Object> shardKey;
+    //The shards per index, guarded by this
+    private final NavigableMap<Integer, SessionConnector> shards = new TreeMap<>();
+    private final Map<SessionID, SessionConnector> sessionShards = new HashMap<>();
+    private final Map<Object, SessionConnector> acceptorShards = new HashMap<>();
+    private volatile boolean started;
+
+    /**
+     * @param isAcceptor      whether the sessions are acceptor sessions.
+     * @param shardCount      the maximum number of shards (shards without sessions are not created).
+     * @param sessionSettings the settings of all the sessions.
+     * @param shardFactory    creates the single-threaded connector of a shard, from the settings of its sessions.
+     */
+    public ShardedConnector(boolean isAcceptor, int shardCount, SessionSettings sessionSettings,
+            ShardFactory shardFactory) throws ConfigError {
+        if (shardCount < 1) {
+            throw new QuickFixJConfigurationException("Invalid number of shards: " + shardCount);
+        }
+        this.isAcceptor = isAcceptor;
+        this.shardCount = shardCount;
+        this.sessionSettings = sessionSettings;
+        this.shardFactory = shardFactory;
+        this.shardKey = shardKey(isAcceptor, sessionSettings);
+
+        //Pin the sessions to their shard
+        Map<Integer, List<SessionID>> sessionsPerShard = new TreeMap<>();
+        FixSessionUtils.stream(sessionSettings).forEach(sessionID -> sessionsPerShard
+                .computeIfAbsent(shardIndex(sessionID, sessionsPerShard.keySet()), shard -> new ArrayList<>())
+                .add(sessionID));
+        if (sessionsPerShard.isEmpty()) {
+            throw new ConfigError("No sessions defined for the sharded connector");
+        }
+
+        for (Map.Entry<Integer, List<SessionID>> sessionsOfShard : sessionsPerShard.entrySet()) {
+            List<SessionID> sessionIDs = sessionsOfShard.getValue();
+            SessionConnector shard = shardFactory.create(shardSettings(sessionSettings, sessionIDs));
+            //The sessions are created by the shard on start
+            sessionIDs.forEach(sessionID -> sessionShards.put(sessionID, shard));
+            if (isAcceptor) {
+                sessionIDs.forEach(sessionID -> acceptorShards.put(shardKey.apply(sessionID), shard));
+            }
+            shards.put(sessionsOfShard.getKey(), shard);
+        }
+        LOG.info("Sessions partitioned over {} shards", shards.size());
+    }
+
+    /**
+     * @param sessionID   the id of a session in the session settings (or added at runtime).
+     * @param usedIndexes the indexes of the shards created so far.
+     * @return the index of the shard of the session.
+     */
+    private int shardIndex(SessionID sessionID, Set<Integer> usedIndexes) {
+        //Initiator sessions with a dedicated thread are isolated on their own shard
+        if (!isAcceptor && FixSessionUtils.contains(sessionSettings, sessionID)
+                && SessionDispatcher.isDedicatedThread(sessionSettings, sessionID)) {
+            return Math.max(shardCount, usedIndexes.stream().mapToInt(i -> i + 1).max().orElse(0));
+        }
+        return Math.floorMod(shardKey.apply(sessionID).hashCode(), shardCount);
+    }
+
+    private static Function<SessionID, Object> shardKey(boolean isAcceptor, SessionSettings sessionSettings) {
+        if (isAcceptor) {
+            return sessionID -> FixSessionUtils.acceptorAddress(sessionSettings, sessionID);
+        } else {
+            return sessionID -> sessionID;
+        }
+    }
+
+    /**
+     * @return the settings of the given sessions (with their interpolated values).
+     */
+    private static SessionSettings shardSettings(SessionSettings sessionSettings, List<SessionID> sessionIDs)
+            throws ConfigError {
+        SessionSettings shardSettings = new SessionSettings();
+        shardSettings.set(new Dictionary(null,
+                interpolated(sessionSettings, null, sessionSettings.getDefaultProperties())));
+        for (SessionID sessionID : sessionIDs) {
+            shardSettings.set(sessionID, new Dictionary(null,
+                    interpolated(sessionSettings, sessionID, sessionSettings.getSessionProperties(sessionID, true))));
+        }
+        return shardSettings;
+    }
+
+    private static Properties interpolated(SessionSettings sessionSettings, SessionID sessionID,
+            Properties properties) throws ConfigError {
+        Properties interpolated = new Properties();
+        for (String key : properties.stringPropertyNames()) {
+            interpolated.setProperty(key, Objects.isNull(sessionID)
+                    ? sessionSettings.getString(key)
+                    : sessionSettings.getString(sessionID, key));
+        }
+        return interpolated;
+    }
+
+    /**
+     * @return the connectors of the shards.
+     */
+    public synchronized List<SessionConnector> getShards() {
+        return Collections.unmodifiableList(new ArrayList<>(shards.values()));
+    }
+
+    /**
+     * @param sessionID the id of the session.
+     * @return the shard managing the session, or the shard a new session is added to (null for an acceptor session,
+     * whose address is not accepted by any shard).
+     */
+    public synchronized SessionConnector shardOf(SessionID sessionID) {
+        SessionConnector sessionShard = sessionShards.get(sessionID);
+        if (Objects.nonNull(sessionShard)) {
+            return sessionShard;
+        }
+        //Dynamic sessions
+        for (SessionConnector shard : shards.values()) {
+            if (shard.getSessions().contains(sessionID)) {
+                return shard;
+            }
+        }
+        if (isAcceptor) {
+            //The shard accepting on the address of the session
+            return acceptorShards.get(shardKey.apply(sessionID));
+        }
+        //The shard of the session after a restart
+        int index = shardIndex(sessionID, shards.keySet());
+        SessionConnector shard = shards.get(index);
+        if (Objects.isNull(shard)) {
+            shard = createShard(index);
+        }
+        return shard;
+    }
+
+    private SessionConnector createShard(int index) {
+        try {
+            SessionConnector shard = shardFactory.create(shardSettings(sessionSettings, Collections.emptyList()));
+            if (started) {
+                shard.start();
+            }
+            shards.put(index, shard);
+            LOG.info("Shard {} created for the sessions added at runtime", index);
+            return shard;
+        } catch (ConfigError e) {
+            throw new QuickFixJConfigurationException("Failed to create shard " + index, e);
+        }
+    }
+
+    @Override
+    public void start() throws ConfigError, RuntimeError {
+        List<SessionConnector> startedShards = new ArrayList<>();
+        try {
+            for (SessionConnector shard : getShards()) {
+                shard.start();
+                startedShards.add(shard);
+            }
+            started = true;
+        } catch (ConfigError | RuntimeException e) {
+            //All or nothing
+            startedShards.forEach(shard -> shard.stop(true));
+            throw e;
+        }
+    }
+
+    @Override
+    public void stop() {
+        stop(false);
+    }
+
+    @Override
+    public void stop(boolean force) {
+        started = false;
+        //Logout of all the shards in parallel
+        getShards().parallelStream().forEach(shard -> shard.stop(force));
+    }
+
+    @Override
+    public boolean isLoggedOn() {
+        return getShards().stream().anyMatch(Connector::isLoggedOn);
+    }
+
+    @Override
+    public ArrayList<SessionID> getSessions() {
+        ArrayList<SessionID> sessions = new ArrayList<>();
+        getShards().forEach(shard -> sessions.addAll(shard.getSessions()));
+        return sessions;
+    }
+
+    /**
+     * Creates the single-threaded connector of a shard.
+     */
+    @FunctionalInterface
+    public interface ShardFactory {
+        SessionConnector create(SessionSettings shardSettings) throws ConfigError;
+    }
+}
@@ -17,9 +17,12 @@
 package ch.voulgarakis.spring.boot.starter.quickfixj.fix.session;
 
 import ch.voulgarakis.spring.boot.starter.quickfixj.FixSessionInterface;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.order.OrderState;
 import ch.voulgarakis.spring.boot.starter.quickfixj.session.utils.RefIdSelector;
 import quickfix.Message;
 
+import java.util.List;
+import java.util.Optional;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -71,4 +74,25 @@ public interface FixSession extends FixSessionInterface {
     Disposable sendAndSubscribe(Message message, Function<Message, RefIdSelector> refIdSelectorSupplier,
             Consumer<Message> onResponse, Consumer<Throwable> onError
     );
+
+    /**
+     * Get the state of an order, as last reported by the counterparty (requires quickfixj.order-state.max-orders).
+     *
+     * @param clOrdId any ClOrdID of the order (of the original order, or of a cancel/replace).
+     * @return the state of the order, or empty if no execution report has been received for it.
+     */
+    Optional<OrderState> getOrderState(String clOrdId);
+
+    /**
+     * @param orderId the OrderID assigned by the counterparty.
+     * @return the state of the order, or empty if no execution report has been received for it.
+     * @see #getOrderState(String)
+     */
+    Optional<OrderState> getOrderStateByOrderId(String orderId);
+
+    /**
+     * @return the state of the orders that are not in a terminal state (filled, cancelled, rejected, etc.).
+     * @see #getOrderState(String)
+     */
+    List<OrderState> getOpenOrders();
 }
@@ -22,6 +22,7 @@ import ch.voulgarakis.spring.boot.starter.quickfixj.session.AbstractFixSession;
 import ch.voulgarakis.spring.boot.starter.quickfixj.session.FixSessionManager;
 import ch.voulgarakis.spring.boot.starter.quickfixj.session.FixSessionUtils;
 import ch.voulgarakis.spring.boot.starter.quickfixj.session.MessageSink;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.order.OrderState;
 import ch.voulgarakis.spring.boot.starter.quickfixj.session.utils.RefIdSelector;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Gauge;
@@ -33,7 +34,9 @@ import quickfix.Session;
 import quickfix.SessionID;
 import quickfix.SessionNotFound;
 
+import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -140,7 +143,7 @@ public class FixSessionImpl extends AbstractFixSession implements FixSession {
     @Override
     public Message send(Message message) {
         try {
-            Session.sendToTarget(message, getSessionId());
+            Session.sendToTarget(message, resolveSessionId(message));
             if (Objects.nonNull(messagesSent)) {
                 messagesSent.increment();
             }
@@ -162,7 +165,26 @@ public class FixSessionImpl extends AbstractFixSession implements FixSession {
         //This selector will associate FIX response messages received by the session, with this quote request.
         RefIdSelector refIdSelector = refIdSelectorSupplier.apply(messageSent);
 
-        //Subscribe to the responses relevant to this quote request
-        return subscribe(refIdSelector, onResponse, onError);
+        //Subscribe to the responses relevant to this quote request (from the counterparty it was sent to)
+        MessageSink messageSink = createSink(resolveSessionId(messageSent), refIdSelector, onResponse, onError);
+        return messageSink::dispose;
+    }
+
+    //--------------------------------------------------
+    //--------------------ORDER STATE-------------------
+    //--------------------------------------------------
+    @Override
+    public Optional<OrderState> getOrderState(String clOrdId) {
+        return getOrderStateStore().getByClOrdId(clOrdId);
+    }
+
+    @Override
+    public Optional<OrderState> getOrderStateByOrderId(String orderId) {
+        return getOrderStateStore().getByOrderId(orderId);
+    }
+
+    @Override
+    public List<OrderState> getOpenOrders() {
+        return getOrderStateStore().getOpenOrders();
     }
 }
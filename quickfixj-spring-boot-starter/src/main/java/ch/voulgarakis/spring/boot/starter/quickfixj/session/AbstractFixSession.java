@@ -20,20 +20,30 @@ import ch.voulgarakis.spring.boot.starter.quickfixj.FixSessionInterface;
 import ch.voulgarakis.spring.boot.starter.quickfixj.exception.QuickFixJConfigurationException;
 import ch.voulgarakis.spring.boot.starter.quickfixj.exception.SessionDroppedException;
 import ch.voulgarakis.spring.boot.starter.quickfixj.exception.SessionException;
-import ch.voulgarakis.spring.boot.starter.quickfixj.session.utils.FixMessageUtils;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.order.OrderStateStore;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.utils.EnvelopeSelector;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.utils.RoutingEnvelope;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import quickfix.Message;
+import quickfix.MessageUtils;
 import quickfix.Session;
 import quickfix.SessionID;
 import quickfix.field.MsgType;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 public class AbstractFixSession implements FixSessionInterface {
 
@@ -41,8 +51,17 @@ public class AbstractFixSession implements FixSessionInterface {
 
     private final Set<MessageSink> sinks = ConcurrentHashMap.newKeySet();
     private final AtomicReference<SessionDroppedException> loggedOut = new AtomicReference<>();
+    //Acceptor template: the sinks of each counterparty (session created from the template)
+    private final Map<SessionID, Set<MessageSink>> partitions = new ConcurrentHashMap<>();
+    private final Map<SessionID, SessionDroppedException> loggedOutCounterparties = new ConcurrentHashMap<>();
     private SessionID sessionId;
     private String sessionName;
+    private LastValueCache lastValueCache;
+    private volatile OrderStateStore orderStateStore;
+    //How many sinks the received messages were associated with
+    private final LongAdder matchedMessages = new LongAdder();
+    private final LongAdder unmatchedMessages = new LongAdder();
+    private final LongAdder ambiguousMessages = new LongAdder();
 
     //--------------------------------------------------
     //--------------------CONSTRUCTORS------------------
@@ -71,8 +90,19 @@ public class AbstractFixSession implements FixSessionInterface {
      * @param message the message that has been received.
      */
     protected void received(Message message) {
+        received(message, RoutingEnvelope.of(message));
+    }
+
+    /**
+     * Notifies that a message has been received, whose routing fields have already been extracted (e.g. by a subclass
+     * that needs them as well).
+     *
+     * @param message  the message that has been received.
+     * @param envelope the routing envelope of the message, see {@link RoutingEnvelope#of(Message)}.
+     */
+    protected void received(Message message, RoutingEnvelope envelope) {
         //loggedOut(null);
-        notifySubscribers(message, sink -> sink.next(message));
+        notifySubscribers(message, envelope, sink -> sink.next(message), true);
     }
 
     /**
@@ -83,7 +113,8 @@ public class AbstractFixSession implements FixSessionInterface {
      */
     protected void error(SessionException ex) {
         loggedOut(ex);
-        notifySubscribers(ex.getFixMessage(), sink -> sink.error(ex));
+        Message message = ex.getFixMessage();
+        notifySubscribers(message, RoutingEnvelope.of(message), sink -> sink.error(ex), false);
     }
 
     /**
@@ -102,6 +133,7 @@ public class AbstractFixSession implements FixSessionInterface {
      */
     private void loggedOut(SessionException ex) {
         if (ex instanceof SessionDroppedException) {
+            clearLastValueCache();
             SessionDroppedException droppedException = (SessionDroppedException) ex;
             //Do not override if a SessionDroppedException with a Fix Message already exists!
             if (Objects.nonNull(ex.getFixMessage())) {
@@ -129,14 +161,33 @@ public class AbstractFixSession implements FixSessionInterface {
      * Notify all the registered sinks that are in scope for the received message by invoking the sinkConsumer.
      *
      * @param message      the fix message that has been received, for which we will find the sinks in scope.
+     * @param envelope     the routing fields of the message, extracted once instead of once per sink.
      * @param sinkConsumer what to do for the sinks in scope.
+     * @param lastValue    whether the message is the last value of its request (or a reject, that invalidates it).
      */
-    private synchronized void notifySubscribers(Message message, Consumer<MessageSink> sinkConsumer) {
-        //Notify all the sinks in parallel
-        int notifiedSinks = sinks.parallelStream()
+    private synchronized void notifySubscribers(Message message, RoutingEnvelope envelope,
+            Consumer<MessageSink> sinkConsumer, boolean lastValue) {
+        //Keep the state of the orders (execution reports are received, order cancel rejects are errors)
+        if (Objects.nonNull(orderStateStore) && Objects.nonNull(envelope)
+                && (MsgType.EXECUTION_REPORT.equals(envelope.getMsgType())
+                || MsgType.ORDER_CANCEL_REJECT.equals(envelope.getMsgType()))) {
+            orderStateStore.update(message);
+        }
+
+        //Keep the last value, for subscriptions created later
+        if (Objects.nonNull(lastValueCache)) {
+            if (lastValue) {
+                lastValueCache.put(envelope, message);
+            } else {
+                lastValueCache.remove(envelope);
+            }
+        }
+
+        //Notify all the sinks in parallel (and the sinks of the counterparty, for a template)
+        int notifiedSinks = sinksInScope(message)
                 .mapToInt(messageSink -> {
                     //Check if we should notify the subscriber (based on the predicate of the sink)
-                    boolean notifySubscribers = messageSink.getMessageSelector().test(message);
+                    boolean notifySubscribers = isInScope(messageSink.getMessageSelector(), envelope, message);
                     if (notifySubscribers) {
                         //Notify the sink
                         sinkConsumer.accept(messageSink);
@@ -147,20 +198,43 @@ public class AbstractFixSession implements FixSessionInterface {
                 .sum();
 
         //Log
-        if (Objects.nonNull(message) && !FixMessageUtils.isMessageOfType(message, MsgType.LOGOUT)) {
+        if (Objects.nonNull(envelope) && !MsgType.LOGOUT.equals(envelope.getMsgType())) {
             if (notifiedSinks == 0) {
+                unmatchedMessages.increment();
                 //Log a warning if nobody was notified
                 LOG.warn("Message received could not be associated with any Request. Message: {}", message);
             } else if (notifiedSinks > 1) {
+                ambiguousMessages.increment();
                 //Log a warning if more than one sinks were notified
                 LOG.warn("Message received was  associated with {} Requests. Suspicious subscriptions. Message: {}",
                         notifiedSinks, message);
-            } else if (LOG.isDebugEnabled()) {
-                LOG.debug("Notified sink for message: {}", message);
+            } else {
+                matchedMessages.increment();
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Notified sink for message: {}", message);
+                }
             }
         }
     }
 
+    private Stream<MessageSink> sinksInScope(Message message) {
+        if (partitions.isEmpty() || Objects.isNull(message)) {
+            return sinks.parallelStream();
+        }
+        Set<MessageSink> partition = partitions.get(MessageUtils.getReverseSessionID(message));
+        if (Objects.isNull(partition) || partition.isEmpty()) {
+            return sinks.parallelStream();
+        }
+        return Stream.concat(sinks.parallelStream(), partition.parallelStream());
+    }
+
+    private static boolean isInScope(Predicate<Message> messageSelector, RoutingEnvelope envelope, Message message) {
+        if (messageSelector instanceof EnvelopeSelector) {
+            return ((EnvelopeSelector) messageSelector).test(envelope, message);
+        }
+        return messageSelector.test(message);
+    }
+
     /**
      * Create a message sink and add it in the sink registry.
      * If the session is disconnected/dropped, the error will be immediately propagated.
@@ -172,17 +246,181 @@ public class AbstractFixSession implements FixSessionInterface {
      */
     protected MessageSink createSink(Predicate<Message> messageSelector, Consumer<Message> onNext,
             Consumer<Throwable> onError) {
-        //Create the sink where we push fix messages
-        MessageSink sink = new MessageSink(sinks, messageSelector, onNext, onError);
+        return createSink(sinks, loggedOut::get, messageSelector, onNext, onError);
+    }
+
+    /**
+     * Create a message sink for the messages received from a counterparty.
+     * On an acceptor template, the sink only receives the messages of the counterparty (session created from the
+     * template), and is only dropped when the counterparty is. Otherwise, this is the same as
+     * {@link #createSink(Predicate, Consumer, Consumer)}.
+     *
+     * @param counterparty    the session the messages are received from.
+     * @param messageSelector associates the sink with received fix messages that are in scope.
+     * @param onNext          what to do when a new fix message has been received.
+     * @param onError         what to do when an error has been received.
+     * @return the sink that was created and registered.
+     */
+    protected MessageSink createSink(SessionID counterparty, Predicate<Message> messageSelector,
+            Consumer<Message> onNext, Consumer<Throwable> onError) {
+        if (!isTemplateOf(counterparty)) {
+            return createSink(messageSelector, onNext, onError);
+        }
+        Set<MessageSink> partition = partitions.computeIfAbsent(counterparty, id -> ConcurrentHashMap.newKeySet());
+        return createSink(partition, () -> loggedOutCounterparties.get(counterparty), messageSelector, onNext,
+                onError);
+    }
+
+    private MessageSink createSink(Set<MessageSink> sinks, Supplier<SessionDroppedException> droppedException,
+            Predicate<Message> messageSelector, Consumer<Message> onNext, Consumer<Throwable> onError) {
+        MessageSink sink;
+        List<Message> lastValues = new ArrayList<>();
+        //Register and collect the last values atomically, so that no message is missed or received twice
+        synchronized (this) {
+            //Create the sink where we push fix messages
+            sink = new MessageSink(sinks, messageSelector, onNext, onError);
+
+            //The last values that are in scope
+            if (Objects.nonNull(lastValueCache)) {
+                lastValueCache.forEach((envelope, message) -> {
+                    if (isInScope(messageSelector, envelope, message)) {
+                        lastValues.add(message);
+                    }
+                });
+            }
+            if (!lastValues.isEmpty()) {
+                sink.startReplay();
+            }
+        }
+        //Replay outside the lock of the session: the messages received meanwhile are delivered after the last values
+        if (!lastValues.isEmpty()) {
+            sink.replay(lastValues);
+        }
 
         //Notify new subscriber if session has been dropped
-        SessionDroppedException sessionDroppedException = loggedOut.get();
+        SessionDroppedException sessionDroppedException = droppedException.get();
         if (Objects.nonNull(sessionDroppedException)) {
             sink.error(sessionDroppedException);
         }
         return sink;
     }
 
+    //--------------------------------------------------
+    //-----------------ACCEPTOR TEMPLATE----------------
+    //--------------------------------------------------
+
+    /**
+     * @param sessionId the id of a session.
+     * @return whether this is the session of an acceptor template, receiving the messages of the session (created
+     * from the template).
+     */
+    final boolean isTemplateOf(SessionID sessionId) {
+        return Objects.nonNull(this.sessionId) && !this.sessionId.equals(sessionId)
+                && FixSessionUtils.isTemplate(this.sessionId);
+    }
+
+    void counterpartyCreated(SessionID counterparty) {
+        partitions.computeIfAbsent(counterparty, id -> ConcurrentHashMap.newKeySet());
+    }
+
+    void counterpartyLoggedOn(SessionID counterparty) {
+        loggedOutCounterparties.remove(counterparty);
+    }
+
+    void counterpartyLoggedOut(SessionID counterparty, SessionDroppedException ex) {
+        //Do not override if a SessionDroppedException with a Fix Message already exists!
+        if (Objects.nonNull(ex.getFixMessage())) {
+            loggedOutCounterparties.put(counterparty, ex);
+        } else {
+            loggedOutCounterparties.putIfAbsent(counterparty, ex);
+        }
+        //Only the sinks of the counterparty are dropped
+        Set<MessageSink> partition = partitions.get(counterparty);
+        if (Objects.nonNull(partition)) {
+            new ArrayList<>(partition).forEach(sink -> sink.error(ex));
+        }
+    }
+
+    void counterpartyRemoved(SessionID counterparty) {
+        loggedOutCounterparties.remove(counterparty);
+        Set<MessageSink> partition = partitions.remove(counterparty);
+        if (Objects.nonNull(partition)) {
+            SessionDroppedException ex = new SessionDroppedException();
+            new ArrayList<>(partition).forEach(sink -> sink.error(ex));
+        }
+    }
+
+    /**
+     * @param message the message to be sent.
+     * @return the session the message is sent to: the session itself, or on an acceptor template, the counterparty
+     * specified in the header of the message (e.g. TargetCompID).
+     */
+    protected SessionID resolveSessionId(Message message) {
+        SessionID sessionID = getSessionId();
+        return FixSessionUtils.isTemplate(sessionID) ? FixSessionUtils.resolveTemplate(sessionID, message) : sessionID;
+    }
+
+    //--------------------------------------------------
+    //-----------------LAST VALUE CACHE-----------------
+    //--------------------------------------------------
+
+    /**
+     * Keep the last quote and market data snapshot received per request id (QuoteReqID, MDReqID), and replay it to the
+     * subscriptions created while the request is still active, instead of re-sending the request.
+     *
+     * @param maxEntries the maximum number of request ids kept (least recently updated are evicted first).
+     * @param ttl        the time after its last update, after which a response is no longer replayed.
+     */
+    public void enableLastValueCache(int maxEntries, Duration ttl) {
+        enableLastValueCache(maxEntries, ttl, LastValueCache.SNAPSHOT_MSG_TYPES);
+    }
+
+    /**
+     * Keep the last response of the given types received per request id, and replay it to the subscriptions created
+     * while the request is still active, instead of re-sending the request.
+     *
+     * @param maxEntries the maximum number of request ids kept (least recently updated are evicted first).
+     * @param ttl        the time after its last update, after which a response is no longer replayed.
+     * @param msgTypes   the types of the responses kept: each must carry the full state (e.g. not execution reports
+     *                   or market data incremental refreshes, since only the last one is replayed).
+     */
+    public synchronized void enableLastValueCache(int maxEntries, Duration ttl, Set<String> msgTypes) {
+        lastValueCache = new LastValueCache(maxEntries, ttl, msgTypes);
+    }
+
+    private synchronized void clearLastValueCache() {
+        if (Objects.nonNull(lastValueCache)) {
+            lastValueCache.clear();
+        }
+    }
+
+    //--------------------------------------------------
+    //-----------------ORDER STATE STORE----------------
+    //--------------------------------------------------
+
+    /**
+     * Keep the state of the orders of the session, as reported by the execution reports and order cancel rejects
+     * received, so that it can be queried without a round trip to the counterparty.
+     *
+     * @param maxOrders the maximum number of orders kept (least recently updated are evicted first).
+     */
+    public synchronized void enableOrderStateStore(int maxOrders) {
+        orderStateStore = new OrderStateStore(maxOrders);
+    }
+
+    /**
+     * @return the order state store of the session.
+     * @throws QuickFixJConfigurationException if the order state store is not enabled.
+     */
+    protected OrderStateStore getOrderStateStore() {
+        OrderStateStore store = orderStateStore;
+        if (Objects.isNull(store)) {
+            throw new QuickFixJConfigurationException("Order state store is not enabled for session: " + sessionName
+                    + ". Set quickfixj.order-state.max-orders.");
+        }
+        return store;
+    }
+
     //--------------------------------------------------
     //--------------------SESSION ID--------------------
     //--------------------------------------------------
@@ -225,6 +463,12 @@ public class AbstractFixSession implements FixSessionInterface {
     //--------------------------------------------------
     @Override
     public boolean isLoggedOn() {
+        //Acceptor template: whether any of the counterparties is logged on
+        if (FixSessionUtils.isTemplate(getSessionId())) {
+            return partitions.keySet().stream()
+                    .map(Session::lookupSession)
+                    .anyMatch(session -> Objects.nonNull(session) && session.isLoggedOn());
+        }
         Session session = Session.lookupSession(getSessionId());
         if (Objects.nonNull(session)) {
             return session.isLoggedOn();
@@ -234,7 +478,32 @@ public class AbstractFixSession implements FixSessionInterface {
     }
 
     protected int sinkSize() {
-        return sinks.size();
+        return sinks.size() + partitions.values().stream().mapToInt(Set::size).sum();
+    }
+
+    //--------------------------------------------------
+    //------------------SINK MATCHING-------------------
+    //--------------------------------------------------
+
+    /**
+     * @return the number of messages received (or rejects) that were associated with exactly one subscription.
+     */
+    public long getMatchedMessages() {
+        return matchedMessages.sum();
+    }
+
+    /**
+     * @return the number of messages received (or rejects) that could not be associated with any subscription.
+     */
+    public long getUnmatchedMessages() {
+        return unmatchedMessages.sum();
+    }
+
+    /**
+     * @return the number of messages received (or rejects) that were associated with more than one subscription.
+     */
+    public long getAmbiguousMessages() {
+        return ambiguousMessages.sum();
     }
 
 //    protected boolean isLoggedOut() {
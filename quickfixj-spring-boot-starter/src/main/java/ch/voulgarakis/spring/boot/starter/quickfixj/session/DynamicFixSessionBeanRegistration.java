@@ -31,6 +31,8 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
@@ -43,6 +45,8 @@ public class DynamicFixSessionBeanRegistration<T extends FixSessionInterface> {
     private final SessionSettings sessionSettings;
     private final BiFunction<String, SessionID, BeanDefinition> fixSessionBeanDefinitionCreator;
     private final Class<? extends T> sessionBeanType;
+    //The session beans whose definition was registered here (and can be removed again)
+    private final Set<String> registeredBeanNames = ConcurrentHashMap.newKeySet();
 
     public DynamicFixSessionBeanRegistration(
             GenericApplicationContext applicationContext, SessionSettings sessionSettings,
@@ -107,6 +111,31 @@ public class DynamicFixSessionBeanRegistration<T extends FixSessionInterface> {
         return response;
     }
 
+    /**
+     * Register the session bean of a session added at runtime (or re-use the bean already defined with the same
+     * name).
+     *
+     * @param sessionName the name of the session (and of the bean).
+     * @param sessionID   the id of the session.
+     * @return the session bean.
+     */
+    public synchronized T registerSessionBean(String sessionName, SessionID sessionID) {
+        return createSessionBean(sessionName, sessionID);
+    }
+
+    /**
+     * Remove the session bean of a session removed at runtime. Only the beans registered here are removed (and
+     * destroyed), the beans defined by the application are kept.
+     *
+     * @param sessionName the name of the session (and of the bean).
+     */
+    public synchronized void unregisterSessionBean(String sessionName) {
+        if (registeredBeanNames.remove(sessionName) && applicationContext.containsBeanDefinition(sessionName)) {
+            applicationContext.removeBeanDefinition(sessionName);
+            LOG.info("FixSession removed with bean name='{}'", sessionName);
+        }
+    }
+
     private T getDefinedSessionBean(SessionID sessionID, String sessionName) {
         Map<String, ? extends T> sessionBeans = applicationContext.getBeansOfType(sessionBeanType);
         T fixSession;
@@ -143,6 +172,7 @@ public class DynamicFixSessionBeanRegistration<T extends FixSessionInterface> {
 
             //Register the bean definition in spring
             applicationContext.registerBeanDefinition(sessionName, beanDefinition);
+            registeredBeanNames.add(sessionName);
 
             //Retrieve the actual bean (will also force its instantiation)
             fixSession = applicationContext.getBean(sessionName, sessionBeanType);
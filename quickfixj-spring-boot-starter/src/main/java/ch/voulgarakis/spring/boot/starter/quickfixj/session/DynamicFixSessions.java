@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session;
+
+import ch.voulgarakis.spring.boot.starter.quickfixj.exception.QuickFixJConfigurationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import quickfix.Application;
+import quickfix.SessionID;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Registers (and unregisters) the session beans of the sessions added (and removed) at runtime, so that their
+ * messages are received without restarting the context.
+ * <p>
+ * If the quickfixj {@link Application} is not a {@link FixSessionManager}, the application is responsible for
+ * receiving the messages of all the sessions, and nothing is registered.
+ */
+public class DynamicFixSessions {
+    private static final Logger LOG = LoggerFactory.getLogger(DynamicFixSessions.class);
+
+    private final FixSessionManager fixSessionManager;
+    private final List<InternalFixSessions<?>> internalFixSessions;
+
+    public DynamicFixSessions(Application application, List<InternalFixSessions<?>> internalFixSessions) {
+        this.fixSessionManager = application instanceof FixSessionManager ? (FixSessionManager) application : null;
+        this.internalFixSessions = internalFixSessions;
+    }
+
+    /**
+     * @param sessionId the id of the session.
+     * @return whether the messages of the session are received.
+     */
+    public boolean isRegistered(SessionID sessionId) {
+        return Objects.isNull(fixSessionManager) || fixSessionManager.isManaged(sessionId);
+    }
+
+    /**
+     * Register the session bean of a session (if not already registered).
+     *
+     * @param sessionId   the id of the session.
+     * @param sessionName the name of the session (and of its bean).
+     * @return whether the messages of the session are received.
+     */
+    public synchronized boolean register(SessionID sessionId, String sessionName) {
+        if (isRegistered(sessionId)) {
+            return true;
+        }
+        //Sessions created from an acceptor template share the receiver of the template
+        Optional<AbstractFixSession> templateSession = fixSessionManager.findTemplateSession(sessionId);
+        if (templateSession.isPresent()) {
+            fixSessionManager.registerSession(sessionId, templateSession.get());
+            LOG.debug("Session {} registered on template session {}", sessionId,
+                    templateSession.get().getSessionId());
+            return true;
+        }
+        for (InternalFixSessions<?> fixSessions : internalFixSessions) {
+            Object fixSession = fixSessions.registerSession(sessionName, sessionId);
+            if (fixSession instanceof AbstractFixSession) {
+                fixSessionManager.registerSession(sessionId, (AbstractFixSession) fixSession);
+                LOG.info("Session {} registered with name '{}'", sessionId, sessionName);
+                return true;
+            } else if (Objects.nonNull(fixSession)) {
+                throw new QuickFixJConfigurationException(
+                        "Session object not of expected AbstractFixSession type: " + fixSession);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Unregister the session bean of a session.
+     *
+     * @param sessionId the id of the session.
+     */
+    public synchronized void unregister(SessionID sessionId) {
+        if (Objects.isNull(fixSessionManager)) {
+            return;
+        }
+        AbstractFixSession fixSession = fixSessionManager.unregisterSession(sessionId);
+        if (Objects.nonNull(fixSession) && fixSession.isTemplateOf(sessionId)) {
+            fixSession.counterpartyRemoved(sessionId);
+            LOG.debug("Session {} unregistered from template session {}", sessionId, fixSession.getSessionId());
+        } else if (Objects.nonNull(fixSession)) {
+            internalFixSessions.forEach(fixSessions -> fixSessions.unregisterSession(sessionId));
+            LOG.info("Session {} unregistered", sessionId);
+        }
+    }
+}
@@ -16,37 +16,90 @@
 
 package ch.voulgarakis.spring.boot.starter.quickfixj.session;
 
+import ch.voulgarakis.spring.boot.starter.quickfixj.connection.ShardedConnector;
 import ch.voulgarakis.spring.boot.starter.quickfixj.exception.QuickFixJConfigurationException;
-import ch.voulgarakis.spring.boot.starter.quickfixj.session.settings.OnSettingsChangeDynamicAcceptorSessionProvider;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.utils.VirtualThreadExecutorFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import quickfix.*;
+import quickfix.mina.SessionConnector;
 import quickfix.mina.acceptor.AbstractSocketAcceptor;
 
+import java.util.Objects;
+
 public enum FixConnectionType {
     ACCEPTOR(false, true),
     ACCEPTOR_THREADED(true, true),
+    ACCEPTOR_VIRTUAL(true, true, false, true),
+    ACCEPTOR_SHARDED(false, true, true, false),
+    ACCEPTOR_IN_MEMORY(true, true, false, false, true),
     INITIATOR(false, false),
-    INITIATOR_THREADED(true, false);
+    INITIATOR_THREADED(true, false),
+    INITIATOR_VIRTUAL(true, false, false, true),
+    INITIATOR_SHARDED(false, false, true, false),
+    INITIATOR_IN_MEMORY(true, false, false, false, true);
+
+    private static final Logger LOG = LoggerFactory.getLogger(FixConnectionType.class);
 
     private static final String THREADED = "Threaded";
+    private static final String THREADED_VIRTUAL = "virtual";
+    private static final String SHARDED = "Sharded";
+    private static final String SHARDS = "Shards";
+    private static final String IN_MEMORY = "InMemory";
+    private static final String IN_MEMORY_PROTOCOL = "VM_PIPE";
 
     private final boolean isThreaded;
     private final boolean isAcceptor;
+    private final boolean isSharded;
+    private final boolean isVirtual;
+    private final boolean isInMemory;
 
     FixConnectionType(boolean isThreaded, boolean isAcceptor) {
+        this(isThreaded, isAcceptor, false, false);
+    }
+
+    FixConnectionType(boolean isThreaded, boolean isAcceptor, boolean isSharded, boolean isVirtual) {
+        this(isThreaded, isAcceptor, isSharded, isVirtual, false);
+    }
+
+    FixConnectionType(boolean isThreaded, boolean isAcceptor, boolean isSharded, boolean isVirtual,
+            boolean isInMemory) {
         this.isThreaded = isThreaded;
         this.isAcceptor = isAcceptor;
+        this.isSharded = isSharded;
+        this.isVirtual = isVirtual;
+        this.isInMemory = isInMemory;
     }
 
     public static FixConnectionType of(SessionSettings sessionSettings) {
         try {
             String connectionType = sessionSettings.getString(SessionFactory.SETTING_CONNECTION_TYPE);
+            String threaded = sessionSettings.isSetting(THREADED) ? sessionSettings.getString(THREADED) : null;
+            //Threaded=virtual runs the message processing of each session on a virtual thread
+            boolean isVirtual = THREADED_VIRTUAL.equalsIgnoreCase(threaded);
             //By default create a threaded connector
-            boolean isThreaded = !sessionSettings.isSetting(THREADED) || sessionSettings.getBool(THREADED);
+            boolean isThreaded = Objects.isNull(threaded) || isVirtual || sessionSettings.getBool(THREADED);
+            if (isVirtual && !VirtualThreadExecutorFactory.isSupported()) {
+                LOG.warn("Virtual threads are not supported by this JDK, falling back to platform threads.");
+                isVirtual = false;
+            }
+            //Sessions partitioned over single-threaded connectors
+            boolean isSharded = sessionSettings.isSetting(SHARDED) && sessionSettings.getBool(SHARDED);
+            //Sessions connected to a counterparty in the same JVM, through in-memory pipes instead of sockets
+            boolean isInMemory = sessionSettings.isSetting(IN_MEMORY) && sessionSettings.getBool(IN_MEMORY);
 
             if (connectionType.equals(SessionFactory.ACCEPTOR_CONNECTION_TYPE)) {
-                return isThreaded ? ACCEPTOR_THREADED : ACCEPTOR;
+                return isInMemory ? ACCEPTOR_IN_MEMORY
+                        : isSharded ? ACCEPTOR_SHARDED
+                        : isVirtual ? ACCEPTOR_VIRTUAL
+                        : isThreaded ? ACCEPTOR_THREADED
+                        : ACCEPTOR;
             } else if (connectionType.equals(SessionFactory.INITIATOR_CONNECTION_TYPE)) {
-                return isThreaded ? INITIATOR_THREADED : INITIATOR;
+                return isInMemory ? INITIATOR_IN_MEMORY
+                        : isSharded ? INITIATOR_SHARDED
+                        : isVirtual ? INITIATOR_VIRTUAL
+                        : isThreaded ? INITIATOR_THREADED
+                        : INITIATOR;
             } else {
                 throw new ConfigError("Failed to determine " + SessionFactory.SETTING_CONNECTION_TYPE);
             }
@@ -59,10 +112,33 @@ public enum FixConnectionType {
         return isAcceptor;
     }
 
+    public boolean isSharded() {
+        return isSharded;
+    }
+
+    public boolean isVirtual() {
+        return isVirtual;
+    }
+
+    public boolean isInMemory() {
+        return isInMemory;
+    }
+
     public Connector createConnector(Application application, MessageStoreFactory messageStoreFactory,
             SessionSettings sessionSettings, LogFactory logFactory,
             MessageFactory messageFactory) throws ConfigError {
-        if (isAcceptor) {
+        if (isInMemory && !usesInMemoryProtocol(sessionSettings)) {
+            //Not applied by the connector, as the session settings are shared (and reloaded) by the other beans
+            throw new ConfigError(IN_MEMORY + "=Y requires the session settings to be loaded with "
+                    + "FixConnectionType.applyInMemoryProtocol()");
+        }
+        if (isSharded) {
+            //Each shard is a single-threaded connector
+            FixConnectionType shardType = isAcceptor ? ACCEPTOR : INITIATOR;
+            return new ShardedConnector(isAcceptor, shardCount(sessionSettings), sessionSettings,
+                    shardSettings -> (SessionConnector) shardType.createConnector(application,
+                            messageStoreFactory, shardSettings, logFactory, messageFactory));
+        } else if (isAcceptor) {
 
 //            sessionSettings.setString("AcceptorTemplate", "Y");
             AbstractSocketAcceptor socketAcceptor;
@@ -71,24 +147,26 @@ public enum FixConnectionType {
                 socketAcceptor =
                         new ThreadedSocketAcceptor(application, messageStoreFactory, sessionSettings, logFactory,
                                 messageFactory);
+                if (isVirtual) {
+                    socketAcceptor.setExecutorFactory(new VirtualThreadExecutorFactory());
+                }
             } else {
                 socketAcceptor =
                         new SocketAcceptor(application, messageStoreFactory, sessionSettings, logFactory,
                                 messageFactory);
             }
-
-            //Set the dynamic acceptor session provider, which will create the sessions on the fly,
-            // if the session settings have changed
-            OnSettingsChangeDynamicAcceptorSessionProvider sessionProvider =
-                    new OnSettingsChangeDynamicAcceptorSessionProvider(sessionSettings, socketAcceptor, application,
-                            messageStoreFactory, logFactory, messageFactory);
-            socketAcceptor.getAcceptorAddresses().values()
-                    .forEach(socketAddress -> socketAcceptor.setSessionProvider(socketAddress, sessionProvider));
+            //The sessions created on logon (acceptor templates, sessions added at runtime) are provided by the
+            // OnSettingsChangeDynamicAcceptorSessionProvider installed on the acceptor
             return socketAcceptor;
         } else {
             if (isThreaded) {
-                return new ThreadedSocketInitiator(application, messageStoreFactory, sessionSettings, logFactory,
-                        messageFactory);
+                ThreadedSocketInitiator socketInitiator =
+                        new ThreadedSocketInitiator(application, messageStoreFactory, sessionSettings, logFactory,
+                                messageFactory);
+                if (isVirtual) {
+                    socketInitiator.setExecutorFactory(new VirtualThreadExecutorFactory());
+                }
+                return socketInitiator;
             } else {
                 return new SocketInitiator(application, messageStoreFactory, sessionSettings, logFactory,
                         messageFactory);
@@ -96,5 +174,55 @@ public enum FixConnectionType {
         }
     }
 
+    /**
+     * Connect the sessions through MINA's in-memory pipes (VM_PIPE), addressed by the port only: an initiator
+     * session connects to the acceptor of its SocketConnectPort in the same JVM, without going through TCP.
+     * <p>
+     * Applied by the {@link ch.voulgarakis.spring.boot.starter.quickfixj.session.settings.SessionSettingsLoader} to
+     * the settings it loads (on every reload too), so that the sessions added at runtime are connected in memory.
+     *
+     * @param sessionSettings the loaded session settings, not yet shared.
+     * @return the session settings, connected in memory if InMemory=Y.
+     */
+    public static SessionSettings applyInMemoryProtocol(SessionSettings sessionSettings) {
+        try {
+            if (!sessionSettings.isSetting(IN_MEMORY) || !sessionSettings.getBool(IN_MEMORY)) {
+                return sessionSettings;
+            }
+        } catch (ConfigError | FieldConvertError err) {
+            throw new QuickFixJConfigurationException("Invalid " + IN_MEMORY + " setting", err);
+        }
+        boolean isAcceptor = of(sessionSettings).isAcceptor;
+        String protocolSetting = protocolSetting(isAcceptor);
+        //In the defaults (for the sessions added later on) and in every session (overriding the socket protocol)
+        sessionSettings.setString(protocolSetting, IN_MEMORY_PROTOCOL);
+        FixSessionUtils.stream(sessionSettings)
+                .forEach(sessionID -> sessionSettings.setString(sessionID, protocolSetting, IN_MEMORY_PROTOCOL));
+        if (!isAcceptor && !sessionSettings.isSetting(Initiator.SETTING_SOCKET_CONNECT_HOST)) {
+            //Not used by the in-memory pipes, but required by the initiator
+            sessionSettings.setString(Initiator.SETTING_SOCKET_CONNECT_HOST, "localhost");
+        }
+        return sessionSettings;
+    }
 
+    private boolean usesInMemoryProtocol(SessionSettings sessionSettings) throws ConfigError {
+        String protocolSetting = protocolSetting(isAcceptor);
+        return sessionSettings.isSetting(protocolSetting)
+                && IN_MEMORY_PROTOCOL.equals(sessionSettings.getString(protocolSetting));
+    }
+
+    private static String protocolSetting(boolean isAcceptor) {
+        return isAcceptor ? Acceptor.SETTING_SOCKET_ACCEPT_PROTOCOL : Initiator.SETTING_SOCKET_CONNECT_PROTOCOL;
+    }
+
+    private static int shardCount(SessionSettings sessionSettings) throws ConfigError {
+        try {
+            //By default one shard per core
+            return sessionSettings.isSetting(SHARDS)
+                    ? (int) sessionSettings.getLong(SHARDS)
+                    : Runtime.getRuntime().availableProcessors();
+        } catch (FieldConvertError err) {
+            throw new ConfigError("Invalid " + SHARDS + " setting", err);
+        }
+    }
 }
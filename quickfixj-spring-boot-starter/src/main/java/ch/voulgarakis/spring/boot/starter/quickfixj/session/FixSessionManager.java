@@ -22,6 +22,7 @@ import ch.voulgarakis.spring.boot.starter.quickfixj.exception.QuickFixJConfigura
 import ch.voulgarakis.spring.boot.starter.quickfixj.exception.QuickFixJException;
 import ch.voulgarakis.spring.boot.starter.quickfixj.exception.RejectException;
 import ch.voulgarakis.spring.boot.starter.quickfixj.exception.SessionDroppedException;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.dispatch.SessionDispatcher;
 import ch.voulgarakis.spring.boot.starter.quickfixj.session.logging.LoggingContext;
 import ch.voulgarakis.spring.boot.starter.quickfixj.session.logging.LoggingId;
 import ch.voulgarakis.spring.boot.starter.quickfixj.session.utils.StartupLatch;
@@ -36,27 +37,81 @@ import quickfix.field.MsgType;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 import static ch.voulgarakis.spring.boot.starter.quickfixj.session.utils.FixMessageUtils.isMessageOfType;
 
 public class FixSessionManager implements Application {
 
     private static final Logger LOG = LoggerFactory.getLogger(FixSessionManager.class);
-    private final Map<SessionID, ? extends AbstractFixSession> fixSessions;
+    private final Map<SessionID, AbstractFixSession> fixSessions;
     private final FixConnectionType fixConnectionType;
     private final StartupLatch startupLatch;
     private final LoggingId loggingId;
     private final AuthenticationService authenticationService;
+    private final SessionDispatcher sessionDispatcher;
 
     public FixSessionManager(Map<SessionID, ? extends AbstractFixSession> sessions,
             FixConnectionType fixConnectionType,
             StartupLatch startupLatch, LoggingId loggingId,
             AuthenticationService authenticationService) {
-        this.fixSessions = sessions;
+        this(sessions, fixConnectionType, startupLatch, loggingId, authenticationService, new SessionDispatcher());
+    }
+
+    public FixSessionManager(Map<SessionID, ? extends AbstractFixSession> sessions,
+            FixConnectionType fixConnectionType,
+            StartupLatch startupLatch, LoggingId loggingId,
+            AuthenticationService authenticationService,
+            SessionDispatcher sessionDispatcher) {
+        //Sessions can be added and removed at runtime
+        this.fixSessions = new ConcurrentHashMap<>(sessions);
         this.fixConnectionType = fixConnectionType;
         this.startupLatch = startupLatch;
         this.loggingId = loggingId;
         this.authenticationService = authenticationService;
+        this.sessionDispatcher = sessionDispatcher;
+    }
+
+    /**
+     * @param sessionId the id of the session.
+     * @return whether there is an {@link AbstractFixSession} receiving the messages of the session.
+     */
+    public boolean isManaged(SessionID sessionId) {
+        return fixSessions.containsKey(sessionId);
+    }
+
+    /**
+     * Register the receiver of a session added at runtime.
+     *
+     * @param sessionId  the id of the session.
+     * @param fixSession the session bean receiving the messages of the session.
+     */
+    public void registerSession(SessionID sessionId, AbstractFixSession fixSession) {
+        fixSessions.put(sessionId, fixSession);
+    }
+
+    /**
+     * Unregister the receiver of a session removed at runtime.
+     *
+     * @param sessionId the id of the session.
+     * @return the session bean that was receiving the messages of the session, or null.
+     */
+    public AbstractFixSession unregisterSession(SessionID sessionId) {
+        sessionDispatcher.remove(sessionId);
+        return fixSessions.remove(sessionId);
+    }
+
+    /**
+     * @param sessionId the id of a session.
+     * @return the receiver of the acceptor template that the session matches.
+     */
+    public Optional<AbstractFixSession> findTemplateSession(SessionID sessionId) {
+        return fixSessions.entrySet().stream()
+                .filter(entry -> FixSessionUtils.isTemplate(entry.getKey())
+                        && FixSessionUtils.matchesTemplate(entry.getKey(), sessionId))
+                .map(Map.Entry::getValue)
+                .findFirst();
     }
 
     private AbstractFixSession retrieveSession(SessionID sessionId) {
@@ -78,12 +133,65 @@ public class FixSessionManager implements Application {
                 .orElse(LOG);
     }
 
+    /**
+     * Notify the receiver of the session, on the thread of the session (see {@link SessionDispatcher}). Called in the
+     * logging context of the session.
+     */
+    private void dispatch(SessionID sessionId, Runnable task) {
+        Executor dedicatedThread = sessionDispatcher.dedicatedThreadOf(sessionId);
+        if (Objects.isNull(dedicatedThread)) {
+            task.run();
+        } else {
+            dispatch(dedicatedThread, sessionId, task);
+        }
+    }
+
+    private void dispatch(Executor dedicatedThread, SessionID sessionId, Runnable task) {
+        dedicatedThread.execute(() -> {
+            try (LoggingContext ignore = loggingId.loggingCtx(sessionId)) {
+                task.run();
+            }
+        });
+    }
+
+    private static void received(AbstractFixSession fixSession, Message message) {
+        if (RejectException.isReject(message)) {
+            fixSession.error(new RejectException(message));
+        } else {
+            fixSession.received(message);
+        }
+    }
+
+    private void loggedOn(SessionID sessionId, AbstractFixSession fixSession) {
+        dispatch(sessionId, () -> {
+            if (fixSession.isTemplateOf(sessionId)) {
+                fixSession.counterpartyLoggedOn(sessionId);
+            } else {
+                fixSession.loggedOn();
+            }
+        });
+    }
+
+    private void loggedOut(SessionID sessionId, AbstractFixSession fixSession, SessionDroppedException ex) {
+        dispatch(sessionId, () -> {
+            //Acceptor template: only the counterparty has been dropped
+            if (fixSession.isTemplateOf(sessionId)) {
+                fixSession.counterpartyLoggedOut(sessionId, ex);
+            } else {
+                fixSession.error(ex);
+            }
+        });
+    }
+
     @Override
     public void onCreate(SessionID sessionId) {
         try (LoggingContext ignore = loggingId.loggingCtx(sessionId)) {
             logger(sessionId).info("Session created.");
             startupLatch.created(sessionId);
-            retrieveSession(sessionId);
+            AbstractFixSession fixSession = retrieveSession(sessionId);
+            if (fixSession.isTemplateOf(sessionId)) {
+                dispatch(sessionId, () -> fixSession.counterpartyCreated(sessionId));
+            }
         }
     }
 
@@ -92,7 +200,7 @@ public class FixSessionManager implements Application {
         try (LoggingContext ignore = loggingId.loggingCtx(sessionId)) {
             logger(sessionId).info("Session logged on.");
             startupLatch.loggedOn(sessionId);
-            retrieveSession(sessionId).loggedOn();
+            loggedOn(sessionId, retrieveSession(sessionId));
         }
     }
 
@@ -104,7 +212,7 @@ public class FixSessionManager implements Application {
             } else {
                 logger(sessionId).error("Session logged out.");
             }
-            retrieveSession(sessionId).error(new SessionDroppedException());
+            loggedOut(sessionId, retrieveSession(sessionId), new SessionDroppedException());
         }
     }
 
@@ -139,11 +247,12 @@ public class FixSessionManager implements Application {
                     if (fixConnectionType.isAcceptor()) {
                         authenticationService.authenticate(sessionId, message);
                     }
-                    fixSession.loggedOn();
+                    loggedOn(sessionId, fixSession);
                 } else if (isMessageOfType(message, MsgType.LOGOUT)) {
-                    retrieveSession(sessionId).error(new SessionDroppedException(message));
+                    loggedOut(sessionId, retrieveSession(sessionId), new SessionDroppedException(message));
                 } else if (RejectException.isReject(message)) {
-                    retrieveSession(sessionId).error(new RejectException(message));
+                    AbstractFixSession fixSession = retrieveSession(sessionId);
+                    dispatch(sessionId, () -> fixSession.error(new RejectException(message)));
                 }
             }
         } catch (RejectLogon rejectLogon) {
@@ -168,10 +277,13 @@ public class FixSessionManager implements Application {
     public void fromApp(Message message, SessionID sessionId) {
         try (LoggingContext ignore = loggingId.loggingCtx(sessionId)) {
             logger(sessionId).info("Received message: {}", message);
-            if (RejectException.isReject(message)) {
-                retrieveSession(sessionId).error(new RejectException(message));
+            AbstractFixSession fixSession = retrieveSession(sessionId);
+            //Hot path: no task allocated for the sessions processed on the thread of the connector
+            Executor dedicatedThread = sessionDispatcher.dedicatedThreadOf(sessionId);
+            if (Objects.isNull(dedicatedThread)) {
+                received(fixSession, message);
             } else {
-                retrieveSession(sessionId).received(message);
+                dispatch(dedicatedThread, sessionId, () -> received(fixSession, message));
             }
         } catch (Throwable e) {
             logger(sessionId).error("Failed to process FIX message: {}", message, e);
@@ -18,11 +18,28 @@ package ch.voulgarakis.spring.boot.starter.quickfixj.session;
 
 import ch.voulgarakis.spring.boot.starter.quickfixj.FixSessionMapping;
 import ch.voulgarakis.spring.boot.starter.quickfixj.exception.QuickFixJConfigurationException;
+import ch.voulgarakis.spring.boot.starter.quickfixj.exception.QuickFixJException;
 import ch.voulgarakis.spring.boot.starter.quickfixj.fix.session.FixSession;
 import org.springframework.beans.factory.NamedBean;
+import quickfix.Acceptor;
+import quickfix.ConfigError;
+import quickfix.FieldConvertError;
+import quickfix.FieldMap;
+import quickfix.FieldNotFound;
+import quickfix.Message;
 import quickfix.SessionID;
+import quickfix.SessionFactory;
 import quickfix.SessionSettings;
+import quickfix.field.BeginString;
+import quickfix.field.SenderCompID;
+import quickfix.field.SenderLocationID;
+import quickfix.field.SenderSubID;
+import quickfix.field.TargetCompID;
+import quickfix.field.TargetLocationID;
+import quickfix.field.TargetSubID;
+import quickfix.mina.ProtocolFactory;
 
+import java.net.SocketAddress;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -32,6 +49,11 @@ import static ch.voulgarakis.spring.boot.starter.quickfixj.session.FixSessionSet
 
 public class FixSessionUtils {
 
+    /**
+     * Matches any value, in the SessionID of an acceptor template (AcceptorTemplate=Y).
+     */
+    public static final String WILDCARD = "*";
+
     public static String extractFixSessionName(AbstractFixSession fixSession) {
         FixSessionMapping[] annotationsByType = fixSession.getClass().getAnnotationsByType(FixSessionMapping.class);
         if (annotationsByType.length > 1) {
@@ -99,4 +121,173 @@ public class FixSessionUtils {
             }
         }
     }
+
+    //////////////////////////////
+    ////  Acceptor templates  ////
+    //////////////////////////////
+
+    /**
+     * @param sessionID the id of the session.
+     * @return whether any field of the SessionID is a {@link #WILDCARD}.
+     */
+    public static boolean isTemplate(SessionID sessionID) {
+        return WILDCARD.equals(sessionID.getBeginString())
+                || WILDCARD.equals(sessionID.getSenderCompID())
+                || WILDCARD.equals(sessionID.getSenderSubID())
+                || WILDCARD.equals(sessionID.getSenderLocationID())
+                || WILDCARD.equals(sessionID.getTargetCompID())
+                || WILDCARD.equals(sessionID.getTargetSubID())
+                || WILDCARD.equals(sessionID.getTargetLocationID())
+                || WILDCARD.equals(sessionID.getSessionQualifier());
+    }
+
+    /**
+     * @param sessionSettings the session settings.
+     * @param sessionID       the id of a session in the session settings.
+     * @return whether the session is an acceptor template (AcceptorTemplate=Y).
+     */
+    public static boolean isAcceptorTemplate(SessionSettings sessionSettings, SessionID sessionID) {
+        try {
+            return sessionSettings.isSetting(sessionID, Acceptor.SETTING_ACCEPTOR_TEMPLATE)
+                    && sessionSettings.getBool(sessionID, Acceptor.SETTING_ACCEPTOR_TEMPLATE);
+        } catch (ConfigError | FieldConvertError e) {
+            throw new QuickFixJConfigurationException(
+                    "Invalid " + Acceptor.SETTING_ACCEPTOR_TEMPLATE + " setting for session: " + sessionID, e);
+        }
+    }
+
+    /**
+     * @param template  the id of the template (fields can be {@link #WILDCARD}s).
+     * @param sessionID the id of the session.
+     * @return whether the session matches the template.
+     */
+    public static boolean matchesTemplate(SessionID template, SessionID sessionID) {
+        return matches(template.getBeginString(), sessionID.getBeginString())
+                && matches(template.getSenderCompID(), sessionID.getSenderCompID())
+                && matches(template.getSenderSubID(), sessionID.getSenderSubID())
+                && matches(template.getSenderLocationID(), sessionID.getSenderLocationID())
+                && matches(template.getTargetCompID(), sessionID.getTargetCompID())
+                && matches(template.getTargetSubID(), sessionID.getTargetSubID())
+                && matches(template.getTargetLocationID(), sessionID.getTargetLocationID())
+                && matches(template.getSessionQualifier(), sessionID.getSessionQualifier());
+    }
+
+    private static boolean matches(String pattern, String value) {
+        return WILDCARD.equals(pattern) || Objects.equals(pattern, value);
+    }
+
+    /**
+     * Unlike {@link SessionSettings#isSetting(SessionID, String)}, does not add the session to the session settings.
+     *
+     * @param sessionSettings the session settings.
+     * @param sessionID       the id of the session.
+     * @return whether the session is in the session settings.
+     */
+    public static boolean contains(SessionSettings sessionSettings, SessionID sessionID) {
+        try {
+            sessionSettings.getSessionProperties(sessionID, false);
+            return true;
+        } catch (ConfigError e) {
+            //Session not found
+            return false;
+        }
+    }
+
+    /**
+     * @param sessionSettings the session settings.
+     * @param sessionID       the id of the session.
+     * @return the session whose settings apply to the session: the session itself, or the acceptor template it
+     * matches, for the sessions created from a template (that are not in the session settings).
+     */
+    public static SessionID settingsOf(SessionSettings sessionSettings, SessionID sessionID) {
+        if (contains(sessionSettings, sessionID)) {
+            return sessionID;
+        }
+        return findAcceptorTemplate(sessionSettings, sessionID).orElse(sessionID);
+    }
+
+    /**
+     * @param sessionSettings the session settings.
+     * @param sessionID       the id of the session.
+     * @return the acceptor template (in the session settings) that the session matches.
+     */
+    public static Optional<SessionID> findAcceptorTemplate(SessionSettings sessionSettings, SessionID sessionID) {
+        return stream(sessionSettings)
+                .filter(FixSessionUtils::isTemplate)
+                .filter(template -> matchesTemplate(template, sessionID))
+                .filter(template -> isAcceptorTemplate(sessionSettings, template))
+                .findFirst();
+    }
+
+    /**
+     * Resolve the session a message is sent to, from a template: the {@link #WILDCARD} fields of the template are
+     * taken from the header of the message (e.g. the TargetCompID of the counterparty).
+     *
+     * @param template the id of the template.
+     * @param message  the message to be sent.
+     * @return the id of the session the message is sent to.
+     */
+    public static SessionID resolveTemplate(SessionID template, Message message) {
+        FieldMap header = message.getHeader();
+        return new SessionID(
+                resolve(template.getBeginString(), header, BeginString.FIELD),
+                resolve(template.getSenderCompID(), header, SenderCompID.FIELD),
+                resolve(template.getSenderSubID(), header, SenderSubID.FIELD),
+                resolve(template.getSenderLocationID(), header, SenderLocationID.FIELD),
+                resolve(template.getTargetCompID(), header, TargetCompID.FIELD),
+                resolve(template.getTargetSubID(), header, TargetSubID.FIELD),
+                resolve(template.getTargetLocationID(), header, TargetLocationID.FIELD),
+                template.getSessionQualifier());
+    }
+
+    private static String resolve(String pattern, FieldMap header, int tag) {
+        if (!WILDCARD.equals(pattern)) {
+            return pattern;
+        }
+        try {
+            return header.getString(tag);
+        } catch (FieldNotFound fieldNotFound) {
+            throw new QuickFixJException("Message sent on a template session requires header field: " + tag,
+                    fieldNotFound);
+        }
+    }
+
+    //////////////////////////////
+    ////  Acceptor addresses  ////
+    //////////////////////////////
+
+    /**
+     * @param sessionSettings the session settings.
+     * @param sessionID       the id of a session in the session settings.
+     * @return whether the session is an acceptor session.
+     */
+    public static boolean isAcceptor(SessionSettings sessionSettings, SessionID sessionID) {
+        try {
+            return SessionFactory.ACCEPTOR_CONNECTION_TYPE
+                    .equals(sessionSettings.getString(sessionID, SessionFactory.SETTING_CONNECTION_TYPE));
+        } catch (ConfigError configError) {
+            throw new QuickFixJConfigurationException("No ConnectionType for session: " + sessionID, configError);
+        }
+    }
+
+    /**
+     * @param sessionSettings the session settings.
+     * @param sessionID       the id of an acceptor session in the session settings.
+     * @return the address the acceptor listens to for the session (as computed by the acceptor on start).
+     */
+    public static SocketAddress acceptorAddress(SessionSettings sessionSettings, SessionID sessionID) {
+        try {
+            int transportType = sessionSettings.isSetting(sessionID, Acceptor.SETTING_SOCKET_ACCEPT_PROTOCOL)
+                    ? ProtocolFactory.getTransportType(
+                    sessionSettings.getString(sessionID, Acceptor.SETTING_SOCKET_ACCEPT_PROTOCOL))
+                    : ProtocolFactory.SOCKET;
+            int port = (int) sessionSettings.getLong(sessionID, Acceptor.SETTING_SOCKET_ACCEPT_PORT);
+            String host = sessionSettings.isSetting(sessionID, Acceptor.SETTING_SOCKET_ACCEPT_ADDRESS)
+                    ? sessionSettings.getString(sessionID, Acceptor.SETTING_SOCKET_ACCEPT_ADDRESS)
+                    : null;
+            return ProtocolFactory.createSocketAddress(transportType, host, port);
+        } catch (ConfigError | FieldConvertError e) {
+            throw new QuickFixJConfigurationException("Invalid acceptor address for session: " + sessionID, e);
+        }
+    }
 }
@@ -31,6 +31,25 @@ public interface InternalFixSessions<T> {
 
     Map<String, SessionID> getFixSessionIDs();
 
+    /**
+     * Register the session bean of a session added at runtime.
+     *
+     * @param sessionName the name of the session.
+     * @param sessionId   the id of the session.
+     * @return the session bean, or null if sessions cannot be added at runtime.
+     */
+    default T registerSession(String sessionName, SessionID sessionId) {
+        return null;
+    }
+
+    /**
+     * Unregister the session bean of a session removed at runtime.
+     *
+     * @param sessionId the id of the session.
+     */
+    default void unregisterSession(SessionID sessionId) {
+    }
+
     default T retrieveSession(String sessionName) {
         SessionID sessionId = getFixSessionIDs().get(sessionName);
         if (Objects.isNull(sessionId)) {
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session;
+
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.utils.RoutingEnvelope;
+import quickfix.Message;
+import quickfix.field.MsgType;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Bounded cache of the last response received per type and request id (e.g. the latest quote of a QuoteReqID), so
+ * that subscriptions created after the responses started flowing still receive the latest one.
+ * <p>
+ * Only the responses that carry the full state are cached (by default quotes and market data snapshots): replaying
+ * the last execution report of an order, or the last incremental refresh of a market data request, would be
+ * misleading.
+ * <p>
+ * Entries expire after the TTL since their last update, and the least recently updated entries are evicted when the
+ * cache is full. Not thread-safe: guarded by the {@link AbstractFixSession} that owns it.
+ */
+public class LastValueCache {
+
+    /**
+     * The responses cached by default: quotes and market data full refreshes.
+     */
+    public static final Set<String> SNAPSHOT_MSG_TYPES = Set.of(MsgType.QUOTE,
+            MsgType.MARKET_DATA_SNAPSHOT_FULL_REFRESH);
+
+    //The responses invalidated by a reject of their request (other rejects invalidate all the types of the request id)
+    private static final Map<String, String> REJECTED_RESPONSES = Map.of(
+            MsgType.QUOTE_REQUEST_REJECT, MsgType.QUOTE,
+            MsgType.MARKET_DATA_REQUEST_REJECT, MsgType.MARKET_DATA_SNAPSHOT_FULL_REFRESH);
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Set<String> msgTypes;
+    //In order of last update: the eldest entries are evicted/expire first
+    private final LinkedHashMap<Key, Entry> entries;
+
+    public LastValueCache(int maxEntries, Duration ttl) {
+        this(maxEntries, ttl, SNAPSHOT_MSG_TYPES);
+    }
+
+    public LastValueCache(int maxEntries, Duration ttl, Set<String> msgTypes) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.msgTypes = Set.copyOf(msgTypes);
+        this.entries = new LinkedHashMap<Key, Entry>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > LastValueCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Store the message as the last value of its type and request id, if it is a cached type of response.
+     */
+    void put(RoutingEnvelope envelope, Message message) {
+        if (Objects.isNull(envelope) || !msgTypes.contains(envelope.getMsgType())) {
+            return;
+        }
+        String refId = refId(envelope);
+        if (Objects.nonNull(refId)) {
+            Key key = new Key(envelope.getMsgType(), refId);
+            //Remove first, so that the updated entry moves to the end
+            entries.remove(key);
+            entries.put(key, new Entry(envelope, message, System.nanoTime()));
+        }
+    }
+
+    /**
+     * Drop the last value of the request id of the message (e.g. when the request has been rejected).
+     */
+    void remove(RoutingEnvelope envelope) {
+        String refId = refId(envelope);
+        if (Objects.isNull(refId)) {
+            return;
+        }
+        String rejected = REJECTED_RESPONSES.get(envelope.getMsgType());
+        if (Objects.nonNull(rejected)) {
+            entries.remove(new Key(rejected, refId));
+        } else {
+            for (String msgType : msgTypes) {
+                entries.remove(new Key(msgType, refId));
+            }
+        }
+    }
+
+    /**
+     * Visit the last values that have not expired, in order of last update.
+     */
+    void forEach(BiConsumer<RoutingEnvelope, Message> consumer) {
+        expire();
+        entries.values().forEach(entry -> consumer.accept(entry.envelope, entry.message));
+    }
+
+    void clear() {
+        entries.clear();
+    }
+
+    int size() {
+        expire();
+        return entries.size();
+    }
+
+    private void expire() {
+        long now = System.nanoTime();
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext() && now - iterator.next().updated > ttlNanos) {
+            iterator.remove();
+        }
+    }
+
+    private static String refId(RoutingEnvelope envelope) {
+        if (Objects.isNull(envelope)) {
+            return null;
+        }
+        //The first reference id of the response, e.g. the QuoteReqID of a quote (or of its reject)
+        for (int i = 0; i < envelope.getRefIdCount(); i++) {
+            String refId = envelope.getRefId(i);
+            if (Objects.nonNull(refId)) {
+                return refId;
+            }
+        }
+        return null;
+    }
+
+    private static final class Key {
+        private final String msgType;
+        private final String refId;
+
+        private Key(String msgType, String refId) {
+            this.msgType = msgType;
+            this.refId = refId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return msgType.equals(key.msgType) && refId.equals(key.refId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * msgType.hashCode() + refId.hashCode();
+        }
+    }
+
+    private static class Entry {
+        private final RoutingEnvelope envelope;
+        private final Message message;
+        private final long updated;
+
+        private Entry(RoutingEnvelope envelope, Message message, long updated) {
+            this.envelope = envelope;
+            this.message = message;
+            this.updated = updated;
+        }
+    }
+}
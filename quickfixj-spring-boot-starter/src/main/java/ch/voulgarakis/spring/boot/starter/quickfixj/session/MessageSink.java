@@ -18,6 +18,9 @@ package ch.voulgarakis.spring.boot.starter.quickfixj.session;
 
 import quickfix.Message;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
@@ -28,6 +31,9 @@ public class MessageSink {
     private final Predicate<Message> messageSelector;
     private final Consumer<Message> onNext;
     private final Consumer<Throwable> onError;
+    //While the last values are replayed: the messages (and error) received meanwhile, delivered after them
+    private volatile List<Message> pending;
+    private Throwable pendingError;
 
     public MessageSink(Set<MessageSink> sinks, Predicate<Message> messageSelector,
             Consumer<Message> onNext, Consumer<Throwable> onError) {
@@ -46,14 +52,65 @@ public class MessageSink {
     }
 
     void next(Message message) {
+        if (Objects.nonNull(pending)) {
+            synchronized (this) {
+                if (Objects.nonNull(pending)) {
+                    pending.add(message);
+                    return;
+                }
+            }
+        }
         onNext.accept(message);
     }
 
     void error(Throwable error) {
         dispose();
+        if (Objects.nonNull(pending)) {
+            synchronized (this) {
+                if (Objects.nonNull(pending)) {
+                    pendingError = error;
+                    return;
+                }
+            }
+        }
         onError.accept(error);
     }
 
+    /**
+     * Hold the messages received from now on, until the last values have been {@link #replay(List) replayed}.
+     */
+    synchronized void startReplay() {
+        pending = new ArrayList<>();
+    }
+
+    /**
+     * Deliver the last values, then the messages received meanwhile (in order), and from then on deliver the messages
+     * as they are received.
+     *
+     * @param lastValues the last values to deliver first.
+     */
+    void replay(List<Message> lastValues) {
+        lastValues.forEach(onNext);
+        Throwable error;
+        while (true) {
+            List<Message> received;
+            synchronized (this) {
+                received = pending;
+                error = pendingError;
+                if (received.isEmpty()) {
+                    pending = null;
+                    pendingError = null;
+                    break;
+                }
+                pending = new ArrayList<>();
+            }
+            received.forEach(onNext);
+        }
+        if (Objects.nonNull(error)) {
+            onError.accept(error);
+        }
+    }
+
     public Predicate<Message> getMessageSelector() {
         return messageSelector;
     }
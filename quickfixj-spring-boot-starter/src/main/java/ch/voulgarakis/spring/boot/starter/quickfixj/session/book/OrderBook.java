@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.book;
+
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.utils.FixMessageUtils;
+import quickfix.FieldException;
+import quickfix.FieldNotFound;
+import quickfix.Group;
+import quickfix.Message;
+import quickfix.field.MDEntryPx;
+import quickfix.field.MDEntrySize;
+import quickfix.field.MDEntryType;
+import quickfix.field.MDUpdateAction;
+import quickfix.field.MsgType;
+import quickfix.field.NoMDEntries;
+
+import java.util.Arrays;
+
+/**
+ * Price-level book of one market data subscription (MDReqID), built from the
+ * {@link MsgType#MARKET_DATA_SNAPSHOT_FULL_REFRESH} and {@link MsgType#MARKET_DATA_INCREMENTAL_REFRESH} messages.
+ * <p>
+ * The levels are kept sorted in primitive arrays (bids descending, offers ascending), so applying an update does not
+ * allocate. Consumers read the book through immutable {@link OrderBookSnapshot}s.
+ */
+public class OrderBook {
+
+    private static final int INITIAL_DEPTH = 16;
+
+    private final String mdReqId;
+    private final Side bids = new Side(true);
+    private final Side offers = new Side(false);
+    private long version;
+
+    public OrderBook(String mdReqId) {
+        this.mdReqId = mdReqId;
+    }
+
+    public String getMdReqId() {
+        return mdReqId;
+    }
+
+    /**
+     * Apply a market data message to the book.
+     *
+     * @param message a full refresh (replaces the book) or an incremental refresh (updates the levels).
+     * @return true if the message was applied, false if it is not a market data refresh.
+     */
+    public synchronized boolean apply(Message message) {
+        String msgType;
+        try {
+            msgType = message.getHeader().getString(MsgType.FIELD);
+        } catch (FieldNotFound e) {
+            return false;
+        }
+        if (MsgType.MARKET_DATA_SNAPSHOT_FULL_REFRESH.equals(msgType)) {
+            bids.clear();
+            offers.clear();
+            FixMessageUtils.forEachGroup(message, NoMDEntries.FIELD, (index, entry) -> update(entry, false));
+        } else if (MsgType.MARKET_DATA_INCREMENTAL_REFRESH.equals(msgType)) {
+            FixMessageUtils.forEachGroup(message, NoMDEntries.FIELD, (index, entry) -> update(entry, true));
+        } else {
+            return false;
+        }
+        version++;
+        return true;
+    }
+
+    private void update(Group entry, boolean incremental) {
+        Side side;
+        switch (getChar(entry, MDEntryType.FIELD)) {
+            case MDEntryType.BID:
+                side = bids;
+                break;
+            case MDEntryType.OFFER:
+                side = offers;
+                break;
+            default:
+                //Trades, indices, etc. are not part of the book
+                return;
+        }
+        double price = FixMessageUtils.safeGetDouble(entry, MDEntryPx.FIELD, Double.NaN);
+        if (Double.isNaN(price)) {
+            return;
+        }
+        double size = FixMessageUtils.safeGetDouble(entry, MDEntrySize.FIELD, 0);
+        if (incremental && getChar(entry, MDUpdateAction.FIELD) == MDUpdateAction.DELETE) {
+            side.remove(price);
+        } else {
+            side.set(price, size);
+        }
+    }
+
+    private static char getChar(Group entry, int tag) {
+        try {
+            return entry.isSetField(tag) ? entry.getChar(tag) : 0;
+        } catch (FieldNotFound | FieldException e) {
+            return 0;
+        }
+    }
+
+    public synchronized OrderBookSnapshot snapshot() {
+        return new OrderBookSnapshot(mdReqId, version,
+                Arrays.copyOf(bids.prices, bids.depth), Arrays.copyOf(bids.sizes, bids.depth),
+                Arrays.copyOf(offers.prices, offers.depth), Arrays.copyOf(offers.sizes, offers.depth));
+    }
+
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * One side of the book: sorted price levels with their sizes.
+     */
+    private static class Side {
+        private final boolean descending;
+        private double[] prices = new double[INITIAL_DEPTH];
+        private double[] sizes = new double[INITIAL_DEPTH];
+        private int depth;
+
+        private Side(boolean descending) {
+            this.descending = descending;
+        }
+
+        /**
+         * @return the level of the price if found, otherwise (-(insertion point) - 1).
+         */
+        private int find(double price) {
+            int low = 0;
+            int high = depth - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = Double.compare(prices[mid], price);
+                if (descending) {
+                    cmp = -cmp;
+                }
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        private void set(double price, double size) {
+            if (size <= 0) {
+                remove(price);
+                return;
+            }
+            int level = find(price);
+            if (level >= 0) {
+                sizes[level] = size;
+                return;
+            }
+            level = -(level + 1);
+            if (depth == prices.length) {
+                prices = Arrays.copyOf(prices, depth * 2);
+                sizes = Arrays.copyOf(sizes, depth * 2);
+            }
+            System.arraycopy(prices, level, prices, level + 1, depth - level);
+            System.arraycopy(sizes, level, sizes, level + 1, depth - level);
+            prices[level] = price;
+            sizes[level] = size;
+            depth++;
+        }
+
+        private void remove(double price) {
+            int level = find(price);
+            if (level >= 0) {
+                System.arraycopy(prices, level + 1, prices, level, depth - level - 1);
+                System.arraycopy(sizes, level + 1, sizes, level, depth - level - 1);
+                depth--;
+            }
+        }
+
+        private void clear() {
+            depth = 0;
+        }
+    }
+}
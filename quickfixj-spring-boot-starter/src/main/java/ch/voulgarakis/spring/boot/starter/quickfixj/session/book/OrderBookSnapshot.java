@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.book;
+
+import java.util.Arrays;
+
+/**
+ * Immutable copy of an {@link OrderBook} at a point in time.
+ * Level 0 is the best price of each side (highest bid, lowest offer).
+ */
+public class OrderBookSnapshot {
+
+    private final String mdReqId;
+    private final long version;
+    private final double[] bidPrices;
+    private final double[] bidSizes;
+    private final double[] offerPrices;
+    private final double[] offerSizes;
+
+    OrderBookSnapshot(String mdReqId, long version, double[] bidPrices, double[] bidSizes, double[] offerPrices,
+            double[] offerSizes) {
+        this.mdReqId = mdReqId;
+        this.version = version;
+        this.bidPrices = bidPrices;
+        this.bidSizes = bidSizes;
+        this.offerPrices = offerPrices;
+        this.offerSizes = offerSizes;
+    }
+
+    public String getMdReqId() {
+        return mdReqId;
+    }
+
+    /**
+     * @return the number of market data messages applied to the book when the snapshot was taken.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public int getBidDepth() {
+        return bidPrices.length;
+    }
+
+    public int getOfferDepth() {
+        return offerPrices.length;
+    }
+
+    public double getBidPrice(int level) {
+        return bidPrices[level];
+    }
+
+    public double getBidSize(int level) {
+        return bidSizes[level];
+    }
+
+    public double getOfferPrice(int level) {
+        return offerPrices[level];
+    }
+
+    public double getOfferSize(int level) {
+        return offerSizes[level];
+    }
+
+    /**
+     * @return the best bid price, or NaN if there are no bids.
+     */
+    public double getBestBid() {
+        return bidPrices.length > 0 ? bidPrices[0] : Double.NaN;
+    }
+
+    /**
+     * @return the best offer price, or NaN if there are no offers.
+     */
+    public double getBestOffer() {
+        return offerPrices.length > 0 ? offerPrices[0] : Double.NaN;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderBookSnapshot{" +
+                "mdReqId='" + mdReqId + '\'' +
+                ", version=" + version +
+                ", bids=" + Arrays.toString(bidPrices) + "x" + Arrays.toString(bidSizes) +
+                ", offers=" + Arrays.toString(offerPrices) + "x" + Arrays.toString(offerSizes) +
+                '}';
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.dispatch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import quickfix.SessionID;
+
+/**
+ * Pins the dedicated thread of a session to a CPU (CpuAffinity session setting).
+ * <p>
+ * Affinity is platform specific, so it is left to a library of choice, e.g. with OpenHFT's Java-Thread-Affinity:
+ * <pre>
+ * &#64;Bean
+ * public AffinityProvider affinityProvider() {
+ *     return (sessionID, cpu) -&gt; AffinityLock.acquireLock(cpu);
+ * }
+ * </pre>
+ */
+@FunctionalInterface
+public interface AffinityProvider {
+
+    /**
+     * Ignores the affinity.
+     */
+    AffinityProvider NONE = new AffinityProvider() {
+        private final Logger log = LoggerFactory.getLogger(AffinityProvider.class);
+
+        @Override
+        public void pin(SessionID sessionID, int cpu) {
+            log.warn("No AffinityProvider configured, thread of session {} not pinned to cpu {}", sessionID, cpu);
+        }
+    };
+
+    /**
+     * Pin the current thread (the dedicated thread of the session) to a CPU.
+     *
+     * @param sessionID the id of the session.
+     * @param cpu       the CPU to pin the thread to.
+     */
+    void pin(SessionID sessionID, int cpu);
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.dispatch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import quickfix.SessionID;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * The thread processing the messages of a single session, in the order they were dispatched.
+ */
+class DedicatedSessionThread implements Executor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DedicatedSessionThread.class);
+
+    private final SessionID sessionID;
+    private final WaitStrategy waitStrategy;
+    private final Integer cpu;
+    private final AffinityProvider affinityProvider;
+    private final Consumer<RuntimeException> onFailure;
+    private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    /**
+     * @param onFailure notified of the failures of the tasks, that can no longer be thrown to the connector.
+     */
+    DedicatedSessionThread(SessionID sessionID, WaitStrategy waitStrategy, Integer cpu,
+            AffinityProvider affinityProvider, Consumer<RuntimeException> onFailure) {
+        this.sessionID = sessionID;
+        this.waitStrategy = waitStrategy;
+        this.cpu = cpu;
+        this.affinityProvider = affinityProvider;
+        this.onFailure = onFailure;
+        this.thread = new Thread(this::run, "QFJ Dedicated " + sessionID);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        queue.offer(task);
+        if (waitStrategy.isBlocking()) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private void run() {
+        if (cpu != null) {
+            try {
+                affinityProvider.pin(sessionID, cpu);
+            } catch (RuntimeException e) {
+                LOG.error("Failed to pin thread of session {} to cpu {}", sessionID, cpu, e);
+            }
+        }
+        while (running || !queue.isEmpty()) {
+            Runnable task = queue.poll();
+            if (task == null) {
+                waitStrategy.idle();
+                continue;
+            }
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                LOG.error("Failed to process message of session {}", sessionID, e);
+                failed(e);
+            }
+        }
+    }
+
+    private void failed(RuntimeException e) {
+        try {
+            onFailure.accept(e);
+        } catch (RuntimeException failure) {
+            LOG.error("Failed to handle the failure of session {}", sessionID, failure);
+        }
+    }
+
+    /**
+     * Stop the thread, once the dispatched tasks are processed.
+     */
+    void close() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    Thread getThread() {
+        return thread;
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.dispatch;
+
+import ch.voulgarakis.spring.boot.starter.quickfixj.exception.QuickFixJConfigurationException;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.FixSessionUtils;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import quickfix.ConfigError;
+import quickfix.FieldConvertError;
+import quickfix.Session;
+import quickfix.SessionID;
+import quickfix.SessionSettings;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Dispatches the messages and events of a session to its receiver: on the thread of the connector, or on a dedicated
+ * thread for the sessions with DedicatedThread=Y.
+ * <p>
+ * The dedicated thread of a session isolates its processing from the other sessions. It waits for the messages with
+ * the WaitStrategy of the session (BLOCKING by default, YIELDING or BUSY_SPIN), and is pinned to the CpuAffinity of the
+ * session through the {@link AffinityProvider}.
+ * <p>
+ * On a dedicated thread, the failures of the receiver can no longer be thrown back to quickfixj (the message has
+ * already been accepted): they are logged and counted, and the session is disconnected if it has DisconnectOnError=Y.
+ */
+public class SessionDispatcher implements Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(SessionDispatcher.class);
+
+    public static final String DEDICATED_THREAD = "DedicatedThread";
+    public static final String WAIT_STRATEGY = "WaitStrategy";
+    public static final String CPU_AFFINITY = "CpuAffinity";
+
+    private static final Executor CALLER_THREAD = Runnable::run;
+
+    private final SessionSettings sessionSettings;
+    private final AffinityProvider affinityProvider;
+    private final Map<SessionID, Executor> executors = new ConcurrentHashMap<>();
+    private final LongAdder failures = new LongAdder();
+    private volatile boolean closed;
+
+    /**
+     * Dispatches all the sessions on the thread of the connector.
+     */
+    public SessionDispatcher() {
+        this(null, AffinityProvider.NONE);
+    }
+
+    /**
+     * @param sessionSettings  the session settings (sessions added at runtime included).
+     * @param affinityProvider pins the dedicated threads to their CpuAffinity.
+     */
+    public SessionDispatcher(SessionSettings sessionSettings, AffinityProvider affinityProvider) {
+        this.sessionSettings = sessionSettings;
+        this.affinityProvider = affinityProvider;
+    }
+
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        FunctionCounter.builder("quickfixj.dispatch.failures", failures, LongAdder::sum)
+                .description("Number of FIX messages whose processing failed on the dedicated thread of their session")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return the number of messages whose processing failed on the dedicated thread of their session.
+     */
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    /**
+     * @param sessionSettings the session settings.
+     * @param sessionID       the id of a session in the session settings.
+     * @return whether the session runs on a dedicated thread (DedicatedThread=Y).
+     */
+    public static boolean isDedicatedThread(SessionSettings sessionSettings, SessionID sessionID) {
+        try {
+            return sessionSettings.isSetting(sessionID, DEDICATED_THREAD)
+                    && sessionSettings.getBool(sessionID, DEDICATED_THREAD);
+        } catch (ConfigError | FieldConvertError e) {
+            throw new QuickFixJConfigurationException("Invalid " + DEDICATED_THREAD + " setting for session: "
+                    + sessionID, e);
+        }
+    }
+
+    /**
+     * Run the task on the thread of the session: the tasks of a session run in the order they were dispatched.
+     *
+     * @param sessionID the id of the session.
+     * @param task      the task.
+     */
+    public void dispatch(SessionID sessionID, Runnable task) {
+        Executor dedicatedThread = dedicatedThreadOf(sessionID);
+        if (Objects.isNull(dedicatedThread)) {
+            task.run();
+        } else {
+            dedicatedThread.execute(task);
+        }
+    }
+
+    /**
+     * @param sessionID the id of the session.
+     * @return the dedicated thread of the session, or null if the session runs on the thread of the connector.
+     */
+    public Executor dedicatedThreadOf(SessionID sessionID) {
+        Executor executor = executors.get(sessionID);
+        if (Objects.isNull(executor)) {
+            executor = executors.computeIfAbsent(sessionID, this::createExecutor);
+        }
+        return executor == CALLER_THREAD ? null : executor;
+    }
+
+    private Executor createExecutor(SessionID sessionID) {
+        if (closed || Objects.isNull(sessionSettings)) {
+            return CALLER_THREAD;
+        }
+        //The sessions created from an acceptor template have the settings of the template
+        SessionID settingsId = FixSessionUtils.settingsOf(sessionSettings, sessionID);
+        //Sessions not (or no longer) in the settings
+        if (!FixSessionUtils.contains(sessionSettings, settingsId) || !isDedicatedThread(sessionSettings, settingsId)) {
+            return CALLER_THREAD;
+        }
+        try {
+            WaitStrategy waitStrategy = sessionSettings.isSetting(settingsId, WAIT_STRATEGY)
+                    ? WaitStrategy.valueOf(sessionSettings.getString(settingsId, WAIT_STRATEGY).trim().toUpperCase())
+                    : WaitStrategy.BLOCKING;
+            Integer cpu = sessionSettings.isSetting(settingsId, CPU_AFFINITY)
+                    ? (int) sessionSettings.getLong(settingsId, CPU_AFFINITY)
+                    : null;
+            boolean disconnectOnError = sessionSettings.isSetting(settingsId, Session.SETTING_DISCONNECT_ON_ERROR)
+                    && sessionSettings.getBool(settingsId, Session.SETTING_DISCONNECT_ON_ERROR);
+            return new DedicatedSessionThread(sessionID, waitStrategy, cpu, affinityProvider,
+                    e -> failed(sessionID, disconnectOnError, e));
+        } catch (ConfigError | FieldConvertError | IllegalArgumentException e) {
+            throw new QuickFixJConfigurationException("Invalid dedicated thread settings for session: " + sessionID,
+                    e);
+        }
+    }
+
+    private void failed(SessionID sessionID, boolean disconnectOnError, RuntimeException e) {
+        failures.increment();
+        if (disconnectOnError) {
+            Session session = Session.lookupSession(sessionID);
+            if (Objects.nonNull(session)) {
+                try {
+                    session.disconnect("Failed to process message: " + e.getMessage(), true);
+                } catch (IOException ioException) {
+                    LOG.error("Failed to disconnect session {}", sessionID, ioException);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param sessionID the id of the session.
+     * @return the dedicated thread of the session, if it has been started.
+     */
+    Thread dedicatedThread(SessionID sessionID) {
+        Executor executor = executors.get(sessionID);
+        return executor instanceof DedicatedSessionThread ? ((DedicatedSessionThread) executor).getThread() : null;
+    }
+
+    /**
+     * Stop the dedicated thread of a session removed at runtime (after processing the dispatched tasks).
+     *
+     * @param sessionID the id of the session.
+     */
+    public void remove(SessionID sessionID) {
+        Executor executor = executors.remove(sessionID);
+        if (executor instanceof DedicatedSessionThread) {
+            ((DedicatedSessionThread) executor).close();
+        }
+    }
+
+    /**
+     * Stop the dedicated threads (after processing the dispatched tasks).
+     */
+    @Override
+    public void close() {
+        closed = true;
+        executors.keySet().forEach(this::remove);
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.dispatch;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * How the dedicated thread of a session waits for the next message (WaitStrategy session setting).
+ */
+public enum WaitStrategy {
+    /**
+     * Park the thread until a message is dispatched (lowest CPU usage).
+     */
+    BLOCKING {
+        @Override
+        void idle() {
+            LockSupport.parkNanos(MAX_PARK_NANOS);
+        }
+    },
+    /**
+     * Yield the CPU to other threads, between checks.
+     */
+    YIELDING {
+        @Override
+        void idle() {
+            Thread.yield();
+        }
+    },
+    /**
+     * Spin on the CPU (lowest latency, keeps a core busy).
+     */
+    BUSY_SPIN {
+        @Override
+        void idle() {
+            Thread.onSpinWait();
+        }
+    };
+
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    abstract void idle();
+
+    boolean isBlocking() {
+        return this == BLOCKING;
+    }
+}
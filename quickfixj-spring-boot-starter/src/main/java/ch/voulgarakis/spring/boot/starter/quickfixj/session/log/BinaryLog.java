@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.log;
+
+import quickfix.Log;
+import quickfix.SessionID;
+
+/**
+ * {@link Log} of a session, handing the records over to the shared {@link BinaryLogWriter}.
+ */
+class BinaryLog implements Log {
+
+    private final SessionID sessionID;
+    private final BinaryLogWriter writer;
+
+    BinaryLog(SessionID sessionID, BinaryLogWriter writer) {
+        this.sessionID = sessionID;
+        this.writer = writer;
+    }
+
+    @Override
+    public void clear() {
+        //Segments are append-only and shared by all sessions: nothing to clear
+    }
+
+    @Override
+    public void onIncoming(String message) {
+        writer.append(sessionID, BinaryLogRecord.Kind.INCOMING, message);
+    }
+
+    @Override
+    public void onOutgoing(String message) {
+        writer.append(sessionID, BinaryLogRecord.Kind.OUTGOING, message);
+    }
+
+    @Override
+    public void onEvent(String text) {
+        writer.append(sessionID, BinaryLogRecord.Kind.EVENT, text);
+    }
+
+    @Override
+    public void onErrorEvent(String text) {
+        writer.append(sessionID, BinaryLogRecord.Kind.ERROR_EVENT, text);
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.log;
+
+import ch.voulgarakis.spring.boot.starter.quickfixj.exception.QuickFixJException;
+import quickfix.Log;
+import quickfix.LogFactory;
+import quickfix.SessionID;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * {@link LogFactory} writing the raw FIX messages and events of all sessions, with their timestamps, into rolling
+ * binary segment files (optionally GZIP-compressed).
+ * <p>
+ * The engine threads only enqueue the records: a single background writer appends them to the segments.
+ * The segments can be searched and replayed with {@link BinaryLogReader}.
+ */
+public class BinaryLogFactory implements LogFactory, Closeable {
+
+    private final BinaryLogWriter writer;
+
+    public BinaryLogFactory(Path directory, long segmentSize, boolean compress, int queueCapacity) {
+        try {
+            this.writer = new BinaryLogWriter(directory, segmentSize, compress, queueCapacity);
+        } catch (IOException e) {
+            throw new QuickFixJException("Failed to open binary log in " + directory, e);
+        }
+    }
+
+    @Override
+    public Log create(SessionID sessionID) {
+        return new BinaryLog(sessionID, writer);
+    }
+
+    /**
+     * Stop the writer, once all the records enqueued so far are written.
+     */
+    @Override
+    public void close() {
+        writer.close();
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.log;
+
+import org.quickfixj.CharsetSupport;
+import quickfix.SessionID;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Searches and replays the segments written by a {@link BinaryLogFactory}.
+ * <p>
+ * All the criteria are optional (null means any), e.g. to replay all the quotes received on a session:
+ * <pre>
+ * new BinaryLogReader(directory).replay(sessionID, null, null, MsgType.QUOTE, record -> ...);
+ * </pre>
+ */
+public class BinaryLogReader {
+
+    private final Path directory;
+    private final Charset charset;
+
+    public BinaryLogReader(Path directory) {
+        this.directory = directory;
+        this.charset = CharsetSupport.getCharsetInstance();
+    }
+
+    /**
+     * @param sessionID the session of the records, or null for any session.
+     * @param from      the earliest timestamp (inclusive), or null.
+     * @param to        the latest timestamp (exclusive), or null.
+     * @param msgType   the MsgType of the FIX messages, or null for all records (including events).
+     * @return the matching records, in the order they were logged.
+     */
+    public List<BinaryLogRecord> search(SessionID sessionID, Instant from, Instant to, String msgType)
+            throws IOException {
+        List<BinaryLogRecord> records = new ArrayList<>();
+        replay(sessionID, from, to, msgType, records::add);
+        return records;
+    }
+
+    /**
+     * Stream the matching records to the consumer, in the order they were logged, without keeping them in memory.
+     *
+     * @see #search(SessionID, Instant, Instant, String)
+     */
+    public void replay(SessionID sessionID, Instant from, Instant to, String msgType,
+            Consumer<BinaryLogRecord> consumer) throws IOException {
+        long fromMillis = from == null ? Long.MIN_VALUE : from.toEpochMilli();
+        long toMillis = to == null ? Long.MAX_VALUE : to.toEpochMilli();
+        for (Path segment : listSegments(directory)) {
+            try (DataInputStream in = open(segment)) {
+                readSegment(in, segment, sessionID, fromMillis, toMillis, msgType, consumer);
+            }
+        }
+    }
+
+    private void readSegment(DataInputStream in, Path segment, SessionID sessionID, long from, long to,
+            String msgType, Consumer<BinaryLogRecord> consumer) throws IOException {
+        Map<Short, SessionID> sessions = new HashMap<>();
+        try {
+            if (in.readInt() != BinaryLogWriter.MAGIC) {
+                throw new IOException("Not a binary FIX log segment: " + segment);
+            }
+            while (true) {
+                byte code = in.readByte();
+                short ref = in.readShort();
+                if (code == BinaryLogWriter.SESSION_DEFINITION) {
+                    sessions.put(ref, new SessionID(in.readUTF()));
+                    continue;
+                }
+                long timestamp = in.readLong();
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+
+                SessionID recordSessionID = sessions.get(ref);
+                if (timestamp < from || timestamp >= to
+                        || (sessionID != null && !sessionID.equals(recordSessionID))) {
+                    continue;
+                }
+                BinaryLogRecord record = new BinaryLogRecord(Instant.ofEpochMilli(timestamp), recordSessionID,
+                        BinaryLogRecord.Kind.of(code), new String(bytes, charset));
+                if (msgType == null || record.getMsgType().filter(msgType::equals).isPresent()) {
+                    consumer.accept(record);
+                }
+            }
+        } catch (EOFException e) {
+            //End of segment (the last record of the active segment might not be complete yet)
+        }
+    }
+
+    private static DataInputStream open(Path segment) throws IOException {
+        InputStream in = Files.newInputStream(segment);
+        if (segment.getFileName().toString().endsWith(BinaryLogWriter.COMPRESSED_SUFFIX)) {
+            in = new GZIPInputStream(in, 64 * 1024);
+        }
+        return new DataInputStream(new BufferedInputStream(in, 64 * 1024));
+    }
+
+    static List<Path> listSegments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(BinaryLogWriter.SEGMENT_PREFIX)
+                                && name.contains(BinaryLogWriter.SEGMENT_SUFFIX);
+                    })
+                    .sorted(Comparator.comparingLong(BinaryLogReader::segmentNumber))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    static long segmentNumber(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(BinaryLogWriter.SEGMENT_PREFIX.length(),
+                name.indexOf(BinaryLogWriter.SEGMENT_SUFFIX)));
+    }
+}
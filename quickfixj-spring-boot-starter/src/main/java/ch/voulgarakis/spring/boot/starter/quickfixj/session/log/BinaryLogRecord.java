@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.log;
+
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.utils.LazyMessage;
+import quickfix.DataDictionary;
+import quickfix.InvalidMessage;
+import quickfix.MessageUtils;
+import quickfix.SessionID;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * An entry of the binary FIX log, as read back by {@link BinaryLogReader}.
+ */
+public class BinaryLogRecord {
+
+    public enum Kind {
+        INCOMING(1),
+        OUTGOING(2),
+        EVENT(3),
+        ERROR_EVENT(4);
+
+        private final byte code;
+
+        Kind(int code) {
+            this.code = (byte) code;
+        }
+
+        byte getCode() {
+            return code;
+        }
+
+        static Kind of(byte code) {
+            for (Kind kind : values()) {
+                if (kind.code == code) {
+                    return kind;
+                }
+            }
+            throw new IllegalArgumentException("Unknown binary log record kind: " + code);
+        }
+
+        public boolean isMessage() {
+            return this == INCOMING || this == OUTGOING;
+        }
+    }
+
+    private final Instant timestamp;
+    private final SessionID sessionID;
+    private final Kind kind;
+    private final String text;
+
+    public BinaryLogRecord(Instant timestamp, SessionID sessionID, Kind kind, String text) {
+        this.timestamp = timestamp;
+        this.sessionID = sessionID;
+        this.kind = kind;
+        this.text = text;
+    }
+
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    public SessionID getSessionID() {
+        return sessionID;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return the raw FIX message (for incoming/outgoing records), or the event text.
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * @return the MsgType of the FIX message, if this is an incoming/outgoing record.
+     */
+    public Optional<String> getMsgType() {
+        if (!kind.isMessage()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(MessageUtils.getMessageType(text));
+        } catch (InvalidMessage e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @param dataDictionary the application DataDictionary of the session (can be null).
+     * @return a lazy view of the FIX message, if this is an incoming/outgoing record.
+     */
+    public Optional<LazyMessage> toLazyMessage(DataDictionary dataDictionary) {
+        return kind.isMessage() ? Optional.of(LazyMessage.of(text, dataDictionary)) : Optional.empty();
+    }
+
+    @Override
+    public String toString() {
+        return timestamp + " " + sessionID + " " + kind + ": " + text;
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.log;
+
+import org.quickfixj.CharsetSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import quickfix.SessionID;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Single background writer of the binary FIX log, shared by all the sessions of a {@link BinaryLogFactory}.
+ * <p>
+ * Segment layout: a {@link #MAGIC} header, followed by records. A record is either a session definition
+ * {@code [0][short ref][utf sessionId]}, written the first time a session appears in the segment, or an entry
+ * {@code [kind][short ref][long timestamp][int length][bytes]}.
+ * <p>
+ * Only the writer thread touches the segment stream: it closes it once it has drained the queue on {@link #close()}.
+ * If a segment cannot be opened the writer fails and stops accepting records. Records that are not written, because
+ * the writer failed or was closed, are counted in {@link #getDroppedRecords()}.
+ */
+class BinaryLogWriter implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BinaryLogWriter.class);
+
+    static final int MAGIC = 0x51464a4c; //QFJL
+    static final byte SESSION_DEFINITION = 0;
+    static final String SEGMENT_PREFIX = "fix.";
+    static final String SEGMENT_SUFFIX = ".binlog";
+    static final String COMPRESSED_SUFFIX = ".gz";
+
+    private final Path directory;
+    private final long segmentSize;
+    private final boolean compress;
+    private final Charset charset;
+    private final BlockingQueue<Entry> queue;
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile boolean failed;
+    private final AtomicLong droppedRecords = new AtomicLong();
+
+    private DataOutputStream out;
+    private long segmentNumber;
+    private long written;
+    private final Map<SessionID, Short> sessionRefs = new HashMap<>();
+
+    BinaryLogWriter(Path directory, long segmentSize, boolean compress, int queueCapacity) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.compress = compress;
+        this.charset = CharsetSupport.getCharsetInstance();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        Files.createDirectories(directory);
+        this.segmentNumber = BinaryLogReader.listSegments(directory).stream()
+                .mapToLong(BinaryLogReader::segmentNumber)
+                .max()
+                .orElse(-1) + 1;
+        this.thread = new Thread(this::run, "quickfixj-binary-log-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    void append(SessionID sessionID, BinaryLogRecord.Kind kind, String text) {
+        Entry entry = new Entry(System.currentTimeMillis(), sessionID, kind, text);
+        try {
+            while (!queue.offer(entry, 100, TimeUnit.MILLISECONDS)) {
+                if (!isAccepting()) {
+                    dropped(entry);
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            dropped(entry);
+            return;
+        }
+        //Closed or failed while enqueuing: whatever the writer thread did not take is not written anymore
+        if (!isAccepting() && queue.remove(entry)) {
+            dropped(entry);
+        }
+    }
+
+    long getDroppedRecords() {
+        return droppedRecords.get();
+    }
+
+    private boolean isAccepting() {
+        return running && !failed;
+    }
+
+    private void dropped(Entry entry) {
+        if (droppedRecords.incrementAndGet() == 1) {
+            LOG.warn("Binary log in {} {}, dropping {} record of session {} and counting further drops", directory,
+                    failed ? "failed" : "closed", entry.kind, entry.sessionID);
+        }
+    }
+
+    private void run() {
+        try {
+            while (running || !queue.isEmpty()) {
+                Entry entry = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (entry == null) {
+                    continue;
+                }
+                try {
+                    do {
+                        write(entry);
+                        entry = queue.poll();
+                    } while (entry != null);
+                    //Make the records visible to readers once the queue is drained
+                    out.flush();
+                } catch (IOException | RuntimeException e) {
+                    if (out == null) {
+                        //No segment to write to: stop instead of failing every record that follows
+                        LOG.error("Failed to open a binary log segment in {}, no more records are written",
+                                directory, e);
+                        failed = true;
+                        dropped(entry);
+                        break;
+                    }
+                    LOG.error("Failed to write to binary log in {}", directory, e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (Entry entry = queue.poll(); entry != null; entry = queue.poll()) {
+                dropped(entry);
+            }
+            closeSegment();
+        }
+    }
+
+    private void write(Entry entry) throws IOException {
+        byte[] bytes = entry.text.getBytes(charset);
+        if (out == null || written >= segmentSize) {
+            roll();
+        }
+        Short ref = sessionRefs.get(entry.sessionID);
+        if (ref == null) {
+            ref = (short) sessionRefs.size();
+            sessionRefs.put(entry.sessionID, ref);
+            out.writeByte(SESSION_DEFINITION);
+            out.writeShort(ref);
+            out.writeUTF(entry.sessionID.toString());
+        }
+        out.writeByte(entry.kind.getCode());
+        out.writeShort(ref);
+        out.writeLong(entry.timestamp);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        written += 1 + Long.BYTES + Short.BYTES + Integer.BYTES + bytes.length;
+    }
+
+    private void roll() throws IOException {
+        closeSegment();
+        String name = SEGMENT_PREFIX + segmentNumber++ + SEGMENT_SUFFIX + (compress ? COMPRESSED_SUFFIX : "");
+        OutputStream file = Files.newOutputStream(directory.resolve(name));
+        DataOutputStream segment;
+        try {
+            segment = new DataOutputStream(new BufferedOutputStream(
+                    compress ? new GZIPOutputStream(file, 64 * 1024, true) : file, 64 * 1024));
+            segment.writeInt(MAGIC);
+        } catch (IOException e) {
+            file.close();
+            throw e;
+        }
+        out = segment;
+        written = Integer.BYTES;
+        sessionRefs.clear();
+    }
+
+    private void closeSegment() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                LOG.error("Failed to close binary log in {}", directory, e);
+            }
+            out = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            //The writer thread closes the segment itself once it has drained the queue
+            LOG.warn("Binary log writer in {} still draining {} records", directory, queue.size());
+        } else if (droppedRecords.get() > 0) {
+            LOG.warn("Binary log in {} closed, {} records were dropped", directory, droppedRecords.get());
+        }
+    }
+
+    private static class Entry {
+        private final long timestamp;
+        private final SessionID sessionID;
+        private final BinaryLogRecord.Kind kind;
+        private final String text;
+
+        private Entry(long timestamp, SessionID sessionID, BinaryLogRecord.Kind kind, String text) {
+            this.timestamp = timestamp;
+            this.sessionID = sessionID;
+            this.kind = kind;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.order;
+
+import quickfix.field.OrdStatus;
+
+import java.time.Instant;
+
+/**
+ * Immutable state of an order, as last reported by the counterparty.
+ * Quantities and prices are NaN when not (yet) reported.
+ */
+public class OrderState {
+
+    private final String clOrdId;
+    private final String origClOrdId;
+    private final String orderId;
+    private final String symbol;
+    private final char side;
+    private final char ordStatus;
+    private final double orderQty;
+    private final double cumQty;
+    private final double leavesQty;
+    private final double avgPx;
+    private final double lastQty;
+    private final double lastPx;
+    private final String text;
+    private final boolean cancelRejected;
+    private final Instant updated;
+
+    OrderState(String clOrdId, String origClOrdId, String orderId, String symbol, char side, char ordStatus,
+            double orderQty, double cumQty, double leavesQty, double avgPx, double lastQty, double lastPx,
+            String text, boolean cancelRejected, Instant updated) {
+        this.clOrdId = clOrdId;
+        this.origClOrdId = origClOrdId;
+        this.orderId = orderId;
+        this.symbol = symbol;
+        this.side = side;
+        this.ordStatus = ordStatus;
+        this.orderQty = orderQty;
+        this.cumQty = cumQty;
+        this.leavesQty = leavesQty;
+        this.avgPx = avgPx;
+        this.lastQty = lastQty;
+        this.lastPx = lastPx;
+        this.text = text;
+        this.cancelRejected = cancelRejected;
+        this.updated = updated;
+    }
+
+    /**
+     * @return the latest ClOrdID of the order (changes with every cancel/replace).
+     */
+    public String getClOrdId() {
+        return clOrdId;
+    }
+
+    public String getOrigClOrdId() {
+        return origClOrdId;
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public char getSide() {
+        return side;
+    }
+
+    public char getOrdStatus() {
+        return ordStatus;
+    }
+
+    public double getOrderQty() {
+        return orderQty;
+    }
+
+    public double getCumQty() {
+        return cumQty;
+    }
+
+    public double getLeavesQty() {
+        return leavesQty;
+    }
+
+    public double getAvgPx() {
+        return avgPx;
+    }
+
+    public double getLastQty() {
+        return lastQty;
+    }
+
+    public double getLastPx() {
+        return lastPx;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * @return whether the last cancel (or cancel/replace) request of the order was rejected.
+     */
+    public boolean isCancelRejected() {
+        return cancelRejected;
+    }
+
+    public Instant getUpdated() {
+        return updated;
+    }
+
+    /**
+     * Stopped orders are not terminal (a stopped order is still to be filled, at a guaranteed price), and neither are
+     * orders done for the day: a good-till-cancel order done for the day can be filled on the next days, and the
+     * counterparty reports its end (expired, cancelled, etc.) when it is no longer working.
+     *
+     * @return whether the order can no longer be filled (filled, cancelled, rejected or expired).
+     */
+    public boolean isTerminal() {
+        return isTerminal(ordStatus);
+    }
+
+    static boolean isTerminal(char ordStatus) {
+        switch (ordStatus) {
+            case OrdStatus.FILLED:
+            case OrdStatus.CANCELED:
+            case OrdStatus.REJECTED:
+            case OrdStatus.EXPIRED:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "OrderState{" +
+                "clOrdId='" + clOrdId + '\'' +
+                ", orderId='" + orderId + '\'' +
+                ", symbol='" + symbol + '\'' +
+                ", side=" + side +
+                ", ordStatus=" + ordStatus +
+                ", orderQty=" + orderQty +
+                ", cumQty=" + cumQty +
+                ", leavesQty=" + leavesQty +
+                ", avgPx=" + avgPx +
+                '}';
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.order;
+
+import quickfix.FieldException;
+import quickfix.FieldMap;
+import quickfix.FieldNotFound;
+import quickfix.Message;
+import quickfix.field.AvgPx;
+import quickfix.field.ClOrdID;
+import quickfix.field.CumQty;
+import quickfix.field.LastPx;
+import quickfix.field.LastQty;
+import quickfix.field.LeavesQty;
+import quickfix.field.MsgType;
+import quickfix.field.OrdStatus;
+import quickfix.field.OrderID;
+import quickfix.field.OrderQty;
+import quickfix.field.OrigClOrdID;
+import quickfix.field.Side;
+import quickfix.field.Symbol;
+import quickfix.field.Text;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import static ch.voulgarakis.spring.boot.starter.quickfixj.session.utils.FixMessageUtils.safeGetDouble;
+
+/**
+ * State of the orders of a session, built from the {@link MsgType#EXECUTION_REPORT} and
+ * {@link MsgType#ORDER_CANCEL_REJECT} messages received, and indexed by ClOrdID (every ClOrdID of a cancel/replace
+ * chain), OrigClOrdID and OrderID.
+ * <p>
+ * The state of each order is kept in primitive fields and copied into an immutable {@link OrderState} on query.
+ * When full, the least recently updated order is evicted.
+ */
+public class OrderStateStore {
+
+    private final int maxOrders;
+    //In order of last update: the eldest is evicted first
+    private final LinkedHashMap<OrderRecord, OrderRecord> orders = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, OrderRecord> byClOrdId = new HashMap<>();
+    private final Map<String, OrderRecord> byOrderId = new HashMap<>();
+
+    public OrderStateStore(int maxOrders) {
+        this.maxOrders = maxOrders;
+    }
+
+    /**
+     * Update the state of the order of the message.
+     *
+     * @return true if the message is an execution report or an order cancel reject, that was applied.
+     */
+    public synchronized boolean update(Message message) {
+        String msgType = get(message.getHeader(), MsgType.FIELD);
+        if (MsgType.EXECUTION_REPORT.equals(msgType)) {
+            return executionReport(message);
+        } else if (MsgType.ORDER_CANCEL_REJECT.equals(msgType)) {
+            return orderCancelReject(message);
+        }
+        return false;
+    }
+
+    private boolean executionReport(Message message) {
+        String clOrdId = get(message, ClOrdID.FIELD);
+        String origClOrdId = get(message, OrigClOrdID.FIELD);
+        String orderId = get(message, OrderID.FIELD);
+        OrderRecord order = find(clOrdId, origClOrdId, orderId);
+        if (Objects.isNull(order)) {
+            if (Objects.isNull(clOrdId) && Objects.isNull(orderId)) {
+                return false;
+            }
+            order = new OrderRecord();
+            evict();
+        }
+        orders.put(order, order);
+        index(order, clOrdId, origClOrdId, orderId);
+        if (Objects.nonNull(clOrdId)) {
+            order.clOrdId = clOrdId;
+        }
+        if (Objects.nonNull(origClOrdId)) {
+            order.origClOrdId = origClOrdId;
+        }
+        String symbol = get(message, Symbol.FIELD);
+        if (Objects.nonNull(symbol)) {
+            order.symbol = symbol;
+        }
+        char side = getChar(message, Side.FIELD);
+        if (side != 0) {
+            order.side = side;
+        }
+        char ordStatus = getChar(message, OrdStatus.FIELD);
+        if (ordStatus != 0) {
+            order.ordStatus = ordStatus;
+        }
+        order.orderQty = update(message, OrderQty.FIELD, order.orderQty);
+        order.cumQty = update(message, CumQty.FIELD, order.cumQty);
+        order.leavesQty = update(message, LeavesQty.FIELD, order.leavesQty);
+        order.avgPx = update(message, AvgPx.FIELD, order.avgPx);
+        order.lastQty = update(message, LastQty.FIELD, order.lastQty);
+        order.lastPx = update(message, LastPx.FIELD, order.lastPx);
+        order.text = get(message, Text.FIELD);
+        order.cancelRejected = false;
+        order.updated = Instant.now();
+        return true;
+    }
+
+    private boolean orderCancelReject(Message message) {
+        String clOrdId = get(message, ClOrdID.FIELD);
+        String origClOrdId = get(message, OrigClOrdID.FIELD);
+        String orderId = get(message, OrderID.FIELD);
+        OrderRecord order = find(null, origClOrdId, orderId);
+        if (Objects.isNull(order)) {
+            return false;
+        }
+        orders.put(order, order);
+        index(order, clOrdId, origClOrdId, orderId);
+        //A pending replace that was rejected: the order keeps its previous ClOrdID
+        if (Objects.nonNull(clOrdId) && clOrdId.equals(order.clOrdId) && Objects.nonNull(origClOrdId)) {
+            order.clOrdId = origClOrdId;
+        }
+        char ordStatus = getChar(message, OrdStatus.FIELD);
+        if (ordStatus != 0) {
+            order.ordStatus = ordStatus;
+        }
+        order.text = get(message, Text.FIELD);
+        order.cancelRejected = true;
+        order.updated = Instant.now();
+        return true;
+    }
+
+    private OrderRecord find(String clOrdId, String origClOrdId, String orderId) {
+        OrderRecord order = Objects.nonNull(orderId) ? byOrderId.get(orderId) : null;
+        if (Objects.isNull(order) && Objects.nonNull(origClOrdId)) {
+            order = byClOrdId.get(origClOrdId);
+        }
+        if (Objects.isNull(order) && Objects.nonNull(clOrdId)) {
+            order = byClOrdId.get(clOrdId);
+        }
+        return order;
+    }
+
+    private void index(OrderRecord order, String clOrdId, String origClOrdId, String orderId) {
+        for (String id : new String[]{clOrdId, origClOrdId}) {
+            if (Objects.nonNull(id) && byClOrdId.putIfAbsent(id, order) == null) {
+                order.clOrdIds.add(id);
+            }
+        }
+        if (Objects.nonNull(orderId) && !orderId.equals(order.orderId)) {
+            if (Objects.nonNull(order.orderId)) {
+                byOrderId.remove(order.orderId, order);
+            }
+            order.orderId = orderId;
+            byOrderId.put(orderId, order);
+        }
+    }
+
+    private void evict() {
+        if (orders.size() < maxOrders) {
+            return;
+        }
+        OrderRecord eldest = orders.keySet().iterator().next();
+        orders.remove(eldest);
+        eldest.clOrdIds.forEach(id -> byClOrdId.remove(id, eldest));
+        if (Objects.nonNull(eldest.orderId)) {
+            byOrderId.remove(eldest.orderId, eldest);
+        }
+    }
+
+    //--------------------------------------------------
+    //-----------------------QUERIES--------------------
+    //--------------------------------------------------
+
+    /**
+     * @param clOrdId any ClOrdID of the order (of the original order, or of a cancel/replace).
+     */
+    public synchronized Optional<OrderState> getByClOrdId(String clOrdId) {
+        return Optional.ofNullable(byClOrdId.get(clOrdId)).map(OrderRecord::toState);
+    }
+
+    public synchronized Optional<OrderState> getByOrderId(String orderId) {
+        return Optional.ofNullable(byOrderId.get(orderId)).map(OrderRecord::toState);
+    }
+
+    /**
+     * @return the orders that are not in a terminal state, in order of last update.
+     */
+    public synchronized List<OrderState> getOpenOrders() {
+        List<OrderState> openOrders = new ArrayList<>();
+        for (OrderRecord order : orders.keySet()) {
+            if (!OrderState.isTerminal(order.ordStatus)) {
+                openOrders.add(order.toState());
+            }
+        }
+        return openOrders;
+    }
+
+    public synchronized int size() {
+        return orders.size();
+    }
+
+    public synchronized void clear() {
+        orders.clear();
+        byClOrdId.clear();
+        byOrderId.clear();
+    }
+
+    //--------------------------------------------------
+    //-----------------------FIELDS---------------------
+    //--------------------------------------------------
+
+    private static double update(Message message, int tag, double previous) {
+        double value = safeGetDouble(message, tag, Double.NaN);
+        return Double.isNaN(value) ? previous : value;
+    }
+
+    private static String get(FieldMap fieldMap, int tag) {
+        if (fieldMap.isSetField(tag)) {
+            try {
+                return fieldMap.getString(tag);
+            } catch (FieldNotFound e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static char getChar(Message message, int tag) {
+        if (message.isSetField(tag)) {
+            try {
+                return message.getChar(tag);
+            } catch (FieldNotFound | FieldException e) {
+                return 0;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Mutable state of an order, guarded by the store.
+     */
+    private static class OrderRecord {
+        private final List<String> clOrdIds = new ArrayList<>(2);
+        private String clOrdId;
+        private String origClOrdId;
+        private String orderId;
+        private String symbol;
+        private char side;
+        private char ordStatus;
+        private double orderQty = Double.NaN;
+        private double cumQty = Double.NaN;
+        private double leavesQty = Double.NaN;
+        private double avgPx = Double.NaN;
+        private double lastQty = Double.NaN;
+        private double lastPx = Double.NaN;
+        private String text;
+        private boolean cancelRejected;
+        private Instant updated;
+
+        private OrderState toState() {
+            return new OrderState(clOrdId, origClOrdId, orderId, symbol, side, ordStatus, orderQty, cumQty,
+                    leavesQty, avgPx, lastQty, lastPx, text, cancelRejected, updated);
+        }
+    }
+}
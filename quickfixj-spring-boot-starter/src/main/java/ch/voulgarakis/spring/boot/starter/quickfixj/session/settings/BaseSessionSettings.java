@@ -30,8 +30,8 @@ import java.security.InvalidParameterException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 /**
  * Settings for sessions. Settings are grouped by FIX version and target company
@@ -67,17 +67,13 @@ public class BaseSessionSettings extends SessionSettings {
     public static final String TARGETLOCID = "TargetLocationID";
     public static final String SESSION_QUALIFIER = "SessionQualifier";
 
-    // This was using the line.separator system property but that caused
-    // problems with moving configuration files between *nix and Windows.
-    private static final String NEWLINE = "\r\n";
-
     private Properties variableValues = System.getProperties();
 
     /**
      * Creates an empty session settings object.
      */
     public BaseSessionSettings() {
-        sections.put(DEFAULT_SESSION_ID, new Properties());
+        sections.put(DEFAULT_SESSION_ID, new Section(null));
     }
 
     /**
@@ -131,7 +127,7 @@ public class BaseSessionSettings extends SessionSettings {
      */
     @Override
     public String getString(SessionID sessionID, String key) throws ConfigError {
-        String value = interpolate(getSessionProperties(sessionID).getProperty(key));
+        String value = getResolvedProperties(sessionID).get(key);
         if (value == null) {
             throw new ConfigError(key + " not defined");
         }
@@ -140,6 +136,9 @@ public class BaseSessionSettings extends SessionSettings {
 
     /**
      * Return the settings for a session as a Properties object.
+     * <p>
+     * The values are the raw ones, with the <code>${variable}</code> references not interpolated, unlike the ones
+     * returned by {@link #getString(SessionID, String)} and the other typed getters.
      *
      * @param sessionID
      * @param includeDefaults if true, include settings defaults in properties
@@ -256,7 +255,7 @@ public class BaseSessionSettings extends SessionSettings {
     }
 
     private Properties getOrCreateSessionProperties(SessionID sessionID) {
-        return sections.computeIfAbsent(sessionID, k -> new Properties(sections.get(DEFAULT_SESSION_ID)));
+        return sections.computeIfAbsent(sessionID, k -> new Section(sections.get(DEFAULT_SESSION_ID)));
     }
 
     /**
@@ -371,6 +370,13 @@ public class BaseSessionSettings extends SessionSettings {
 
     private final ConcurrentMap<SessionID, Properties> sections = new ConcurrentHashMap<>();
 
+    /**
+     * Interpolated settings per session (defaults included), dropped whenever any setting changes.
+     */
+    private final Map<SessionID, Map<String, String>> resolvedSections = new ConcurrentHashMap<>();
+    private final Map<String, String> interpolatedValues = new ConcurrentHashMap<>();
+    private long modifications;
+
     @Override
     public Iterator<SessionID> sectionIterator() {
         HashSet<SessionID> nondefaultSessions = new HashSet<>(sections.keySet());
@@ -382,27 +388,32 @@ public class BaseSessionSettings extends SessionSettings {
         try {
             Properties currentSection = null;
             String currentSectionId = null;
-            Tokenizer tokenizer = new Tokenizer();
-            Reader reader = new InputStreamReader(inputStream);
-            Tokenizer.Token token = tokenizer.getToken(reader);
-            while (token != null) {
-                if (token.getType() == Tokenizer.SECTION_TOKEN) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.charAt(0) == '#') {
+                    continue;
+                }
+                if (line.charAt(0) == '[') {
                     storeSection(currentSectionId, currentSection);
-                    if (token.getValue().equalsIgnoreCase(DEFAULT_SECTION_NAME)) {
+                    int end = line.indexOf(']');
+                    String sectionName = line.substring(1, end == -1 ? line.length() : end).trim();
+                    if (sectionName.equalsIgnoreCase(DEFAULT_SECTION_NAME)) {
                         currentSectionId = DEFAULT_SECTION_NAME;
                         currentSection = getSessionProperties(DEFAULT_SESSION_ID);
-                    } else if (token.getValue().equalsIgnoreCase(SESSION_SECTION_NAME)) {
+                    } else if (sectionName.equalsIgnoreCase(SESSION_SECTION_NAME)) {
                         currentSectionId = SESSION_SECTION_NAME;
-                        currentSection = new Properties(getSessionProperties(DEFAULT_SESSION_ID));
+                        currentSection = new Section(getSessionProperties(DEFAULT_SESSION_ID));
                     }
-                } else if (token.getType() == Tokenizer.ID_TOKEN) {
-                    Tokenizer.Token valueToken = tokenizer.getToken(reader);
-                    if (currentSection != null) {
-                        String value = interpolate(valueToken.getValue());
-                        currentSection.put(token.getValue(), value);
+                } else {
+                    int separator = line.indexOf('=');
+                    if (separator > 0 && currentSection != null) {
+                        String key = line.substring(0, separator).trim();
+                        String value = interpolate(line.substring(separator + 1).trim());
+                        currentSection.put(key, value);
                     }
                 }
-                token = tokenizer.getToken(reader);
             }
             storeSection(currentSectionId, currentSection);
         } catch (IOException e) {
@@ -423,6 +434,7 @@ public class BaseSessionSettings extends SessionSettings {
                     currentSection.getProperty(TARGETLOCID),
                     currentSection.getProperty(SESSION_QUALIFIER));
             sections.put(sessionId, currentSection);
+            settingsChanged();
         }
     }
 
@@ -446,7 +458,13 @@ public class BaseSessionSettings extends SessionSettings {
      */
     @Override
     public boolean isSetting(SessionID sessionID, String key) {
-        return getOrCreateSessionProperties(sessionID).getProperty(key) != null;
+        getOrCreateSessionProperties(sessionID);
+        try {
+            return getResolvedProperties(sessionID).containsKey(key);
+        } catch (ConfigError e) {
+            // shouldn't happen, the section has just been created
+            return false;
+        }
     }
 
     @Override
@@ -454,130 +472,76 @@ public class BaseSessionSettings extends SessionSettings {
         getOrCreateSessionProperties(sessionID).remove(key);
     }
 
-    private static class Tokenizer {
-        //public static final int NONE_TOKEN = 1;
-
-        public static final int ID_TOKEN = 2;
-
-        public static final int VALUE_TOKEN = 3;
-
-        public static final int SECTION_TOKEN = 4;
-
-        private static class Token {
-            private final int type;
-
-            private final String value;
-
-            public Token(int type, String value) {
-                super();
-                this.type = type;
-                this.value = value;
-            }
-
-            public int getType() {
-                return type;
-            }
-
-            public String getValue() {
-                return value;
-            }
-
-            @Override
-            public String toString() {
-                return type + ": " + value;
+    /**
+     * @return the interpolated settings of the session (including the defaults), built once until a setting changes.
+     */
+    private Map<String, String> getResolvedProperties(SessionID sessionID) throws ConfigError {
+        Map<String, String> resolved = resolvedSections.get(sessionID);
+        if (resolved == null) {
+            long version;
+            synchronized (resolvedSections) {
+                version = modifications;
             }
-        }
-
-        private char ch = '\0';
-
-        private final StringBuilder sb = new StringBuilder();
-
-        private Token getToken(Reader reader) throws IOException {
-            if (ch == '\0') {
-                ch = nextCharacter(reader);
+            Properties properties = getSessionProperties(sessionID);
+            Map<String, String> table = new HashMap<>();
+            for (String key : properties.stringPropertyNames()) {
+                table.put(key, interpolate(properties.getProperty(key)));
             }
-            skipWhitespace(reader);
-            if (isLabelCharacter(ch)) {
-                sb.setLength(0);
-                do {
-                    sb.append(ch);
-                    ch = nextCharacter(reader);
-                } while (isLabelCharacter(ch));
-                return new Token(ID_TOKEN, sb.toString());
-            } else if (ch == '=') {
-                ch = nextCharacter(reader);
-                sb.setLength(0);
-                if (isValueCharacter(ch)) {
-                    do {
-                        sb.append(ch);
-                        ch = nextCharacter(reader);
-                    } while (isValueCharacter(ch));
+            resolved = Collections.unmodifiableMap(table);
+            synchronized (resolvedSections) {
+                //Do not cache it, if the settings have changed meanwhile
+                if (version == modifications) {
+                    resolvedSections.put(sessionID, resolved);
                 }
-                return new Token(VALUE_TOKEN, sb.toString().trim());
-            } else if (ch == '[') {
-                ch = nextCharacter(reader);
-                Token id = getToken(reader);
-                // check ]
-                ch = nextCharacter(reader); // skip ]
-                return new Token(SECTION_TOKEN, id.getValue());
-            } else if (ch == '#') {
-                do {
-                    ch = nextCharacter(reader);
-                } while (isValueCharacter(ch));
-                return getToken(reader);
             }
-            return null;
-        }
-
-        private boolean isNewLineCharacter(char ch) {
-            return NEWLINE.indexOf(ch) != -1;
-        }
-
-        private boolean isLabelCharacter(char ch) {
-            return !isEndOfStream(ch) && "[]=#".indexOf(ch) == -1;
-        }
-
-        private boolean isValueCharacter(char ch) {
-            return !isEndOfStream(ch) && !isNewLineCharacter(ch);
-        }
-
-        private boolean isEndOfStream(char ch) {
-            return (byte) ch == -1;
-        }
-
-        private char nextCharacter(Reader reader) throws IOException {
-            return (char) reader.read();
         }
+        return resolved;
+    }
 
-        private void skipWhitespace(Reader reader) throws IOException {
-            if (Character.isWhitespace(ch)) {
-                do {
-                    ch = nextCharacter(reader);
-                } while (Character.isWhitespace(ch));
-            }
+    private void settingsChanged() {
+        synchronized (resolvedSections) {
+            modifications++;
+            resolvedSections.clear();
         }
     }
 
-    private static final Pattern VARIABLE_PATTERN = Pattern.compile("\\$\\{(.+?)}");
+    /**
+     * Drop the interpolated settings, e.g. when the variable values (the Properties given to
+     * {@link #setVariableValues(Properties)}) have been modified.
+     */
+    public void variableValuesChanged() {
+        interpolatedValues.clear();
+        settingsChanged();
+    }
 
     private String interpolate(String value) {
         if (value == null || value.indexOf('$') == -1) {
             return value;
         }
-        StringBuffer buffer = new StringBuffer();
-        Matcher m = VARIABLE_PATTERN.matcher(value);
-        while (m.find()) {
-            if (m.start() > 0 && value.charAt(m.start() - 1) == '\\') {
+        return interpolatedValues.computeIfAbsent(value, this::substituteVariables);
+    }
+
+    private String substituteVariables(String value) {
+        StringBuilder buffer = new StringBuilder(value.length());
+        int copied = 0;
+        int searchFrom = 0;
+        int start;
+        while ((start = value.indexOf("${", searchFrom)) != -1) {
+            int end = value.indexOf('}', start + 3);
+            if (end == -1) {
+                break;
+            }
+            searchFrom = end + 1;
+            if (start > 0 && value.charAt(start - 1) == '\\') {
                 continue;
             }
-            String variable = m.group(1);
-            String variableValue = variableValues.getProperty(variable);
+            String variableValue = variableValues.getProperty(value.substring(start + 2, end));
             if (variableValue != null) {
-                m.appendReplacement(buffer, variableValue);
+                buffer.append(value, copied, start).append(variableValue);
+                copied = end + 1;
             }
         }
-        m.appendTail(buffer);
-        return buffer.toString();
+        return buffer.append(value, copied, value.length()).toString();
     }
 
     /**
@@ -610,6 +574,7 @@ public class BaseSessionSettings extends SessionSettings {
     @Override
     public void setVariableValues(Properties variableValues) {
         this.variableValues = variableValues;
+        variableValuesChanged();
     }
 
     /**
@@ -686,6 +651,17 @@ public class BaseSessionSettings extends SessionSettings {
         p.putAll(dictionary.toMap());
     }
 
+    /**
+     * Remove the section of a session (the default section cannot be removed).
+     *
+     * @param sessionID the session ID
+     */
+    public void removeSection(SessionID sessionID) {
+        if (!DEFAULT_SESSION_ID.equals(sessionID) && sections.remove(sessionID) != null) {
+            settingsChanged();
+        }
+    }
+
     @Override
     public Dictionary get() {
         return new Dictionary(null, getDefaultProperties());
@@ -790,4 +766,106 @@ public class BaseSessionSettings extends SessionSettings {
         return result;
     }
 
+    /**
+     * Section of the settings, which drops the interpolated settings when modified through any of its {@link Map}
+     * methods. Modifications through the {@link #keySet()}, {@link #values()} and {@link #entrySet()} views are not
+     * tracked.
+     */
+    private class Section extends Properties {
+
+        private Section(Properties defaults) {
+            super(defaults);
+        }
+
+        @Override
+        public synchronized Object put(Object key, Object value) {
+            Object previous = super.put(key, value);
+            settingsChanged();
+            return previous;
+        }
+
+        @Override
+        public synchronized void putAll(Map<?, ?> t) {
+            super.putAll(t);
+            settingsChanged();
+        }
+
+        @Override
+        public synchronized Object remove(Object key) {
+            Object previous = super.remove(key);
+            settingsChanged();
+            return previous;
+        }
+
+        @Override
+        public synchronized boolean remove(Object key, Object value) {
+            boolean removed = super.remove(key, value);
+            settingsChanged();
+            return removed;
+        }
+
+        @Override
+        public synchronized void clear() {
+            super.clear();
+            settingsChanged();
+        }
+
+        @Override
+        public synchronized Object putIfAbsent(Object key, Object value) {
+            Object previous = super.putIfAbsent(key, value);
+            settingsChanged();
+            return previous;
+        }
+
+        @Override
+        public synchronized boolean replace(Object key, Object oldValue, Object newValue) {
+            boolean replaced = super.replace(key, oldValue, newValue);
+            settingsChanged();
+            return replaced;
+        }
+
+        @Override
+        public synchronized Object replace(Object key, Object value) {
+            Object previous = super.replace(key, value);
+            settingsChanged();
+            return previous;
+        }
+
+        @Override
+        public synchronized void replaceAll(BiFunction<? super Object, ? super Object, ?> function) {
+            super.replaceAll(function);
+            settingsChanged();
+        }
+
+        @Override
+        public synchronized Object computeIfAbsent(Object key, Function<? super Object, ?> mappingFunction) {
+            Object value = super.computeIfAbsent(key, mappingFunction);
+            settingsChanged();
+            return value;
+        }
+
+        @Override
+        public synchronized Object computeIfPresent(Object key,
+                BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+            Object value = super.computeIfPresent(key, remappingFunction);
+            settingsChanged();
+            return value;
+        }
+
+        @Override
+        public synchronized Object compute(Object key,
+                BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+            Object value = super.compute(key, remappingFunction);
+            settingsChanged();
+            return value;
+        }
+
+        @Override
+        public synchronized Object merge(Object key, Object value,
+                BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+            Object merged = super.merge(key, value, remappingFunction);
+            settingsChanged();
+            return merged;
+        }
+    }
 }
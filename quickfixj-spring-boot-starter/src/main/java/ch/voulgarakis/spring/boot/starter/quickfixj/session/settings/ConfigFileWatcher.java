@@ -16,33 +16,99 @@
 
 package ch.voulgarakis.spring.boot.starter.quickfixj.session.settings;
 
-import java.io.IOException;
-import java.nio.file.*;
-
-public class ConfigFileWatcher {
-
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
-    private void watch() throws IOException, InterruptedException {
-        WatchService watchService
-                = FileSystems.getDefault().newWatchService();
+/**
+ * Watches a config file, and notifies once the file has stopped changing for the debounce period (editors and
+ * deployments usually write a file in several steps).
+ */
+public class ConfigFileWatcher implements Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(ConfigFileWatcher.class);
 
-        Path path = Paths.get(System.getProperty("user.home"));
+    private final Path file;
+    private final Duration debounce;
+    private final Runnable onChange;
+    private final WatchService watchService;
+    private final ScheduledExecutorService scheduler;
+    private ScheduledFuture<?> pendingChange;
 
-        path.register(
-                watchService,
+    public ConfigFileWatcher(Path file, Duration debounce, Runnable onChange) throws IOException {
+        this.file = file.toAbsolutePath().normalize();
+        this.debounce = debounce;
+        this.onChange = onChange;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        //Watch the directory, so that the file being replaced (delete and re-create) is also caught
+        this.file.getParent().register(watchService,
                 StandardWatchEventKinds.ENTRY_CREATE,
-                StandardWatchEventKinds.ENTRY_DELETE,
                 StandardWatchEventKinds.ENTRY_MODIFY);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "quickfixj-config-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Thread thread = new Thread(this::watch, "quickfixj-config-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        LOG.info("Watching {} for changes", this.file);
+    }
 
-        WatchKey key;
-        while ((key = watchService.take()) != null) {
-            for (WatchEvent<?> event : key.pollEvents()) {
-                System.out.println(
-                        "Event kind:" + event.kind()
-                                + ". File affected: " + event.context() + ".");
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                            || file.getFileName().equals(event.context())) {
+                        changed();
+                    }
+                }
+                if (!key.reset()) {
+                    LOG.warn("Stopped watching {}: directory no longer accessible", file);
+                    return;
+                }
             }
-            key.reset();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            //Closed
+        }
+    }
+
+    private synchronized void changed() {
+        if (pendingChange != null) {
+            pendingChange.cancel(false);
         }
+        pendingChange = scheduler.schedule(this::notifyChange, debounce.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void notifyChange() {
+        LOG.info("Config file {} changed", file);
+        try {
+            onChange.run();
+        } catch (RuntimeException e) {
+            LOG.error("Failed to apply the changes of {}", file, e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+        scheduler.shutdownNow();
     }
 }
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.settings;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves the DataDictionary locations of the session settings to a canonical form (classpath path or canonical file
+ * path).
+ * <p>
+ * Nothing is parsed here: the {@link quickfix.DefaultSessionFactory} of QuickFIX/J caches the parsed dictionaries by
+ * location, in a cache shared by all the session factories of the JVM (the shards of a sharded connector included).
+ * The canonical locations let all the sessions referencing the same file share a single parsed instance, however the
+ * location is spelled in the config.
+ */
+public class DataDictionaryLocations {
+    private static final Logger LOG = LoggerFactory.getLogger(DataDictionaryLocations.class);
+
+    private final ResourceLoader resourceLoader;
+    private final Map<String, String> locations = new ConcurrentHashMap<>();
+
+    public DataDictionaryLocations(ResourceLoader resourceLoader) {
+        this.resourceLoader = resourceLoader;
+    }
+
+    /**
+     * @param location the DataDictionary location, as specified in the session settings.
+     * @return the canonical location of the DataDictionary, in a format understood by quickfixj.
+     */
+    public String resolve(String location) {
+        return locations.computeIfAbsent(location, this::canonicalLocation);
+    }
+
+    private String canonicalLocation(String location) {
+        Resource resource = resourceLoader.getResource(location);
+        if (resource instanceof ClassPathResource) {
+            return ((ClassPathResource) resource).getPath();
+        }
+        try {
+            if (resource.isFile()) {
+                return resource.getFile().getCanonicalPath();
+            }
+        } catch (IOException e) {
+            LOG.debug("Failed to resolve DataDictionary file {}", resource, e);
+        }
+        return location;
+    }
+}
@@ -16,84 +16,316 @@
 
 package ch.voulgarakis.spring.boot.starter.quickfixj.session.settings;
 
-import ch.voulgarakis.spring.boot.starter.quickfixj.session.FixSessionSettings;
+import ch.voulgarakis.spring.boot.starter.quickfixj.connection.ShardedConnector;
+import ch.voulgarakis.spring.boot.starter.quickfixj.exception.QuickFixJConfigurationException;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.DynamicFixSessions;
 import ch.voulgarakis.spring.boot.starter.quickfixj.session.FixSessionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.io.Resource;
 import quickfix.*;
+import quickfix.mina.SessionConnector;
 import quickfix.mina.acceptor.AbstractSocketAcceptor;
 import quickfix.mina.initiator.AbstractSocketInitiator;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.Iterator;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 
-public class LiveSessionSettings {
+import static ch.voulgarakis.spring.boot.starter.quickfixj.session.FixSessionSettings.extractSessionName;
+
+/**
+ * Applies the changes of the session settings to the running connector (quickfixj.config-live).
+ * <p>
+ * On every change of the quickfixj config file, the settings are reloaded and compared with the previous ones:
+ * removed sessions are logged out and removed, changed sessions are restarted, and added sessions are created.
+ * The sessions created from a removed or changed acceptor template are removed as well (and created again from the
+ * changed template on their next logon). The other sessions are not touched.
+ * <p>
+ * Each change is applied to the connector first, and then to the session settings: if the connector fails, the
+ * session keeps its previous settings, and the change is retried on the next refresh. Removing a session from the
+ * session settings requires {@link BaseSessionSettings} (as loaded by the {@link SessionSettingsLoader}).
+ * <p>
+ * Acceptor ports are bound on startup: sessions added on an acceptor port that is not already open are only
+ * available after a restart.
+ */
+public class LiveSessionSettings implements SmartLifecycle {
+    private static final Logger LOG = LoggerFactory.getLogger(LiveSessionSettings.class);
+
+    public static final Duration DEFAULT_DEBOUNCE = Duration.ofSeconds(1);
 
     private final Connector connector;
-    private final FixSessionSettings fixSessionSettings;
     private final SessionSettings sessionSettings;
+    private final SessionSettingsLoader sessionSettingsLoader;
     private final OnSettingsChangeDynamicAcceptorSessionProvider acceptorSessionProvider;
+    private final DynamicFixSessions dynamicFixSessions;
+    private final Duration debounce;
+    private final Set<SessionID> liveSessions = ConcurrentHashMap.newKeySet();
+    private final Set<SessionID> liveTemplates = ConcurrentHashMap.newKeySet();
+
+    //The settings applied so far
+    private BaseSessionSettings currentSessionSettings;
+    private ConfigFileWatcher configFileWatcher;
+    private volatile boolean running;
 
+    /**
+     * @param connector               the running connector.
+     * @param sessionSettings         the session settings the connector was created with (updated on changes).
+     * @param sessionSettingsLoader   reloads the session settings.
+     * @param acceptorSessionProvider creates the sessions of an acceptor (null for initiators).
+     * @param dynamicFixSessions      registers the session beans of the added sessions.
+     * @param debounce                how long the config file needs to be stable before it is reloaded.
+     */
     public LiveSessionSettings(Connector connector,
-            FixSessionSettings fixSessionSettings,
             SessionSettings sessionSettings,
-            OnSettingsChangeDynamicAcceptorSessionProvider acceptorSessionProvider) {
+            SessionSettingsLoader sessionSettingsLoader,
+            OnSettingsChangeDynamicAcceptorSessionProvider acceptorSessionProvider,
+            DynamicFixSessions dynamicFixSessions,
+            Duration debounce) {
+        if (!(connector instanceof SessionConnector) && !(connector instanceof ShardedConnector)) {
+            throw new QuickFixJConfigurationException(
+                    "Live session settings are not supported by connector: " + connector);
+        }
         this.connector = connector;
-        this.fixSessionSettings = fixSessionSettings;
         this.sessionSettings = sessionSettings;
+        this.sessionSettingsLoader = sessionSettingsLoader;
         this.acceptorSessionProvider = acceptorSessionProvider;
+        this.dynamicFixSessions = dynamicFixSessions;
+        this.debounce = debounce;
+        //The connector's settings are updated on changes, the loaded ones are compared with the previously loaded ones
+        this.currentSessionSettings = copyOf(sessionSettings);
+        FixSessionUtils.stream(sessionSettings).forEach(this::live);
+        if (!(sessionSettings instanceof BaseSessionSettings)) {
+            LOG.warn("Session settings {} do not support removing sessions: removed sessions stay in the settings",
+                    sessionSettings.getClass().getName());
+        }
+
+        //Sessions removed from the settings should no longer be accepted
+        if (Objects.nonNull(acceptorSessionProvider)) {
+            acceptorSessionProvider.setSessionFilter(this::isLive);
+        }
+    }
+
+    private static BaseSessionSettings copyOf(SessionSettings sessionSettings) {
+        try {
+            BaseSessionSettings copy = new BaseSessionSettings();
+            copy.set(new Dictionary(null, sessionSettings.getDefaultProperties()));
+            for (Iterator<SessionID> iterator = sessionSettings.sectionIterator(); iterator.hasNext(); ) {
+                SessionID sessionID = iterator.next();
+                copy.set(sessionID, new Dictionary(null, sessionSettings.getSessionProperties(sessionID)));
+            }
+            return copy;
+        } catch (ConfigError e) {
+            throw new QuickFixJConfigurationException("Failed to copy the session settings", e);
+        }
+    }
+
+    private void live(SessionID sessionID) {
+        liveSessions.add(sessionID);
+        if (FixSessionUtils.isTemplate(sessionID)) {
+            liveTemplates.add(sessionID);
+        }
     }
 
-    public void refresh() throws ConfigError, IOException {
+    private boolean isLive(SessionID sessionID) {
+        return liveSessions.contains(sessionID)
+                //Or created from an acceptor template
+                || liveTemplates.stream().anyMatch(template -> FixSessionUtils.matchesTemplate(template, sessionID));
+    }
+
+    /**
+     * Reload the session settings, and apply the changes to the connector.
+     *
+     * @return the sessions added, removed and changed.
+     */
+    public synchronized SessionSettingsDiff refresh() throws ConfigError, IOException {
         //Create the new session settings
-        SessionSettings newSessionSettings = null;
-        //Make sure the new session names are unique
-        FixSessionUtils.ensureUniqueSessionNames(newSessionSettings);
-
-        //Existing sessions
-        Set<SessionID> existingSessions = FixSessionUtils.stream(sessionSettings).collect(Collectors.toSet());
-
-        //Iterate over the new sessions sessions
-        Iterator<SessionID> iterator = newSessionSettings.sectionIterator();
-        while (iterator.hasNext()) {
-            SessionID sessionID = iterator.next();
-            Map<Object, Object> newSettings = newSessionSettings.get(sessionID).toMap();
-
-            //Does the session already exist?
-            Map<Object, Object> existingSettings = existingSessions.contains(sessionID) ?
-                    sessionSettings.get(sessionID).toMap() : null;
-
-            //Are they any different from the new session settings?
-            if (!Objects.equals(existingSettings, newSettings)) {
-                //If previous session already exists, we need to close the session
-                if (Objects.nonNull(existingSettings)) {
-                    removeSession(sessionID);
+        SessionSettings newSessionSettings = sessionSettingsLoader.load();
+
+        SessionSettingsDiff diff = SessionSettingsDiff.compare(currentSessionSettings, newSessionSettings);
+        if (diff.isEmpty()) {
+            LOG.info("No session changed in the session settings");
+        } else {
+            LOG.info("Applying session settings changes: {}", diff);
+        }
+
+        try {
+            for (SessionID sessionID : diff.getRemoved()) {
+                removeCounterparties(sessionID);
+                removeSession(sessionID);
+                //Removed from the connector
+                liveSessions.remove(sessionID);
+                liveTemplates.remove(sessionID);
+                removeSection(sessionSettings, sessionID);
+                currentSessionSettings.removeSection(sessionID);
+                dynamicFixSessions.unregister(sessionID);
+            }
+            for (SessionID sessionID : diff.getChanged()) {
+                removeCounterparties(sessionID);
+                removeSession(sessionID);
+                createSession(newSessionSettings, sessionID);
+            }
+            for (SessionID sessionID : diff.getAdded()) {
+                if (dynamicFixSessions.register(sessionID, extractSessionName(newSessionSettings, sessionID))) {
+                    createSession(newSessionSettings, sessionID);
+                } else {
+                    LOG.warn("Session {} added in the session settings, but no FixSession can receive its messages. "
+                            + "Session will not be created.", sessionID);
                 }
+            }
+        } catch (ConfigError | IOException | RuntimeException e) {
+            LOG.error("Failed to apply the session settings changes, the sessions not applied are retried on the "
+                    + "next refresh", e);
+            throw e;
+        }
+        currentSessionSettings = copyOf(newSessionSettings);
+        return diff;
+    }
+
+    private void createSession(SessionSettings newSessionSettings, SessionID sessionID) throws ConfigError {
+        //The effective settings (including the defaults), as the defaults of the connector's settings are stale
+        Dictionary effectiveSettings =
+                new Dictionary(null, SessionSettingsDiff.effectiveSettings(newSessionSettings, sessionID));
+
+        //The connector creates the session from its settings: restored if it fails
+        Dictionary previousSettings = FixSessionUtils.contains(sessionSettings, sessionID)
+                ? sessionSettings.get(sessionID)
+                : null;
+        sessionSettings.set(sessionID, effectiveSettings);
 
-                //Create the new session
-                if (connector instanceof AbstractSocketAcceptor) {
-                    acceptorSessionProvider.getSession(sessionID, (AbstractSocketAcceptor) connector);
-                } else if (connector instanceof AbstractSocketInitiator) {
-                    ((AbstractSocketInitiator) connector).createDynamicSession(sessionID);
+        SessionConnector sessionConnector;
+        try {
+            sessionConnector = connectorOf(sessionID);
+        } catch (RuntimeException e) {
+            restore(sessionID, previousSettings);
+            throw e;
+        }
+        if (Objects.isNull(sessionConnector)) {
+            LOG.warn("No connector accepts session {}. Session will be available after a restart.", sessionID);
+            applied(sessionID, effectiveSettings);
+            return;
+        }
+        //The shards of a sharded connector have their own settings
+        if (connector instanceof ShardedConnector) {
+            sessionConnector.getSettings().set(sessionID, effectiveSettings);
+        }
+        try {
+            if (sessionConnector instanceof AbstractSocketAcceptor) {
+                if (Objects.nonNull(acceptorSessionProvider)) {
+                    acceptorSessionProvider.getSession(sessionID, sessionConnector);
                 }
+            } else if (sessionConnector instanceof AbstractSocketInitiator) {
+                ((AbstractSocketInitiator) sessionConnector).createDynamicSession(sessionID);
             }
+        } catch (ConfigError | RuntimeException e) {
+            restore(sessionID, previousSettings);
+            throw e;
         }
+        applied(sessionID, effectiveSettings);
+        LOG.info("Session {} created", sessionID);
+    }
+
+    private void applied(SessionID sessionID, Dictionary effectiveSettings) throws ConfigError {
+        live(sessionID);
+        currentSessionSettings.set(sessionID, effectiveSettings);
+    }
+
+    private void restore(SessionID sessionID, Dictionary previousSettings) throws ConfigError {
+        if (Objects.isNull(previousSettings)) {
+            removeSection(sessionSettings, sessionID);
+        } else {
+            sessionSettings.set(sessionID, previousSettings);
+        }
+    }
 
+    private static void removeSection(SessionSettings sessionSettings, SessionID sessionID) {
+        if (sessionSettings instanceof BaseSessionSettings) {
+            ((BaseSessionSettings) sessionSettings).removeSection(sessionID);
+        }
+    }
+
+    private SessionConnector connectorOf(SessionID sessionID) {
+        return connector instanceof ShardedConnector
+                ? ((ShardedConnector) connector).shardOf(sessionID)
+                : (SessionConnector) connector;
+    }
+
+    private void removeCounterparties(SessionID template) throws IOException {
+        if (Objects.isNull(acceptorSessionProvider) || !FixSessionUtils.isTemplate(template)) {
+            return;
+        }
+        for (SessionID counterparty : acceptorSessionProvider.getCounterparties(template)) {
+            removeSession(counterparty);
+            dynamicFixSessions.unregister(counterparty);
+            acceptorSessionProvider.removeCounterparty(counterparty);
+        }
     }
 
     private void removeSession(SessionID sessionID) throws IOException {
-        //Lookup  the session
+        //Lookup the session
         Session session = Session.lookupSession(sessionID);
-        //Logout and close
-        session.logout();
-        session.close();
+        if (Objects.nonNull(session)) {
+            //Logout (also disables reconnection) and close
+            session.logout("Session settings changed");
+            session.disconnect("Session settings changed", false);
+            session.close();
+        }
         //Remove the session from the connector
-        if (connector instanceof AbstractSocketAcceptor) {
-            ((AbstractSocketAcceptor) connector).removeDynamicSession(sessionID);
-        } else if (connector instanceof AbstractSocketInitiator) {
-            ((AbstractSocketInitiator) connector).removeDynamicSession(sessionID);
+        SessionConnector sessionConnector = connectorOf(sessionID);
+        if (Objects.nonNull(sessionConnector)) {
+            sessionConnector.removeDynamicSession(sessionID);
         }
+        LOG.info("Session {} removed", sessionID);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!running) {
+            Resource quickfixjConfig = sessionSettingsLoader.getQuickfixjConfig();
+            try {
+                if (quickfixjConfig.isFile()) {
+                    configFileWatcher = new ConfigFileWatcher(quickfixjConfig.getFile().toPath(), debounce,
+                            this::reload);
+                } else {
+                    LOG.warn("Live session settings enabled, but {} cannot be watched for changes", quickfixjConfig);
+                }
+            } catch (IOException e) {
+                throw new QuickFixJConfigurationException("Failed to watch " + quickfixjConfig + " for changes", e);
+            }
+            running = true;
+        }
+    }
+
+    private void reload() {
+        try {
+            refresh();
+        } catch (ConfigError | IOException | RuntimeException e) {
+            LOG.error("Failed to apply the session settings changes. Keeping the previous session settings.", e);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (running) {
+            try {
+                if (Objects.nonNull(configFileWatcher)) {
+                    configFileWatcher.close();
+                }
+            } catch (IOException e) {
+                LOG.warn("Failed to stop watching the quickfixj config", e);
+            } finally {
+                configFileWatcher = null;
+                running = false;
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
     }
 }
@@ -16,35 +16,197 @@
 
 package ch.voulgarakis.spring.boot.starter.quickfixj.session.settings;
 
+import ch.voulgarakis.spring.boot.starter.quickfixj.exception.QuickFixJConfigurationException;
 import ch.voulgarakis.spring.boot.starter.quickfixj.exception.QuickFixJException;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.DynamicFixSessions;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.FixSessionSettings;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.FixSessionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import quickfix.*;
 import quickfix.mina.SessionConnector;
+import quickfix.mina.acceptor.AbstractSocketAcceptor;
 import quickfix.mina.acceptor.AcceptorSessionProvider;
 
+import java.net.SocketAddress;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static ch.voulgarakis.spring.boot.starter.quickfixj.session.FixSessionSettings.extractSessionName;
+
+/**
+ * Provides the sessions of an acceptor on logon: the sessions already managed by the acceptor, the sessions added
+ * in the session settings afterwards, and the sessions of the counterparties matching an acceptor template
+ * (AcceptorTemplate=Y, with {@link FixSessionUtils#WILDCARD} fields in the SessionID), which are created on demand.
+ * <p>
+ * The settings of the counterparties are kept by the provider (not added to the session settings), until the
+ * counterparty is {@link #removeCounterparty(SessionID) removed}.
+ */
 public class OnSettingsChangeDynamicAcceptorSessionProvider implements AcceptorSessionProvider {
+    private static final Logger LOG = LoggerFactory.getLogger(OnSettingsChangeDynamicAcceptorSessionProvider.class);
 
     private final SessionSettings sessionSettings;
     private final DefaultSessionFactory sessionFactory;
     private final SessionConnector sessionConnector;
+    private final DynamicFixSessions dynamicFixSessions;
+    //The sessions created from an acceptor template, with their settings
+    private final Map<SessionID, SessionSettings> counterparties = new ConcurrentHashMap<>();
+    private volatile Predicate<SessionID> sessionFilter = sessionID -> true;
 
     public OnSettingsChangeDynamicAcceptorSessionProvider(SessionSettings sessionSettings,
             SessionConnector sessionConnector, Application application, MessageStoreFactory messageStoreFactory,
             LogFactory logFactory, MessageFactory messageFactory) {
+        this(sessionSettings, sessionConnector, application, messageStoreFactory, logFactory, messageFactory, null);
+    }
+
+    /**
+     * @param sessionConnector   the connector managing the sessions (or null, to use the connector of each logon).
+     * @param dynamicFixSessions registers the session beans of the created sessions (can be null).
+     */
+    public OnSettingsChangeDynamicAcceptorSessionProvider(SessionSettings sessionSettings,
+            SessionConnector sessionConnector, Application application, MessageStoreFactory messageStoreFactory,
+            LogFactory logFactory, MessageFactory messageFactory, DynamicFixSessions dynamicFixSessions) {
         this.sessionSettings = sessionSettings;
         this.sessionConnector = sessionConnector;
+        this.dynamicFixSessions = dynamicFixSessions;
         this.sessionFactory = new DefaultSessionFactory(application, messageStoreFactory, logFactory, messageFactory);
     }
 
+    /**
+     * Install the provider on all the acceptor ports of the session settings. Needs to be done before the acceptor
+     * is started.
+     *
+     * @param acceptor the acceptor.
+     */
+    public void install(AbstractSocketAcceptor acceptor) {
+        acceptorAddresses(sessionSettings)
+                .forEach(socketAddress -> acceptor.setSessionProvider(socketAddress, this));
+    }
+
+    /**
+     * @param sessionFilter the sessions that can be created (others are rejected on logon).
+     */
+    public void setSessionFilter(Predicate<SessionID> sessionFilter) {
+        this.sessionFilter = sessionFilter;
+    }
+
     @Override
     public Session getSession(SessionID sessionID, SessionConnector connector) {
+        if (!sessionFilter.test(sessionID)) {
+            return null;
+        }
+        //Sessions already managed by the connector are re-used (the provider is called on every logon)
+        SessionConnector managingConnector = Objects.nonNull(sessionConnector) ? sessionConnector : connector;
+        Session existingSession = Session.lookupSession(sessionID);
+        if (Objects.nonNull(existingSession) && Objects.nonNull(managingConnector)
+                && managingConnector.getSessions().contains(sessionID)) {
+            return existingSession;
+        }
+        return createSession(sessionID, managingConnector);
+    }
+
+    private synchronized Session createSession(SessionID sessionID, SessionConnector managingConnector) {
+        //Created meanwhile
+        if (Objects.nonNull(managingConnector) && managingConnector.getSessions().contains(sessionID)) {
+            return Session.lookupSession(sessionID);
+        }
+        SessionSettings settings = sessionSettings;
+        //Sessions not in the session settings, are created from the acceptor template they match
+        if (!FixSessionUtils.contains(sessionSettings, sessionID)) {
+            settings = counterparties.get(sessionID);
+            if (Objects.isNull(settings)) {
+                Optional<SessionID> template = FixSessionUtils.findAcceptorTemplate(sessionSettings, sessionID);
+                if (!template.isPresent()) {
+                    LOG.warn("Session {} is neither in the session settings, nor matches an acceptor template",
+                            sessionID);
+                    return null;
+                }
+                settings = createFromTemplate(template.get(), sessionID);
+                counterparties.put(sessionID, settings);
+            }
+        }
+        //The messages of the session need to be received
+        if (Objects.nonNull(dynamicFixSessions)
+                && !dynamicFixSessions.register(sessionID, extractSessionName(settings, sessionID))) {
+            return null;
+        }
         try {
-            Session session = sessionFactory.create(sessionID, sessionSettings);
-            if (sessionConnector != null) {
-                sessionConnector.addDynamicSession(session);
+            Session session = sessionFactory.create(sessionID, settings);
+            if (Objects.nonNull(managingConnector)) {
+                managingConnector.addDynamicSession(session);
             }
             return session;
         } catch (ConfigError configError) {
             throw new QuickFixJException("Failed to create a dynamic session for sessionID: " + sessionID, configError);
         }
     }
+
+    /**
+     * @param template the id of an acceptor template.
+     * @return the sessions created from the template, that have not been removed.
+     */
+    public Set<SessionID> getCounterparties(SessionID template) {
+        return counterparties.keySet().stream()
+                .filter(sessionID -> FixSessionUtils.matchesTemplate(template, sessionID))
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Drop the settings of a session created from an acceptor template (e.g. when the template has been removed).
+     * The session is created again from the template it matches, on its next logon.
+     *
+     * @param sessionID the id of the session.
+     */
+    public void removeCounterparty(SessionID sessionID) {
+        counterparties.remove(sessionID);
+    }
+
+    private SessionSettings createFromTemplate(SessionID template, SessionID sessionID) {
+        try {
+            Properties properties = new Properties();
+            properties.putAll(sessionSettings.getSessionProperties(template, true));
+            properties.remove(Acceptor.SETTING_ACCEPTOR_TEMPLATE);
+            properties.remove(FixSessionSettings.SESSION_NAME);
+            setOrRemove(properties, SessionSettings.BEGINSTRING, sessionID.getBeginString());
+            setOrRemove(properties, SessionSettings.SENDERCOMPID, sessionID.getSenderCompID());
+            setOrRemove(properties, SessionSettings.SENDERSUBID, sessionID.getSenderSubID());
+            setOrRemove(properties, SessionSettings.SENDERLOCID, sessionID.getSenderLocationID());
+            setOrRemove(properties, SessionSettings.TARGETCOMPID, sessionID.getTargetCompID());
+            setOrRemove(properties, SessionSettings.TARGETSUBID, sessionID.getTargetSubID());
+            setOrRemove(properties, SessionSettings.TARGETLOCID, sessionID.getTargetLocationID());
+            setOrRemove(properties, SessionSettings.SESSION_QUALIFIER, sessionID.getSessionQualifier());
+            SessionSettings settings = new SessionSettings();
+            settings.set(sessionID, new Dictionary(null, properties));
+            LOG.info("Session {} created from acceptor template {}", sessionID, template);
+            return settings;
+        } catch (ConfigError configError) {
+            throw new QuickFixJException("Failed to create session " + sessionID + " from template " + template,
+                    configError);
+        }
+    }
+
+    private static void setOrRemove(Properties properties, String key, String value) {
+        if (Objects.nonNull(value) && !SessionID.NOT_SET.equals(value)) {
+            properties.setProperty(key, value);
+        } else {
+            properties.remove(key);
+        }
+    }
+
+    /**
+     * @param sessionSettings the session settings.
+     * @return the addresses the acceptor listens to (as computed by the acceptor on start).
+     */
+    static Set<SocketAddress> acceptorAddresses(SessionSettings sessionSettings) {
+        return FixSessionUtils.stream(sessionSettings)
+                .filter(sessionID -> FixSessionUtils.isAcceptor(sessionSettings, sessionID))
+                .map(sessionID -> FixSessionUtils.acceptorAddress(sessionSettings, sessionID))
+                .collect(Collectors.toSet());
+    }
 }
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.settings;
+
+import ch.voulgarakis.spring.boot.starter.quickfixj.exception.QuickFixJConfigurationException;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.FixSessionUtils;
+import quickfix.ConfigError;
+import quickfix.SessionID;
+import quickfix.SessionSettings;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The sessions added, removed and changed between two versions of the session settings.
+ * <p>
+ * Sessions are compared on their effective settings (defaults included), so a change in the default section only
+ * affects the sessions not overriding the changed settings.
+ */
+public class SessionSettingsDiff {
+
+    private final Set<SessionID> added;
+    private final Set<SessionID> removed;
+    private final Set<SessionID> changed;
+
+    private SessionSettingsDiff(Set<SessionID> added, Set<SessionID> removed, Set<SessionID> changed) {
+        this.added = Collections.unmodifiableSet(added);
+        this.removed = Collections.unmodifiableSet(removed);
+        this.changed = Collections.unmodifiableSet(changed);
+    }
+
+    public static SessionSettingsDiff compare(SessionSettings previous, SessionSettings current) {
+        Set<SessionID> previousSessions = FixSessionUtils.stream(previous)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<SessionID> currentSessions = FixSessionUtils.stream(current)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+
+        Set<SessionID> added = new LinkedHashSet<>();
+        Set<SessionID> changed = new LinkedHashSet<>();
+        for (SessionID sessionID : currentSessions) {
+            if (!previousSessions.contains(sessionID)) {
+                added.add(sessionID);
+            } else if (!Objects.equals(effectiveSettings(previous, sessionID), effectiveSettings(current, sessionID))) {
+                changed.add(sessionID);
+            }
+        }
+        Set<SessionID> removed = new LinkedHashSet<>(previousSessions);
+        removed.removeAll(currentSessions);
+        return new SessionSettingsDiff(added, removed, changed);
+    }
+
+    static Properties effectiveSettings(SessionSettings sessionSettings, SessionID sessionID) {
+        try {
+            return sessionSettings.getSessionProperties(sessionID, true);
+        } catch (ConfigError e) {
+            throw new QuickFixJConfigurationException("Failed to get the settings of session " + sessionID, e);
+        }
+    }
+
+    public Set<SessionID> getAdded() {
+        return added;
+    }
+
+    public Set<SessionID> getRemoved() {
+        return removed;
+    }
+
+    public Set<SessionID> getChanged() {
+        return changed;
+    }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && changed.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "SessionSettingsDiff{added=" + added + ", removed=" + removed + ", changed=" + changed + '}';
+    }
+}
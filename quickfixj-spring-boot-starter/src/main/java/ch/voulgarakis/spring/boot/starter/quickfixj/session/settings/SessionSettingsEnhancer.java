@@ -19,15 +19,12 @@ package ch.voulgarakis.spring.boot.starter.quickfixj.session.settings;
 import ch.voulgarakis.spring.boot.starter.quickfixj.exception.QuickFixJConfigurationException;
 import ch.voulgarakis.spring.boot.starter.quickfixj.session.FixSessionUtils;
 import org.springframework.core.env.Environment;
-import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import quickfix.ConfigError;
 import quickfix.Dictionary;
 import quickfix.SessionID;
 import quickfix.SessionSettings;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Objects;
@@ -37,14 +34,19 @@ import static ch.voulgarakis.spring.boot.starter.quickfixj.session.FixSessionUti
 
 public class SessionSettingsEnhancer {
 
-    private static final String DATA_DICTIONARY = "DataDictionary";
+    private static final String[] DATA_DICTIONARIES =
+            {"DataDictionary", "TransportDataDictionary", "AppDataDictionary"};
 
     private final Environment environment;
-    private final ResourceLoader resourceLoader;
+    private final DataDictionaryLocations dataDictionaryLocations;
 
     public SessionSettingsEnhancer(Environment environment, ResourceLoader resourceLoader) {
+        this(environment, new DataDictionaryLocations(resourceLoader));
+    }
+
+    public SessionSettingsEnhancer(Environment environment, DataDictionaryLocations dataDictionaryLocations) {
         this.environment = environment;
-        this.resourceLoader = resourceLoader;
+        this.dataDictionaryLocations = dataDictionaryLocations;
     }
 
     public SessionSettings enhanceSettingSettings(SessionSettings sessionSettings) throws ConfigError {
@@ -99,38 +101,28 @@ public class SessionSettingsEnhancer {
     }
 
     private void resolveDirectories(SessionSettings sessionSettings, SessionID sessionID) {
-        boolean isDictionaryDefined = Objects.nonNull(sessionID) ?
-                sessionSettings.isSetting(sessionID, DATA_DICTIONARY) :
-                sessionSettings.isSetting(DATA_DICTIONARY);
-
-        if (isDictionaryDefined) {
-            try {
-                String dataDictionaryLocation = Objects.nonNull(sessionID) ?
-                        sessionSettings.getString(sessionID, DATA_DICTIONARY) :
-                        sessionSettings.getString(DATA_DICTIONARY);
-
-                String path = getPath(dataDictionaryLocation);
-
-                if (Objects.nonNull(sessionID)) {
-                    sessionSettings.setString(sessionID, DATA_DICTIONARY, path);
-                } else {
-                    sessionSettings.setString(DATA_DICTIONARY, path);
+        for (String key : DATA_DICTIONARIES) {
+            boolean isDictionaryDefined = Objects.nonNull(sessionID) ?
+                    sessionSettings.isSetting(sessionID, key) :
+                    sessionSettings.isSetting(key);
+
+            if (isDictionaryDefined) {
+                try {
+                    String dataDictionaryLocation = Objects.nonNull(sessionID) ?
+                            sessionSettings.getString(sessionID, key) :
+                            sessionSettings.getString(key);
+
+                    String path = dataDictionaryLocations.resolve(dataDictionaryLocation);
+
+                    if (Objects.nonNull(sessionID)) {
+                        sessionSettings.setString(sessionID, key, path);
+                    } else {
+                        sessionSettings.setString(key, path);
+                    }
+                } catch (ConfigError e) {
+                    throw new QuickFixJConfigurationException("Failed to set " + key + " location", e);
                 }
-            } catch (ConfigError e) {
-                throw new QuickFixJConfigurationException("Failed to set DataDictionary location", e);
             }
         }
     }
-
-    private String getPath(String dataDictionaryLocation) {
-        Resource resource = resourceLoader.getResource(dataDictionaryLocation);
-        try {
-            Method getPath = resource.getClass().getMethod("getPath");
-            return (String) getPath.invoke(resource);
-        } catch (NoSuchMethodException e) {
-            return dataDictionaryLocation;
-        } catch (IllegalAccessException | InvocationTargetException e) {
-            throw new QuickFixJConfigurationException("Failed to set DataDictionary location " + resource, e);
-        }
-    }
 }
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.settings;
+
+import ch.voulgarakis.spring.boot.starter.quickfixj.exception.QuickFixJConfigurationException;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.FixConnectionType;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.FixSessionSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import quickfix.ConfigError;
+import quickfix.Dictionary;
+import quickfix.SessionID;
+import quickfix.SessionSettings;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Loads the session settings from the quickfixj config file and the {@link SessionSettingsSource}s, and enhances
+ * them (placeholders, file references, in-memory connections). Used on startup, and again on every reload of a live config.
+ */
+public class SessionSettingsLoader {
+    private static final Logger LOG = LoggerFactory.getLogger(SessionSettingsLoader.class);
+
+    private final Resource quickfixjConfig;
+    private final List<SessionSettingsSource> sessionSettingsSources;
+    private final SessionSettingsEnhancer sessionSettingsEnhancer;
+
+    public SessionSettingsLoader(String configLocation, List<SessionSettingsSource> sessionSettingsSources,
+            SessionSettingsEnhancer sessionSettingsEnhancer) {
+        this.quickfixjConfig = FixSessionSettings.findQuickfixjConfig(configLocation);
+        this.sessionSettingsSources = sessionSettingsSources;
+        this.sessionSettingsEnhancer = sessionSettingsEnhancer;
+    }
+
+    /**
+     * @return the quickfixj config file.
+     */
+    public Resource getQuickfixjConfig() {
+        return quickfixjConfig;
+    }
+
+    public SessionSettings load() throws ConfigError, IOException {
+        //Read the quickfixj file
+        try (InputStream stream = quickfixjConfig.getInputStream()) {
+            LOG.info("Loading session settings from {}", quickfixjConfig);
+            //Create the session settings
+            SessionSettings sessionSettings = new BaseSessionSettings(stream);
+
+            //Resolve additional settings specified in data-sources (later sources override earlier ones)
+            for (Map<SessionID, Properties> sessions : loadSessionSettingsSources()) {
+                for (Map.Entry<SessionID, Properties> session : sessions.entrySet()) {
+                    LOG.debug("Adding SessionID={}, properties={}", session.getKey(), session.getValue());
+
+                    //Add them in the session settings
+                    sessionSettings.set(session.getKey(), new Dictionary(null, session.getValue()));
+                }
+            }
+
+            //Enhance the session settings by replacing placeholders and file references
+            LOG.debug("Resolving placeholders in SessionSettings:\n{}", sessionSettings);
+            SessionSettings enhancedSessionSettings = sessionSettingsEnhancer.enhanceSettingSettings(sessionSettings);
+
+            //Connect through in-memory pipes (InMemory=Y), on every reload too
+            return FixConnectionType.applyInMemoryProtocol(enhancedSessionSettings);
+        }
+    }
+
+    /**
+     * Load all the session settings sources in parallel, each of them in bulk.
+     *
+     * @return the sessions of each source, in the order of the sources.
+     */
+    private List<Map<SessionID, Properties>> loadSessionSettingsSources() {
+        if (sessionSettingsSources.size() <= 1) {
+            return sessionSettingsSources.stream()
+                    .map(SessionSettingsLoader::loadSessionSettingsSource)
+                    .collect(Collectors.toList());
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(sessionSettingsSources.size(), Runtime.getRuntime().availableProcessors()));
+        try {
+            List<CompletableFuture<Map<SessionID, Properties>>> futures = sessionSettingsSources.stream()
+                    .map(source -> CompletableFuture.supplyAsync(() -> loadSessionSettingsSource(source), executor))
+                    .collect(Collectors.toList());
+            List<Map<SessionID, Properties>> sessions = new ArrayList<>();
+            for (CompletableFuture<Map<SessionID, Properties>> future : futures) {
+                try {
+                    sessions.add(future.join());
+                } catch (CompletionException e) {
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    }
+                    throw new QuickFixJConfigurationException("Failed to load session settings", e.getCause());
+                }
+            }
+            return sessions;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Map<SessionID, Properties> loadSessionSettingsSource(SessionSettingsSource sessionSettingsSource) {
+        LOG.info("Loading session settings from {}", sessionSettingsSource);
+        return sessionSettingsSource.findAllWithProperties();
+    }
+}
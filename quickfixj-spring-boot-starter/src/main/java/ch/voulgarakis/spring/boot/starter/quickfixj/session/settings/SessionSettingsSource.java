@@ -18,7 +18,9 @@ package ch.voulgarakis.spring.boot.starter.quickfixj.session.settings;
 
 import quickfix.SessionID;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 /**
@@ -44,4 +46,20 @@ public interface SessionSettingsSource {
      * @return the properties specified for the fix session in question.
      */
     Properties findForSessionId(SessionID sessionId);
+
+    /**
+     * Returns all the sessions that are defined in the repository, together with their properties.
+     * <p>
+     * Override it to load everything in bulk (e.g. a single query), instead of one {@link #findForSessionId(SessionID)}
+     * per session.
+     *
+     * @return the properties of all the sessions defined in the repository, per sessionID.
+     */
+    default Map<SessionID, Properties> findAllWithProperties() {
+        Map<SessionID, Properties> sessions = new LinkedHashMap<>();
+        for (SessionID sessionId : findAll()) {
+            sessions.put(sessionId, findForSessionId(sessionId));
+        }
+        return sessions;
+    }
 }
@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.store;
+
+import quickfix.MessageStore;
+import quickfix.SessionID;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TimeZone;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link MessageStore} on the standard QuickFIX/J jdbc schema ({@code sessions} and {@code messages} tables), whose
+ * writes are committed asynchronously by a shared {@link GroupCommitJdbcWriter}.
+ * <p>
+ * Messages not yet committed are kept in a staging area (bounded by the staging capacity of the writer), so that
+ * resend requests still see them.
+ * The sequence numbers are kept in memory and persisted with the next group commit.
+ */
+public class GroupCommitJdbcStore implements MessageStore, Closeable {
+
+    private static final String ID_COLUMNS = "beginstring,sendercompid,sendersubid,senderlocid,"
+            + "targetcompid,targetsubid,targetlocid,session_qualifier";
+    private static final String ID_PLACEHOLDERS = "?,?,?,?,?,?,?,?";
+    private static final String ID_WHERE_CLAUSE = "beginstring=? and sendercompid=? and sendersubid=? and "
+            + "senderlocid=? and targetcompid=? and targetsubid=? and targetlocid=? and session_qualifier=?";
+
+    private final SessionID sessionID;
+    private final DataSource dataSource;
+    private final GroupCommitJdbcWriter writer;
+    private final String defaultIdValue;
+
+    private final String selectSessionSql;
+    private final String insertSessionSql;
+    private final String resetSessionSql;
+    private final String updateSequenceNumbersSql;
+    private final String selectMessagesSql;
+    private final String deleteMessageSql;
+    private final String insertMessageSql;
+    private final String deleteMessagesSql;
+
+    private final NavigableMap<Integer, String> staged = new ConcurrentSkipListMap<>();
+    private volatile int nextSenderMsgSeqNum;
+    private volatile int nextTargetMsgSeqNum;
+    private volatile Date creationTime;
+    //Whether a sequence number update is enqueued, not picked up by the writer yet
+    private final AtomicBoolean sequenceNumbersDirty = new AtomicBoolean();
+
+    GroupCommitJdbcStore(SessionID sessionID, DataSource dataSource, GroupCommitJdbcWriter writer,
+            String sessionsTable, String messagesTable, String defaultIdValue) throws IOException {
+        this.sessionID = sessionID;
+        this.dataSource = dataSource;
+        this.writer = writer;
+        this.defaultIdValue = defaultIdValue;
+
+        selectSessionSql = "SELECT creation_time, incoming_seqnum, outgoing_seqnum FROM " + sessionsTable
+                + " WHERE " + ID_WHERE_CLAUSE;
+        insertSessionSql = "INSERT INTO " + sessionsTable + " (" + ID_COLUMNS
+                + ", creation_time, incoming_seqnum, outgoing_seqnum) VALUES (" + ID_PLACEHOLDERS + ",?,?,?)";
+        resetSessionSql = "UPDATE " + sessionsTable + " SET creation_time=?, incoming_seqnum=?, outgoing_seqnum=?"
+                + " WHERE " + ID_WHERE_CLAUSE;
+        updateSequenceNumbersSql = "UPDATE " + sessionsTable + " SET incoming_seqnum=?, outgoing_seqnum=? WHERE "
+                + ID_WHERE_CLAUSE;
+        selectMessagesSql = "SELECT msgseqnum, message FROM " + messagesTable + " WHERE " + ID_WHERE_CLAUSE
+                + " and msgseqnum>=? and msgseqnum<=? ORDER BY msgseqnum";
+        deleteMessageSql = "DELETE FROM " + messagesTable + " WHERE " + ID_WHERE_CLAUSE + " and msgseqnum=?";
+        insertMessageSql = "INSERT INTO " + messagesTable + " (" + ID_COLUMNS + ", msgseqnum, message) VALUES ("
+                + ID_PLACEHOLDERS + ",?,?)";
+        deleteMessagesSql = "DELETE FROM " + messagesTable + " WHERE " + ID_WHERE_CLAUSE;
+
+        loadSession();
+    }
+
+    private void loadSession() throws IOException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement select = connection.prepareStatement(selectSessionSql)) {
+            setSessionIdParameters(select, 1);
+            try (ResultSet resultSet = select.executeQuery()) {
+                if (resultSet.next()) {
+                    creationTime = new Date(resultSet.getTimestamp(1, utc()).getTime());
+                    nextTargetMsgSeqNum = resultSet.getInt(2);
+                    nextSenderMsgSeqNum = resultSet.getInt(3);
+                    return;
+                }
+            }
+            creationTime = new Date();
+            nextTargetMsgSeqNum = 1;
+            nextSenderMsgSeqNum = 1;
+            try (PreparedStatement insert = connection.prepareStatement(insertSessionSql)) {
+                int offset = setSessionIdParameters(insert, 1);
+                insert.setTimestamp(offset++, new Timestamp(creationTime.getTime()), utc());
+                insert.setInt(offset++, nextTargetMsgSeqNum);
+                insert.setInt(offset, nextSenderMsgSeqNum);
+                insert.execute();
+            }
+        } catch (SQLException e) {
+            throw new IOException("Failed to load session " + sessionID + " from the jdbc message store", e);
+        }
+    }
+
+    @Override
+    public boolean set(int sequence, String message) throws IOException {
+        try {
+            writer.write(this, sequence, message, () -> staged.put(sequence, message));
+        } catch (IOException e) {
+            staged.remove(sequence, message);
+            throw e;
+        }
+        return true;
+    }
+
+    void committed(Map<Integer, String> messages) {
+        //Only un-stage what was committed: the message might have been replaced meanwhile
+        messages.forEach(staged::remove);
+    }
+
+    @Override
+    public void get(int startSequence, int endSequence, Collection<String> messages) throws IOException {
+        //Copy the staged messages first: if committed meanwhile, they are un-staged but visible in the database
+        NavigableMap<Integer, String> stagedMessages = new TreeMap<>(staged.subMap(startSequence, true, endSequence,
+                true));
+        NavigableMap<Integer, String> found = new TreeMap<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement select = connection.prepareStatement(selectMessagesSql)) {
+            int offset = setSessionIdParameters(select, 1);
+            select.setInt(offset++, startSequence);
+            select.setInt(offset, endSequence);
+            try (ResultSet resultSet = select.executeQuery()) {
+                while (resultSet.next()) {
+                    found.put(resultSet.getInt(1), resultSet.getString(2));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IOException("Failed to read messages of session " + sessionID + " from the jdbc message store",
+                    e);
+        }
+        //Staged messages are more recent than the committed ones
+        found.putAll(stagedMessages);
+        messages.addAll(found.values());
+    }
+
+    @Override
+    public int getNextSenderMsgSeqNum() {
+        return nextSenderMsgSeqNum;
+    }
+
+    /**
+     * @return whether the sequence numbers need to be enqueued (not already waiting for the writer).
+     */
+    boolean markSequenceNumbersDirty() {
+        return sequenceNumbersDirty.compareAndSet(false, true);
+    }
+
+    /**
+     * Called by the writer before reading the sequence numbers: the later updates are enqueued again.
+     */
+    void clearSequenceNumbersDirty() {
+        sequenceNumbersDirty.set(false);
+    }
+
+    @Override
+    public int getNextTargetMsgSeqNum() {
+        return nextTargetMsgSeqNum;
+    }
+
+    @Override
+    public void setNextSenderMsgSeqNum(int next) throws IOException {
+        nextSenderMsgSeqNum = next;
+        writer.writeSequenceNumbers(this);
+    }
+
+    @Override
+    public void setNextTargetMsgSeqNum(int next) throws IOException {
+        nextTargetMsgSeqNum = next;
+        writer.writeSequenceNumbers(this);
+    }
+
+    @Override
+    public void incrNextSenderMsgSeqNum() throws IOException {
+        setNextSenderMsgSeqNum(nextSenderMsgSeqNum + 1);
+    }
+
+    @Override
+    public void incrNextTargetMsgSeqNum() throws IOException {
+        setNextTargetMsgSeqNum(nextTargetMsgSeqNum + 1);
+    }
+
+    @Override
+    public Date getCreationTime() {
+        return creationTime;
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        writer.flush();
+        staged.clear();
+        Date now = new Date();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement delete = connection.prepareStatement(deleteMessagesSql);
+             PreparedStatement update = connection.prepareStatement(resetSessionSql)) {
+            setSessionIdParameters(delete, 1);
+            delete.execute();
+            update.setTimestamp(1, new Timestamp(now.getTime()), utc());
+            update.setInt(2, 1);
+            update.setInt(3, 1);
+            setSessionIdParameters(update, 4);
+            update.execute();
+        } catch (SQLException e) {
+            throw new IOException("Failed to reset session " + sessionID + " in the jdbc message store", e);
+        }
+        creationTime = now;
+        nextTargetMsgSeqNum = 1;
+        nextSenderMsgSeqNum = 1;
+    }
+
+    @Override
+    public synchronized void refresh() throws IOException {
+        writer.flush();
+        loadSession();
+    }
+
+    /**
+     * Wait until all the writes of this store (and any other store sharing the writer) are committed.
+     */
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+    int setSessionIdParameters(PreparedStatement statement, int offset) throws SQLException {
+        statement.setString(offset++, valueOrDefault(sessionID.getBeginString()));
+        statement.setString(offset++, valueOrDefault(sessionID.getSenderCompID()));
+        statement.setString(offset++, valueOrDefault(sessionID.getSenderSubID()));
+        statement.setString(offset++, valueOrDefault(sessionID.getSenderLocationID()));
+        statement.setString(offset++, valueOrDefault(sessionID.getTargetCompID()));
+        statement.setString(offset++, valueOrDefault(sessionID.getTargetSubID()));
+        statement.setString(offset++, valueOrDefault(sessionID.getTargetLocationID()));
+        statement.setString(offset++, valueOrDefault(sessionID.getSessionQualifier()));
+        return offset;
+    }
+
+    private String valueOrDefault(String value) {
+        return SessionID.NOT_SET.equals(value) ? defaultIdValue : value;
+    }
+
+    private static Calendar utc() {
+        return Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+    }
+
+    String getDeleteMessageSql() {
+        return deleteMessageSql;
+    }
+
+    String getInsertMessageSql() {
+        return insertMessageSql;
+    }
+
+    String getUpdateSequenceNumbersSql() {
+        return updateSequenceNumbersSql;
+    }
+
+    int getStagedSize() {
+        return staged.size();
+    }
+}
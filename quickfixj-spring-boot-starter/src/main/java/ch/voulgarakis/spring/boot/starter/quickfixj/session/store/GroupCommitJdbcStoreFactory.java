@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.store;
+
+import ch.voulgarakis.spring.boot.starter.quickfixj.exception.QuickFixJConfigurationException;
+import ch.voulgarakis.spring.boot.starter.quickfixj.exception.QuickFixJException;
+import io.micrometer.core.instrument.MeterRegistry;
+import quickfix.ConfigError;
+import quickfix.JdbcSetting;
+import quickfix.MessageStore;
+import quickfix.MessageStoreFactory;
+import quickfix.SessionID;
+import quickfix.SessionSettings;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Creates a {@link GroupCommitJdbcStore} per session, all sharing the same background writer.
+ * <p>
+ * The table names are read from the standard {@code JdbcStoreSessionsTableName} and
+ * {@code JdbcStoreMessagesTableName} session settings.
+ */
+public class GroupCommitJdbcStoreFactory implements MessageStoreFactory, Closeable {
+
+    private static final String DEFAULT_SESSIONS_TABLE = "sessions";
+    private static final String DEFAULT_MESSAGES_TABLE = "messages";
+
+    private final SessionSettings settings;
+    private final DataSource dataSource;
+    private final GroupCommitJdbcWriter writer;
+
+    public GroupCommitJdbcStoreFactory(SessionSettings settings, DataSource dataSource, int stagingCapacity,
+            int maxBatchSize) {
+        this.settings = settings;
+        this.dataSource = dataSource;
+        this.writer = new GroupCommitJdbcWriter(dataSource, stagingCapacity, maxBatchSize);
+    }
+
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        writer.setMeterRegistry(meterRegistry);
+    }
+
+    @Override
+    public MessageStore create(SessionID sessionID) {
+        try {
+            return new GroupCommitJdbcStore(sessionID, dataSource, writer,
+                    setting(sessionID, JdbcSetting.SETTING_JDBC_STORE_SESSIONS_TABLE_NAME, DEFAULT_SESSIONS_TABLE),
+                    setting(sessionID, JdbcSetting.SETTING_JDBC_STORE_MESSAGES_TABLE_NAME, DEFAULT_MESSAGES_TABLE),
+                    setting(sessionID, JdbcSetting.SETTING_JDBC_SESSION_ID_DEFAULT_PROPERTY_VALUE, SessionID.NOT_SET));
+        } catch (ConfigError e) {
+            throw new QuickFixJConfigurationException("Invalid jdbc store settings for session " + sessionID, e);
+        } catch (IOException e) {
+            throw new QuickFixJException("Failed to open jdbc store for session " + sessionID, e);
+        }
+    }
+
+    private String setting(SessionID sessionID, String key, String defaultValue) throws ConfigError {
+        return settings.isSetting(sessionID, key) ? settings.getString(sessionID, key) : defaultValue;
+    }
+
+    /**
+     * Wait until all the staged writes are committed.
+     */
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() {
+        writer.close();
+    }
+}
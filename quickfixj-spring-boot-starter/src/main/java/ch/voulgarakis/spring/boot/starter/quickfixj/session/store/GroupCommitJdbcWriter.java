@@ -0,0 +1,388 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.store;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Single background writer, shared by all the {@link GroupCommitJdbcStore}s of a factory.
+ * <p>
+ * The writes of all the sessions are drained from a bounded queue and committed together, in one transaction per
+ * batch. At most {@code stagingCapacity} messages are staged (not committed yet): when full, the sending threads
+ * block until the writer catches up.
+ * <p>
+ * A batch that fails to commit is retried, with an exponential backoff, until it is committed: its messages stay
+ * staged meanwhile. After {@value #PERSISTENT_FAILURE_ATTEMPTS} failed attempts the failure is considered
+ * persistent, and new writes and flushes fail (instead of blocking) until a commit succeeds again.
+ * <p>
+ * The sequence numbers of a store are enqueued once until the writer picks them up, however often they change
+ * meanwhile: the writer persists their latest values.
+ */
+class GroupCommitJdbcWriter implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GroupCommitJdbcWriter.class);
+
+    static final int PERSISTENT_FAILURE_ATTEMPTS = 5;
+    private static final long MIN_BACKOFF_MILLIS = 100;
+    private static final long MAX_BACKOFF_MILLIS = 5000;
+
+    private final DataSource dataSource;
+    private final BlockingQueue<Write> queue;
+    private final int stagingCapacity;
+    //One permit per staged message, released when committed
+    private final Semaphore staging;
+    private final int maxBatchSize;
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile SQLException failure;
+
+    private Timer commitLatency;
+    private DistributionSummary batchSize;
+    private Counter commitFailures;
+
+    GroupCommitJdbcWriter(DataSource dataSource, int stagingCapacity, int maxBatchSize) {
+        this.dataSource = dataSource;
+        this.queue = new ArrayBlockingQueue<>(stagingCapacity);
+        this.stagingCapacity = stagingCapacity;
+        this.staging = new Semaphore(stagingCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.thread = new Thread(this::run, "quickfixj-jdbc-store-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    void setMeterRegistry(MeterRegistry meterRegistry) {
+        commitLatency = Timer.builder("quickfixj.store.jdbc.commit")
+                .description("Latency of the group commits of the jdbc message store")
+                .register(meterRegistry);
+        batchSize = DistributionSummary.builder("quickfixj.store.jdbc.batch.size")
+                .description("Number of writes per group commit of the jdbc message store")
+                .register(meterRegistry);
+        commitFailures = Counter.builder("quickfixj.store.jdbc.commit.failures")
+                .description("Number of failed group commits of the jdbc message store (each one is retried)")
+                .register(meterRegistry);
+        Gauge.builder("quickfixj.store.jdbc.staged", this, GroupCommitJdbcWriter::getStagedSize)
+                .description("Number of messages staged (not committed yet) by the jdbc message store")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Stage a message, blocking while the staging area is full.
+     *
+     * @param staged stages the message in the store, once there is room for it.
+     */
+    void write(GroupCommitJdbcStore store, int sequence, String message, Runnable staged) throws IOException {
+        try {
+            while (!staging.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+                checkWritable();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while staging a write to the jdbc message store");
+        }
+        try {
+            staged.run();
+            enqueue(new Write(store, sequence, message, null));
+        } catch (IOException | RuntimeException e) {
+            staging.release();
+            throw e;
+        }
+    }
+
+    void writeSequenceNumbers(GroupCommitJdbcStore store) throws IOException {
+        if (!store.markSequenceNumbersDirty()) {
+            //Already enqueued, the writer reads the latest sequence numbers
+            return;
+        }
+        try {
+            enqueue(new Write(store, 0, null, null));
+        } catch (IOException | RuntimeException e) {
+            store.clearSequenceNumbersDirty();
+            throw e;
+        }
+    }
+
+    /**
+     * Wait until all the writes enqueued so far are committed.
+     */
+    void flush() throws IOException {
+        CompletableFuture<Void> flushed = new CompletableFuture<>();
+        enqueue(new Write(null, 0, null, flushed));
+        try {
+            while (!isDone(flushed)) {
+                checkWritable();
+            }
+            flushed.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while flushing the jdbc message store");
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to flush the jdbc message store", e.getCause());
+        }
+    }
+
+    private static boolean isDone(CompletableFuture<Void> flushed) throws InterruptedException, ExecutionException {
+        try {
+            flushed.get(100, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        }
+    }
+
+    private void checkWritable() throws IOException {
+        if (!running) {
+            throw new IOException("Jdbc message store writer is closed");
+        }
+        SQLException persistentFailure = failure;
+        if (persistentFailure != null) {
+            throw new IOException("Jdbc message store is failing to commit", persistentFailure);
+        }
+    }
+
+    private void enqueue(Write write) throws IOException {
+        checkWritable();
+        try {
+            //The queue is full while the writer is retrying a failed commit: fail once the failure is persistent
+            while (!queue.offer(write, 100, TimeUnit.MILLISECONDS)) {
+                checkWritable();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while staging a write to the jdbc message store");
+        }
+    }
+
+    private void run() {
+        List<Write> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Write first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                commitWithRetry(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                LOG.error("Unexpected failure of the jdbc message store writer", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commitWithRetry(List<Write> batch) throws InterruptedException {
+        //Coalesce: last message per session/sequence, and one sequence number update per session
+        Map<GroupCommitJdbcStore, Map<Integer, String>> messages = new LinkedHashMap<>();
+        Set<GroupCommitJdbcStore> sequenceUpdates = new LinkedHashSet<>();
+        List<CompletableFuture<Void>> flushes = new ArrayList<>();
+        int messageWrites = 0;
+        for (Write write : batch) {
+            if (write.flushed != null) {
+                flushes.add(write.flushed);
+            } else if (write.message != null) {
+                messages.computeIfAbsent(write.store, store -> new LinkedHashMap<>())
+                        .put(write.sequence, write.message);
+                messageWrites++;
+            } else {
+                //Before reading the sequence numbers (on commit): the later updates are enqueued again
+                write.store.clearSequenceNumbersDirty();
+                sequenceUpdates.add(write.store);
+            }
+        }
+        if (messages.isEmpty() && sequenceUpdates.isEmpty()) {
+            flushes.forEach(flushed -> flushed.complete(null));
+            return;
+        }
+
+        long backoff = MIN_BACKOFF_MILLIS;
+        for (int attempt = 1; ; attempt++) {
+            SQLException commitFailure = commit(messages, sequenceUpdates, batch.size() - flushes.size());
+            if (commitFailure == null) {
+                if (failure != null) {
+                    LOG.info("Jdbc message store commits again, after {} failed attempts", attempt - 1);
+                    failure = null;
+                }
+                messages.forEach(GroupCommitJdbcStore::committed);
+                staging.release(messageWrites);
+                flushes.forEach(flushed -> flushed.complete(null));
+                return;
+            }
+
+            //The messages stay staged, so they can still be resent from memory
+            if (attempt == PERSISTENT_FAILURE_ATTEMPTS) {
+                failure = commitFailure;
+            }
+            if (failure != null || !running) {
+                flushes.forEach(flushed -> flushed.completeExceptionally(commitFailure));
+                flushes.clear();
+            }
+            if (!running) {
+                LOG.error("Jdbc message store writer closed, {} writes not committed", batch.size(), commitFailure);
+                staging.release(messageWrites);
+                return;
+            }
+            LOG.error("Failed to commit {} writes to the jdbc message store (attempt {}), retrying in {}ms",
+                    batch.size(), attempt, backoff, commitFailure);
+            TimeUnit.MILLISECONDS.sleep(backoff);
+            backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+        }
+    }
+
+    private SQLException commit(Map<GroupCommitJdbcStore, Map<Integer, String>> messages,
+            Set<GroupCommitJdbcStore> sequenceUpdates, int writes) {
+        long start = System.nanoTime();
+        SQLException commitFailure = null;
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                execute(connection, messages, sequenceUpdates);
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            commitFailure = e;
+        }
+        if (commitLatency != null) {
+            commitLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (commitFailure == null) {
+                batchSize.record(writes);
+            } else {
+                commitFailures.increment();
+            }
+        }
+        return commitFailure;
+    }
+
+    private static void execute(Connection connection, Map<GroupCommitJdbcStore, Map<Integer, String>> messages,
+            Set<GroupCommitJdbcStore> sequenceUpdates) throws SQLException {
+        //One batched statement per distinct sql (i.e. per table)
+        Map<String, PreparedStatement> statements = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<GroupCommitJdbcStore, Map<Integer, String>> entry : messages.entrySet()) {
+                GroupCommitJdbcStore store = entry.getKey();
+                PreparedStatement delete = statement(connection, statements, store.getDeleteMessageSql());
+                for (Integer sequence : entry.getValue().keySet()) {
+                    int offset = store.setSessionIdParameters(delete, 1);
+                    delete.setInt(offset, sequence);
+                    delete.addBatch();
+                }
+            }
+            for (Map.Entry<GroupCommitJdbcStore, Map<Integer, String>> entry : messages.entrySet()) {
+                GroupCommitJdbcStore store = entry.getKey();
+                PreparedStatement insert = statement(connection, statements, store.getInsertMessageSql());
+                for (Map.Entry<Integer, String> message : entry.getValue().entrySet()) {
+                    int offset = store.setSessionIdParameters(insert, 1);
+                    insert.setInt(offset++, message.getKey());
+                    insert.setString(offset, message.getValue());
+                    insert.addBatch();
+                }
+            }
+            for (GroupCommitJdbcStore store : sequenceUpdates) {
+                PreparedStatement update = statement(connection, statements, store.getUpdateSequenceNumbersSql());
+                update.setInt(1, store.getNextTargetMsgSeqNum());
+                update.setInt(2, store.getNextSenderMsgSeqNum());
+                store.setSessionIdParameters(update, 3);
+                update.addBatch();
+            }
+            for (PreparedStatement statement : statements.values()) {
+                statement.executeBatch();
+            }
+        } finally {
+            for (PreparedStatement statement : statements.values()) {
+                statement.close();
+            }
+        }
+    }
+
+    private static PreparedStatement statement(Connection connection, Map<String, PreparedStatement> statements,
+            String sql) throws SQLException {
+        PreparedStatement statement = statements.get(sql);
+        if (statement == null) {
+            statement = connection.prepareStatement(sql);
+            statements.put(sql, statement);
+        }
+        return statement;
+    }
+
+    int getStagedSize() {
+        return stagingCapacity - staging.availablePermits();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            LOG.warn("Jdbc message store writer closed with {} writes not committed", queue.size());
+        }
+    }
+
+    private static class Write {
+        private final GroupCommitJdbcStore store;
+        private final int sequence;
+        private final String message;
+        private final CompletableFuture<Void> flushed;
+
+        private Write(GroupCommitJdbcStore store, int sequence, String message, CompletableFuture<Void> flushed) {
+            this.store = store;
+            this.sequence = sequence;
+            this.message = message;
+            this.flushed = flushed;
+        }
+    }
+}
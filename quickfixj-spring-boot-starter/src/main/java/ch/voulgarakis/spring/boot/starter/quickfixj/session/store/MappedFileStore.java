@@ -0,0 +1,330 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.store;
+
+import org.quickfixj.CharsetSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import quickfix.MessageStore;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * {@link MessageStore} backed by memory-mapped, append-only segment files.
+ * <p>
+ * Every message is appended to the active segment as a {@code [seqNum][length][crc32][bytes]} record, and its
+ * position is kept in an in-memory offset index (one primitive slot per sequence number), which is rebuilt by scanning
+ * the segments when the store is opened. Resend requests are served by decoding directly from the mapped region,
+ * without any intermediate file reads or copies.
+ * <p>
+ * The sequence number is written last and acts as the commit marker of the record: a record torn by a crash (not
+ * committed, out of the segment bounds, or failing its checksum) ends the scan of its segment, and is overwritten
+ * by the next append.
+ * <p>
+ * The sequence numbers and the creation time are kept in a small mapped header file, so they survive restarts.
+ */
+public class MappedFileStore implements MessageStore, Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MappedFileStore.class);
+
+    static final String HEADER_FILE = "header.mmap";
+    static final String SEGMENT_PREFIX = "messages.";
+    static final String SEGMENT_SUFFIX = ".mmap";
+
+    private static final int HEADER_SIZE = Long.BYTES + 2 * Integer.BYTES;
+    private static final int CREATION_TIME_OFFSET = 0;
+    private static final int SENDER_SEQ_NUM_OFFSET = Long.BYTES;
+    private static final int TARGET_SEQ_NUM_OFFSET = Long.BYTES + Integer.BYTES;
+    private static final int LENGTH_OFFSET = Integer.BYTES;
+    private static final int CHECKSUM_OFFSET = 2 * Integer.BYTES;
+    private static final int RECORD_HEADER_SIZE = 3 * Integer.BYTES;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean sync;
+    private final Charset charset;
+
+    private MappedByteBuffer header;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    //Position of each message: (segment + 1) << 32 | offset. 0 means not stored.
+    private long[] index = new long[1024];
+
+    public MappedFileStore(Path directory, int segmentSize, boolean sync) throws IOException {
+        if (segmentSize <= RECORD_HEADER_SIZE) {
+            throw new IllegalArgumentException("Segment size too small: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.sync = sync;
+        this.charset = CharsetSupport.getCharsetInstance();
+        open();
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(directory);
+        Path headerFile = directory.resolve(HEADER_FILE);
+        boolean created = !Files.exists(headerFile);
+        header = map(headerFile, HEADER_SIZE);
+        if (created || header.getLong(CREATION_TIME_OFFSET) == 0) {
+            initializeHeader();
+        }
+        for (Path segmentFile : listSegments()) {
+            MappedByteBuffer segment = map(segmentFile, segmentSize);
+            segments.add(segment);
+            indexSegment(segments.size() - 1, segment);
+        }
+    }
+
+    private void initializeHeader() {
+        header.putLong(CREATION_TIME_OFFSET, System.currentTimeMillis());
+        header.putInt(SENDER_SEQ_NUM_OFFSET, 1);
+        header.putInt(TARGET_SEQ_NUM_OFFSET, 1);
+        force(header);
+    }
+
+    private void indexSegment(int segmentIndex, MappedByteBuffer segment) {
+        int offset = 0;
+        while (offset + RECORD_HEADER_SIZE <= segmentSize) {
+            int sequence = segment.getInt(offset);
+            int length = segment.getInt(offset + LENGTH_OFFSET);
+            if (sequence <= 0 || length < 0 || length > segmentSize - offset - RECORD_HEADER_SIZE) {
+                break;
+            }
+            if (segment.getInt(offset + CHECKSUM_OFFSET) != checksum(segment, offset + RECORD_HEADER_SIZE, length)) {
+                LOG.warn("Discarding torn record of message {} at offset {} of segment {} in {}", sequence, offset,
+                        segmentIndex, directory);
+                break;
+            }
+            putIndex(sequence, segmentIndex, offset);
+            offset += RECORD_HEADER_SIZE + length;
+        }
+        segment.position(offset);
+    }
+
+    private static int checksum(ByteBuffer segment, int offset, int length) {
+        ByteBuffer bytes = segment.duplicate();
+        bytes.limit(offset + length).position(offset);
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted((a, b) -> Long.compare(segmentNumber(a), segmentNumber(b)))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static long segmentNumber(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static MappedByteBuffer map(Path file, int size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    private void putIndex(int sequence, int segment, int offset) {
+        if (sequence >= index.length) {
+            index = Arrays.copyOf(index, Math.max(sequence + 1, index.length * 2));
+        }
+        index[sequence] = ((long) (segment + 1) << 32) | offset;
+    }
+
+    @Override
+    public synchronized boolean set(int sequence, String message) throws IOException {
+        byte[] bytes = message.getBytes(charset);
+        int recordSize = RECORD_HEADER_SIZE + bytes.length;
+        if (recordSize > segmentSize) {
+            throw new IOException("Message " + sequence + " of " + bytes.length
+                    + " bytes does not fit in a segment of " + segmentSize + " bytes");
+        }
+        MappedByteBuffer segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (segment == null || segment.remaining() < recordSize) {
+            segment = nextSegment();
+        }
+        int offset = segment.position();
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        //Write the sequence number last: it commits the record
+        segment.putInt(offset + LENGTH_OFFSET, bytes.length);
+        segment.putInt(offset + CHECKSUM_OFFSET, (int) crc.getValue());
+        segment.position(offset + RECORD_HEADER_SIZE);
+        segment.put(bytes);
+        segment.putInt(offset, sequence);
+        putIndex(sequence, segments.size() - 1, offset);
+        if (sync) {
+            segment.force();
+        }
+        return true;
+    }
+
+    private MappedByteBuffer nextSegment() throws IOException {
+        Path file = directory.resolve(SEGMENT_PREFIX + segments.size() + SEGMENT_SUFFIX);
+        MappedByteBuffer segment = map(file, segmentSize);
+        segments.add(segment);
+        return segment;
+    }
+
+    @Override
+    public synchronized void get(int startSequence, int endSequence, Collection<String> messages) {
+        int end = Math.min(endSequence, index.length - 1);
+        for (int sequence = Math.max(startSequence, 1); sequence <= end; sequence++) {
+            long position = index[sequence];
+            if (position != 0) {
+                ByteBuffer segment = segments.get((int) (position >>> 32) - 1);
+                int offset = (int) position;
+                int length = segment.getInt(offset + LENGTH_OFFSET);
+                ByteBuffer record = segment.duplicate();
+                record.limit(offset + RECORD_HEADER_SIZE + length).position(offset + RECORD_HEADER_SIZE);
+                messages.add(charset.decode(record).toString());
+            }
+        }
+    }
+
+    @Override
+    public synchronized int getNextSenderMsgSeqNum() {
+        return header.getInt(SENDER_SEQ_NUM_OFFSET);
+    }
+
+    @Override
+    public synchronized int getNextTargetMsgSeqNum() {
+        return header.getInt(TARGET_SEQ_NUM_OFFSET);
+    }
+
+    @Override
+    public synchronized void setNextSenderMsgSeqNum(int next) {
+        header.putInt(SENDER_SEQ_NUM_OFFSET, next);
+        force(header);
+    }
+
+    @Override
+    public synchronized void setNextTargetMsgSeqNum(int next) {
+        header.putInt(TARGET_SEQ_NUM_OFFSET, next);
+        force(header);
+    }
+
+    @Override
+    public void incrNextSenderMsgSeqNum() {
+        setNextSenderMsgSeqNum(getNextSenderMsgSeqNum() + 1);
+    }
+
+    @Override
+    public void incrNextTargetMsgSeqNum() {
+        setNextTargetMsgSeqNum(getNextTargetMsgSeqNum() + 1);
+    }
+
+    @Override
+    public synchronized Date getCreationTime() {
+        return new Date(header.getLong(CREATION_TIME_OFFSET));
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        segments.forEach(MappedFileStore::unmap);
+        segments.clear();
+        index = new long[1024];
+        for (Path segmentFile : listSegments()) {
+            Files.deleteIfExists(segmentFile);
+        }
+        initializeHeader();
+    }
+
+    @Override
+    public synchronized void refresh() throws IOException {
+        close();
+        index = new long[1024];
+        open();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (header != null) {
+            header.force();
+            unmap(header);
+        }
+        segments.forEach(segment -> {
+            segment.force();
+            unmap(segment);
+        });
+        segments.clear();
+        header = null;
+    }
+
+    /**
+     * Release the mapping now, instead of when the buffer is garbage collected (the file cannot be deleted on some
+     * platforms while it is mapped). The buffer must not be accessed anymore.
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            invokeCleaner.invoke(theUnsafe.get(null), buffer);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            //Not supported by this JVM: the buffer is unmapped when garbage collected
+            LOG.debug("Failed to unmap buffer", e);
+        }
+    }
+
+    private void force(MappedByteBuffer buffer) {
+        if (sync) {
+            buffer.force();
+        }
+    }
+
+    Path getDirectory() {
+        return directory;
+    }
+
+    int getSegmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public String toString() {
+        return "MappedFileStore[" + directory + "]";
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.store;
+
+import ch.voulgarakis.spring.boot.starter.quickfixj.exception.QuickFixJConfigurationException;
+import ch.voulgarakis.spring.boot.starter.quickfixj.exception.QuickFixJException;
+import quickfix.ConfigError;
+import quickfix.FieldConvertError;
+import quickfix.FileStoreFactory;
+import quickfix.FileUtil;
+import quickfix.MessageStore;
+import quickfix.MessageStoreFactory;
+import quickfix.SessionID;
+import quickfix.SessionSettings;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Creates a {@link MappedFileStore} per session.
+ * <p>
+ * The store is placed under {@value #SETTING_MAPPED_FILE_STORE_PATH} (or the standard {@code FileStorePath} if not
+ * set), in a directory named after the session id.
+ */
+public class MappedFileStoreFactory implements MessageStoreFactory {
+
+    public static final String SETTING_MAPPED_FILE_STORE_PATH = "MappedFileStorePath";
+    public static final String SETTING_MAPPED_FILE_STORE_SEGMENT_SIZE = "MappedFileStoreSegmentSize";
+    public static final String SETTING_MAPPED_FILE_STORE_SYNC = "MappedFileStoreSync";
+
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private final SessionSettings settings;
+
+    public MappedFileStoreFactory(SessionSettings settings) {
+        this.settings = settings;
+    }
+
+    @Override
+    public MessageStore create(SessionID sessionID) {
+        try {
+            Path directory = Paths.get(storePath(sessionID), FileUtil.sessionIdFileName(sessionID));
+            int segmentSize = settings.isSetting(sessionID, SETTING_MAPPED_FILE_STORE_SEGMENT_SIZE)
+                    ? segmentSize(settings.getLong(sessionID, SETTING_MAPPED_FILE_STORE_SEGMENT_SIZE))
+                    : DEFAULT_SEGMENT_SIZE;
+            boolean sync = settings.isSetting(sessionID, SETTING_MAPPED_FILE_STORE_SYNC)
+                    && settings.getBool(sessionID, SETTING_MAPPED_FILE_STORE_SYNC);
+            return new MappedFileStore(directory, segmentSize, sync);
+        } catch (ConfigError | FieldConvertError e) {
+            throw new QuickFixJConfigurationException("Invalid mapped file store settings for session " + sessionID, e);
+        } catch (IOException e) {
+            throw new QuickFixJException("Failed to open mapped file store for session " + sessionID, e);
+        }
+    }
+
+    private static int segmentSize(long segmentSize) throws ConfigError {
+        //A segment is mapped as a single buffer
+        try {
+            return Math.toIntExact(segmentSize);
+        } catch (ArithmeticException e) {
+            throw new ConfigError(SETTING_MAPPED_FILE_STORE_SEGMENT_SIZE + " must be less than 2GB: " + segmentSize);
+        }
+    }
+
+    private String storePath(SessionID sessionID) throws ConfigError, FieldConvertError {
+        if (settings.isSetting(sessionID, SETTING_MAPPED_FILE_STORE_PATH)) {
+            return settings.getString(sessionID, SETTING_MAPPED_FILE_STORE_PATH);
+        }
+        if (settings.isSetting(sessionID, FileStoreFactory.SETTING_FILE_STORE_PATH)) {
+            return settings.getString(sessionID, FileStoreFactory.SETTING_FILE_STORE_PATH);
+        }
+        throw new QuickFixJConfigurationException("Mapped file store requires the " + SETTING_MAPPED_FILE_STORE_PATH
+                + " or " + FileStoreFactory.SETTING_FILE_STORE_PATH + " setting for session " + sessionID);
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.store;
+
+import org.quickfixj.CharsetSupport;
+import quickfix.MessageStore;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Collection;
+import java.util.Date;
+
+/**
+ * Non-durable {@link MessageStore} that keeps the messages off-heap, in a fixed-size direct ring buffer.
+ * <p>
+ * The store retains at most {@code maxMessages} messages and {@code capacity} bytes; the oldest messages are evicted
+ * first when either limit is reached. Evicted messages are simply not returned on resend, so QuickFIX/J replaces them
+ * with a SequenceReset-GapFill, as it does for any administrative message.
+ */
+public class OffHeapStore implements MessageStore {
+
+    private final Charset charset;
+    private final ByteBuffer buffer;
+
+    //Ring of the retained messages, oldest first
+    private final int[] sequences;
+    private final int[] positions;
+    private final int[] lengths;
+    private int head;
+    private int count;
+    private int writePosition;
+
+    private int nextSenderMsgSeqNum;
+    private int nextTargetMsgSeqNum;
+    private Date creationTime;
+
+    public OffHeapStore(int maxMessages, int capacity) {
+        if (maxMessages <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("Off-heap store retention must be positive, maxMessages="
+                    + maxMessages + ", capacity=" + capacity);
+        }
+        this.charset = CharsetSupport.getCharsetInstance();
+        this.buffer = ByteBuffer.allocateDirect(capacity);
+        this.sequences = new int[maxMessages];
+        this.positions = new int[maxMessages];
+        this.lengths = new int[maxMessages];
+        reset();
+    }
+
+    @Override
+    public synchronized boolean set(int sequence, String message) {
+        byte[] bytes = message.getBytes(charset);
+        if (bytes.length > buffer.capacity()) {
+            //Cannot be retained at all: it will be gap-filled on resend
+            return false;
+        }
+        if (writePosition + bytes.length > buffer.capacity()) {
+            writePosition = 0;
+        }
+        while (count > 0 && (count == sequences.length || overlapsOldest(writePosition, bytes.length))) {
+            evictOldest();
+        }
+        int slot = (head + count) % sequences.length;
+        sequences[slot] = sequence;
+        positions[slot] = writePosition;
+        lengths[slot] = bytes.length;
+        count++;
+
+        ByteBuffer target = buffer.duplicate();
+        target.position(writePosition);
+        target.put(bytes);
+        writePosition += bytes.length;
+        return true;
+    }
+
+    private boolean overlapsOldest(int position, int length) {
+        int oldestPosition = positions[head];
+        int oldestEnd = oldestPosition + lengths[head];
+        return position < oldestEnd && oldestPosition < position + length;
+    }
+
+    private void evictOldest() {
+        head = (head + 1) % sequences.length;
+        count--;
+    }
+
+    @Override
+    public synchronized void get(int startSequence, int endSequence, Collection<String> messages) {
+        for (int i = 0; i < count; i++) {
+            int slot = (head + i) % sequences.length;
+            int sequence = sequences[slot];
+            if (sequence >= startSequence && sequence <= endSequence) {
+                ByteBuffer record = buffer.duplicate();
+                record.limit(positions[slot] + lengths[slot]).position(positions[slot]);
+                messages.add(charset.decode(record).toString());
+            }
+        }
+    }
+
+    /**
+     * @return the lowest sequence number still retained, or 0 if the store is empty.
+     */
+    public synchronized int getFirstRetainedSeqNum() {
+        return count == 0 ? 0 : sequences[head];
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+
+    @Override
+    public synchronized int getNextSenderMsgSeqNum() {
+        return nextSenderMsgSeqNum;
+    }
+
+    @Override
+    public synchronized int getNextTargetMsgSeqNum() {
+        return nextTargetMsgSeqNum;
+    }
+
+    @Override
+    public synchronized void setNextSenderMsgSeqNum(int next) {
+        nextSenderMsgSeqNum = next;
+    }
+
+    @Override
+    public synchronized void setNextTargetMsgSeqNum(int next) {
+        nextTargetMsgSeqNum = next;
+    }
+
+    @Override
+    public synchronized void incrNextSenderMsgSeqNum() {
+        nextSenderMsgSeqNum++;
+    }
+
+    @Override
+    public synchronized void incrNextTargetMsgSeqNum() {
+        nextTargetMsgSeqNum++;
+    }
+
+    @Override
+    public synchronized Date getCreationTime() {
+        return creationTime;
+    }
+
+    @Override
+    public synchronized void reset() {
+        head = 0;
+        count = 0;
+        writePosition = 0;
+        nextSenderMsgSeqNum = 1;
+        nextTargetMsgSeqNum = 1;
+        creationTime = new Date();
+    }
+
+    @Override
+    public void refresh() {
+        //Nothing to refresh, the store is not persisted
+    }
+}
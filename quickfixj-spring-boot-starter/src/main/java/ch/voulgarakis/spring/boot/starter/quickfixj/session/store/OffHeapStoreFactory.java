@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.store;
+
+import quickfix.MessageStore;
+import quickfix.MessageStoreFactory;
+import quickfix.SessionID;
+
+/**
+ * Creates an {@link OffHeapStore} per session, each with its own retention limits.
+ */
+public class OffHeapStoreFactory implements MessageStoreFactory {
+
+    private final int maxMessages;
+    private final int capacity;
+
+    public OffHeapStoreFactory(int maxMessages, int capacity) {
+        this.maxMessages = maxMessages;
+        this.capacity = capacity;
+    }
+
+    @Override
+    public MessageStore create(SessionID sessionID) {
+        return new OffHeapStore(maxMessages, capacity);
+    }
+}
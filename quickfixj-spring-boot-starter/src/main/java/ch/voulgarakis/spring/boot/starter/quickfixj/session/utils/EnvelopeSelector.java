@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.utils;
+
+import quickfix.Message;
+
+import java.util.function.Predicate;
+
+/**
+ * A message selector that can decide on the {@link RoutingEnvelope} of the message, which the session extracts only
+ * once per received message, instead of reading the fields of the message for every subscriber.
+ */
+public interface EnvelopeSelector extends Predicate<Message> {
+
+    /**
+     * @param envelope the routing envelope of the message (null if the message is null or has no MsgType).
+     * @param message  the received message.
+     * @return whether the message is in scope.
+     */
+    boolean test(RoutingEnvelope envelope, Message message);
+
+    @Override
+    default boolean test(Message message) {
+        return test(RoutingEnvelope.of(message), message);
+    }
+}
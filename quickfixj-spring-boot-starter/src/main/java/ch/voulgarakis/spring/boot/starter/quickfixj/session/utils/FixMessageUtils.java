@@ -24,6 +24,9 @@ import quickfix.field.*;
 import java.time.*;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -214,6 +217,133 @@ public class FixMessageUtils {
                 o -> o.map(Stream::of).orElseGet(Stream::empty)).collect(Collectors.toList());
     }
 
+    //--------------------------------------------------
+    //--------------GROUP TRAVERSAL (NO ALLOC)----------
+    //--------------------------------------------------
+
+    /**
+     * Visit the entries of a repeating group in order, without creating any intermediate collection.
+     *
+     * @return the number of entries visited.
+     */
+    public static int forEachGroup(FieldMap fieldMap, int groupTag, GroupVisitor visitor) {
+        if (Objects.isNull(fieldMap)) {
+            return 0;
+        }
+        List<Group> groups = fieldMap.getGroups(groupTag);
+        int size = groups.size();
+        for (int i = 0; i < size; i++) {
+            visitor.visit(i, groups.get(i));
+        }
+        return size;
+    }
+
+    /**
+     * Pass the int value of the field of every entry of the repeating group to the consumer (entries without the
+     * field are skipped).
+     *
+     * @return the number of values passed to the consumer.
+     */
+    public static int forEachIntField(FieldMap fieldMap, int groupTag, int tag, IntConsumer consumer) {
+        if (Objects.isNull(fieldMap)) {
+            return 0;
+        }
+        List<Group> groups = fieldMap.getGroups(groupTag);
+        int count = 0;
+        for (int i = 0; i < groups.size(); i++) {
+            Group group = groups.get(i);
+            if (group.isSetField(tag)) {
+                try {
+                    consumer.accept(group.getInt(tag));
+                    count++;
+                } catch (FieldNotFound | FieldException e) {
+                    //Not set or not an int: skip, like safeGetField
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Pass the double value of the field of every entry of the repeating group to the consumer (entries without the
+     * field are skipped).
+     *
+     * @return the number of values passed to the consumer.
+     */
+    public static int forEachDoubleField(FieldMap fieldMap, int groupTag, int tag, DoubleConsumer consumer) {
+        if (Objects.isNull(fieldMap)) {
+            return 0;
+        }
+        List<Group> groups = fieldMap.getGroups(groupTag);
+        int count = 0;
+        for (int i = 0; i < groups.size(); i++) {
+            Group group = groups.get(i);
+            if (group.isSetField(tag)) {
+                try {
+                    consumer.accept(group.getDouble(tag));
+                    count++;
+                } catch (FieldNotFound | FieldException e) {
+                    //Not set or not a double: skip, like safeGetField
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Pass the value of the field of every entry of the repeating group to the consumer (entries without the field
+     * are skipped). The values are the strings already held by the entries, so nothing is allocated.
+     *
+     * @return the number of values passed to the consumer.
+     */
+    public static int forEachStringField(FieldMap fieldMap, int groupTag, int tag, Consumer<String> consumer) {
+        if (Objects.isNull(fieldMap)) {
+            return 0;
+        }
+        List<Group> groups = fieldMap.getGroups(groupTag);
+        int count = 0;
+        for (int i = 0; i < groups.size(); i++) {
+            Group group = groups.get(i);
+            if (group.isSetField(tag)) {
+                try {
+                    consumer.accept(group.getString(tag));
+                    count++;
+                } catch (FieldNotFound e) {
+                    //Not set: skip, like safeGetField
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the int value of the field, or the default value if not set (or not an int), without boxing.
+     */
+    public static int safeGetInt(FieldMap fieldMap, int tag, int defaultValue) {
+        if (Objects.nonNull(fieldMap) && fieldMap.isSetField(tag)) {
+            try {
+                return fieldMap.getInt(tag);
+            } catch (FieldNotFound | FieldException e) {
+                return defaultValue;
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * @return the double value of the field, or the default value if not set (or not a double), without boxing.
+     */
+    public static double safeGetDouble(FieldMap fieldMap, int tag, double defaultValue) {
+        if (Objects.nonNull(fieldMap) && fieldMap.isSetField(tag)) {
+            try {
+                return fieldMap.getDouble(tag);
+            } catch (FieldNotFound | FieldException e) {
+                return defaultValue;
+            }
+        }
+        return defaultValue;
+    }
+
     public static Optional<String> safeGetField(FieldMap group, StringField field) {
         if (Objects.nonNull(group) && group.isSetField(field.getField())) {
             try {
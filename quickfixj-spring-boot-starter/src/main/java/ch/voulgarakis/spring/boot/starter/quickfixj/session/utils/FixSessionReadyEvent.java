@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.utils;
+
+import org.springframework.context.ApplicationEvent;
+import quickfix.SessionID;
+
+/**
+ * Published when a FIX session becomes ready for the first time: created (acceptor) or logged on (initiator).
+ */
+public class FixSessionReadyEvent extends ApplicationEvent {
+
+    private final String sessionName;
+
+    public FixSessionReadyEvent(SessionID sessionId, String sessionName) {
+        super(sessionId);
+        this.sessionName = sessionName;
+    }
+
+    public SessionID getSessionId() {
+        return (SessionID) getSource();
+    }
+
+    /**
+     * @return the name of the session, or null if not known.
+     */
+    public String getSessionName() {
+        return sessionName;
+    }
+}
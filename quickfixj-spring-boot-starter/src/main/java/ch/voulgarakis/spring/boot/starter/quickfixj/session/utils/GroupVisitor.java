@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.utils;
+
+import quickfix.Group;
+
+/**
+ * Callback of {@link FixMessageUtils#forEachGroup(quickfix.FieldMap, int, GroupVisitor)}, invoked for every entry of
+ * a repeating group.
+ */
+@FunctionalInterface
+public interface GroupVisitor {
+
+    /**
+     * @param index the position of the entry in the repeating group.
+     * @param group the entry.
+     */
+    void visit(int index, Group group);
+}
@@ -0,0 +1,325 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.utils;
+
+import ch.voulgarakis.spring.boot.starter.quickfixj.exception.QuickFixJException;
+import quickfix.DataDictionary;
+import quickfix.FieldNotFound;
+import quickfix.Group;
+import quickfix.InvalidMessage;
+import quickfix.Message;
+import quickfix.field.MsgType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Read-only view over a raw FIX message, that only parses the repeating groups when they are accessed.
+ * <p>
+ * On creation, the top-level fields are indexed in one pass (as offsets in the raw message) and the repeating groups
+ * declared in the {@link DataDictionary} are skipped over. A group is turned into {@link Group} objects the first time
+ * {@link #getGroups(int)} is called for it. Reading a few fields of a wide message (e.g. a market data snapshot with
+ * hundreds of entries) therefore allocates a handful of strings, instead of the whole nested field maps.
+ * <p>
+ * Without a DataDictionary, the group entries are indexed as top-level fields (only the first occurrence of a tag is
+ * returned), like a {@link Message} parsed without a DataDictionary.
+ * <p>
+ * The QuickFIX/J session parses every message it receives before handing it over to the application, so the view is
+ * meant for raw messages read outside of a session, e.g. from the binary FIX log
+ * ({@link ch.voulgarakis.spring.boot.starter.quickfixj.session.log.BinaryLogRecord#toLazyMessage(DataDictionary)}).
+ */
+public class LazyMessage {
+
+    private static final char SOH = '\u0001';
+
+    private final String rawMessage;
+    private final DataDictionary dataDictionary;
+    private String msgType;
+
+    //Top-level fields: tag and bounds of the value in the raw message
+    private int[] tags = new int[32];
+    private int[] valueStarts = new int[32];
+    private int[] valueEnds = new int[32];
+    private int size;
+
+    //Repeating groups: count tag, message type they are declared in and bounds of their entries
+    private int[] groupTags = new int[4];
+    private String[] groupTypes = new String[4];
+    private int[] groupStarts = new int[4];
+    private int[] groupEnds = new int[4];
+    private int groupSize;
+    private Map<Integer, List<Group>> parsedGroups;
+
+    //Cursor of the last field read
+    private int fieldTag;
+    private int fieldValueStart;
+    private int fieldValueEnd;
+
+    private LazyMessage(String rawMessage, DataDictionary dataDictionary) {
+        this.rawMessage = rawMessage;
+        this.dataDictionary = dataDictionary;
+        index();
+    }
+
+    /**
+     * @param rawMessage     the raw FIX message.
+     * @param dataDictionary the application DataDictionary, defining the repeating groups (can be null).
+     * @return the lazy view of the message.
+     */
+    public static LazyMessage of(String rawMessage, DataDictionary dataDictionary) {
+        return new LazyMessage(rawMessage, dataDictionary);
+    }
+
+    private void index() {
+        int length = rawMessage.length();
+        int position = 0;
+        while (position < length) {
+            position = readField(position);
+            int tag = fieldTag;
+            addField(tag, fieldValueStart, fieldValueEnd);
+            if (tag == MsgType.FIELD && Objects.isNull(msgType)) {
+                msgType = rawMessage.substring(fieldValueStart, fieldValueEnd);
+            }
+            if (Objects.nonNull(dataDictionary)) {
+                String type = dataDictionary.isHeaderField(tag) ? DataDictionary.HEADER_ID : msgType;
+                if (Objects.nonNull(type) && dataDictionary.isGroup(type, tag)) {
+                    int end = skipGroup(position, dataDictionary.getGroup(type, tag).getDataDictionary(), type);
+                    addGroup(tag, type, position, end);
+                    position = end;
+                }
+            }
+        }
+    }
+
+    private int skipGroup(int position, DataDictionary groupDictionary, String type) {
+        int length = rawMessage.length();
+        while (position < length) {
+            int next = readField(position);
+            int tag = fieldTag;
+            if (!groupDictionary.isField(tag)) {
+                return position;
+            }
+            if (groupDictionary.isGroup(type, tag)) {
+                next = skipGroup(next, groupDictionary.getGroup(type, tag).getDataDictionary(), type);
+            }
+            position = next;
+        }
+        return position;
+    }
+
+    /**
+     * Read the field starting at the position into the cursor.
+     *
+     * @return the position of the next field.
+     */
+    private int readField(int position) {
+        int length = rawMessage.length();
+        int tag = 0;
+        char c;
+        while (position < length && (c = rawMessage.charAt(position)) != '=') {
+            if (c < '0' || c > '9') {
+                throw new QuickFixJException("Invalid tag at position " + position + " of message: " + rawMessage);
+            }
+            tag = tag * 10 + (c - '0');
+            position++;
+        }
+        fieldTag = tag;
+        fieldValueStart = ++position;
+        while (position < length && rawMessage.charAt(position) != SOH) {
+            position++;
+        }
+        fieldValueEnd = position;
+        return position + 1;
+    }
+
+    private void addField(int tag, int start, int end) {
+        if (size == tags.length) {
+            tags = Arrays.copyOf(tags, size * 2);
+            valueStarts = Arrays.copyOf(valueStarts, size * 2);
+            valueEnds = Arrays.copyOf(valueEnds, size * 2);
+        }
+        tags[size] = tag;
+        valueStarts[size] = start;
+        valueEnds[size] = end;
+        size++;
+    }
+
+    private void addGroup(int tag, String type, int start, int end) {
+        if (groupSize == groupTags.length) {
+            groupTags = Arrays.copyOf(groupTags, groupSize * 2);
+            groupTypes = Arrays.copyOf(groupTypes, groupSize * 2);
+            groupStarts = Arrays.copyOf(groupStarts, groupSize * 2);
+            groupEnds = Arrays.copyOf(groupEnds, groupSize * 2);
+        }
+        groupTags[groupSize] = tag;
+        groupTypes[groupSize] = type;
+        groupStarts[groupSize] = start;
+        groupEnds[groupSize] = end;
+        groupSize++;
+    }
+
+    private int indexOf(int tag) {
+        for (int i = 0; i < size; i++) {
+            if (tags[i] == tag) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    //--------------------------------------------------
+    //----------------------FIELDS----------------------
+    //--------------------------------------------------
+
+    public String getMsgType() {
+        return msgType;
+    }
+
+    public boolean isSetField(int tag) {
+        return indexOf(tag) >= 0;
+    }
+
+    public String getString(int tag) throws FieldNotFound {
+        int index = indexOf(tag);
+        if (index < 0) {
+            throw new FieldNotFound(tag);
+        }
+        return rawMessage.substring(valueStarts[index], valueEnds[index]);
+    }
+
+    public int getInt(int tag) throws FieldNotFound {
+        int index = indexOf(tag);
+        if (index < 0) {
+            throw new FieldNotFound(tag);
+        }
+        //Parse in place, without extracting the value
+        int start = valueStarts[index];
+        int end = valueEnds[index];
+        boolean negative = start < end && rawMessage.charAt(start) == '-';
+        int value = 0;
+        for (int i = negative ? start + 1 : start; i < end; i++) {
+            char c = rawMessage.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException("Field " + tag + " is not an int: " + getString(tag));
+            }
+            value = value * 10 + (c - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    public double getDouble(int tag) throws FieldNotFound {
+        return Double.parseDouble(getString(tag));
+    }
+
+    //--------------------------------------------------
+    //----------------------GROUPS----------------------
+    //--------------------------------------------------
+
+    /**
+     * @param countTag the NumInGroup tag of the repeating group.
+     * @return the number of entries, as declared in the message (without parsing the group).
+     */
+    public int getGroupCount(int countTag) {
+        try {
+            return isSetField(countTag) ? getInt(countTag) : 0;
+        } catch (FieldNotFound e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Parse the repeating group (once) and return its entries.
+     *
+     * @param countTag the NumInGroup tag of the repeating group.
+     * @return the entries of the group, or an empty list if not found in the message.
+     */
+    public synchronized List<Group> getGroups(int countTag) {
+        if (Objects.isNull(parsedGroups)) {
+            parsedGroups = new HashMap<>();
+        }
+        List<Group> groups = parsedGroups.get(countTag);
+        if (Objects.isNull(groups)) {
+            groups = parseGroups(countTag);
+            parsedGroups.put(countTag, groups);
+        }
+        return groups;
+    }
+
+    private List<Group> parseGroups(int countTag) {
+        for (int i = 0; i < groupSize; i++) {
+            if (groupTags[i] == countTag) {
+                String type = groupTypes[i];
+                return Collections.unmodifiableList(parseEntries(countTag,
+                        dataDictionary.getGroup(type, countTag), type, groupStarts[i], groupEnds[i]));
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    private List<Group> parseEntries(int countTag, DataDictionary.GroupInfo groupInfo, String type, int start,
+            int end) {
+        DataDictionary groupDictionary = groupInfo.getDataDictionary();
+        int delimiter = groupInfo.getDelimiterField();
+        int[] order = groupDictionary.getOrderedFields();
+        List<Group> entries = new ArrayList<>();
+        Group entry = null;
+        int position = start;
+        while (position < end) {
+            int next = readField(position);
+            int tag = fieldTag;
+            if (tag == delimiter) {
+                entry = new Group(countTag, delimiter, order);
+                entries.add(entry);
+            } else if (Objects.isNull(entry)) {
+                throw new QuickFixJException("Repeating group " + countTag + " does not start with delimiter "
+                        + delimiter + " in message: " + rawMessage);
+            }
+            if (groupDictionary.isGroup(type, tag)) {
+                int nestedEnd = skipGroup(next, groupDictionary.getGroup(type, tag).getDataDictionary(), type);
+                for (Group nested : parseEntries(tag, groupDictionary.getGroup(type, tag), type, next, nestedEnd)) {
+                    entry.addGroup(nested);
+                }
+                next = nestedEnd;
+            } else {
+                entry.setString(tag, rawMessage.substring(fieldValueStart, fieldValueEnd));
+            }
+            position = next;
+        }
+        return entries;
+    }
+
+    //--------------------------------------------------
+    //--------------------CONVERSION--------------------
+    //--------------------------------------------------
+
+    /**
+     * Fully parse the message (including all its groups), e.g. to hand it over to code expecting a {@link Message}.
+     */
+    public Message toMessage() throws InvalidMessage {
+        return new Message(rawMessage, dataDictionary, false);
+    }
+
+    @Override
+    public String toString() {
+        return rawMessage;
+    }
+}
@@ -17,48 +17,53 @@
 package ch.voulgarakis.spring.boot.starter.quickfixj.session.utils;
 
 import org.apache.commons.lang3.StringUtils;
+import quickfix.FieldNotFound;
 import quickfix.Message;
 import quickfix.field.MsgSeqNum;
-import quickfix.field.RefSeqNum;
 
-import java.util.List;
-import java.util.Optional;
-import java.util.function.Predicate;
+import java.util.Objects;
 
 import static ch.voulgarakis.spring.boot.starter.quickfixj.session.utils.FixMessageUtils.*;
 
-public class RefIdSelector implements Predicate<Message> {
+public class RefIdSelector implements EnvelopeSelector {
 
     private final Message request;
+    //The Request Id, resolved once
+    private final String reqId;
+    //The message sequence Id, resolved once the request has been sent
+    private volatile String msgSeqId;
 
     public RefIdSelector(Message request) {
         this.request = request;
+        this.reqId = safeGetIdForRequest(request).orElse(null);
     }
 
     @Override
-    public boolean test(Message message) {
-        //The Request Id and message sequence Id
-        Optional<String> reqId = safeGetIdForRequest(request);
-        Optional<String> msgSeqId = safeGetField(request.getHeader(), new MsgSeqNum()).map(Object::toString);
-        //The Response reference Id and the message sequence Reference Id
-        List<String> refId = safeGetRefIdForResponse(message);
-        Optional<String> refSeqNum = safeGetField(message, new RefSeqNum()).map(Object::toString);
-        //Compare if reqId of request is same as reference Id from response
-        return presentAndEquals(reqId, refId)
+    public boolean test(RoutingEnvelope envelope, Message message) {
+        return Objects.nonNull(envelope)
+                //Compare if reqId of request is same as reference Id from response
+                && (envelope.matchesRefId(reqId, this::isEqual)
                 //Or message sequence Id from request is the same as the reference sequence number of the response
-                || presentAndEquals(msgSeqId, refSeqNum)
+                || presentAndEquals(getMsgSeqId(), envelope.getRefSeqNum()))
                 //Or use a custom defined comparison between request-response
                 || orElse(request, message);
     }
 
-    private boolean presentAndEquals(Optional<String> s1, List<String> s2) {
-        return s1.isPresent() && s2.stream()
-                .map(Optional::ofNullable)
-                .anyMatch(s -> presentAndEquals(s1, s));
+    private String getMsgSeqId() {
+        String seqId = msgSeqId;
+        if (Objects.isNull(seqId) && Objects.nonNull(request) && request.getHeader().isSetField(MsgSeqNum.FIELD)) {
+            try {
+                seqId = request.getHeader().getString(MsgSeqNum.FIELD);
+                msgSeqId = seqId;
+            } catch (FieldNotFound e) {
+                return null;
+            }
+        }
+        return seqId;
     }
 
-    private boolean presentAndEquals(Optional<String> s1, Optional<String> s2) {
-        return s1.isPresent() && s2.isPresent() && isEqual(s1.get(), s2.get());
+    private boolean presentAndEquals(String s1, String s2) {
+        return Objects.nonNull(s1) && Objects.nonNull(s2) && isEqual(s1, s2);
     }
 
     protected boolean isEqual(String reqId, String refId) {
@@ -71,6 +76,6 @@ public class RefIdSelector implements Predicate<Message> {
 
     @Override
     public String toString() {
-        return safeGetIdForRequest(request).orElse(super.toString());
+        return Objects.nonNull(reqId) ? reqId : super.toString();
     }
 }
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.utils;
+
+import quickfix.FieldMap;
+import quickfix.FieldNotFound;
+import quickfix.Message;
+import quickfix.field.ClOrdID;
+import quickfix.field.ExecRefID;
+import quickfix.field.MDReqID;
+import quickfix.field.MsgSeqNum;
+import quickfix.field.MsgType;
+import quickfix.field.QuoteReqID;
+import quickfix.field.QuoteRespID;
+import quickfix.field.RefSeqNum;
+import quickfix.field.TradeReportID;
+
+import java.util.Objects;
+import java.util.function.BiPredicate;
+
+/**
+ * The fields needed to route a received message to its subscribers, extracted once per message.
+ * <p>
+ * The reference ids are the same as {@link FixMessageUtils#safeGetRefIdForResponse(Message)}, but are read with direct
+ * top-level field lookups, so routing never traverses the repeating groups.
+ */
+public class RoutingEnvelope {
+
+    private static final int[] NO_TAGS = new int[0];
+    private static final int[] QUOTE_REQ_ID = {QuoteReqID.FIELD};
+    private static final int[] QUOTE_RESP_ID = {QuoteRespID.FIELD};
+    private static final int[] MD_REQ_ID = {MDReqID.FIELD};
+    private static final int[] EXEC_REF_ID_CL_ORD_ID = {ExecRefID.FIELD, ClOrdID.FIELD};
+    private static final int[] TRADE_REPORT_ID_CL_ORD_ID = {TradeReportID.FIELD, ClOrdID.FIELD};
+
+    private final String msgType;
+    private final String msgSeqNum;
+    private final String refSeqNum;
+    private final String[] refIds;
+
+    private RoutingEnvelope(String msgType, String msgSeqNum, String refSeqNum, String[] refIds) {
+        this.msgType = msgType;
+        this.msgSeqNum = msgSeqNum;
+        this.refSeqNum = refSeqNum;
+        this.refIds = refIds;
+    }
+
+    /**
+     * @param message the received message.
+     * @return the routing envelope, or null if the message is null or has no MsgType.
+     */
+    public static RoutingEnvelope of(Message message) {
+        if (Objects.isNull(message)) {
+            return null;
+        }
+        String msgType = get(message.getHeader(), MsgType.FIELD);
+        if (Objects.isNull(msgType)) {
+            return null;
+        }
+        int[] refIdTags = refIdTags(msgType);
+        String[] refIds = new String[refIdTags.length];
+        for (int i = 0; i < refIdTags.length; i++) {
+            refIds[i] = get(message, refIdTags[i]);
+        }
+        return new RoutingEnvelope(msgType, get(message.getHeader(), MsgSeqNum.FIELD),
+                get(message, RefSeqNum.FIELD), refIds);
+    }
+
+    private static int[] refIdTags(String msgType) {
+        switch (msgType) {
+            case MsgType.QUOTE:
+            case MsgType.QUOTE_REQUEST_REJECT:
+                return QUOTE_REQ_ID;
+            case MsgType.QUOTE_RESPONSE:
+                return QUOTE_RESP_ID;
+            case MsgType.MARKET_DATA_INCREMENTAL_REFRESH:
+            case MsgType.MARKET_DATA_SNAPSHOT_FULL_REFRESH:
+            case MsgType.MARKET_DATA_REQUEST:
+            case MsgType.MARKET_DATA_REQUEST_REJECT:
+                return MD_REQ_ID;
+            case MsgType.EXECUTION_ACKNOWLEDGEMENT:
+            case MsgType.EXECUTION_REPORT:
+                return EXEC_REF_ID_CL_ORD_ID;
+            case MsgType.TRADE_CAPTURE_REPORT_ACK:
+            case MsgType.TRADE_CAPTURE_REPORT_REQUEST_ACK:
+            case MsgType.TRADE_CAPTURE_REPORT:
+                return TRADE_REPORT_ID_CL_ORD_ID;
+            default:
+                return NO_TAGS;
+        }
+    }
+
+    private static String get(FieldMap fieldMap, int tag) {
+        if (!fieldMap.isSetField(tag)) {
+            return null;
+        }
+        try {
+            return fieldMap.getString(tag);
+        } catch (FieldNotFound e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param reqId   the id of the request (can be null).
+     * @param isEqual how to compare the request id with the reference ids.
+     * @return whether any of the reference ids of this message matches the request id.
+     */
+    public boolean matchesRefId(String reqId, BiPredicate<String, String> isEqual) {
+        if (Objects.isNull(reqId)) {
+            return false;
+        }
+        for (String refId : refIds) {
+            if (Objects.nonNull(refId) && isEqual.test(reqId, refId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public String getMsgType() {
+        return msgType;
+    }
+
+    public String getMsgSeqNum() {
+        return msgSeqNum;
+    }
+
+    public String getRefSeqNum() {
+        return refSeqNum;
+    }
+
+    /**
+     * @param index the index of the reference id, in the same order as
+     *              {@link FixMessageUtils#safeGetRefIdForResponse(Message)}.
+     * @return the reference id, or null if not set.
+     */
+    public String getRefId(int index) {
+        return index < refIds.length ? refIds[index] : null;
+    }
+
+    /**
+     * @return the number of reference ids of the message type (set or not).
+     */
+    public int getRefIdCount() {
+        return refIds.length;
+    }
+}
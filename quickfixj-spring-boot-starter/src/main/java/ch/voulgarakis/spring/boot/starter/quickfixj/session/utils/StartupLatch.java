@@ -16,72 +16,214 @@
 
 package ch.voulgarakis.spring.boot.starter.quickfixj.session.utils;
 
+import ch.voulgarakis.spring.boot.starter.quickfixj.exception.QuickFixJConfigurationException;
 import ch.voulgarakis.spring.boot.starter.quickfixj.exception.QuickFixJException;
 import ch.voulgarakis.spring.boot.starter.quickfixj.session.FixConnectionType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import quickfix.SessionID;
 
 import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.CountDownLatch;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
+/**
+ * Tracks the readiness of the FIX sessions: created (acceptor) or logged on (initiator).
+ * <p>
+ * The startup (spring-context) waits until a quorum of sessions is ready, and all the required sessions are ready.
+ * By default, the quorum is all the sessions. The other sessions keep connecting in the background: their readiness
+ * can be followed through {@link #readiness(SessionID)} or {@link FixSessionReadyEvent}s.
+ * <p>
+ * Only the sessions of the quickfixj config are tracked: the sessions created later (counterparties of an acceptor
+ * template, sessions added by a live reload) are ignored.
+ */
 public class StartupLatch {
     private static final Logger LOG = LoggerFactory.getLogger(StartupLatch.class);
 
     private final FixConnectionType connectionType;
-    private final CountDownLatch countDownLatch;
     private final Duration timeout;
+    private final Map<SessionID, String> sessionNames;
+    private final int quorum;
+    private final Set<SessionID> requiredSessions;
+
+    private final Map<SessionID, CompletableFuture<SessionID>> readiness = new ConcurrentHashMap<>();
+    private final AtomicInteger readySessions = new AtomicInteger();
+    private final CompletableFuture<Void> startup = new CompletableFuture<>();
+    private ApplicationEventPublisher applicationEventPublisher;
 
     public StartupLatch(int sessions, FixConnectionType connectionType, Duration timeout) {
-        this.countDownLatch = new CountDownLatch(sessions);
+        this(Collections.emptyMap(), sessions, connectionType, timeout, null, Collections.emptySet());
+    }
+
+    /**
+     * @param sessionNames     the sessions (SessionID to session name).
+     * @param connectionType   the connection type (acceptor or initiator).
+     * @param timeout          the maximum time to wait on startup, or null to not wait.
+     * @param quorum           the number of sessions that need to be ready on startup, or null for all.
+     * @param requiredSessions the sessions (name or SessionID) that need to be ready on startup.
+     */
+    public StartupLatch(Map<SessionID, String> sessionNames, FixConnectionType connectionType, Duration timeout,
+            Integer quorum, Collection<String> requiredSessions) {
+        this(sessionNames, sessionNames.size(), connectionType, timeout, quorum, requiredSessions);
+    }
+
+    private StartupLatch(Map<SessionID, String> sessionNames, int sessions, FixConnectionType connectionType,
+            Duration timeout, Integer quorum, Collection<String> requiredSessions) {
         this.connectionType = connectionType;
         this.timeout = timeout;
+        this.sessionNames = sessionNames;
+        this.quorum = Objects.nonNull(quorum) ? Math.min(quorum, sessions) : sessions;
+        this.requiredSessions = resolve(sessionNames, requiredSessions);
+        sessionNames.keySet().forEach(this::readiness);
+        checkStartup();
+    }
+
+    private static Set<SessionID> resolve(Map<SessionID, String> sessionNames, Collection<String> requiredSessions) {
+        Set<SessionID> resolved = new HashSet<>();
+        for (String requiredSession : requiredSessions) {
+            SessionID sessionID = sessionNames.entrySet().stream()
+                    .filter(entry -> requiredSession.equals(entry.getValue())
+                            || requiredSession.equals(entry.getKey().toString()))
+                    .map(Map.Entry::getKey)
+                    .findFirst()
+                    .orElseThrow(() -> new QuickFixJConfigurationException(
+                            "Required session not found in the quickfixj config: " + requiredSession));
+            resolved.add(sessionID);
+        }
+        return resolved;
+    }
+
+    public void setApplicationEventPublisher(ApplicationEventPublisher applicationEventPublisher) {
+        this.applicationEventPublisher = applicationEventPublisher;
     }
 
     public void created(SessionID sessionId) {
         if (connectionType.isAcceptor()) {
-            countDownLatch.countDown();
+            ready(sessionId);
         }
     }
 
     public void loggedOn(SessionID sessionId) {
         if (!connectionType.isAcceptor()) {
-            countDownLatch.countDown();
+            ready(sessionId);
+        }
+    }
+
+    private void ready(SessionID sessionId) {
+        if (!isTracked(sessionId)) {
+            LOG.debug("Session not part of the startup: {}", sessionId);
+            return;
+        }
+        //Only the first time the session becomes ready counts (not on re-connection)
+        boolean firstTime = Objects.isNull(sessionId) || readiness(sessionId).complete(sessionId);
+        if (firstTime) {
+            readySessions.incrementAndGet();
+            checkStartup();
+            if (Objects.nonNull(applicationEventPublisher) && Objects.nonNull(sessionId)) {
+                applicationEventPublisher.publishEvent(new FixSessionReadyEvent(sessionId,
+                        sessionNames.get(sessionId)));
+            }
         }
     }
 
+    private void checkStartup() {
+        if (readySessions.get() >= quorum
+                && requiredSessions.stream().allMatch(sessionId -> readiness(sessionId).isDone())) {
+            startup.complete(null);
+        }
+    }
+
+    /**
+     * @param sessionId the session.
+     * @return a future that completes when the session is ready for the first time (never, for a session that is not
+     * tracked).
+     */
+    public CompletableFuture<SessionID> readiness(SessionID sessionId) {
+        if (!isTracked(sessionId)) {
+            return new CompletableFuture<>();
+        }
+        return readiness.computeIfAbsent(sessionId, id -> new CompletableFuture<>());
+    }
+
+    /**
+     * @return whether the session is one of the sessions of the latch (any session, if only their number is known).
+     */
+    private boolean isTracked(SessionID sessionId) {
+        return sessionNames.isEmpty() || sessionNames.containsKey(sessionId);
+    }
+
+    /**
+     * @return a future that completes when the quorum and the required sessions are ready.
+     */
+    public CompletableFuture<Void> startup() {
+        return startup;
+    }
+
+    public boolean isReady(SessionID sessionId) {
+        return readiness(sessionId).isDone();
+    }
+
     public void await() {
         if (Objects.nonNull(timeout)) {
             try {
                 logMessage();
-                boolean waited = countDownLatch.await(timeout.getSeconds(), TimeUnit.SECONDS);
-                if (!waited) {
-                    error();
-                }
+                startup.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+                logNotReady();
+            } catch (TimeoutException e) {
+                error();
             } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
                 throw new QuickFixJException("Interrupted when waiting to start FIX session: ", e);
+            } catch (ExecutionException e) {
+                throw new QuickFixJException("Failed to start FIX sessions", e.getCause());
             }
         }
     }
 
+    private Set<String> notReady() {
+        return readiness.entrySet().stream()
+                .filter(entry -> !entry.getValue().isDone())
+                .map(entry -> sessionNames.getOrDefault(entry.getKey(), entry.getKey().toString()))
+                .collect(Collectors.toSet());
+    }
+
     private void logMessage() {
+        String required = requiredSessions.isEmpty() ? "" : " (incl. required sessions " + requiredSessions + ")";
         if (connectionType.isAcceptor()) {
-            LOG.info("Waiting for {} FIX sessions to be created. Timeout={}.",
-                    countDownLatch.getCount(), timeout);
+            LOG.info("Waiting for {} FIX sessions to be created{}. Timeout={}.", quorum, required, timeout);
         } else {
-            LOG.info("Waiting for {} FIX sessions to be connected/logged-on. Timeout={}.",
-                    countDownLatch.getCount(), timeout);
+            LOG.info("Waiting for {} FIX sessions to be connected/logged-on{}. Timeout={}.", quorum, required,
+                    timeout);
+        }
+    }
+
+    private void logNotReady() {
+        Set<String> notReady = notReady();
+        if (!notReady.isEmpty()) {
+            LOG.warn("Starting up without FIX sessions (still connecting in the background): {}", notReady);
         }
     }
 
     private void error() {
         if (connectionType.isAcceptor()) {
-            throw new QuickFixJException("Failed to create FIX sessions within given timeout: " + timeout);
+            throw new QuickFixJException("Failed to create FIX sessions within given timeout: " + timeout
+                    + ". Not ready: " + notReady());
         } else {
             throw new QuickFixJException(
-                    "Failed to connected/logged-on to FIX sessions within given timeout: " + timeout);
+                    "Failed to connected/logged-on to FIX sessions within given timeout: " + timeout
+                            + ". Not ready: " + notReady());
         }
     }
 
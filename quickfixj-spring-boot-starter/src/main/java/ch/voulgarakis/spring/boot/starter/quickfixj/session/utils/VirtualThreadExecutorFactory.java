@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.utils;
+
+import ch.voulgarakis.spring.boot.starter.quickfixj.exception.QuickFixJConfigurationException;
+import quickfix.ExecutorFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Runs the per-session message processing of a threaded connector on virtual threads, instead of one platform thread
+ * per session.
+ * <p>
+ * Virtual threads are looked up by reflection, as they are only available on newer JDKs: see {@link #isSupported()}.
+ */
+public class VirtualThreadExecutorFactory implements ExecutorFactory {
+
+    private static final ThreadFactory VIRTUAL_THREAD_FACTORY = virtualThreadFactory();
+
+    private final Executor executor;
+
+    public VirtualThreadExecutorFactory() {
+        if (!isSupported()) {
+            throw new QuickFixJConfigurationException("Virtual threads are not supported by this JDK: "
+                    + System.getProperty("java.version"));
+        }
+        this.executor = runnable -> VIRTUAL_THREAD_FACTORY.newThread(runnable).start();
+    }
+
+    /**
+     * @return whether the JDK supports virtual threads.
+     */
+    public static boolean isSupported() {
+        return VIRTUAL_THREAD_FACTORY != null;
+    }
+
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            //Thread.ofVirtual().name("QFJ-Virtual-", 0).factory()
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, "QFJ-Virtual-", 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        } catch (InvocationTargetException e) {
+            //e.g. a preview feature, not enabled
+            return null;
+        }
+    }
+
+    /**
+     * @return the executor of the message processing threads of the sessions.
+     */
+    @Override
+    public Executor getLongLivedExecutor() {
+        return executor;
+    }
+
+    /**
+     * @return null, the short lived tasks (session timer) are kept on the connector's own thread.
+     */
+    @Override
+    public Executor getShortLivedExecutor() {
+        return null;
+    }
+}
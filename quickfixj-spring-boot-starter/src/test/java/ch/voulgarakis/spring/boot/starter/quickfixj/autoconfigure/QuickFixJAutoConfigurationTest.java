@@ -57,7 +57,7 @@ public class QuickFixJAutoConfigurationTest {
     @Test
     public void testAutoConfiguredBeans() {
         assertThat(sessionSettings).isNotNull();
-        assertThat(messageStoreFactory).isNotNull();
+        assertThat(messageStoreFactory).isInstanceOf(MemoryStoreFactory.class);
         assertThat(logFactory).isNull();
         assertThat(messageFactory).isNotNull();
         assertThat(connector).isNotNull();
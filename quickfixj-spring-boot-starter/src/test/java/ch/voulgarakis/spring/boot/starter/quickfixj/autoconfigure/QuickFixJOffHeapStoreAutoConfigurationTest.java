@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.autoconfigure;
+
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.store.OffHeapStore;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.store.OffHeapStoreFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.util.unit.DataSize;
+import quickfix.MessageStoreFactory;
+import quickfix.SessionID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = QuickFixJAutoConfigurationTestConfig.class,
+        properties = {
+                "quickfixj.config=classpath:quickfixj.cfg",
+                //The enum constant is accepted, as well as its kebab-case form (off-heap)
+                "quickfixj.message-store=OFF_HEAP",
+                "quickfixj.off-heap-store.max-messages=10",
+                "quickfixj.off-heap-store.capacity=1KB"
+        })
+@DirtiesContext //Stop port already bound issues from other tests
+public class QuickFixJOffHeapStoreAutoConfigurationTest {
+
+    @Autowired
+    private MessageStoreFactory messageStoreFactory;
+    @Autowired
+    private QuickFixJBootProperties quickFixJBootProperties;
+
+    @Test
+    public void testOffHeapStoreFactory() {
+        assertThat(quickFixJBootProperties.getMessageStore())
+                .isEqualTo(QuickFixJBootProperties.MessageStoreType.OFF_HEAP);
+        assertThat(quickFixJBootProperties.getOffHeapStore().getMaxMessages()).isEqualTo(10);
+        assertThat(quickFixJBootProperties.getOffHeapStore().getCapacity()).isEqualTo(DataSize.ofKilobytes(1));
+
+        assertThat(messageStoreFactory).isInstanceOf(OffHeapStoreFactory.class);
+        assertThat(messageStoreFactory.create(new SessionID("FIX.4.3", "TEST_CLIENT", "FIX")))
+                .isInstanceOf(OffHeapStore.class);
+    }
+}
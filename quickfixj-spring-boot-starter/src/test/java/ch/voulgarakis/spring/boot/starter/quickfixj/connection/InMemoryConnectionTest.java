@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.connection;
+
+import ch.voulgarakis.spring.boot.starter.quickfixj.authentication.SessionSettingsAuthenticationService;
+import ch.voulgarakis.spring.boot.starter.quickfixj.fix.session.FixSessionImpl;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.FixConnectionType;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.FixSessionManager;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.logging.LoggingId;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.utils.StartupLatch;
+import org.awaitility.Duration;
+import org.junit.jupiter.api.Test;
+import quickfix.*;
+import quickfix.field.QuoteReqID;
+import quickfix.fix43.QuoteRequest;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class InMemoryConnectionTest {
+
+    private static final String DEFAULTS = "[default]\n"
+            + "InMemory=Y\n"
+            + "StartTime=00:00:00\n"
+            + "EndTime=00:00:00\n"
+            + "HeartBtInt=30\n"
+            + "ReconnectInterval=1\n"
+            + "UseDataDictionary=N\n"
+            + "Username=user\n"
+            + "Password=password\n"
+            + "BeginString=FIX.4.3\n";
+
+    @Test
+    public void sessionsAreConnectedInMemory() throws Exception {
+        SessionSettings acceptorSettings = settings(DEFAULTS
+                + "ConnectionType=acceptor\n"
+                + "[session]\nSenderCompID=IN_MEMORY_ACCEPTOR\nTargetCompID=IN_MEMORY_INITIATOR\n"
+                + "SocketAcceptPort=40001\n");
+        SessionSettings initiatorSettings = settings(DEFAULTS
+                + "ConnectionType=initiator\n"
+                + "[session]\nSenderCompID=IN_MEMORY_INITIATOR\nTargetCompID=IN_MEMORY_ACCEPTOR\n"
+                + "SocketConnectPort=40001\n");
+        FixConnectionType acceptorType = FixConnectionType.of(acceptorSettings);
+        FixConnectionType initiatorType = FixConnectionType.of(initiatorSettings);
+        assertEquals(FixConnectionType.ACCEPTOR_IN_MEMORY, acceptorType);
+        assertEquals(FixConnectionType.INITIATOR_IN_MEMORY, initiatorType);
+
+        SessionID acceptorId = new SessionID("FIX.4.3", "IN_MEMORY_ACCEPTOR", "IN_MEMORY_INITIATOR");
+        SessionID initiatorId = new SessionID("FIX.4.3", "IN_MEMORY_INITIATOR", "IN_MEMORY_ACCEPTOR");
+        FixSessionImpl acceptorSession = new FixSessionImpl(acceptorId);
+        FixSessionImpl initiatorSession = new FixSessionImpl(initiatorId);
+        Connector acceptor = connector(acceptorType, acceptorSettings, acceptorId, acceptorSession);
+        Connector initiator = connector(initiatorType, initiatorSettings, initiatorId, initiatorSession);
+
+        List<Message> received = new CopyOnWriteArrayList<>();
+        acceptorSession.subscribe(message -> true, received::add, error -> {
+        });
+        try {
+            acceptor.start();
+            initiator.start();
+            await().atMost(Duration.TEN_SECONDS).until(initiatorSession::isLoggedOn);
+
+            //The application messages go through the FixSessionManager, as over a socket
+            initiatorSession.send(new QuoteRequest(new QuoteReqID("IN_MEMORY_QUOTE")));
+            await().atMost(Duration.TEN_SECONDS).until(() -> !received.isEmpty());
+            assertEquals("IN_MEMORY_QUOTE", received.get(0).getString(QuoteReqID.FIELD));
+            assertTrue(acceptorSession.isLoggedOn());
+        } finally {
+            initiator.stop(true);
+            acceptor.stop(true);
+        }
+    }
+
+    @Test
+    public void connectorDoesNotModifyTheSessionSettings() throws Exception {
+        String config = DEFAULTS
+                + "ConnectionType=initiator\n"
+                + "[session]\nSenderCompID=IN_MEMORY_INITIATOR\nTargetCompID=IN_MEMORY_ACCEPTOR\n"
+                + "SocketConnectPort=40002\n";
+        SessionSettings sessionSettings = settings(config);
+        String loaded = sessionSettings.toString();
+        FixConnectionType.INITIATOR_IN_MEMORY.createConnector(new ApplicationAdapter(), new MemoryStoreFactory(),
+                sessionSettings, null, new DefaultMessageFactory());
+        assertEquals(loaded, sessionSettings.toString());
+
+        //Not loaded in memory: not silently connected over TCP
+        SessionSettings tcpSettings =
+                new SessionSettings(new ByteArrayInputStream(config.getBytes(StandardCharsets.UTF_8)));
+        assertThrows(ConfigError.class, () -> FixConnectionType.INITIATOR_IN_MEMORY.createConnector(
+                new ApplicationAdapter(), new MemoryStoreFactory(), tcpSettings, null, new DefaultMessageFactory()));
+    }
+
+    private static Connector connector(FixConnectionType fixConnectionType, SessionSettings sessionSettings,
+            SessionID sessionID, FixSessionImpl fixSession) throws ConfigError {
+        FixSessionManager fixSessionManager = new FixSessionManager(Collections.singletonMap(sessionID, fixSession),
+                fixConnectionType, new StartupLatch(1, fixConnectionType, null), new LoggingId(),
+                new SessionSettingsAuthenticationService(sessionSettings, fixConnectionType));
+        return fixConnectionType.createConnector(fixSessionManager, new MemoryStoreFactory(), sessionSettings,
+                new SLF4JLogFactory(sessionSettings), new DefaultMessageFactory());
+    }
+
+    private static SessionSettings settings(String config) throws ConfigError {
+        //As loaded by the SessionSettingsLoader
+        return FixConnectionType.applyInMemoryProtocol(
+                new SessionSettings(new ByteArrayInputStream(config.getBytes(StandardCharsets.UTF_8))));
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.connection;
+
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.FixConnectionType;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.FixSessionUtils;
+import org.junit.jupiter.api.Test;
+import quickfix.*;
+import quickfix.mina.SessionConnector;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class ShardedConnectorTest {
+
+    @Test
+    public void initiatorSessionsArePartitionedOverShards() throws Exception {
+        StringBuilder config = new StringBuilder("[default]\n"
+                + "ConnectionType=initiator\n"
+                + "Sharded=Y\n"
+                + "Shards=3\n"
+                + "StartTime=00:00:00\n"
+                + "EndTime=00:00:00\n"
+                + "HeartBtInt=30\n"
+                + "ReconnectInterval=60\n"
+                + "SocketConnectHost=localhost\n"
+                + "SocketConnectPort=1\n"
+                + "BeginString=FIX.4.3\n"
+                + "SenderCompID=SHARDED_INITIATOR\n");
+        for (int i = 0; i < 12; i++) {
+            config.append("[session]\nTargetCompID=TARGET").append(i).append("\n");
+        }
+        SessionSettings sessionSettings = settings(config.toString());
+        FixConnectionType fixConnectionType = FixConnectionType.of(sessionSettings);
+        assertEquals(FixConnectionType.INITIATOR_SHARDED, fixConnectionType);
+
+        ShardedConnector connector = (ShardedConnector) fixConnectionType.createConnector(mock(Application.class),
+                new MemoryStoreFactory(), sessionSettings, null, new DefaultMessageFactory());
+
+        //Each session is managed by exactly one shard
+        List<SessionConnector> shards = connector.getShards();
+        assertTrue(shards.size() > 1 && shards.size() <= 3);
+        Set<SessionID> sessions = new HashSet<>();
+        for (SessionConnector shard : shards) {
+            FixSessionUtils.stream(shard.getSettings()).forEach(sessionID -> {
+                assertTrue(sessions.add(sessionID));
+                assertSame(shard, connector.shardOf(sessionID));
+            });
+        }
+        assertEquals(12, sessions.size());
+
+        //New sessions are pinned to a shard
+        SessionID newSessionID = new SessionID("FIX.4.3", "SHARDED_INITIATOR", "NEW_TARGET");
+        assertSame(connector.shardOf(newSessionID), connector.shardOf(newSessionID));
+
+        //One lifecycle
+        connector.start();
+        assertEquals(sessions, new HashSet<>(connector.getSessions()));
+        shards.forEach(shard -> assertFalse(shard.getSessions().isEmpty()));
+        assertFalse(connector.isLoggedOn());
+        connector.stop(true);
+        sessions.forEach(sessionID -> closeSession(sessionID));
+    }
+
+    @Test
+    public void sessionsAddedAtRuntimeGetTheShardOfARestart() throws Exception {
+        SessionSettings sessionSettings = settings("[default]\n"
+                + "ConnectionType=initiator\n"
+                + "Shards=8\n"
+                + "StartTime=00:00:00\n"
+                + "EndTime=00:00:00\n"
+                + "HeartBtInt=30\n"
+                + "ReconnectInterval=60\n"
+                + "SocketConnectHost=localhost\n"
+                + "SocketConnectPort=1\n"
+                + "BeginString=FIX.4.3\n"
+                + "SenderCompID=RUNTIME_INITIATOR\n"
+                + "[session]\nTargetCompID=T0\n");
+        SessionID existing = new SessionID("FIX.4.3", "RUNTIME_INITIATOR", "T0");
+        ShardedConnector connector = (ShardedConnector) FixConnectionType.INITIATOR_SHARDED
+                .createConnector(mock(Application.class), new MemoryStoreFactory(), sessionSettings, null,
+                        new DefaultMessageFactory());
+        assertEquals(1, connector.getShards().size());
+        SessionConnector existingShard = connector.shardOf(existing);
+        connector.start();
+        try {
+            //Pinned by the hash of the SessionID over Shards, as on startup
+            for (int i = 0; i < 32; i++) {
+                SessionID added = new SessionID("FIX.4.3", "RUNTIME_INITIATOR", "ADDED" + i);
+                boolean sameShard = Math.floorMod(added.hashCode(), 8) == Math.floorMod(existing.hashCode(), 8);
+                assertEquals(sameShard, existingShard == connector.shardOf(added));
+                assertSame(connector.shardOf(added), connector.shardOf(added));
+            }
+            //The shards are created on demand, and started with the connector
+            assertTrue(connector.getShards().size() > 1 && connector.getShards().size() <= 8);
+        } finally {
+            connector.stop(true);
+            closeSession(existing);
+        }
+    }
+
+    @Test
+    public void acceptorSessionsOfAPortShareAShard() throws Exception {
+        SessionSettings sessionSettings = settings("[default]\n"
+                + "ConnectionType=acceptor\n"
+                + "Sharded=Y\n"
+                + "Shards=4\n"
+                + "StartTime=00:00:00\n"
+                + "EndTime=00:00:00\n"
+                + "HeartBtInt=30\n"
+                + "BeginString=FIX.4.3\n"
+                + "SenderCompID=SHARDED_ACCEPTOR\n"
+                + "[session]\nTargetCompID=A1\nSocketAcceptPort=10001\n"
+                + "[session]\nTargetCompID=A2\nSocketAcceptPort=10001\n"
+                + "[session]\nTargetCompID=B1\nSocketAcceptPort=10002\n"
+                + "[session]\nTargetCompID=B2\nSocketAcceptPort=10002\n");
+        assertEquals(FixConnectionType.ACCEPTOR_SHARDED, FixConnectionType.of(sessionSettings));
+
+        ShardedConnector connector = (ShardedConnector) FixConnectionType.ACCEPTOR_SHARDED
+                .createConnector(mock(Application.class), new MemoryStoreFactory(), sessionSettings, null,
+                        new DefaultMessageFactory());
+
+        SessionConnector shardA = connector.shardOf(new SessionID("FIX.4.3", "SHARDED_ACCEPTOR", "A1"));
+        assertNotNull(shardA);
+        assertSame(shardA, connector.shardOf(new SessionID("FIX.4.3", "SHARDED_ACCEPTOR", "A2")));
+        SessionConnector shardB = connector.shardOf(new SessionID("FIX.4.3", "SHARDED_ACCEPTOR", "B1"));
+        assertSame(shardB, connector.shardOf(new SessionID("FIX.4.3", "SHARDED_ACCEPTOR", "B2")));
+        assertNotSame(shardA, shardB);
+        assertEquals(2, connector.getShards().size());
+    }
+
+    @Test
+    public void dedicatedSessionsHaveTheirOwnShard() throws Exception {
+        SessionSettings sessionSettings = settings("[default]\n"
+                + "ConnectionType=initiator\n"
+                + "Shards=1\n"
+                + "SocketConnectHost=localhost\n"
+                + "SocketConnectPort=1\n"
+                + "BeginString=FIX.4.3\n"
+                + "SenderCompID=DEDICATED_INITIATOR\n"
+                + "[session]\nTargetCompID=T1\n"
+                + "[session]\nTargetCompID=T2\n"
+                + "[session]\nTargetCompID=LATENCY_CRITICAL\nDedicatedThread=Y\n");
+
+        ShardedConnector connector = (ShardedConnector) FixConnectionType.INITIATOR_SHARDED
+                .createConnector(mock(Application.class), new MemoryStoreFactory(), sessionSettings, null,
+                        new DefaultMessageFactory());
+
+        assertEquals(2, connector.getShards().size());
+        SessionConnector dedicatedShard =
+                connector.shardOf(new SessionID("FIX.4.3", "DEDICATED_INITIATOR", "LATENCY_CRITICAL"));
+        assertEquals(1, FixSessionUtils.stream(dedicatedShard.getSettings()).count());
+        assertNotSame(dedicatedShard, connector.shardOf(new SessionID("FIX.4.3", "DEDICATED_INITIATOR", "T1")));
+    }
+
+    @Test
+    public void invalidShards() {
+        assertThrows(ConfigError.class, () -> FixConnectionType.INITIATOR_SHARDED
+                .createConnector(mock(Application.class), new MemoryStoreFactory(),
+                        settings("[default]\nConnectionType=initiator\nShards=x\n"), null,
+                        new DefaultMessageFactory()));
+    }
+
+    private static SessionSettings settings(String config) throws ConfigError {
+        return new SessionSettings(new ByteArrayInputStream(config.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static void closeSession(SessionID sessionID) {
+        try {
+            Session session = Session.lookupSession(sessionID);
+            if (session != null) {
+                session.close();
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -30,6 +30,8 @@ import quickfix.SessionSettings;
 import java.io.IOException;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class FixSessionsTest {
@@ -60,4 +62,25 @@ class FixSessionsTest {
         assertEquals(1, fixSessions.getFixSessions().size());
     }
 
+    @Test
+    void testRegisterSessionAtRuntime() {
+        GenericApplicationContext applicationContext = new GenericXmlApplicationContext();
+        applicationContext.refresh();
+        FixSessions fixSessions = new FixSessions(applicationContext, sessionSettings);
+        SessionID dynamicSessionID = new SessionID("FIX.4.3", "TEST_CLIENT", "DYNAMIC");
+
+        //Register a session bean for a session added at runtime
+        FixSession fixSession = fixSessions.registerSession("DYNAMIC_SESSION", dynamicSessionID);
+        assertEquals(dynamicSessionID, fixSession.getSessionId());
+        assertSame(fixSession, applicationContext.getBean("DYNAMIC_SESSION", FixSession.class));
+        assertSame(fixSession, fixSessions.retrieveSession("DYNAMIC_SESSION"));
+        assertEquals(2, fixSessions.getFixSessions().size());
+
+        //Unregister it again
+        fixSessions.unregisterSession(dynamicSessionID);
+        assertFalse(applicationContext.containsBean("DYNAMIC_SESSION"));
+        assertFalse(fixSessions.getFixSessionIDs().containsKey("DYNAMIC_SESSION"));
+        assertEquals(1, fixSessions.getFixSessions().size());
+    }
+
 }
\ No newline at end of file
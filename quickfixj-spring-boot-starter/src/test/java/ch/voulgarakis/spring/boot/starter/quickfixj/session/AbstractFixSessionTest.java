@@ -20,9 +20,22 @@ import ch.voulgarakis.spring.boot.starter.quickfixj.exception.QuickFixJConfigura
 import ch.voulgarakis.spring.boot.starter.quickfixj.exception.SessionDroppedException;
 import ch.voulgarakis.spring.boot.starter.quickfixj.exception.SessionException;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import ch.voulgarakis.spring.boot.starter.quickfixj.exception.RejectException;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.utils.RefIdSelector;
 import quickfix.Message;
 import quickfix.SessionID;
+import quickfix.field.MDReqID;
+import quickfix.field.QuoteID;
+import quickfix.field.QuoteReqID;
+import quickfix.fix43.MarketDataIncrementalRefresh;
+import quickfix.fix43.MarketDataRequestReject;
+import quickfix.fix43.MarketDataSnapshotFullRefresh;
+import quickfix.fix43.Quote;
+import quickfix.fix43.QuoteRequest;
+import quickfix.fix43.QuoteRequestReject;
 
+import java.time.Duration;
 import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -99,6 +112,28 @@ class AbstractFixSessionTest {
 
     }
 
+    @Test
+    void sinkMatching() {
+        AbstractFixSession session = new AbstractFixSession();
+        Consumer<Message> onMessage = mock(Consumer.class);
+        Consumer<Throwable> onError = mock(Consumer.class);
+
+        Quote quote = new Quote(new QuoteID("quoteId"));
+
+        //No sink
+        session.received(quote);
+        //One sink
+        session.createSink(message -> true, onMessage, onError);
+        session.received(quote);
+        //Two sinks
+        session.createSink(message -> true, onMessage, onError);
+        session.received(quote);
+
+        assertEquals(1, session.getMatchedMessages());
+        assertEquals(1, session.getUnmatchedMessages());
+        assertEquals(1, session.getAmbiguousMessages());
+    }
+
     @Test
     void received() {
         AbstractFixSession session = new AbstractFixSession();
@@ -173,4 +208,122 @@ class AbstractFixSessionTest {
         assertEquals(sessionID, session.getSessionId());
         assertEquals("TEST_CLIENT_SESSION", session.getSessionName());
     }
-}
\ No newline at end of file
+
+    @Test
+    void lastValueCache() {
+        AbstractFixSession session = new AbstractFixSession();
+        session.enableLastValueCache(10, Duration.ofMinutes(1));
+
+        //Quotes received before anybody subscribed
+        session.received(quote("req1", "quote1"));
+        Quote latest = quote("req1", "quote2");
+        session.received(latest);
+        Quote other = quote("req2", "quote3");
+        session.received(other);
+
+        //A late subscriber receives the latest quote of its request immediately
+        Consumer<Message> onMessage = mock(Consumer.class);
+        Consumer<Throwable> onError = mock(Consumer.class);
+        session.createSink(new RefIdSelector(new QuoteRequest(new QuoteReqID("req1"))), onMessage, onError);
+        verify(onMessage).accept(latest);
+        verifyNoMoreInteractions(onMessage, onError);
+
+        //A reject invalidates the last value of the request
+        QuoteRequestReject reject = new QuoteRequestReject();
+        reject.set(new QuoteReqID("req2"));
+        session.error(new RejectException(reject, "rejected"));
+        Consumer<Message> onMessage2 = mock(Consumer.class);
+        session.createSink(new RefIdSelector(new QuoteRequest(new QuoteReqID("req2"))), onMessage2,
+                mock(Consumer.class));
+        verifyNoInteractions(onMessage2);
+
+        //Dropping the session clears the cache
+        session.error(new SessionDroppedException());
+        session.loggedOn();
+        Consumer<Message> onMessage3 = mock(Consumer.class);
+        session.createSink(message -> true, onMessage3, mock(Consumer.class));
+        verifyNoInteractions(onMessage3);
+    }
+
+    @Test
+    void lastValueCacheBoundedAndExpiring() {
+        AbstractFixSession session = new AbstractFixSession();
+        session.enableLastValueCache(2, Duration.ofMinutes(1));
+        for (int i = 0; i < 5; i++) {
+            session.received(quote("req" + i, "quote" + i));
+        }
+        Consumer<Message> onMessage = mock(Consumer.class);
+        session.createSink(message -> true, onMessage, mock(Consumer.class));
+        //Only the 2 most recently updated are kept
+        verify(onMessage, times(2)).accept(any());
+
+        AbstractFixSession expiring = new AbstractFixSession();
+        expiring.enableLastValueCache(2, Duration.ZERO);
+        expiring.received(quote("req1", "quote1"));
+        Consumer<Message> onExpired = mock(Consumer.class);
+        expiring.createSink(message -> true, onExpired, mock(Consumer.class));
+        verifyNoInteractions(onExpired);
+    }
+
+    @Test
+    void lastValueCacheKeepsSnapshotsPerType() {
+        AbstractFixSession session = new AbstractFixSession();
+        session.enableLastValueCache(10, Duration.ofMinutes(1));
+
+        //Same request id, different types of responses
+        Quote quote = quote("req1", "quote1");
+        session.received(quote);
+        MarketDataSnapshotFullRefresh snapshot = new MarketDataSnapshotFullRefresh();
+        snapshot.set(new MDReqID("req1"));
+        session.received(snapshot);
+        MarketDataIncrementalRefresh incremental = new MarketDataIncrementalRefresh();
+        incremental.set(new MDReqID("req1"));
+        session.received(incremental);
+
+        //Both snapshots are kept, the incremental refresh is not
+        Consumer<Message> onMessage = mock(Consumer.class);
+        session.createSink(message -> true, onMessage, mock(Consumer.class));
+        verify(onMessage).accept(quote);
+        verify(onMessage).accept(snapshot);
+        verifyNoMoreInteractions(onMessage);
+
+        //A market data request reject only invalidates the market data snapshot
+        MarketDataRequestReject reject = new MarketDataRequestReject();
+        reject.set(new MDReqID("req1"));
+        session.error(new RejectException(reject, "rejected"));
+        Consumer<Message> onMessage2 = mock(Consumer.class);
+        session.createSink(message -> true, onMessage2, mock(Consumer.class));
+        verify(onMessage2).accept(quote);
+        verifyNoMoreInteractions(onMessage2);
+    }
+
+    @Test
+    void lastValueReplayedOutsideTheSessionLock() {
+        AbstractFixSession session = new AbstractFixSession();
+        session.enableLastValueCache(10, Duration.ofMinutes(1));
+        Quote cached = quote("req1", "quote1");
+        session.received(cached);
+
+        //A message received (from another thread) while the last value is replayed, is delivered after it
+        Quote received = quote("req1", "quote2");
+        Consumer<Message> onMessage = mock(Consumer.class);
+        doAnswer(invocation -> {
+            Thread thread = new Thread(() -> session.received(received));
+            thread.start();
+            thread.join();
+            return null;
+        }).doNothing().when(onMessage).accept(any());
+        session.createSink(message -> true, onMessage, mock(Consumer.class));
+
+        InOrder inOrder = inOrder(onMessage);
+        inOrder.verify(onMessage).accept(cached);
+        inOrder.verify(onMessage).accept(received);
+        verifyNoMoreInteractions(onMessage);
+    }
+
+    private static Quote quote(String quoteReqId, String quoteId) {
+        Quote quote = new Quote(new QuoteID(quoteId));
+        quote.set(new QuoteReqID(quoteReqId));
+        return quote;
+    }
+}
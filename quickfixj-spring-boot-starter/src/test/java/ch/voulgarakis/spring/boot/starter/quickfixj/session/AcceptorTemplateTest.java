@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session;
+
+import ch.voulgarakis.spring.boot.starter.quickfixj.authentication.AuthenticationService;
+import ch.voulgarakis.spring.boot.starter.quickfixj.exception.SessionDroppedException;
+import ch.voulgarakis.spring.boot.starter.quickfixj.fix.session.FixSessionImpl;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.logging.LoggingId;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.settings.OnSettingsChangeDynamicAcceptorSessionProvider;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.utils.StartupLatch;
+import org.junit.jupiter.api.Test;
+import quickfix.DefaultMessageFactory;
+import quickfix.MemoryStoreFactory;
+import quickfix.Message;
+import quickfix.Session;
+import quickfix.SessionID;
+import quickfix.SessionSettings;
+import quickfix.field.BeginString;
+import quickfix.field.QuoteReqID;
+import quickfix.field.SenderCompID;
+import quickfix.field.TargetCompID;
+import quickfix.fix43.Quote;
+import quickfix.mina.SessionConnector;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class AcceptorTemplateTest {
+
+    private static final SessionID TEMPLATE = new SessionID("FIX.4.3", "TEMPLATE_ACCEPTOR", "*");
+    private static final SessionID CLIENT1 = new SessionID("FIX.4.3", "TEMPLATE_ACCEPTOR", "CLIENT1");
+    private static final SessionID CLIENT2 = new SessionID("FIX.4.3", "TEMPLATE_ACCEPTOR", "CLIENT2");
+
+    @Test
+    public void testTemplateMatching() {
+        assertTrue(FixSessionUtils.isTemplate(TEMPLATE));
+        assertFalse(FixSessionUtils.isTemplate(CLIENT1));
+        assertTrue(FixSessionUtils.matchesTemplate(TEMPLATE, CLIENT1));
+        assertFalse(FixSessionUtils.matchesTemplate(TEMPLATE, new SessionID("FIX.4.4", "TEMPLATE_ACCEPTOR", "C")));
+
+        Quote quote = new Quote();
+        quote.getHeader().setString(TargetCompID.FIELD, "CLIENT2");
+        assertEquals(CLIENT2, FixSessionUtils.resolveTemplate(TEMPLATE, quote));
+    }
+
+    @Test
+    public void testSessionsCreatedFromTemplateShareItsReceiver() throws Exception {
+        SessionSettings sessionSettings = new SessionSettings(new ByteArrayInputStream(("[default]\n"
+                + "ConnectionType=acceptor\n"
+                + "StartTime=00:00:00\n"
+                + "EndTime=00:00:00\n"
+                + "HeartBtInt=30\n"
+                + "UseDataDictionary=N\n"
+                + "SocketAcceptPort=0\n"
+                + "[session]\n"
+                + "BeginString=FIX.4.3\n"
+                + "SenderCompID=TEMPLATE_ACCEPTOR\n"
+                + "TargetCompID=*\n"
+                + "AcceptorTemplate=Y\n").getBytes(StandardCharsets.UTF_8)));
+
+        //The receiver of the template
+        FixSessionImpl templateSession = new FixSessionImpl(TEMPLATE);
+        FixSessionManager fixSessionManager = new FixSessionManager(
+                Collections.singletonMap(TEMPLATE, templateSession), FixConnectionType.ACCEPTOR,
+                new StartupLatch(0, FixConnectionType.ACCEPTOR, Duration.ZERO), new LoggingId(),
+                mock(AuthenticationService.class));
+        DynamicFixSessions dynamicFixSessions = new DynamicFixSessions(fixSessionManager, Collections.emptyList());
+        SessionConnector connector = mock(SessionConnector.class);
+        OnSettingsChangeDynamicAcceptorSessionProvider provider = new OnSettingsChangeDynamicAcceptorSessionProvider(
+                sessionSettings, connector, fixSessionManager, new MemoryStoreFactory(), null,
+                new DefaultMessageFactory(), dynamicFixSessions);
+
+        //Sessions of the counterparties are created from the template, on logon
+        Session session1 = provider.getSession(CLIENT1, connector);
+        Session session2 = provider.getSession(CLIENT2, connector);
+        assertNotNull(session1);
+        assertNotNull(session2);
+        verify(connector).addDynamicSession(session1);
+        verify(connector).addDynamicSession(session2);
+        //Kept by the provider, not added to the session settings
+        assertFalse(FixSessionUtils.contains(sessionSettings, CLIENT1));
+        assertEquals(TEMPLATE, FixSessionUtils.settingsOf(sessionSettings, CLIENT1));
+        assertEquals(new HashSet<>(Arrays.asList(CLIENT1, CLIENT2)), provider.getCounterparties(TEMPLATE));
+        //Not matching the template
+        assertNull(provider.getSession(new SessionID("FIX.4.4", "TEMPLATE_ACCEPTOR", "CLIENT3"), connector));
+
+        //Both are received by the receiver of the template
+        assertTrue(fixSessionManager.isManaged(CLIENT1));
+        assertTrue(fixSessionManager.isManaged(CLIENT2));
+        fixSessionManager.onCreate(CLIENT1);
+        fixSessionManager.onCreate(CLIENT2);
+
+        //Subscriptions are partitioned per counterparty
+        List<Message> received1 = new ArrayList<>();
+        List<Throwable> errors1 = new ArrayList<>();
+        List<Message> received2 = new ArrayList<>();
+        List<Throwable> errors2 = new ArrayList<>();
+        templateSession.createSink(CLIENT1, message -> true, received1::add, errors1::add);
+        templateSession.createSink(CLIENT2, message -> true, received2::add, errors2::add);
+
+        fixSessionManager.fromApp(quoteFrom("CLIENT1"), CLIENT1);
+        assertEquals(1, received1.size());
+        assertEquals(0, received2.size());
+
+        //Only the subscriptions of the counterparty are dropped
+        fixSessionManager.onLogout(CLIENT1);
+        assertEquals(1, errors1.size());
+        assertTrue(errors1.get(0) instanceof SessionDroppedException);
+        assertTrue(errors2.isEmpty());
+
+        fixSessionManager.fromApp(quoteFrom("CLIENT2"), CLIENT2);
+        assertEquals(1, received2.size());
+
+        //Removed counterparties are no longer received
+        dynamicFixSessions.unregister(CLIENT2);
+        assertFalse(fixSessionManager.isManaged(CLIENT2));
+        assertEquals(1, errors2.size());
+
+        session1.close();
+        session2.close();
+    }
+
+    private static Quote quoteFrom(String counterparty) {
+        Quote quote = new Quote();
+        quote.getHeader().setString(BeginString.FIELD, "FIX.4.3");
+        quote.getHeader().setString(SenderCompID.FIELD, counterparty);
+        quote.getHeader().setString(TargetCompID.FIELD, "TEMPLATE_ACCEPTOR");
+        quote.setString(QuoteReqID.FIELD, "REQ");
+        return quote;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.book;
+
+import org.junit.jupiter.api.Test;
+import quickfix.field.*;
+import quickfix.fix43.MarketDataIncrementalRefresh;
+import quickfix.fix43.MarketDataSnapshotFullRefresh;
+import quickfix.fix43.Quote;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderBookTest {
+
+    @Test
+    public void testSnapshotAndIncrementalRefresh() {
+        OrderBook book = new OrderBook("md1");
+
+        MarketDataSnapshotFullRefresh snapshot = new MarketDataSnapshotFullRefresh();
+        snapshot.set(new MDReqID("md1"));
+        snapshot.addGroup(snapshotEntry(MDEntryType.BID, 1.10, 100));
+        snapshot.addGroup(snapshotEntry(MDEntryType.BID, 1.12, 200));
+        snapshot.addGroup(snapshotEntry(MDEntryType.OFFER, 1.15, 300));
+        snapshot.addGroup(snapshotEntry(MDEntryType.OFFER, 1.13, 400));
+        snapshot.addGroup(snapshotEntry(MDEntryType.TRADE, 1.14, 10));
+        assertTrue(book.apply(snapshot));
+
+        OrderBookSnapshot first = book.snapshot();
+        assertEquals(2, first.getBidDepth());
+        assertEquals(2, first.getOfferDepth());
+        assertEquals(1.12, first.getBestBid());
+        assertEquals(1.10, first.getBidPrice(1));
+        assertEquals(1.13, first.getBestOffer());
+        assertEquals(300, first.getOfferSize(1));
+        assertEquals(1, first.getVersion());
+
+        MarketDataIncrementalRefresh incremental = new MarketDataIncrementalRefresh();
+        incremental.set(new MDReqID("md1"));
+        incremental.addGroup(incrementalEntry(MDUpdateAction.NEW, MDEntryType.BID, 1.11, 50));
+        incremental.addGroup(incrementalEntry(MDUpdateAction.CHANGE, MDEntryType.BID, 1.12, 250));
+        incremental.addGroup(incrementalEntry(MDUpdateAction.DELETE, MDEntryType.OFFER, 1.13, 0));
+        assertTrue(book.apply(incremental));
+
+        OrderBookSnapshot second = book.snapshot();
+        assertEquals(3, second.getBidDepth());
+        assertEquals(1.12, second.getBestBid());
+        assertEquals(250, second.getBidSize(0));
+        assertEquals(1.11, second.getBidPrice(1));
+        assertEquals(1, second.getOfferDepth());
+        assertEquals(1.15, second.getBestOffer());
+        assertEquals(2, second.getVersion());
+        //Snapshots are immutable
+        assertEquals(2, first.getBidDepth());
+
+        //A full refresh replaces the book
+        MarketDataSnapshotFullRefresh empty = new MarketDataSnapshotFullRefresh();
+        assertTrue(book.apply(empty));
+        assertEquals(0, book.snapshot().getBidDepth());
+        assertTrue(Double.isNaN(book.snapshot().getBestOffer()));
+
+        assertFalse(book.apply(new Quote(new QuoteID("q1"))));
+    }
+
+    @Test
+    public void testManyLevels() {
+        OrderBook book = new OrderBook("md1");
+        MarketDataIncrementalRefresh incremental = new MarketDataIncrementalRefresh();
+        for (int i = 0; i < 100; i++) {
+            incremental.addGroup(incrementalEntry(MDUpdateAction.NEW, MDEntryType.OFFER, 100 - i, i + 1));
+        }
+        book.apply(incremental);
+        OrderBookSnapshot snapshot = book.snapshot();
+        assertEquals(100, snapshot.getOfferDepth());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(1 + i, snapshot.getOfferPrice(i));
+        }
+    }
+
+    private static MarketDataSnapshotFullRefresh.NoMDEntries snapshotEntry(char type, double price, double size) {
+        MarketDataSnapshotFullRefresh.NoMDEntries entry = new MarketDataSnapshotFullRefresh.NoMDEntries();
+        entry.set(new MDEntryType(type));
+        entry.set(new MDEntryPx(price));
+        entry.set(new MDEntrySize(size));
+        return entry;
+    }
+
+    private static MarketDataIncrementalRefresh.NoMDEntries incrementalEntry(char action, char type, double price,
+            double size) {
+        MarketDataIncrementalRefresh.NoMDEntries entry = new MarketDataIncrementalRefresh.NoMDEntries();
+        entry.set(new MDUpdateAction(action));
+        entry.set(new MDEntryType(type));
+        entry.set(new MDEntryPx(price));
+        entry.set(new MDEntrySize(size));
+        return entry;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.dispatch;
+
+import ch.voulgarakis.spring.boot.starter.quickfixj.exception.QuickFixJConfigurationException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import quickfix.SessionID;
+import quickfix.SessionSettings;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionDispatcherTest {
+
+    private static final SessionID DEDICATED = new SessionID("FIX.4.3", "SENDER", "DEDICATED");
+    private static final SessionID SHARED = new SessionID("FIX.4.3", "SENDER", "SHARED");
+
+    @Test
+    public void testDedicatedThread() throws Exception {
+        for (WaitStrategy waitStrategy : WaitStrategy.values()) {
+            List<Integer> pinned = new CopyOnWriteArrayList<>();
+            SessionDispatcher sessionDispatcher = new SessionDispatcher(settings(waitStrategy.name()),
+                    (sessionID, cpu) -> {
+                        assertEquals(DEDICATED, sessionID);
+                        pinned.add(cpu);
+                    });
+
+            //Processed on the dedicated thread, in order
+            List<Integer> processed = new CopyOnWriteArrayList<>();
+            List<Thread> threads = new CopyOnWriteArrayList<>();
+            CountDownLatch latch = new CountDownLatch(1000);
+            for (int i = 0; i < 1000; i++) {
+                int message = i;
+                sessionDispatcher.dispatch(DEDICATED, () -> {
+                    processed.add(message);
+                    threads.add(Thread.currentThread());
+                    latch.countDown();
+                });
+            }
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            assertEquals(IntStream.range(0, 1000).boxed().collect(Collectors.toList()), processed);
+            Thread dedicatedThread = sessionDispatcher.dedicatedThread(DEDICATED);
+            assertNotNull(dedicatedThread);
+            assertTrue(threads.stream().allMatch(dedicatedThread::equals));
+            assertEquals(List.of(2), pinned);
+
+            //Other sessions are processed on the caller thread
+            List<Thread> sharedThreads = new CopyOnWriteArrayList<>();
+            sessionDispatcher.dispatch(SHARED, () -> sharedThreads.add(Thread.currentThread()));
+            assertEquals(List.of(Thread.currentThread()), sharedThreads);
+            assertNull(sessionDispatcher.dedicatedThread(SHARED));
+            assertNull(sessionDispatcher.dedicatedThreadOf(SHARED));
+            assertNotNull(sessionDispatcher.dedicatedThreadOf(DEDICATED));
+
+            //Stopped on close
+            sessionDispatcher.close();
+            assertFalse(dedicatedThread.isAlive());
+        }
+    }
+
+    @Test
+    public void testFailuresAreCounted() throws Exception {
+        SessionDispatcher sessionDispatcher = new SessionDispatcher(settings(WaitStrategy.BLOCKING.name()),
+                AffinityProvider.NONE);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        sessionDispatcher.setMeterRegistry(meterRegistry);
+
+        //The failure does not stop the dedicated thread
+        CountDownLatch latch = new CountDownLatch(1);
+        sessionDispatcher.dispatch(DEDICATED, () -> {
+            throw new IllegalStateException("Failed");
+        });
+        sessionDispatcher.dispatch(DEDICATED, latch::countDown);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(1, sessionDispatcher.getFailures());
+        assertEquals(1, meterRegistry.get("quickfixj.dispatch.failures").functionCounter().count());
+        sessionDispatcher.close();
+    }
+
+    @Test
+    public void testInvalidWaitStrategy() throws Exception {
+        SessionDispatcher sessionDispatcher = new SessionDispatcher(settings("SLEEPING"), AffinityProvider.NONE);
+        assertThrows(QuickFixJConfigurationException.class, () -> sessionDispatcher.dispatch(DEDICATED, () -> {
+        }));
+    }
+
+    private static SessionSettings settings(String waitStrategy) throws Exception {
+        return new SessionSettings(new ByteArrayInputStream(("[default]\n"
+                + "ConnectionType=initiator\n"
+                + "BeginString=FIX.4.3\n"
+                + "SenderCompID=SENDER\n"
+                + "[session]\n"
+                + "TargetCompID=DEDICATED\n"
+                + "DedicatedThread=Y\n"
+                + "WaitStrategy=" + waitStrategy + "\n"
+                + "CpuAffinity=2\n"
+                + "[session]\n"
+                + "TargetCompID=SHARED\n").getBytes(StandardCharsets.UTF_8)));
+    }
+}
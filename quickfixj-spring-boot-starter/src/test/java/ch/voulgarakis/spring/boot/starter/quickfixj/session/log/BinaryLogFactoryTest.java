@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.log;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import quickfix.Log;
+import quickfix.SessionID;
+import quickfix.field.MsgType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BinaryLogFactoryTest {
+
+    private static final SessionID SESSION_ID = new SessionID("FIX.4.3", "SENDER", "TARGET");
+    private static final SessionID OTHER_SESSION_ID = new SessionID("FIX.4.3", "SENDER", "OTHER");
+
+    private static final String HEARTBEAT = "8=FIX.4.3\u00019=5\u000135=0\u000110=000\u0001";
+    private static final String QUOTE = "8=FIX.4.3\u00019=5\u000135=S\u0001117=1\u000110=000\u0001";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testWriteAndSearch() throws IOException {
+        Instant start = Instant.now();
+        BinaryLogFactory factory = new BinaryLogFactory(directory, 1024 * 1024, false, 1000);
+        Log log = factory.create(SESSION_ID);
+        Log otherLog = factory.create(OTHER_SESSION_ID);
+        log.onEvent("Session created");
+        log.onIncoming(HEARTBEAT);
+        log.onIncoming(QUOTE);
+        otherLog.onOutgoing(QUOTE);
+        log.onErrorEvent("Something went wrong");
+        factory.close();
+
+        BinaryLogReader reader = new BinaryLogReader(directory);
+        List<BinaryLogRecord> all = reader.search(null, null, null, null);
+        assertEquals(5, all.size());
+        assertEquals(BinaryLogRecord.Kind.EVENT, all.get(0).getKind());
+        assertEquals("Session created", all.get(0).getText());
+        assertTrue(!all.get(0).getTimestamp().isBefore(start.minusMillis(1)));
+
+        List<BinaryLogRecord> session = reader.search(SESSION_ID, null, null, null);
+        assertEquals(4, session.size());
+
+        List<BinaryLogRecord> quotes = reader.search(null, null, null, MsgType.QUOTE);
+        assertEquals(2, quotes.size());
+        assertEquals(OTHER_SESSION_ID, quotes.get(1).getSessionID());
+        assertEquals(BinaryLogRecord.Kind.OUTGOING, quotes.get(1).getKind());
+        assertEquals(QUOTE, quotes.get(1).getText());
+
+        assertEquals(0, reader.search(null, Instant.now().plusSeconds(60), null, null).size());
+        assertEquals(0, reader.search(null, null, start.minusSeconds(60), null).size());
+    }
+
+    @Test
+    public void testRollingCompressedSegments() throws IOException {
+        BinaryLogFactory factory = new BinaryLogFactory(directory, 256, true, 1000);
+        Log log = factory.create(SESSION_ID);
+        for (int i = 0; i < 100; i++) {
+            log.onIncoming(i % 2 == 0 ? HEARTBEAT : QUOTE);
+        }
+        factory.close();
+
+        assertTrue(BinaryLogReader.listSegments(directory).size() > 1);
+        BinaryLogReader reader = new BinaryLogReader(directory);
+        List<BinaryLogRecord> records = reader.search(SESSION_ID, null, null, MsgType.HEARTBEAT);
+        assertEquals(50, records.size());
+        assertEquals(1, records.stream().map(BinaryLogRecord::getText).distinct().collect(Collectors.toList()).size());
+
+        //Appending after a restart continues with new segments
+        int segments = BinaryLogReader.listSegments(directory).size();
+        factory = new BinaryLogFactory(directory, 256, true, 1000);
+        factory.create(SESSION_ID).onIncoming(QUOTE);
+        factory.close();
+        assertEquals(segments + 1, BinaryLogReader.listSegments(directory).size());
+        assertEquals(51, reader.search(SESSION_ID, null, null, MsgType.QUOTE).size());
+    }
+
+    @Test
+    public void testFailedSegmentStopsTheWriter() throws IOException {
+        BinaryLogWriter writer = new BinaryLogWriter(directory, 1024 * 1024, false, 1000);
+        //No segment can be created once the directory is replaced by a file
+        Files.delete(directory);
+        Files.createFile(directory);
+
+        writer.append(SESSION_ID, BinaryLogRecord.Kind.INCOMING, HEARTBEAT);
+        await().until(() -> writer.getDroppedRecords() == 1);
+        writer.append(SESSION_ID, BinaryLogRecord.Kind.INCOMING, QUOTE);
+        writer.append(SESSION_ID, BinaryLogRecord.Kind.OUTGOING, QUOTE);
+        assertEquals(3, writer.getDroppedRecords());
+        writer.close();
+        assertEquals(3, writer.getDroppedRecords());
+    }
+
+    @Test
+    public void testRecordsAppendedAfterCloseAreCounted() throws IOException {
+        BinaryLogWriter writer = new BinaryLogWriter(directory, 1024 * 1024, false, 1000);
+        writer.append(SESSION_ID, BinaryLogRecord.Kind.INCOMING, HEARTBEAT);
+        writer.close();
+        writer.append(SESSION_ID, BinaryLogRecord.Kind.INCOMING, QUOTE);
+        assertEquals(1, writer.getDroppedRecords());
+
+        List<BinaryLogRecord> records = new BinaryLogReader(directory).search(SESSION_ID, null, null, null);
+        assertEquals(1, records.size());
+        assertEquals(HEARTBEAT, records.get(0).getText());
+    }
+}
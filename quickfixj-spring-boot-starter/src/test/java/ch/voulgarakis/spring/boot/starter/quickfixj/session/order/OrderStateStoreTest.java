@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.order;
+
+import org.junit.jupiter.api.Test;
+import quickfix.field.*;
+import quickfix.fix43.ExecutionReport;
+import quickfix.fix43.OrderCancelReject;
+import quickfix.fix43.Quote;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderStateStoreTest {
+
+    @Test
+    public void testOrderLifecycle() {
+        OrderStateStore store = new OrderStateStore(100);
+
+        store.update(executionReport("order1", null, "ex1", OrdStatus.NEW, 100, 0, 100, 0));
+        OrderState state = store.getByClOrdId("order1").orElseThrow(AssertionError::new);
+        assertEquals("ex1", state.getOrderId());
+        assertEquals(OrdStatus.NEW, state.getOrdStatus());
+        assertEquals(100, state.getLeavesQty());
+        assertEquals(Side.BUY, state.getSide());
+        assertEquals("EUR/USD", state.getSymbol());
+        assertEquals(1, store.getOpenOrders().size());
+
+        ExecutionReport fill = executionReport("order1", null, "ex1", OrdStatus.PARTIALLY_FILLED, 100, 40, 60, 1.1);
+        fill.set(new LastQty(40));
+        fill.set(new LastPx(1.1));
+        store.update(fill);
+        state = store.getByOrderId("ex1").orElseThrow(AssertionError::new);
+        assertEquals(40, state.getCumQty());
+        assertEquals(1.1, state.getAvgPx());
+        assertEquals(40, state.getLastQty());
+
+        //Cancel/replace: the new ClOrdID refers to the same order
+        store.update(executionReport("order2", "order1", "ex1", OrdStatus.REPLACED, 200, 40, 160, 1.1));
+        assertEquals("order2", store.getByClOrdId("order1").map(OrderState::getClOrdId).orElse(null));
+        assertEquals(200, store.getByClOrdId("order2").map(OrderState::getOrderQty).orElse(0.0));
+        assertEquals(1, store.size());
+
+        //Rejected cancel
+        OrderCancelReject reject = new OrderCancelReject(new OrderID("ex1"), new ClOrdID("order3"),
+                new OrigClOrdID("order2"), new OrdStatus(OrdStatus.PARTIALLY_FILLED),
+                new CxlRejResponseTo(CxlRejResponseTo.ORDER_CANCEL_REQUEST));
+        reject.set(new Text("too late"));
+        assertTrue(store.update(reject));
+        state = store.getByClOrdId("order3").orElseThrow(AssertionError::new);
+        assertTrue(state.isCancelRejected());
+        assertEquals("too late", state.getText());
+        assertEquals("order2", state.getClOrdId());
+
+        store.update(executionReport("order2", null, "ex1", OrdStatus.FILLED, 200, 200, 0, 1.15));
+        state = store.getByClOrdId("order1").orElseThrow(AssertionError::new);
+        assertTrue(state.isTerminal());
+        assertFalse(state.isCancelRejected());
+        assertTrue(store.getOpenOrders().isEmpty());
+
+        assertFalse(store.update(new Quote(new QuoteID("q1"))));
+        assertFalse(store.getByClOrdId("unknown").isPresent());
+    }
+
+    @Test
+    public void testStoppedAndDoneForDayAreOpen() {
+        OrderStateStore store = new OrderStateStore(10);
+        store.update(executionReport("order1", null, "ex1", OrdStatus.STOPPED, 100, 0, 100, 0));
+        store.update(executionReport("order2", null, "ex2", OrdStatus.DONE_FOR_DAY, 100, 40, 60, 1.1));
+        assertFalse(store.getByClOrdId("order1").orElseThrow(AssertionError::new).isTerminal());
+        assertFalse(store.getByClOrdId("order2").orElseThrow(AssertionError::new).isTerminal());
+        assertEquals(2, store.getOpenOrders().size());
+
+        store.update(executionReport("order2", null, "ex2", OrdStatus.EXPIRED, 100, 40, 0, 1.1));
+        assertTrue(store.getByClOrdId("order2").orElseThrow(AssertionError::new).isTerminal());
+        assertEquals(1, store.getOpenOrders().size());
+    }
+
+    @Test
+    public void testEviction() {
+        OrderStateStore store = new OrderStateStore(2);
+        store.update(executionReport("order1", null, "ex1", OrdStatus.NEW, 100, 0, 100, 0));
+        store.update(executionReport("order2", null, "ex2", OrdStatus.NEW, 100, 0, 100, 0));
+        //Update order1, so that order2 is the least recently updated
+        store.update(executionReport("order1", null, "ex1", OrdStatus.PARTIALLY_FILLED, 100, 10, 90, 1));
+        store.update(executionReport("order3", null, "ex3", OrdStatus.NEW, 100, 0, 100, 0));
+
+        assertEquals(2, store.size());
+        assertTrue(store.getByClOrdId("order1").isPresent());
+        assertFalse(store.getByClOrdId("order2").isPresent());
+        assertFalse(store.getByOrderId("ex2").isPresent());
+        assertTrue(store.getByOrderId("ex3").isPresent());
+    }
+
+    private static ExecutionReport executionReport(String clOrdId, String origClOrdId, String orderId,
+            char ordStatus, double orderQty, double cumQty, double leavesQty, double avgPx) {
+        ExecutionReport executionReport = new ExecutionReport();
+        executionReport.set(new ClOrdID(clOrdId));
+        if (origClOrdId != null) {
+            executionReport.set(new OrigClOrdID(origClOrdId));
+        }
+        executionReport.set(new OrderID(orderId));
+        executionReport.set(new OrdStatus(ordStatus));
+        executionReport.set(new Side(Side.BUY));
+        executionReport.set(new Symbol("EUR/USD"));
+        executionReport.set(new OrderQty(orderQty));
+        executionReport.set(new CumQty(cumQty));
+        executionReport.set(new LeavesQty(leavesQty));
+        executionReport.set(new AvgPx(avgPx));
+        return executionReport;
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.settings;
+
+import org.junit.jupiter.api.Test;
+import quickfix.ConfigError;
+import quickfix.SessionID;
+import quickfix.SessionSettings;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BaseSessionSettingsTest {
+
+    @Test
+    public void testSameAsQuickfixj() throws ConfigError {
+        BaseSessionSettings actual = new BaseSessionSettings("quickfixj.cfg");
+        SessionSettings expected = new SessionSettings("quickfixj.cfg");
+
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.getDefaultProperties(), actual.getDefaultProperties());
+        Iterator<SessionID> it = expected.sectionIterator();
+        while (it.hasNext()) {
+            SessionID sessionID = it.next();
+            assertEquals(expected.get(sessionID).toMap(), actual.get(sessionID).toMap());
+            assertEquals(expected.getString(sessionID, "HeartBtInt"), actual.getString(sessionID, "HeartBtInt"));
+        }
+    }
+
+    @Test
+    public void testParsing() throws ConfigError {
+        String config = "# comment\r\n"
+                + "[ DEFAULT ]\n"
+                + "  ConnectionType = initiator  \n"
+                + "\n"
+                + "[SESSION]\n"
+                + "BeginString=FIX.4.3\n"
+                + "SenderCompID=SENDER\n"
+                + "TargetCompID=TARGET\n"
+                + "Password=a=b#c\n";
+        BaseSessionSettings settings =
+                new BaseSessionSettings(new ByteArrayInputStream(config.getBytes(StandardCharsets.UTF_8)));
+
+        SessionID sessionID = new SessionID("FIX.4.3", "SENDER", "TARGET");
+        assertEquals(1, settings.size());
+        assertEquals("initiator", settings.getString("ConnectionType"));
+        assertEquals("initiator", settings.getString(sessionID, "ConnectionType"));
+        assertEquals("a=b#c", settings.getString(sessionID, "Password"));
+        assertFalse(settings.isSetting(sessionID, "comment"));
+        assertThrows(ConfigError.class, () -> settings.getString(sessionID, "Undefined"));
+    }
+
+    @Test
+    public void testInterpolation() throws ConfigError {
+        BaseSessionSettings settings = new BaseSessionSettings();
+        SessionID sessionID = new SessionID("FIX.4.3", "SENDER", "TARGET");
+        settings.setString(sessionID, "Host", "${host}:${port}");
+        settings.setString(sessionID, "Escaped", "\\${host}");
+        settings.setString(sessionID, "Unknown", "${unknown}");
+
+        Properties variables = new Properties();
+        variables.setProperty("host", "localhost");
+        variables.setProperty("port", "$1");
+        settings.setVariableValues(variables);
+        assertEquals("localhost:$1", settings.getString(sessionID, "Host"));
+        assertEquals("\\${host}", settings.getString(sessionID, "Escaped"));
+        assertEquals("${unknown}", settings.getString(sessionID, "Unknown"));
+
+        //Changes of the variable values are picked up once notified
+        variables.setProperty("host", "remote");
+        assertEquals("localhost:$1", settings.getString(sessionID, "Host"));
+        settings.variableValuesChanged();
+        assertEquals("remote:$1", settings.getString(sessionID, "Host"));
+    }
+
+    @Test
+    public void testChangesVisible() throws ConfigError {
+        BaseSessionSettings settings = new BaseSessionSettings();
+        SessionID sessionID = new SessionID("FIX.4.3", "SENDER", "TARGET");
+        settings.setString(sessionID, "Key", "session");
+        settings.setString("Default", "default");
+        assertEquals("session", settings.getString(sessionID, "Key"));
+        assertEquals("default", settings.getString(sessionID, "Default"));
+
+        settings.setString("Default", "changed");
+        assertEquals("changed", settings.getString(sessionID, "Default"));
+
+        //Also when modified directly
+        settings.getSessionProperties(sessionID).setProperty("Key", "direct");
+        assertEquals("direct", settings.getString(sessionID, "Key"));
+        settings.removeSetting(sessionID, "Key");
+        assertFalse(settings.isSetting(sessionID, "Key"));
+
+        Properties properties = settings.getSessionProperties(sessionID);
+        properties.putIfAbsent("Key", "absent");
+        assertEquals("absent", settings.getString(sessionID, "Key"));
+        properties.replace("Key", "replaced");
+        assertEquals("replaced", settings.getString(sessionID, "Key"));
+        properties.replace("Key", "replaced", "conditionally");
+        assertEquals("conditionally", settings.getString(sessionID, "Key"));
+        properties.compute("Key", (key, value) -> value + "!");
+        assertEquals("conditionally!", settings.getString(sessionID, "Key"));
+        properties.computeIfPresent("Key", (key, value) -> "present");
+        assertEquals("present", settings.getString(sessionID, "Key"));
+        properties.merge("Key", "merged", (value, merged) -> value + "," + merged);
+        assertEquals("present,merged", settings.getString(sessionID, "Key"));
+        properties.replaceAll((key, value) -> "all");
+        assertEquals("all", settings.getString(sessionID, "Key"));
+        properties.remove("Key", "all");
+        assertThrows(ConfigError.class, () -> settings.getString(sessionID, "Key"));
+        properties.computeIfAbsent("Key", key -> "computed");
+        assertEquals("computed", settings.getString(sessionID, "Key"));
+    }
+
+    @Test
+    public void testSessionPropertiesNotInterpolated() throws ConfigError {
+        BaseSessionSettings settings = new BaseSessionSettings();
+        SessionID sessionID = new SessionID("FIX.4.3", "SENDER", "TARGET");
+        settings.setString(sessionID, "Host", "${host}");
+        Properties variables = new Properties();
+        variables.setProperty("host", "localhost");
+        settings.setVariableValues(variables);
+
+        assertEquals("localhost", settings.getString(sessionID, "Host"));
+        assertEquals("${host}", settings.getSessionProperties(sessionID, true).getProperty("Host"));
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.settings;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConfigFileWatcherTest {
+
+    @Test
+    public void testChangesAreDebounced(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("quickfixj.cfg");
+        Files.write(file, "[default]\n".getBytes(StandardCharsets.UTF_8));
+        Files.write(directory.resolve("other.cfg"), "".getBytes(StandardCharsets.UTF_8));
+
+        AtomicInteger changes = new AtomicInteger();
+        CountDownLatch changed = new CountDownLatch(1);
+        try (ConfigFileWatcher ignored = new ConfigFileWatcher(file, Duration.ofMillis(500), () -> {
+            changes.incrementAndGet();
+            changed.countDown();
+        })) {
+            //Several writes in a row, are a single change
+            for (int i = 0; i < 3; i++) {
+                Files.write(file, ("[default]\nHeartBtInt=" + i + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            //Changes of other files are ignored
+            Files.write(directory.resolve("other.cfg"), "changed".getBytes(StandardCharsets.UTF_8));
+
+            assertTrue(changed.await(30, TimeUnit.SECONDS));
+            Thread.sleep(1000);
+            assertEquals(1, changes.get());
+        }
+    }
+}
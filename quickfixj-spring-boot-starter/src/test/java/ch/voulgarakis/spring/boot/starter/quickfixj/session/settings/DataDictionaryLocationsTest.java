@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.settings;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.mock.env.MockEnvironment;
+import quickfix.Application;
+import quickfix.DefaultMessageFactory;
+import quickfix.DefaultSessionFactory;
+import quickfix.MemoryStoreFactory;
+import quickfix.Session;
+import quickfix.SessionFactory;
+import quickfix.SessionID;
+import quickfix.SessionSettings;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+
+public class DataDictionaryLocationsTest {
+
+    private final DataDictionaryLocations dataDictionaryLocations = new DataDictionaryLocations(new DefaultResourceLoader());
+
+    @Test
+    public void testSharedAcrossLocations() {
+        assertEquals("FIX43.xml", dataDictionaryLocations.resolve("FIX43.xml"));
+        assertEquals("FIX43.xml", dataDictionaryLocations.resolve("classpath:FIX43.xml"));
+        assertEquals("FIX43.xml", dataDictionaryLocations.resolve("classpath:/FIX43.xml"));
+        assertEquals("FIX44.xml", dataDictionaryLocations.resolve("classpath:FIX44.xml"));
+    }
+
+    @Test
+    public void testParsedOnceAcrossSessionFactories() throws Exception {
+        SessionSettings sessionSettings = new SessionSettings();
+        sessionSettings.setString("ConnectionType", "initiator");
+        sessionSettings.setString("StartTime", "00:00:00");
+        sessionSettings.setString("EndTime", "00:00:00");
+        sessionSettings.setString("HeartBtInt", "30");
+        sessionSettings.setString("DataDictionary", dataDictionaryLocations.resolve("classpath:/FIX43.xml"));
+        SessionID sessionID1 = new SessionID("FIX.4.3", "SENDER", "TARGET1");
+        SessionID sessionID2 = new SessionID("FIX.4.3", "SENDER", "TARGET2");
+        sessionSettings.setString(sessionID1, "SocketConnectPort", "1");
+        sessionSettings.setString(sessionID2, "SocketConnectPort", "2");
+
+        //E.g. the session factories of two shards
+        try (Session session1 = sessionFactory().create(sessionID1, sessionSettings);
+             Session session2 = sessionFactory().create(sessionID2, sessionSettings)) {
+            assertSame(session1.getDataDictionary(), session2.getDataDictionary());
+        }
+    }
+
+    private static SessionFactory sessionFactory() {
+        return new DefaultSessionFactory(mock(Application.class), new MemoryStoreFactory(), null,
+                new DefaultMessageFactory());
+    }
+
+    @Test
+    public void testFileLocations(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("FIX43.xml");
+        try (InputStream stream = getClass().getClassLoader().getResourceAsStream("FIX43.xml")) {
+            Files.copy(stream, file);
+        }
+        String canonicalPath = file.toFile().getCanonicalPath();
+        assertEquals(canonicalPath, dataDictionaryLocations.resolve(file.toUri().toString()));
+        assertEquals(canonicalPath, dataDictionaryLocations.resolve("file:" + directory.resolve("sub/../FIX43.xml")));
+        assertEquals(canonicalPath, dataDictionaryLocations.resolve("file:" + file));
+    }
+
+    @Test
+    public void testSessionSettingsResolved() throws Exception {
+        SessionSettings sessionSettings = new SessionSettings();
+        sessionSettings.setString("DataDictionary", "classpath:FIX43.xml");
+        SessionID sessionID = new SessionID("FIXT.1.1", "SENDER", "TARGET");
+        sessionSettings.setString(sessionID, "TransportDataDictionary", "classpath:/FIXT11.xml");
+        sessionSettings.setString(sessionID, "AppDataDictionary", "classpath:FIX50.xml");
+
+        new SessionSettingsEnhancer(new MockEnvironment(), dataDictionaryLocations)
+                .enhanceSettingSettings(sessionSettings);
+
+        assertEquals("FIX43.xml", sessionSettings.getString("DataDictionary"));
+        assertEquals("FIXT11.xml", sessionSettings.getString(sessionID, "TransportDataDictionary"));
+        assertEquals("FIX50.xml", sessionSettings.getString(sessionID, "AppDataDictionary"));
+    }
+}
@@ -16,55 +16,206 @@
 
 package ch.voulgarakis.spring.boot.starter.quickfixj.session.settings;
 
-import ch.voulgarakis.spring.boot.starter.quickfixj.EmptyContext;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.DynamicFixSessions;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.FixSessionUtils;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
-import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.boot.test.context.TestConfiguration;
-import org.springframework.test.context.junit.jupiter.SpringExtension;
-
-@ExtendWith(SpringExtension.class)
-@SpringBootTest(classes = {EmptyContext.class, LiveSessionSettingsTest.LiveSessionSettingsTestContext.class},
-        properties = {
-                "port=0",
-                "sender.compId=TEST_CLIENT",
-                "target.compId=FIX"
-        })
-class LiveSessionSettingsTest {
-
-//    @Autowired
-//    private LiveSessionSettings liveSessionSettings;
+import org.springframework.core.io.ByteArrayResource;
+import quickfix.Application;
+import quickfix.ConfigError;
+import quickfix.DefaultMessageFactory;
+import quickfix.MemoryStoreFactory;
+import quickfix.Session;
+import quickfix.SessionID;
+import quickfix.SessionSettings;
+import quickfix.mina.acceptor.AbstractSocketAcceptor;
+import quickfix.mina.initiator.AbstractSocketInitiator;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class LiveSessionSettingsTest {
+
+    private static final String DEFAULTS = "[default]\n"
+            + "ConnectionType=initiator\n"
+            + "BeginString=FIX.4.3\n"
+            + "SenderCompID=SENDER\n";
+
+    private static final SessionID SESSION1 = new SessionID("FIX.4.3", "SENDER", "TARGET1");
+    private static final SessionID SESSION2 = new SessionID("FIX.4.3", "SENDER", "TARGET2");
+    private static final SessionID SESSION3 = new SessionID("FIX.4.3", "SENDER", "TARGET3");
+    private static final SessionID TEMPLATE = new SessionID("FIX.4.3", "TEMPLATE_ACCEPTOR", "*");
+
+    @Test
+    public void testRefreshAppliesOnlyTheChangedSessions() throws Exception {
+        SessionSettings sessionSettings = settings(DEFAULTS
+                + "[session]\nTargetCompID=TARGET1\nSocketConnectPort=1000\n"
+                + "[session]\nTargetCompID=TARGET2\nSocketConnectPort=2000\n");
+        SessionSettings reloaded = settings(DEFAULTS
+                + "[session]\nTargetCompID=TARGET2\nSocketConnectPort=2001\n"
+                + "[session]\nTargetCompID=TARGET3\nSocketConnectPort=3000\n");
+
+        SessionSettingsLoader loader = mock(SessionSettingsLoader.class);
+        when(loader.getQuickfixjConfig()).thenReturn(new ByteArrayResource(new byte[0]));
+        when(loader.load()).thenReturn(reloaded);
+        AbstractSocketInitiator initiator = mock(AbstractSocketInitiator.class);
+
+        DynamicFixSessions dynamicFixSessions = mock(DynamicFixSessions.class);
+        when(dynamicFixSessions.register(any(), any())).thenReturn(true);
+
+        LiveSessionSettings liveSessionSettings = new LiveSessionSettings(initiator, sessionSettings, loader, null,
+                dynamicFixSessions, LiveSessionSettings.DEFAULT_DEBOUNCE);
+        SessionSettingsDiff diff = liveSessionSettings.refresh();
+
+        assertEquals(Collections.singleton(SESSION3), diff.getAdded());
+        assertEquals(Collections.singleton(SESSION1), diff.getRemoved());
+        verify(dynamicFixSessions).register(SESSION3, SESSION3.toString());
+        verify(dynamicFixSessions).unregister(SESSION1);
+        assertEquals(Collections.singleton(SESSION2), diff.getChanged());
+
+        verify(initiator).removeDynamicSession(SESSION1);
+        verify(initiator, never()).createDynamicSession(SESSION1);
+        verify(initiator).removeDynamicSession(SESSION2);
+        verify(initiator).createDynamicSession(SESSION2);
+        verify(initiator, never()).removeDynamicSession(SESSION3);
+        verify(initiator).createDynamicSession(SESSION3);
+
+        //The connector's settings are updated for the created sessions, and the removed one is dropped
+        assertEquals(2001, sessionSettings.getLong(SESSION2, "SocketConnectPort"));
+        assertEquals(3000, sessionSettings.getLong(SESSION3, "SocketConnectPort"));
+        assertFalse(FixSessionUtils.contains(sessionSettings, SESSION1));
+
+        //Nothing changed since the last refresh
+        assertTrue(liveSessionSettings.refresh().isEmpty());
+    }
 
     @Test
-    void refresh() {
-//        liveSessionSettings.refresh();
+    public void testFailedChangeIsRetriedOnTheNextRefresh() throws Exception {
+        SessionSettings sessionSettings = settings(DEFAULTS
+                + "[session]\nTargetCompID=TARGET1\nSocketConnectPort=1000\n"
+                + "[session]\nTargetCompID=TARGET2\nSocketConnectPort=2000\n");
+        SessionSettings reloaded = settings(DEFAULTS
+                + "[session]\nTargetCompID=TARGET2\nSocketConnectPort=2001\n"
+                + "[session]\nTargetCompID=TARGET3\nSocketConnectPort=3000\n");
+
+        SessionSettingsLoader loader = mock(SessionSettingsLoader.class);
+        when(loader.load()).thenReturn(reloaded);
+        AbstractSocketInitiator initiator = mock(AbstractSocketInitiator.class);
+        doThrow(new ConfigError("Failed")).doNothing().when(initiator).createDynamicSession(SESSION2);
+        DynamicFixSessions dynamicFixSessions = mock(DynamicFixSessions.class);
+        when(dynamicFixSessions.register(any(), any())).thenReturn(true);
+
+        LiveSessionSettings liveSessionSettings = new LiveSessionSettings(initiator, sessionSettings, loader, null,
+                dynamicFixSessions, LiveSessionSettings.DEFAULT_DEBOUNCE);
+        assertThrows(ConfigError.class, liveSessionSettings::refresh);
+
+        //The removal was applied, the failed change kept its previous settings, the addition was not applied
+        assertFalse(FixSessionUtils.contains(sessionSettings, SESSION1));
+        assertEquals(2000, sessionSettings.getLong(SESSION2, "SocketConnectPort"));
+        assertFalse(FixSessionUtils.contains(sessionSettings, SESSION3));
+        verify(initiator, never()).createDynamicSession(SESSION3);
+
+        //Only the sessions not applied yet are applied on the next refresh
+        SessionSettingsDiff diff = liveSessionSettings.refresh();
+        assertTrue(diff.getRemoved().isEmpty());
+        assertEquals(Collections.singleton(SESSION2), diff.getChanged());
+        assertEquals(Collections.singleton(SESSION3), diff.getAdded());
+        assertEquals(2001, sessionSettings.getLong(SESSION2, "SocketConnectPort"));
+        assertEquals(3000, sessionSettings.getLong(SESSION3, "SocketConnectPort"));
+        verify(initiator).removeDynamicSession(SESSION1);
+        assertTrue(liveSessionSettings.refresh().isEmpty());
+    }
+
+    @Test
+    public void testRefreshSkipsSessionsWithoutReceiver() throws Exception {
+        SessionSettings sessionSettings = settings(DEFAULTS + "[session]\nTargetCompID=TARGET1\n");
+        SessionSettings reloaded = settings(DEFAULTS
+                + "[session]\nTargetCompID=TARGET1\n"
+                + "[session]\nTargetCompID=TARGET2\n");
+
+        SessionSettingsLoader loader = mock(SessionSettingsLoader.class);
+        when(loader.load()).thenReturn(reloaded);
+        AbstractSocketInitiator initiator = mock(AbstractSocketInitiator.class);
+
+        //No FixSession can receive the messages of the added session
+        LiveSessionSettings liveSessionSettings = new LiveSessionSettings(initiator, sessionSettings, loader, null,
+                mock(DynamicFixSessions.class), LiveSessionSettings.DEFAULT_DEBOUNCE);
+        SessionSettingsDiff diff = liveSessionSettings.refresh();
+
+        assertEquals(Collections.singleton(SESSION2), diff.getAdded());
+        verify(initiator, never()).createDynamicSession(any());
+        verify(initiator, never()).removeDynamicSession(any());
+    }
+
+    @Test
+    public void testSessionsCreatedFromTemplateAreKeptUntilTheTemplateIsRemoved() throws Exception {
+        String template = "[default]\n"
+                + "ConnectionType=acceptor\n"
+                + "StartTime=00:00:00\n"
+                + "EndTime=00:00:00\n"
+                + "HeartBtInt=30\n"
+                + "UseDataDictionary=N\n"
+                + "SocketAcceptPort=0\n"
+                + "[session]\n"
+                + "BeginString=FIX.4.3\n"
+                + "SenderCompID=TEMPLATE_ACCEPTOR\n"
+                + "TargetCompID=*\n"
+                + "AcceptorTemplate=Y\n";
+        SessionSettings sessionSettings = settings(template);
+        SessionSettingsLoader loader = mock(SessionSettingsLoader.class);
+        when(loader.load()).thenReturn(settings(template));
+        AbstractSocketAcceptor acceptor = mock(AbstractSocketAcceptor.class);
+        OnSettingsChangeDynamicAcceptorSessionProvider provider = new OnSettingsChangeDynamicAcceptorSessionProvider(
+                sessionSettings, acceptor, mock(Application.class), new MemoryStoreFactory(), null,
+                new DefaultMessageFactory());
+        LiveSessionSettings liveSessionSettings = new LiveSessionSettings(acceptor, sessionSettings, loader, provider,
+                mock(DynamicFixSessions.class), LiveSessionSettings.DEFAULT_DEBOUNCE);
+
+        SessionID client1 = new SessionID("FIX.4.3", "TEMPLATE_ACCEPTOR", "CLIENT1");
+        assertNotNull(provider.getSession(client1, acceptor));
+
+        //The counterparty is not in the config file, but is not removed either
+        assertTrue(liveSessionSettings.refresh().isEmpty());
+        verify(acceptor, never()).removeDynamicSession(any());
+
+        //Removing the template removes its counterparties
+        when(loader.load()).thenReturn(settings("[default]\nConnectionType=acceptor\n"));
+        liveSessionSettings.refresh();
+        verify(acceptor).removeDynamicSession(client1);
+        assertTrue(provider.getCounterparties(TEMPLATE).isEmpty());
+        assertNull(Session.lookupSession(client1));
+        assertNull(provider.getSession(new SessionID("FIX.4.3", "TEMPLATE_ACCEPTOR", "CLIENT2"), acceptor));
+    }
+
+    @Test
+    public void testStartWithoutConfigFile() {
+        SessionSettingsLoader loader = mock(SessionSettingsLoader.class);
+        when(loader.getQuickfixjConfig()).thenReturn(new ByteArrayResource(new byte[0]));
+
+        LiveSessionSettings liveSessionSettings = new LiveSessionSettings(mock(AbstractSocketInitiator.class),
+                new SessionSettings(), loader, null, mock(DynamicFixSessions.class),
+                LiveSessionSettings.DEFAULT_DEBOUNCE);
+        liveSessionSettings.start();
+        assertTrue(liveSessionSettings.isRunning());
+        liveSessionSettings.stop();
+        assertFalse(liveSessionSettings.isRunning());
     }
 
-    @TestConfiguration
-    @EnableAutoConfiguration
-    static class LiveSessionSettingsTestContext {
-//        @Bean
-//        public SessionSettings sessionSettings(Environment environment, ResourceLoader resourceLoader) {
-//            return FixSessionSettings
-//                    .loadSettings("classpath:quickfixj.cfg", environment, resourceLoader);
-//        }
-
-//        @Bean("TEST_SESSION")
-//        public FixSession fixSession() {
-//            return new DefaultFixSession() {
-//                @Override
-//                protected void received(Message message) {
-//                }
-//
-//                @Override
-//                protected void error(SessionException message) {
-//                }
-//
-//                @Override
-//                protected void loggedOn() {
-//                }
-//            };
-//        }
+    private static SessionSettings settings(String content) throws Exception {
+        //As loaded by the SessionSettingsLoader
+        return new BaseSessionSettings(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
     }
-}
\ No newline at end of file
+}
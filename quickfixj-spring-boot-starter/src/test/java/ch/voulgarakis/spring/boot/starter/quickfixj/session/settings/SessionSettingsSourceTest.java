@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.settings;
+
+import org.junit.jupiter.api.Test;
+import quickfix.SessionID;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SessionSettingsSourceTest {
+
+    @Test
+    public void testFindAllWithPropertiesDefault() {
+        SessionID sessionID1 = new SessionID("FIX.4.3", "SENDER", "TARGET1");
+        SessionID sessionID2 = new SessionID("FIX.4.3", "SENDER", "TARGET2");
+        SessionSettingsSource source = new SessionSettingsSource() {
+            @Override
+            public List<SessionID> findAll() {
+                return Arrays.asList(sessionID2, sessionID1);
+            }
+
+            @Override
+            public Properties findForSessionId(SessionID sessionId) {
+                Properties properties = new Properties();
+                properties.setProperty("TargetCompID", sessionId.getTargetCompID());
+                return properties;
+            }
+        };
+
+        Map<SessionID, Properties> sessions = source.findAllWithProperties();
+        assertEquals(Arrays.asList(sessionID2, sessionID1), Arrays.asList(sessions.keySet().toArray()));
+        assertEquals("TARGET1", sessions.get(sessionID1).getProperty("TargetCompID"));
+        assertEquals("TARGET2", sessions.get(sessionID2).getProperty("TargetCompID"));
+    }
+}
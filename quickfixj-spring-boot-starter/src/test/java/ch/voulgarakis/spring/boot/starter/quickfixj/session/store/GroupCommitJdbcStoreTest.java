@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.store;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.awaitility.Duration;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import quickfix.MessageStore;
+import quickfix.SessionID;
+import quickfix.SessionSettings;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GroupCommitJdbcStoreTest {
+
+    private static final SessionID SESSION_ID = new SessionID("FIX.4.3", "SENDER", "TARGET");
+    private static final SessionID OTHER_SESSION_ID = new SessionID("FIX.4.3", "SENDER", "OTHER");
+
+    private JdbcDataSource dataSource;
+    private SimpleMeterRegistry meterRegistry;
+    private GroupCommitJdbcStoreFactory factory;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + getClass().getSimpleName() + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE sessions (beginstring CHAR(8) NOT NULL, sendercompid VARCHAR(64) NOT NULL,"
+                    + " sendersubid VARCHAR(64) NOT NULL, senderlocid VARCHAR(64) NOT NULL,"
+                    + " targetcompid VARCHAR(64) NOT NULL, targetsubid VARCHAR(64) NOT NULL,"
+                    + " targetlocid VARCHAR(64) NOT NULL, session_qualifier VARCHAR(64) NOT NULL,"
+                    + " creation_time TIMESTAMP NOT NULL, incoming_seqnum INT NOT NULL, outgoing_seqnum INT NOT NULL,"
+                    + " PRIMARY KEY (beginstring, sendercompid, sendersubid, senderlocid, targetcompid, targetsubid,"
+                    + " targetlocid, session_qualifier))");
+            statement.execute("CREATE TABLE messages (beginstring CHAR(8) NOT NULL, sendercompid VARCHAR(64) NOT NULL,"
+                    + " sendersubid VARCHAR(64) NOT NULL, senderlocid VARCHAR(64) NOT NULL,"
+                    + " targetcompid VARCHAR(64) NOT NULL, targetsubid VARCHAR(64) NOT NULL,"
+                    + " targetlocid VARCHAR(64) NOT NULL, session_qualifier VARCHAR(64) NOT NULL,"
+                    + " msgseqnum INT NOT NULL, message TEXT NOT NULL,"
+                    + " PRIMARY KEY (beginstring, sendercompid, sendersubid, senderlocid, targetcompid, targetsubid,"
+                    + " targetlocid, session_qualifier, msgseqnum))");
+        }
+        meterRegistry = new SimpleMeterRegistry();
+        factory = new GroupCommitJdbcStoreFactory(new SessionSettings(), dataSource, 1000, 100);
+        factory.setMeterRegistry(meterRegistry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        factory.close();
+    }
+
+    @Test
+    public void testGroupCommit() throws IOException, SQLException {
+        MessageStore store = factory.create(SESSION_ID);
+        MessageStore otherStore = factory.create(OTHER_SESSION_ID);
+        for (int i = 1; i <= 50; i++) {
+            store.set(i, "message" + i);
+            store.incrNextSenderMsgSeqNum();
+            otherStore.set(i, "other" + i);
+        }
+        factory.flush();
+
+        assertEquals(100, count("SELECT COUNT(*) FROM messages"));
+        assertEquals(51, count("SELECT outgoing_seqnum FROM sessions WHERE targetcompid='TARGET'"));
+        assertEquals(0, ((GroupCommitJdbcStore) store).getStagedSize());
+
+        //Writes were committed in fewer transactions than messages
+        long commits = meterRegistry.get("quickfixj.store.jdbc.commit").timer().count();
+        assertTrue(commits >= 1 && commits < 150, "commits: " + commits);
+        //The sequence number updates of a store are coalesced until the writer picks them up
+        double writes = meterRegistry.get("quickfixj.store.jdbc.batch.size").summary().totalAmount();
+        assertTrue(writes > 100 && writes <= 150, "writes: " + writes);
+    }
+
+    @Test
+    public void testGetServesCommittedAndStagedMessages() throws IOException {
+        MessageStore store = factory.create(SESSION_ID);
+        store.set(1, "message1");
+        store.set(2, "message2");
+        factory.flush();
+        store.set(3, "message3");
+
+        List<String> messages = new ArrayList<>();
+        store.get(1, 3, messages);
+        assertEquals(Arrays.asList("message1", "message2", "message3"), messages);
+    }
+
+    @Test
+    public void testReloadAndReset() throws IOException, SQLException {
+        MessageStore store = factory.create(SESSION_ID);
+        store.set(1, "message1");
+        store.setNextSenderMsgSeqNum(2);
+        store.setNextTargetMsgSeqNum(5);
+        factory.flush();
+
+        MessageStore reloaded = factory.create(SESSION_ID);
+        assertEquals(2, reloaded.getNextSenderMsgSeqNum());
+        assertEquals(5, reloaded.getNextTargetMsgSeqNum());
+        assertEquals(store.getCreationTime(), reloaded.getCreationTime());
+
+        reloaded.reset();
+        assertEquals(1, reloaded.getNextSenderMsgSeqNum());
+        assertEquals(0, count("SELECT COUNT(*) FROM messages"));
+    }
+
+    @Test
+    public void testFailedCommitIsRetried() throws IOException, SQLException {
+        MessageStore store = factory.create(SESSION_ID);
+        execute("ALTER TABLE messages RENAME TO messages_down");
+        store.set(1, "message1");
+
+        //The failure becomes persistent: the message stays staged, new writes fail
+        await().atMost(Duration.TEN_SECONDS).until(() -> failedCommits()
+                >= GroupCommitJdbcWriter.PERSISTENT_FAILURE_ATTEMPTS);
+        assertThrows(IOException.class, () -> store.set(2, "message2"));
+        assertThrows(IOException.class, factory::flush);
+        assertEquals(1, ((GroupCommitJdbcStore) store).getStagedSize());
+
+        //Once the database is back, the staged message is committed
+        execute("ALTER TABLE messages_down RENAME TO messages");
+        await().atMost(Duration.TEN_SECONDS).until(() -> ((GroupCommitJdbcStore) store).getStagedSize() == 0);
+        store.set(2, "message2");
+        factory.flush();
+        assertEquals(2, count("SELECT COUNT(*) FROM messages"));
+        assertEquals(0, meterRegistry.get("quickfixj.store.jdbc.staged").gauge().value());
+    }
+
+    @Test
+    public void testStagingIsBounded() throws IOException, SQLException {
+        try (GroupCommitJdbcStoreFactory boundedFactory = new GroupCommitJdbcStoreFactory(new SessionSettings(),
+                dataSource, 2, 100)) {
+            MessageStore store = boundedFactory.create(SESSION_ID);
+            execute("ALTER TABLE messages RENAME TO messages_down");
+            store.set(1, "message1");
+            store.set(2, "message2");
+
+            //No room for a third message, until the first ones are committed
+            CompletableFuture<Void> third = CompletableFuture.runAsync(() -> {
+                try {
+                    store.set(3, "message3");
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            assertThrows(Exception.class, () -> third.get(300, TimeUnit.MILLISECONDS));
+            assertFalse(third.isDone());
+
+            execute("ALTER TABLE messages_down RENAME TO messages");
+            third.join();
+            boundedFactory.flush();
+            assertEquals(3, count("SELECT COUNT(*) FROM messages"));
+        }
+    }
+
+    @Test
+    public void testBlockedWritesFailOnPersistentFailure() throws IOException, SQLException {
+        try (GroupCommitJdbcStoreFactory boundedFactory = new GroupCommitJdbcStoreFactory(new SessionSettings(),
+                dataSource, 2, 100)) {
+            boundedFactory.setMeterRegistry(meterRegistry);
+            MessageStore store = boundedFactory.create(SESSION_ID);
+            MessageStore otherStore = boundedFactory.create(OTHER_SESSION_ID);
+            execute("ALTER TABLE messages RENAME TO messages_down");
+            store.set(1, "message1");
+            await().atMost(Duration.TEN_SECONDS).until(() -> failedCommits() >= 1);
+
+            //The queue is full while the writer retries: the sequence number updates and flushes wait for room
+            List<CompletableFuture<Void>> blocked = new ArrayList<>();
+            for (MessageStore sessionStore : Arrays.asList(store, otherStore, store, otherStore)) {
+                blocked.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        sessionStore.incrNextTargetMsgSeqNum();
+                        boundedFactory.flush();
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }));
+            }
+
+            //Once the failure is persistent, they fail instead of blocking
+            await().atMost(Duration.TEN_SECONDS).until(() -> blocked.stream().allMatch(CompletableFuture::isDone));
+            assertTrue(blocked.stream().allMatch(CompletableFuture::isCompletedExceptionally));
+            execute("ALTER TABLE messages_down RENAME TO messages");
+        }
+    }
+
+    private double failedCommits() {
+        return meterRegistry.get("quickfixj.store.jdbc.commit.failures").counter().count();
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private long count(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+}
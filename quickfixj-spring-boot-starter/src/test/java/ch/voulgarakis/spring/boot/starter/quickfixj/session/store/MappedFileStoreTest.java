@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.store;
+
+import ch.voulgarakis.spring.boot.starter.quickfixj.exception.QuickFixJConfigurationException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import quickfix.MessageStore;
+import quickfix.SessionID;
+import quickfix.SessionSettings;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MappedFileStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testSetAndGet() throws IOException {
+        MappedFileStore store = new MappedFileStore(directory, 1024, false);
+        store.set(1, "message1");
+        store.set(2, "message2");
+        store.set(4, "message4");
+
+        List<String> messages = new ArrayList<>();
+        store.get(1, 10, messages);
+        assertEquals(Arrays.asList("message1", "message2", "message4"), messages);
+        store.close();
+    }
+
+    @Test
+    public void testSurvivesRestart() throws IOException {
+        MappedFileStore store = new MappedFileStore(directory, 1024, false);
+        store.set(1, "message1");
+        store.set(2, "message2");
+        store.setNextSenderMsgSeqNum(3);
+        store.incrNextTargetMsgSeqNum();
+        long creationTime = store.getCreationTime().getTime();
+        store.close();
+
+        MappedFileStore reopened = new MappedFileStore(directory, 1024, false);
+        assertEquals(3, reopened.getNextSenderMsgSeqNum());
+        assertEquals(2, reopened.getNextTargetMsgSeqNum());
+        assertEquals(creationTime, reopened.getCreationTime().getTime());
+
+        List<String> messages = new ArrayList<>();
+        reopened.get(2, 2, messages);
+        assertEquals(Arrays.asList("message2"), messages);
+
+        //Appending continues after the last record
+        reopened.set(3, "message3");
+        reopened.refresh();
+        messages.clear();
+        reopened.get(1, 3, messages);
+        assertEquals(Arrays.asList("message1", "message2", "message3"), messages);
+        reopened.close();
+    }
+
+    @Test
+    public void testSegmentRollover() throws IOException {
+        MappedFileStore store = new MappedFileStore(directory, 64, false);
+        for (int i = 1; i <= 10; i++) {
+            store.set(i, "message-" + i);
+        }
+        assertTrue(store.getSegmentCount() > 1);
+
+        List<String> messages = new ArrayList<>();
+        store.get(9, 10, messages);
+        assertEquals(Arrays.asList("message-9", "message-10"), messages);
+        store.close();
+
+        MappedFileStore reopened = new MappedFileStore(directory, 64, false);
+        messages.clear();
+        reopened.get(1, 10, messages);
+        assertEquals(10, messages.size());
+        assertEquals("message-1", messages.get(0));
+        reopened.close();
+    }
+
+    @Test
+    public void testTornRecordIsDiscarded() throws IOException {
+        MappedFileStore store = new MappedFileStore(directory, 1024, false);
+        store.set(1, "message1");
+        store.set(2, "message2");
+        store.close();
+
+        //Corrupt the body of the last record, as if the process crashed while writing it
+        Path segment = directory.resolve(MappedFileStore.SEGMENT_PREFIX + 0 + MappedFileStore.SEGMENT_SUFFIX);
+        int lastByte = 2 * (3 * Integer.BYTES + "message1".length()) - 1;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), lastByte);
+        }
+
+        MappedFileStore reopened = new MappedFileStore(directory, 1024, false);
+        List<String> messages = new ArrayList<>();
+        reopened.get(1, 10, messages);
+        assertEquals(Arrays.asList("message1"), messages);
+
+        //The torn record is overwritten
+        reopened.set(2, "message2");
+        reopened.refresh();
+        messages.clear();
+        reopened.get(1, 10, messages);
+        assertEquals(Arrays.asList("message1", "message2"), messages);
+        reopened.close();
+    }
+
+    @Test
+    public void testReset() throws IOException {
+        MappedFileStore store = new MappedFileStore(directory, 1024, false);
+        store.set(1, "message1");
+        store.setNextSenderMsgSeqNum(2);
+        store.reset();
+
+        assertEquals(1, store.getNextSenderMsgSeqNum());
+        List<String> messages = new ArrayList<>();
+        store.get(1, 10, messages);
+        assertTrue(messages.isEmpty());
+        store.close();
+    }
+
+    @Test
+    public void testFactory() throws IOException {
+        SessionSettings settings = new SessionSettings();
+        SessionID sessionID = new SessionID("FIX.4.3", "SENDER", "TARGET");
+        settings.setString(sessionID, MappedFileStoreFactory.SETTING_MAPPED_FILE_STORE_PATH, directory.toString());
+        settings.setLong(sessionID, MappedFileStoreFactory.SETTING_MAPPED_FILE_STORE_SEGMENT_SIZE, 4096);
+
+        MessageStore store = new MappedFileStoreFactory(settings).create(sessionID);
+        store.set(1, "message1");
+
+        assertTrue(Files.exists(directory.resolve("FIX.4.3-SENDER-TARGET").resolve(MappedFileStore.HEADER_FILE)));
+        ((MappedFileStore) store).close();
+    }
+
+    @Test
+    public void testFactoryRejectsSegmentsOf2GB() {
+        SessionSettings settings = new SessionSettings();
+        SessionID sessionID = new SessionID("FIX.4.3", "SENDER", "TARGET");
+        settings.setString(sessionID, MappedFileStoreFactory.SETTING_MAPPED_FILE_STORE_PATH, directory.toString());
+        settings.setLong(sessionID, MappedFileStoreFactory.SETTING_MAPPED_FILE_STORE_SEGMENT_SIZE, 1L << 31);
+
+        assertThrows(QuickFixJConfigurationException.class,
+                () -> new MappedFileStoreFactory(settings).create(sessionID));
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OffHeapStoreTest {
+
+    @Test
+    public void testSetAndGet() {
+        OffHeapStore store = new OffHeapStore(10, 1024);
+        store.set(1, "message1");
+        store.set(2, "message2");
+        store.set(3, "message3");
+
+        List<String> messages = new ArrayList<>();
+        store.get(2, 3, messages);
+        assertEquals(Arrays.asList("message2", "message3"), messages);
+    }
+
+    @Test
+    public void testRetentionByCount() {
+        OffHeapStore store = new OffHeapStore(3, 1024);
+        for (int i = 1; i <= 5; i++) {
+            store.set(i, "message" + i);
+        }
+        assertEquals(3, store.size());
+        assertEquals(3, store.getFirstRetainedSeqNum());
+
+        List<String> messages = new ArrayList<>();
+        store.get(1, 5, messages);
+        assertEquals(Arrays.asList("message3", "message4", "message5"), messages);
+    }
+
+    @Test
+    public void testRetentionByBytes() {
+        //Each message is 10 bytes: only 2 fit at any time
+        OffHeapStore store = new OffHeapStore(100, 25);
+        for (int i = 1; i <= 7; i++) {
+            assertTrue(store.set(i, "message-0" + i));
+        }
+        assertEquals(2, store.size());
+
+        List<String> messages = new ArrayList<>();
+        store.get(1, 7, messages);
+        assertEquals(Arrays.asList("message-06", "message-07"), messages);
+    }
+
+    @Test
+    public void testMessageLargerThanCapacity() {
+        OffHeapStore store = new OffHeapStore(10, 4);
+        assertFalse(store.set(1, "message1"));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    public void testReset() {
+        OffHeapStore store = new OffHeapStore(10, 1024);
+        store.set(1, "message1");
+        store.incrNextSenderMsgSeqNum();
+        store.incrNextTargetMsgSeqNum();
+        store.reset();
+
+        assertEquals(0, store.size());
+        assertEquals(1, store.getNextSenderMsgSeqNum());
+        assertEquals(1, store.getNextTargetMsgSeqNum());
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.utils;
+
+import org.junit.jupiter.api.Test;
+import quickfix.field.*;
+import quickfix.fix43.MarketDataSnapshotFullRefresh;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static ch.voulgarakis.spring.boot.starter.quickfixj.session.utils.FixMessageUtils.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FixMessageUtilsTest {
+
+    @Test
+    public void testGroupTraversal() {
+        MarketDataSnapshotFullRefresh snapshot = new MarketDataSnapshotFullRefresh();
+        for (int i = 0; i < 10; i++) {
+            MarketDataSnapshotFullRefresh.NoMDEntries entry = new MarketDataSnapshotFullRefresh.NoMDEntries();
+            entry.set(new MDEntryType(MDEntryType.BID));
+            entry.set(new MDEntryPx(1.0 + i));
+            if (i % 2 == 0) {
+                entry.set(new MDEntryPositionNo(i));
+            }
+            entry.set(new QuoteEntryID("q" + i));
+            snapshot.addGroup(entry);
+        }
+
+        AtomicInteger visited = new AtomicInteger();
+        assertEquals(10, forEachGroup(snapshot, NoMDEntries.FIELD, (index, group) -> {
+            assertEquals(1.0 + index, safeGetDouble(group, MDEntryPx.FIELD, Double.NaN));
+            visited.incrementAndGet();
+        }));
+        assertEquals(10, visited.get());
+
+        //Same values as the collecting variants
+        List<Double> prices = new ArrayList<>();
+        assertEquals(10, forEachDoubleField(snapshot, NoMDEntries.FIELD, MDEntryPx.FIELD, prices::add));
+        assertEquals(safeGetFieldFromGroup(snapshot, NoMDEntries.FIELD, new MDEntryPx()), prices);
+
+        List<Integer> positions = new ArrayList<>();
+        assertEquals(5, forEachIntField(snapshot, NoMDEntries.FIELD, MDEntryPositionNo.FIELD, positions::add));
+        assertEquals(safeGetFieldFromGroup(snapshot, NoMDEntries.FIELD, new MDEntryPositionNo()), positions);
+
+        List<String> ids = new ArrayList<>();
+        assertEquals(10, forEachStringField(snapshot, NoMDEntries.FIELD, QuoteEntryID.FIELD, ids::add));
+        assertEquals(safeGetFieldFromGroup(snapshot, NoMDEntries.FIELD, new QuoteEntryID()), ids);
+
+        //Missing groups/fields
+        assertEquals(0, forEachGroup(snapshot, NoRoutingIDs.FIELD, (index, group) -> fail()));
+        assertEquals(0, forEachGroup(null, NoMDEntries.FIELD, (index, group) -> fail()));
+        assertEquals(-1, safeGetInt(snapshot, MDEntryPositionNo.FIELD, -1));
+        assertEquals(-1, safeGetInt(null, MDEntryPositionNo.FIELD, -1));
+    }
+}
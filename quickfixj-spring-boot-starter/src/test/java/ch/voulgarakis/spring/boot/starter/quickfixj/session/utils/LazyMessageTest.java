@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.utils;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import quickfix.DataDictionary;
+import quickfix.Field;
+import quickfix.FieldNotFound;
+import quickfix.Group;
+import quickfix.Message;
+import quickfix.field.*;
+import quickfix.fix43.MarketDataSnapshotFullRefresh;
+import quickfix.fix43.NewOrderList;
+
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LazyMessageTest {
+
+    private static DataDictionary dataDictionary;
+
+    @BeforeAll
+    public static void loadDataDictionary() throws Exception {
+        dataDictionary = new DataDictionary("FIX43.xml");
+    }
+
+    @Test
+    public void testFieldsWithoutParsingGroups() throws Exception {
+        MarketDataSnapshotFullRefresh snapshot = snapshot(500);
+        LazyMessage message = LazyMessage.of(snapshot.toString(), dataDictionary);
+
+        assertEquals(MsgType.MARKET_DATA_SNAPSHOT_FULL_REFRESH, message.getMsgType());
+        assertEquals("req1", message.getString(MDReqID.FIELD));
+        assertEquals(7, message.getInt(MsgSeqNum.FIELD));
+        assertEquals("EUR/USD", message.getString(Symbol.FIELD));
+        assertEquals(500, message.getGroupCount(NoMDEntries.FIELD));
+        assertEquals(0, message.getGroupCount(NoRoutingIDs.FIELD));
+        //Fields of the group entries are not top-level fields
+        assertFalse(message.isSetField(MDEntryPx.FIELD));
+        assertThrows(FieldNotFound.class, () -> message.getString(MDEntryPx.FIELD));
+        assertEquals(snapshot.toString(), message.toString());
+    }
+
+    @Test
+    public void testGroupsMatchFullParse() throws Exception {
+        LazyMessage message = LazyMessage.of(snapshot(50).toString(), dataDictionary);
+        Message parsed = message.toMessage();
+
+        List<Group> groups = message.getGroups(NoMDEntries.FIELD);
+        List<Group> expected = parsed.getGroups(NoMDEntries.FIELD);
+        assertEquals(expected.size(), groups.size());
+        for (int i = 0; i < groups.size(); i++) {
+            assertGroupEquals(expected.get(i), groups.get(i));
+            assertEquals(1.0 + i, groups.get(i).getDouble(MDEntryPx.FIELD));
+        }
+        //Parsed once
+        assertSame(groups, message.getGroups(NoMDEntries.FIELD));
+        assertTrue(message.getGroups(NoRoutingIDs.FIELD).isEmpty());
+    }
+
+    @Test
+    public void testNestedGroups() throws Exception {
+        NewOrderList orderList = new NewOrderList();
+        orderList.set(new ListID("list1"));
+        orderList.set(new BidType(BidType.NO_BIDDING_PROCESS));
+        orderList.set(new TotNoOrders(2));
+        for (int i = 0; i < 2; i++) {
+            NewOrderList.NoOrders order = new NewOrderList.NoOrders();
+            order.set(new ClOrdID("order" + i));
+            order.set(new ListSeqNo(i));
+            order.set(new Side(Side.BUY));
+            NewOrderList.NoOrders.NoPartyIDs party = new NewOrderList.NoOrders.NoPartyIDs();
+            party.set(new PartyID("party" + i));
+            party.set(new PartyRole(PartyRole.CLIENT_ID));
+            order.addGroup(party);
+            orderList.addGroup(order);
+        }
+        orderList.setField(new LastFragment(true));
+
+        LazyMessage message = LazyMessage.of(orderList.toString(), dataDictionary);
+        assertEquals("list1", message.getString(ListID.FIELD));
+        //Field after the repeating group is still indexed
+        assertEquals("Y", message.getString(LastFragment.FIELD));
+
+        List<Group> orders = message.getGroups(NoOrders.FIELD);
+        assertEquals(2, orders.size());
+        assertEquals("order1", orders.get(1).getString(ClOrdID.FIELD));
+        assertEquals("party1", orders.get(1).getGroups(NoPartyIDs.FIELD).get(0).getString(PartyID.FIELD));
+        assertGroupEquals(message.toMessage().getGroups(NoOrders.FIELD).get(1), orders.get(1));
+    }
+
+    @Test
+    public void testWithoutDataDictionary() throws Exception {
+        LazyMessage message = LazyMessage.of(snapshot(3).toString(), null);
+        assertEquals("req1", message.getString(MDReqID.FIELD));
+        //Like a message parsed without a DataDictionary, group fields are visible at the top level
+        assertEquals(1.0, message.getDouble(MDEntryPx.FIELD));
+        assertTrue(message.getGroups(NoMDEntries.FIELD).isEmpty());
+    }
+
+    private static void assertGroupEquals(Group expected, Group actual) throws FieldNotFound {
+        Iterator<Field<?>> fields = expected.iterator();
+        int count = 0;
+        while (fields.hasNext()) {
+            Field<?> field = fields.next();
+            assertEquals(expected.getString(field.getTag()), actual.getString(field.getTag()));
+            count++;
+        }
+        Iterator<Field<?>> actualFields = actual.iterator();
+        while (actualFields.hasNext()) {
+            actualFields.next();
+            count--;
+        }
+        assertEquals(0, count);
+        Iterator<Integer> groupKeys = expected.groupKeyIterator();
+        while (groupKeys.hasNext()) {
+            int groupTag = groupKeys.next();
+            List<Group> expectedGroups = expected.getGroups(groupTag);
+            List<Group> actualGroups = actual.getGroups(groupTag);
+            assertEquals(expectedGroups.size(), actualGroups.size());
+            for (int i = 0; i < expectedGroups.size(); i++) {
+                assertGroupEquals(expectedGroups.get(i), actualGroups.get(i));
+            }
+        }
+    }
+
+    private static MarketDataSnapshotFullRefresh snapshot(int entries) {
+        MarketDataSnapshotFullRefresh snapshot = new MarketDataSnapshotFullRefresh();
+        snapshot.getHeader().setField(new SenderCompID("SENDER"));
+        snapshot.getHeader().setField(new TargetCompID("TARGET"));
+        snapshot.getHeader().setField(new MsgSeqNum(7));
+        snapshot.set(new MDReqID("req1"));
+        snapshot.set(new Symbol("EUR/USD"));
+        for (int i = 0; i < entries; i++) {
+            MarketDataSnapshotFullRefresh.NoMDEntries entry = new MarketDataSnapshotFullRefresh.NoMDEntries();
+            entry.set(new MDEntryType(i % 2 == 0 ? MDEntryType.BID : MDEntryType.OFFER));
+            entry.set(new MDEntryPx(1.0 + i));
+            entry.set(new MDEntrySize(1000));
+            snapshot.addGroup(entry);
+        }
+        return snapshot;
+    }
+}
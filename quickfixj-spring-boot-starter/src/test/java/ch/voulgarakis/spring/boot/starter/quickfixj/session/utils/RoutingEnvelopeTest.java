@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.utils;
+
+import org.junit.jupiter.api.Test;
+import quickfix.Message;
+import quickfix.field.*;
+import quickfix.fix43.BusinessMessageReject;
+import quickfix.fix43.ExecutionReport;
+import quickfix.fix43.MarketDataRequest;
+import quickfix.fix43.MarketDataSnapshotFullRefresh;
+import quickfix.fix43.NewOrderSingle;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RoutingEnvelopeTest {
+
+    @Test
+    public void testMarketDataEnvelope() {
+        MarketDataSnapshotFullRefresh snapshot = new MarketDataSnapshotFullRefresh();
+        snapshot.getHeader().setField(new MsgSeqNum(7));
+        snapshot.set(new MDReqID("req1"));
+        for (int i = 0; i < 100; i++) {
+            MarketDataSnapshotFullRefresh.NoMDEntries entry = new MarketDataSnapshotFullRefresh.NoMDEntries();
+            entry.set(new MDEntryType(MDEntryType.BID));
+            entry.set(new MDEntryPx(1.0 + i));
+            snapshot.addGroup(entry);
+        }
+
+        RoutingEnvelope envelope = RoutingEnvelope.of(snapshot);
+        assertEquals(MsgType.MARKET_DATA_SNAPSHOT_FULL_REFRESH, envelope.getMsgType());
+        assertEquals("7", envelope.getMsgSeqNum());
+        assertEquals("req1", envelope.getRefId(0));
+        assertTrue(envelope.matchesRefId("req1", String::equals));
+        assertFalse(envelope.matchesRefId("req2", String::equals));
+    }
+
+    @Test
+    public void testExecutionReportEnvelope() {
+        ExecutionReport executionReport = new ExecutionReport();
+        executionReport.set(new ClOrdID("order1"));
+
+        RoutingEnvelope envelope = RoutingEnvelope.of(executionReport);
+        assertNull(envelope.getRefId(0));
+        assertEquals("order1", envelope.getRefId(1));
+        assertEquals(FixMessageUtils.safeGetRefIdForResponse(executionReport).get(0), envelope.getRefId(1));
+        assertNull(RoutingEnvelope.of(null));
+        assertNull(RoutingEnvelope.of(new Message()));
+    }
+
+    @Test
+    public void testRefIdSelector() {
+        MarketDataRequest request = new MarketDataRequest();
+        request.set(new MDReqID("req1"));
+        request.getHeader().setField(new MsgSeqNum(5));
+        RefIdSelector selector = new RefIdSelector(request);
+
+        MarketDataSnapshotFullRefresh response = new MarketDataSnapshotFullRefresh();
+        response.set(new MDReqID("req1"));
+        assertTrue(selector.test(response));
+        response.set(new MDReqID("req2"));
+        assertFalse(selector.test(response));
+
+        BusinessMessageReject reject = new BusinessMessageReject();
+        reject.set(new RefSeqNum(5));
+        assertTrue(selector.test(reject));
+        assertTrue(selector.test(RoutingEnvelope.of(reject), reject));
+        reject.set(new RefSeqNum(6));
+        assertFalse(selector.test(reject));
+
+        NewOrderSingle order = new NewOrderSingle();
+        order.set(new ClOrdID("order1"));
+        RefIdSelector orderSelector = new RefIdSelector(order);
+        ExecutionReport executionReport = new ExecutionReport();
+        executionReport.set(new ClOrdID("order1"));
+        assertTrue(orderSelector.test(executionReport));
+        assertEquals("order1", orderSelector.toString());
+    }
+}
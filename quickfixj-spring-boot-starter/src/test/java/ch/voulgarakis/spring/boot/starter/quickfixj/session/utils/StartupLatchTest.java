@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.utils;
+
+import ch.voulgarakis.spring.boot.starter.quickfixj.exception.QuickFixJConfigurationException;
+import ch.voulgarakis.spring.boot.starter.quickfixj.exception.QuickFixJException;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.FixConnectionType;
+import org.junit.jupiter.api.Test;
+import quickfix.SessionID;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StartupLatchTest {
+
+    private final SessionID session1 = new SessionID("FIX.4.3", "SENDER", "TARGET1");
+    private final SessionID session2 = new SessionID("FIX.4.3", "SENDER", "TARGET2");
+    private final SessionID session3 = new SessionID("FIX.4.3", "SENDER", "TARGET3");
+
+    private Map<SessionID, String> sessions() {
+        Map<SessionID, String> sessions = new LinkedHashMap<>();
+        sessions.put(session1, "session1");
+        sessions.put(session2, "session2");
+        sessions.put(session3, "session3");
+        return sessions;
+    }
+
+    @Test
+    public void testQuorum() {
+        StartupLatch startupLatch = new StartupLatch(sessions(), FixConnectionType.INITIATOR,
+                Duration.ofMillis(100), 2, Collections.emptyList());
+        List<FixSessionReadyEvent> events = new ArrayList<>();
+        startupLatch.setApplicationEventPublisher(event -> events.add((FixSessionReadyEvent) event));
+
+        startupLatch.loggedOn(session1);
+        //Re-connections do not count
+        startupLatch.loggedOn(session1);
+        assertFalse(startupLatch.startup().isDone());
+        assertTrue(startupLatch.isReady(session1));
+        assertFalse(startupLatch.isReady(session2));
+        assertThrows(QuickFixJException.class, startupLatch::await);
+
+        //Creation does not count for initiators
+        startupLatch.created(session3);
+        assertFalse(startupLatch.startup().isDone());
+
+        startupLatch.loggedOn(session3);
+        startupLatch.await();
+        assertFalse(startupLatch.readiness(session2).isDone());
+        assertEquals(session3, startupLatch.readiness(session3).join());
+
+        assertEquals(2, events.size());
+        assertEquals(session1, events.get(0).getSessionId());
+        assertEquals("session1", events.get(0).getSessionName());
+        assertEquals(session3, events.get(1).getSessionId());
+    }
+
+    @Test
+    public void testRequiredSessions() {
+        StartupLatch startupLatch = new StartupLatch(sessions(), FixConnectionType.ACCEPTOR,
+                Duration.ofMillis(100), 1, Collections.singletonList("session2"));
+
+        startupLatch.created(session1);
+        assertFalse(startupLatch.startup().isDone());
+
+        startupLatch.created(session2);
+        startupLatch.await();
+        assertFalse(startupLatch.isReady(session3));
+    }
+
+    @Test
+    public void testRequiredSessionBySessionId() {
+        StartupLatch startupLatch = new StartupLatch(sessions(), FixConnectionType.ACCEPTOR,
+                Duration.ofMillis(100), 0, Collections.singletonList(session3.toString()));
+        assertFalse(startupLatch.startup().isDone());
+        startupLatch.created(session3);
+        assertTrue(startupLatch.startup().isDone());
+    }
+
+    @Test
+    public void testAllSessionsByDefault() {
+        StartupLatch startupLatch = new StartupLatch(sessions(), FixConnectionType.ACCEPTOR,
+                Duration.ofMillis(100), null, Collections.emptyList());
+        startupLatch.created(session1);
+        startupLatch.created(session2);
+        assertFalse(startupLatch.startup().isDone());
+        startupLatch.created(session3);
+        assertTrue(startupLatch.startup().isDone());
+    }
+
+    @Test
+    public void testSessionsCreatedLaterAreIgnored() {
+        StartupLatch startupLatch = new StartupLatch(sessions(), FixConnectionType.ACCEPTOR,
+                Duration.ofMillis(100), 2, Collections.emptyList());
+        List<FixSessionReadyEvent> events = new ArrayList<>();
+        startupLatch.setApplicationEventPublisher(event -> events.add((FixSessionReadyEvent) event));
+
+        //E.g. a counterparty of an acceptor template, or a session added by a live reload
+        SessionID counterparty = new SessionID("FIX.4.3", "SENDER", "COUNTERPARTY");
+        startupLatch.created(counterparty);
+        startupLatch.created(session1);
+        assertFalse(startupLatch.startup().isDone());
+        assertFalse(startupLatch.isReady(counterparty));
+        assertTrue(events.stream().noneMatch(event -> counterparty.equals(event.getSessionId())));
+
+        startupLatch.created(session2);
+        assertTrue(startupLatch.startup().isDone());
+    }
+
+    @Test
+    public void testUnknownRequiredSession() {
+        assertThrows(QuickFixJConfigurationException.class, () -> new StartupLatch(sessions(),
+                FixConnectionType.ACCEPTOR, null, null, Collections.singletonList("unknown")));
+    }
+}
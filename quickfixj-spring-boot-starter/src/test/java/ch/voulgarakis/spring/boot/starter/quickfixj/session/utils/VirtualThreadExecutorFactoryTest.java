@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2020 Georgios Voulgarakis
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.voulgarakis.spring.boot.starter.quickfixj.session.utils;
+
+import ch.voulgarakis.spring.boot.starter.quickfixj.exception.QuickFixJConfigurationException;
+import ch.voulgarakis.spring.boot.starter.quickfixj.session.FixConnectionType;
+import org.junit.jupiter.api.Test;
+import quickfix.SessionSettings;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VirtualThreadExecutorFactoryTest {
+
+    @Test
+    public void testVirtualConnectionType() throws Exception {
+        FixConnectionType acceptorType = FixConnectionType.of(settings("acceptor", "virtual"));
+        FixConnectionType initiatorType = FixConnectionType.of(settings("initiator", "Virtual"));
+        if (VirtualThreadExecutorFactory.isSupported()) {
+            assertEquals(FixConnectionType.ACCEPTOR_VIRTUAL, acceptorType);
+            assertEquals(FixConnectionType.INITIATOR_VIRTUAL, initiatorType);
+        } else {
+            //Fallback to platform threads
+            assertEquals(FixConnectionType.ACCEPTOR_THREADED, acceptorType);
+            assertEquals(FixConnectionType.INITIATOR_THREADED, initiatorType);
+        }
+        assertEquals(FixConnectionType.INITIATOR_THREADED, FixConnectionType.of(settings("initiator", "Y")));
+        assertEquals(FixConnectionType.INITIATOR, FixConnectionType.of(settings("initiator", "N")));
+    }
+
+    @Test
+    public void testExecutor() throws Exception {
+        if (!VirtualThreadExecutorFactory.isSupported()) {
+            assertThrows(QuickFixJConfigurationException.class, VirtualThreadExecutorFactory::new);
+            return;
+        }
+        VirtualThreadExecutorFactory executorFactory = new VirtualThreadExecutorFactory();
+        assertNull(executorFactory.getShortLivedExecutor());
+
+        CompletableFuture<Boolean> isVirtual = new CompletableFuture<>();
+        executorFactory.getLongLivedExecutor().execute(() -> {
+            try {
+                isVirtual.complete((Boolean) Thread.class.getMethod("isVirtual").invoke(Thread.currentThread()));
+            } catch (ReflectiveOperationException e) {
+                isVirtual.completeExceptionally(e);
+            }
+        });
+        assertTrue(isVirtual.get(5, TimeUnit.SECONDS));
+    }
+
+    private static SessionSettings settings(String connectionType, String threaded) throws Exception {
+        return new SessionSettings(new ByteArrayInputStream(("[default]\n"
+                + "ConnectionType=" + connectionType + "\n"
+                + "Threaded=" + threaded + "\n").getBytes(StandardCharsets.UTF_8)));
+    }
+}